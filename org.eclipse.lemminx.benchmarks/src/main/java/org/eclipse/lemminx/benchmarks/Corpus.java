@@ -0,0 +1,38 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+/**
+ * Size of the generated library corpus.
+ *
+ */
+public enum Corpus {
+
+	SMALL(4 * 1024), //
+	ONE_MB(1024 * 1024), //
+	FIFTY_MB(50 * 1024 * 1024);
+
+	private final int size;
+
+	private Corpus(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Returns the minimal size (in chars) of the generated corpus.
+	 *
+	 * @return the minimal size (in chars) of the generated corpus.
+	 */
+	public int getSize() {
+		return size;
+	}
+}
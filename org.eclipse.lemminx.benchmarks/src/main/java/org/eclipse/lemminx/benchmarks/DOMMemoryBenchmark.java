@@ -0,0 +1,110 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElementIndex;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the heap retained by the DOM document of the library corpus.
+ *
+ * <p>
+ * The DOM document is parsed with the full DOM model ('full' model) or with
+ * the large file model ('largeFile' model: {@link DOMElementIndex} and DOM
+ * nodes created on demand). The result is the 'retainedBytesPerMB' counter
+ * (the time includes the garbage collections done to measure the heap).
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class DOMMemoryBenchmark {
+
+	private static final long MB = 1024 * 1024;
+
+	@Param({ "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	@Param({ "full", "largeFile" })
+	public String model;
+
+	private LibraryCorpus library;
+
+	private TextDocument document;
+
+	/**
+	 * Heap retained by the DOM document per MB of XML.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RetainedHeap {
+
+		public long retainedBytesPerMB;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			retainedBytesPerMB = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, Grammar.DTD);
+		document = new TextDocument(library.getText(), library.getUri());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		library.delete();
+	}
+
+	@Benchmark
+	public DOMDocument parse(RetainedHeap heap) {
+		long before = usedHeap();
+		DOMDocument xmlDocument = "largeFile".equals(model)
+				? DOMParser.getInstance().parseLargeFile(document, null, true, null)
+				: DOMParser.getInstance().parse(document, null);
+		long after = usedHeap();
+		heap.retainedBytesPerMB = (after - before) * MB / document.getTextLength();
+		return xmlDocument;
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
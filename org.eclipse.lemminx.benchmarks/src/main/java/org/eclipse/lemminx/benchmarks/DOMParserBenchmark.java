@@ -0,0 +1,67 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the {@link DOMParser} which parses the library corpus.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DOMParserBenchmark {
+
+	@Param({ "SMALL", "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	private LibraryCorpus library;
+
+	private TextDocument document;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, Grammar.DTD);
+		document = new TextDocument(library.getText(), library.getUri());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		library.delete();
+	}
+
+	@Benchmark
+	public DOMDocument parse() {
+		return DOMParser.getInstance().parse(document, null);
+	}
+}
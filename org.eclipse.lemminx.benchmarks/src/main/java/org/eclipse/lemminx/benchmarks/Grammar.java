@@ -0,0 +1,55 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+/**
+ * Grammar which is bound to the generated library corpus.
+ *
+ */
+public enum Grammar {
+
+	XSD("library.xsd", //
+			"<library xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"library.xsd\">"), //
+	DTD("library.dtd", //
+			"<!DOCTYPE library SYSTEM \"library.dtd\">\n<library>"), //
+	RNG("library.rng", //
+			"<?xml-model href=\"library.rng\" type=\"application/xml\" schematypens=\"http://relaxng.org/ns/structure/1.0\"?>\n<library>");
+
+	private final String fileName;
+
+	private final String binding;
+
+	private Grammar(String fileName, String binding) {
+		this.fileName = fileName;
+		this.binding = binding;
+	}
+
+	/**
+	 * Returns the grammar file name.
+	 *
+	 * @return the grammar file name.
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Returns the XML content which binds the library root element to the
+	 * grammar.
+	 *
+	 * @return the XML content which binds the library root element to the
+	 *         grammar.
+	 */
+	public String getBinding() {
+		return binding;
+	}
+}
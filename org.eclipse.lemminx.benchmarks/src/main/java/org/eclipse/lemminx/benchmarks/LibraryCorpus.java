@@ -0,0 +1,234 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lemminx.extensions.references.settings.XMLReferenceExpression;
+import org.eclipse.lemminx.extensions.references.settings.XMLReferences;
+import org.eclipse.lemminx.extensions.references.settings.XMLReferencesSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lemminx.services.extensions.save.AbstractSaveContext;
+
+/**
+ * Generated library corpus used by the benchmarks.
+ *
+ * <p>
+ * The corpus is a list of books bound to a grammar (XML Schema, DTD, RelaxNG)
+ * which is stored in a temporary directory:
+ * </p>
+ *
+ * <pre>
+ * &lt;library&gt;
+ * 	&lt;book id="b1" lang="fr"&gt;
+ * 		&lt;title&gt;Title 1&lt;/title&gt;
+ * 		&lt;author&gt;Author 1&lt;/author&gt;
+ * 		&lt;description&gt;...&lt;/description&gt;
+ * 		&lt;related ref="b0" /&gt;
+ * 	&lt;/book&gt;
+ * &lt;/library&gt;
+ * </pre>
+ *
+ */
+public class LibraryCorpus {
+
+	private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+	private final Path directory;
+
+	private final String uri;
+
+	private final String text;
+
+	private final int middleBookOffset;
+
+	private LibraryCorpus(Path directory, String uri, String text, int middleBookOffset) {
+		this.directory = directory;
+		this.uri = uri;
+		this.text = text;
+		this.middleBookOffset = middleBookOffset;
+	}
+
+	/**
+	 * Generates the library corpus with the given size bound to the given
+	 * grammar.
+	 *
+	 * @param corpus  the corpus size.
+	 * @param grammar the grammar.
+	 *
+	 * @return the generated library corpus.
+	 *
+	 * @throws IOException
+	 */
+	public static LibraryCorpus create(Corpus corpus, Grammar grammar) throws IOException {
+		Path directory = Files.createTempDirectory("lemminx-benchmarks");
+		try (InputStream in = LibraryCorpus.class.getResourceAsStream("/grammars/" + grammar.getFileName())) {
+			Files.copy(in, directory.resolve(grammar.getFileName()));
+		}
+		StringBuilder xml = new StringBuilder(corpus.getSize() + 1024);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml.append(grammar.getBinding());
+		xml.append('\n');
+		int count = 0;
+		while (xml.length() < corpus.getSize()) {
+			appendBook(count++, xml);
+		}
+		xml.append("</library>");
+		String text = xml.toString();
+		int middleBookOffset = text.indexOf("<book id=\"b" + (count / 2) + "\"");
+		String uri = directory.resolve("library.xml").toUri().toString();
+		return new LibraryCorpus(directory, uri, text, middleBookOffset);
+	}
+
+	private static void appendBook(int index, StringBuilder xml) {
+		xml.append("\t<book id=\"b").append(index).append("\" lang=\"").append(index % 2 == 0 ? "en" : "fr")
+				.append("\">\n");
+		xml.append("\t\t<title>Title ").append(index).append("</title>\n");
+		xml.append("\t\t<author>Author ").append(index % 97).append("</author>\n");
+		xml.append("\t\t<description>").append(DESCRIPTION).append("</description>\n");
+		if (index > 0) {
+			xml.append("\t\t<related ref=\"b").append(index - 1).append("\" />\n");
+		}
+		xml.append("\t</book>\n");
+	}
+
+	/**
+	 * Returns the URI of the library XML file.
+	 *
+	 * @return the URI of the library XML file.
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * Returns the XML content of the library.
+	 *
+	 * @return the XML content of the library.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns the offset of the '&lt;book' start tag in the middle of the
+	 * library.
+	 *
+	 * @return the offset of the '&lt;book' start tag in the middle of the
+	 *         library.
+	 */
+	public int getMiddleBookOffset() {
+		return middleBookOffset;
+	}
+
+	/**
+	 * Returns the offset of the '&lt;author' start tag of the book in the middle
+	 * of the library.
+	 *
+	 * @return the offset of the '&lt;author' start tag of the book in the middle
+	 *         of the library.
+	 */
+	public int getMiddleAuthorOffset() {
+		return text.indexOf("<author", middleBookOffset);
+	}
+
+	/**
+	 * Returns the offset inside the id attribute value of the book in the middle
+	 * of the library.
+	 *
+	 * @return the offset inside the id attribute value of the book in the middle
+	 *         of the library.
+	 */
+	public int getMiddleBookIdOffset() {
+		return middleBookOffset + "<book id=\"b".length();
+	}
+
+	/**
+	 * Parses the library XML content.
+	 *
+	 * @param languageService the language service.
+	 *
+	 * @return the DOM document of the library.
+	 */
+	public DOMDocument parse(XMLLanguageService languageService) {
+		return DOMParser.getInstance().parse(new TextDocument(text, uri),
+				languageService.getResolverExtensionManager());
+	}
+
+	/**
+	 * Returns an initialized language service which uses the XML references
+	 * 'related/@ref' -> 'book/@id' for the library.
+	 *
+	 * @return an initialized language service.
+	 */
+	public XMLLanguageService createLanguageService() {
+		XMLLanguageService languageService = new XMLLanguageService();
+		languageService.initializeIfNeeded();
+
+		ContentModelSettings contentModelSettings = new ContentModelSettings();
+		contentModelSettings.setUseCache(false);
+		languageService.doSave(new SettingsSaveContext(contentModelSettings));
+
+		XMLReferenceExpression related = new XMLReferenceExpression();
+		related.setFrom("related/@ref");
+		related.setTo("book/@id");
+		XMLReferences references = new XMLReferences();
+		references.setPattern("**/library.xml");
+		references.setExpressions(Arrays.asList(related));
+		XMLReferencesSettings referencesSettings = new XMLReferencesSettings();
+		referencesSettings.setReferences(Collections.singletonList(references));
+		languageService.doSave(new SettingsSaveContext(referencesSettings));
+		return languageService;
+	}
+
+	/**
+	 * Deletes the temporary directory of the library.
+	 *
+	 * @throws IOException
+	 */
+	public void delete() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()) //
+					.forEach(file -> file.toFile().delete());
+		}
+	}
+
+	private static class SettingsSaveContext extends AbstractSaveContext {
+
+		public SettingsSaveContext(Object settings) {
+			super(settings);
+		}
+
+		@Override
+		public DOMDocument getDocument(String uri) {
+			return null;
+		}
+
+		@Override
+		public void collectDocumentToValidate(Predicate<DOMDocument> validateDocumentPredicate) {
+			// the benchmarks validate the library explicitly
+		}
+
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.commons.PieceTableTextStore;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link TextDocument#update(List)} which inserts a space in the
+ * middle of the library corpus and then gets the text content like the DOM
+ * parser does after a didChange.
+ *
+ * <p>
+ * The update is done by copying the whole text content ('string' text store)
+ * or by using a {@link PieceTableTextStore} ('pieceTable' text store).
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TextDocumentUpdateBenchmark {
+
+	private static final int NB_UPDATES = 100;
+
+	@Param({ "SMALL", "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	@Param({ "string", "pieceTable" })
+	public String textStore;
+
+	private LibraryCorpus library;
+
+	private TextDocument document;
+
+	private List<TextDocumentContentChangeEvent> changes;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, Grammar.DTD);
+	}
+
+	@Setup(Level.Iteration)
+	public void createDocument() throws Exception {
+		document = new TextDocument(library.getText(), library.getUri());
+		document.setIncremental(true);
+		document.setTextStore("pieceTable".equals(textStore) ? new PieceTableTextStore() : null);
+		Position position = document.positionAt(library.getMiddleAuthorOffset());
+		// Insert a space
+		changes = Collections.singletonList(new TextDocumentContentChangeEvent(new Range(position, position), 0, " "));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		library.delete();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_UPDATES)
+	public String update() {
+		for (int i = 0; i < NB_UPDATES; i++) {
+			document.update(changes);
+		}
+		return document.getText();
+	}
+}
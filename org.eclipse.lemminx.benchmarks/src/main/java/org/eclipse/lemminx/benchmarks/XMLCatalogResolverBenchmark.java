@@ -0,0 +1,147 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.lemminx.extensions.contentmodel.uriresolver.XMLCatalogResolverExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the resolution throughput of the XML catalog resolver with
+ * catalogs which have a lot of entries.
+ *
+ * <p>
+ * The catalog has the given number of system, uri, rewriteSystem and
+ * delegateURI entries and a next catalog with the same number of entries.
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XMLCatalogResolverBenchmark {
+
+	private static final String BASE_URI = "file:///project/document.xml";
+
+	@Param({ "100", "10000" })
+	public int entries;
+
+	private Path directory;
+
+	private XMLCatalogResolverExtension resolver;
+
+	private String systemId;
+
+	private String namespaceURI;
+
+	private String rewrittenSystemId;
+
+	private String nextCatalogSystemId;
+
+	private String unknownSystemId;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		directory = Files.createTempDirectory("lemminx-benchmarks");
+		Files.writeString(directory.resolve("next-catalog.xml"), createCatalog("next", null));
+		Files.writeString(directory.resolve("delegated-catalog.xml"), createCatalog("delegated", null));
+		Path catalog = directory.resolve("catalog.xml");
+		Files.writeString(catalog, createCatalog("main", "next-catalog.xml"));
+		resolver = new XMLCatalogResolverExtension();
+		resolver.setCatalogs(new String[] { catalog.toUri().toString() });
+
+		int middle = entries / 2;
+		systemId = "http://main.org/system/" + middle + ".dtd";
+		namespaceURI = "http://main.org/ns/" + middle;
+		rewrittenSystemId = "http://main.org/rewrite/" + middle + "/grammar.xsd";
+		nextCatalogSystemId = "http://next.org/system/" + middle + ".dtd";
+		unknownSystemId = "http://unknown.org/system/" + middle + ".dtd";
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()) //
+					.forEach(file -> file.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public String resolveSystem() {
+		return resolver.resolve(BASE_URI, null, systemId);
+	}
+
+	@Benchmark
+	public String resolveNamespaceURI() {
+		return resolver.resolve(BASE_URI, namespaceURI, null);
+	}
+
+	@Benchmark
+	public String resolveRewriteSystem() {
+		return resolver.resolve(BASE_URI, null, rewrittenSystemId);
+	}
+
+	@Benchmark
+	public String resolveWithNextCatalog() {
+		return resolver.resolve(BASE_URI, null, nextCatalogSystemId);
+	}
+
+	@Benchmark
+	public String resolveUnknown() {
+		return resolver.resolve(BASE_URI, null, unknownSystemId);
+	}
+
+	@Benchmark
+	public void refreshCatalogs() {
+		resolver.refreshCatalogs();
+	}
+
+	private String createCatalog(String name, String nextCatalog) {
+		StringBuilder catalog = new StringBuilder();
+		catalog.append("<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n");
+		for (int i = 0; i < entries; i++) {
+			catalog.append("\t<system systemId=\"http://").append(name).append(".org/system/").append(i)
+					.append(".dtd\" uri=\"dtd/").append(i).append(".dtd\" />\n");
+			catalog.append("\t<uri name=\"http://").append(name).append(".org/ns/").append(i)
+					.append("\" uri=\"xsd/").append(i).append(".xsd\" />\n");
+			catalog.append("\t<rewriteSystem systemIdStartString=\"http://").append(name).append(".org/rewrite/")
+					.append(i).append("/\" rewritePrefix=\"rewrite/").append(i).append("/\" />\n");
+			catalog.append("\t<delegateURI uriStartString=\"http://").append(name).append(".org/delegate/")
+					.append(i).append("/\" catalog=\"delegated-catalog.xml\" />\n");
+		}
+		if (nextCatalog != null) {
+			catalog.append("\t<nextCatalog catalog=\"").append(nextCatalog).append("\" />\n");
+		}
+		catalog.append("</catalog>");
+		return catalog.toString();
+	}
+}
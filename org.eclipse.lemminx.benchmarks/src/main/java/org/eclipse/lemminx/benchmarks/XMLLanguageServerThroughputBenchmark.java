@@ -0,0 +1,179 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.XMLLanguageServer;
+import org.eclipse.lemminx.XMLTextDocumentService;
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.commons.VirtualThreads;
+import org.eclipse.lemminx.customservice.XMLLanguageClientAPI;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.InitializeParams;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the {@link XMLLanguageServer} with 200 opened documents bound
+ * to the same grammar, with platform threads or with virtual threads (JDK 21+,
+ * see {@link VirtualThreads}).
+ *
+ * <p>
+ * The 'requests' benchmark sends a completion and a hover for each document
+ * and waits for all the responses. The 'validation' benchmark validates all the
+ * documents with the background priority.
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XMLLanguageServerThroughputBenchmark {
+
+	private static final int NB_DOCUMENTS = 200;
+
+	@Param({ "false", "true" })
+	public boolean virtualThreads;
+
+	@Param({ "XSD", "DTD" })
+	public Grammar grammar;
+
+	private LibraryCorpus library;
+
+	private XMLLanguageServer server;
+
+	private XMLTextDocumentService textDocumentService;
+
+	private List<String> uris;
+
+	private Position completionPosition;
+
+	private Position hoverPosition;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		// The property must be set before creating the server
+		System.setProperty(VirtualThreads.VIRTUAL_THREADS_PROPERTY, String.valueOf(virtualThreads));
+		library = LibraryCorpus.create(Corpus.SMALL, grammar);
+		TextDocument document = new TextDocument(library.getText(), library.getUri());
+		completionPosition = document.positionAt(library.getMiddleAuthorOffset());
+		hoverPosition = document.positionAt(library.getMiddleBookOffset() + 2);
+
+		server = new XMLLanguageServer();
+		server.setClient(createClient());
+		server.initialize(new InitializeParams()).get();
+		server.initialized(new InitializedParams());
+		textDocumentService = (XMLTextDocumentService) server.getTextDocumentService();
+		// All the requests are sent at once, they must not be evicted from the queues
+		textDocumentService.getRequestScheduler().configure(Priority.INTERACTIVE, 0, NB_DOCUMENTS * 2);
+		textDocumentService.getRequestScheduler().configure(Priority.BACKGROUND, 0, NB_DOCUMENTS);
+
+		uris = new ArrayList<>(NB_DOCUMENTS);
+		for (int i = 0; i < NB_DOCUMENTS; i++) {
+			// The documents are in the directory of the grammar
+			String uri = library.getUri().replace("library.xml", "library-" + i + ".xml");
+			textDocumentService.didOpen(
+					new DidOpenTextDocumentParams(new TextDocumentItem(uri, "xml", 1, library.getText())));
+			uris.add(uri);
+		}
+		// Parse the documents and load the grammar
+		validation();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		textDocumentService.getRequestScheduler().shutdown();
+		server.getXMLLanguageService().dispose();
+		library.delete();
+		System.clearProperty(VirtualThreads.VIRTUAL_THREADS_PROPERTY);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_DOCUMENTS * 2)
+	public void requests() {
+		List<CompletableFuture<?>> responses = new ArrayList<>(NB_DOCUMENTS * 2);
+		for (String uri : uris) {
+			TextDocumentIdentifier identifier = new TextDocumentIdentifier(uri);
+			responses.add(textDocumentService.completion(new CompletionParams(identifier, completionPosition)));
+			responses.add(textDocumentService.hover(new HoverParams(identifier, hoverPosition)));
+		}
+		CompletableFuture.allOf(responses.toArray(new CompletableFuture[responses.size()])).join();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_DOCUMENTS)
+	public void validation() {
+		List<CompletableFuture<?>> validations = new ArrayList<>(NB_DOCUMENTS);
+		for (String uri : uris) {
+			validations.add(textDocumentService.getRequestScheduler().computeAsync(Priority.BACKGROUND,
+					cancelChecker -> {
+						DOMDocument document = server.getDocument(uri);
+						server.validate(document, Collections.emptyMap());
+						return null;
+					}));
+		}
+		CompletableFuture.allOf(validations.toArray(new CompletableFuture[validations.size()])).join();
+	}
+
+	/**
+	 * Returns a language client which ignores the notifications (diagnostics,
+	 * etc) and completes the requests with null.
+	 *
+	 * @return a language client which ignores the notifications.
+	 */
+	private static XMLLanguageClientAPI createClient() {
+		return (XMLLanguageClientAPI) Proxy.newProxyInstance(XMLLanguageClientAPI.class.getClassLoader(),
+				new Class<?>[] { XMLLanguageClientAPI.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "toString":
+						return "NoOpLanguageClient";
+					default:
+						return CompletableFuture.class.isAssignableFrom(method.getReturnType())
+								? CompletableFuture.completedFuture(null)
+								: null;
+					}
+				});
+	}
+}
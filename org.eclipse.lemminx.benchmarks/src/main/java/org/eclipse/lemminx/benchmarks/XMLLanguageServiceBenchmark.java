@@ -0,0 +1,120 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.services.DocumentSymbolsResult;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lemminx.settings.XMLFoldingSettings;
+import org.eclipse.lemminx.settings.XMLSymbolSettings;
+import org.eclipse.lsp4j.FoldingRange;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.ReferenceContext;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link XMLLanguageService} operations which don't depend
+ * on the grammar bound to the XML document (format, symbols, folding, XML
+ * references).
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XMLLanguageServiceBenchmark {
+
+	private static final CancelChecker NO_CANCEL = () -> {
+	};
+
+	@Param({ "SMALL", "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	private LibraryCorpus library;
+
+	private XMLLanguageService languageService;
+
+	private SharedSettings sharedSettings;
+
+	private XMLSymbolSettings symbolSettings;
+
+	private XMLFoldingSettings foldingSettings;
+
+	private DOMDocument document;
+
+	private Position idPosition;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, Grammar.XSD);
+		languageService = library.createLanguageService();
+		sharedSettings = new SharedSettings();
+		symbolSettings = new XMLSymbolSettings();
+		foldingSettings = new XMLFoldingSettings();
+		document = library.parse(languageService);
+		languageService.setDocumentProvider(uri -> document);
+		idPosition = document.positionAt(library.getMiddleBookIdOffset());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		languageService.dispose();
+		library.delete();
+	}
+
+	@Benchmark
+	public List<? extends TextEdit> format() {
+		return languageService.format(document, null, sharedSettings);
+	}
+
+	@Benchmark
+	public DocumentSymbolsResult findDocumentSymbols() {
+		return languageService.findDocumentSymbols(document, symbolSettings, NO_CANCEL);
+	}
+
+	@Benchmark
+	public List<FoldingRange> getFoldingRanges() {
+		return languageService.getFoldingRanges(document, foldingSettings, NO_CANCEL);
+	}
+
+	@Benchmark
+	public List<? extends Location> findReferences() {
+		return languageService.findReferences(document, idPosition, new ReferenceContext(true), NO_CANCEL);
+	}
+
+	@Benchmark
+	public WorkspaceEdit doRename() {
+		return languageService.doRename(document, idPosition, "renamed", NO_CANCEL);
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationRootSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link XMLLanguageService} operations which use the
+ * grammar (XML Schema, DTD, RelaxNG) bound to the XML document.
+ *
+ * <p>
+ * The grammar is loaded by the trial setup, so the benchmarks measure the
+ * operations with a grammar which is already in the grammar pool, like in an
+ * editing session.
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XMLLanguageServiceGrammarBenchmark {
+
+	private static final CancelChecker NO_CANCEL = () -> {
+	};
+
+	@Param({ "SMALL", "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	@Param({ "XSD", "DTD", "RNG" })
+	public Grammar grammar;
+
+	private LibraryCorpus library;
+
+	private XMLLanguageService languageService;
+
+	private SharedSettings sharedSettings;
+
+	private XMLValidationRootSettings validationSettings;
+
+	private DOMDocument document;
+
+	private Position completionPosition;
+
+	private Position hoverPosition;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, grammar);
+		languageService = library.createLanguageService();
+		sharedSettings = new SharedSettings();
+		validationSettings = new XMLValidationRootSettings();
+		document = library.parse(languageService);
+		languageService.setDocumentProvider(uri -> document);
+		completionPosition = document.positionAt(library.getMiddleAuthorOffset());
+		hoverPosition = document.positionAt(library.getMiddleBookOffset() + 2);
+		// Load the grammar
+		languageService.doDiagnostics(document, validationSettings, Collections.emptyMap(), NO_CANCEL);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		languageService.dispose();
+		library.delete();
+	}
+
+	@Benchmark
+	public CompletionList doComplete() {
+		return languageService.doComplete(document, completionPosition, sharedSettings, NO_CANCEL);
+	}
+
+	@Benchmark
+	public Hover doHover() {
+		return languageService.doHover(document, hoverPosition, sharedSettings, NO_CANCEL);
+	}
+
+	@Benchmark
+	public List<Diagnostic> doDiagnostics() {
+		return languageService.doDiagnostics(document, validationSettings, Collections.emptyMap(), NO_CANCEL);
+	}
+}
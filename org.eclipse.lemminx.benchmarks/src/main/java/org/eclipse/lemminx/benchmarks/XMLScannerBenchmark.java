@@ -0,0 +1,76 @@
+/*******************************************************************************
+* Copyright (c) 2019 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.TokenType;
+import org.eclipse.lemminx.dom.parser.XMLScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of the {@link XMLScanner} which scans all tokens of the library
+ * corpus.
+ *
+ * <p>
+ * Run it with the 'gc' profiler ('-prof gc') to check the allocation rate of
+ * the scanner.
+ * </p>
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XMLScannerBenchmark {
+
+	@Param({ "SMALL", "ONE_MB", "FIFTY_MB" })
+	public Corpus corpus;
+
+	private LibraryCorpus library;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		library = LibraryCorpus.create(corpus, Grammar.DTD);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		library.delete();
+	}
+
+	@Benchmark
+	public void scan(Blackhole blackhole) {
+		Scanner scanner = XMLScanner.createScanner(library.getText());
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			blackhole.consume(token);
+			token = scanner.scan();
+		}
+	}
+}
@@ -13,6 +13,10 @@
  */
 package org.eclipse.lemminx;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
@@ -28,12 +32,15 @@ import java.util.stream.Collectors;
 import org.eclipse.lemminx.client.ExtendedClientCapabilities;
 import org.eclipse.lemminx.commons.ModelTextDocument;
 import org.eclipse.lemminx.commons.ParentProcessWatcher.ProcessLanguageServer;
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
 import org.eclipse.lemminx.commons.progress.ProgressSupport;
 import org.eclipse.lemminx.customservice.ActionableNotification;
 import org.eclipse.lemminx.customservice.AutoCloseTagResponse;
+import org.eclipse.lemminx.customservice.MetricsParams;
 import org.eclipse.lemminx.customservice.XMLLanguageClientAPI;
 import org.eclipse.lemminx.customservice.XMLLanguageServerAPI;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMDocumentCache;
 import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationRootSettings;
 import org.eclipse.lemminx.logs.LogHelper;
@@ -56,6 +63,8 @@ import org.eclipse.lemminx.settings.XMLTelemetrySettings;
 import org.eclipse.lemminx.settings.capabilities.InitializationOptionsExtendedClientCapabilities;
 import org.eclipse.lemminx.settings.capabilities.ServerCapabilitiesInitializer;
 import org.eclipse.lemminx.settings.capabilities.XMLCapabilityManager;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics.Format;
 import org.eclipse.lemminx.telemetry.TelemetryManager;
 import org.eclipse.lemminx.utils.FilesUtils;
 import org.eclipse.lemminx.utils.platform.Platform;
@@ -101,6 +110,7 @@ public class XMLLanguageServer implements ProcessLanguageServer, XMLLanguageServ
 
 		xmlLanguageService = new XMLLanguageService();
 		xmlLanguageService.setDocumentProvider(this);
+		DOMDocumentCache.getInstance().setOpenedDocumentsProvider(this);
 		xmlLanguageService.setNotificationService(this);
 		xmlLanguageService.setCommandService(xmlWorkspaceService);
 		xmlLanguageService.setValidationService(this);
@@ -224,6 +234,7 @@ public class XMLLanguageServer implements ProcessLanguageServer, XMLLanguageServ
 			if (serverSettings != null) {
 				String workDir = serverSettings.getNormalizedWorkDir();
 				FilesUtils.setCachePathSetting(workDir);
+				xmlTextDocumentService.updateServerSettings(serverSettings);
 			}
 		}
 		ContentModelSettings cmSettings = ContentModelSettings.getContentModelXMLSettings(initSettings);
@@ -253,6 +264,7 @@ public class XMLLanguageServer implements ProcessLanguageServer, XMLLanguageServ
 	@Override
 	public void exit(int exitCode) {
 		delayer.shutdown();
+		xmlTextDocumentService.getRequestScheduler().shutdown();
 		System.exit(exitCode);
 	}
 
@@ -291,16 +303,38 @@ public class XMLLanguageServer implements ProcessLanguageServer, XMLLanguageServ
 
 	@Override
 	public CompletableFuture<AutoCloseTagResponse> closeTag(TextDocumentPositionParams params) {
-		return xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().doAutoClose(xmlDocument, params.getPosition(),
-					getSharedSettings().getCompletionSettings(), cancelChecker);
-		});
+		return PerformanceMetrics.getInstance().track("xml/closeTag",
+				xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().doAutoClose(xmlDocument, params.getPosition(),
+							getSharedSettings().getCompletionSettings(), cancelChecker);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<Position> matchingTagPosition(TextDocumentPositionParams params) {
-		return xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().getMatchingTagPosition(xmlDocument, params.getPosition(), cancelChecker);
+		return PerformanceMetrics.getInstance().track("xml/matchingTagPosition",
+				xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().getMatchingTagPosition(xmlDocument, params.getPosition(),
+							cancelChecker);
+				}));
+	}
+
+	@Override
+	public CompletableFuture<Object> metrics(MetricsParams params) {
+		return xmlTextDocumentService.getRequestScheduler().computeAsync(Priority.INTERACTIVE, cancelChecker -> {
+			PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+			Format format = Format.get(params != null ? params.getFormat() : null);
+			String file = params != null ? params.getFile() : null;
+			if (file != null && !file.isBlank()) {
+				Path path = Paths.get(file).toAbsolutePath();
+				try {
+					metrics.export(path, format);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return path.toString();
+			}
+			return format == Format.PROMETHEUS ? metrics.toPrometheus() : metrics.toJSON();
 		});
 	}
 
@@ -18,11 +18,11 @@ import java.io.PrintStream;
 import java.net.Authenticator;
 import java.net.PasswordAuthentication;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import org.eclipse.lemminx.commons.ParentProcessWatcher;
+import org.eclipse.lemminx.commons.VirtualThreads;
 import org.eclipse.lemminx.customservice.XMLLanguageClientAPI;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
@@ -96,7 +96,7 @@ public class XMLServerLauncher {
 		} else {
 			wrapper = new ParentProcessWatcher(server);
 		}
-		Launcher<LanguageClient> launcher = createServerLauncher(server, in, out, Executors.newCachedThreadPool(), wrapper);
+		Launcher<LanguageClient> launcher = createServerLauncher(server, in, out, VirtualThreads.newCachedThreadPool(), wrapper);
 		server.setClient(launcher.getRemoteProxy());
 		return launcher.startListening();
 	}
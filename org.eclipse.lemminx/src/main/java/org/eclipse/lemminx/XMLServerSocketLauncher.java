@@ -19,8 +19,8 @@ import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.Channels;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
+import org.eclipse.lemminx.commons.VirtualThreads;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
 import org.eclipse.lsp4j.services.LanguageClient;
@@ -51,7 +51,7 @@ public class XMLServerSocketLauncher {
 			final AsynchronousSocketChannel socketChannel = serverSocket.accept().get();
 			final InputStream in = Channels.newInputStream(socketChannel);
 			final OutputStream out = Channels.newOutputStream(socketChannel);
-			final ExecutorService executorService = Executors.newCachedThreadPool();
+			final ExecutorService executorService = VirtualThreads.newCachedThreadPool();
 			XMLLanguageServer languageServer = new XMLLanguageServer();
 			final Launcher<LanguageClient> launcher = Launcher.createIoLauncher(languageServer, LanguageClient.class,
 					in, out, executorService, (MessageConsumer it) -> {
@@ -12,8 +12,6 @@
  */
 package org.eclipse.lemminx;
 
-import static org.eclipse.lsp4j.jsonrpc.CompletableFutures.computeAsync;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -25,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -32,12 +31,18 @@ import java.util.stream.Collectors;
 import org.eclipse.lemminx.client.ExtendedClientCapabilities;
 import org.eclipse.lemminx.client.LimitExceededWarner;
 import org.eclipse.lemminx.client.LimitFeature;
+import org.eclipse.lemminx.commons.ITextStore;
 import org.eclipse.lemminx.commons.ModelTextDocument;
 import org.eclipse.lemminx.commons.ModelTextDocuments;
 import org.eclipse.lemminx.commons.ModelValidatorDelayer;
+import org.eclipse.lemminx.commons.PieceTableTextStore;
+import org.eclipse.lemminx.commons.RequestScheduler;
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMDocumentCache;
 import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationRootSettings;
 import org.eclipse.lemminx.services.DocumentSymbolsResult;
 import org.eclipse.lemminx.services.SymbolInformationResult;
@@ -45,13 +50,18 @@ import org.eclipse.lemminx.services.XMLLanguageService;
 import org.eclipse.lemminx.services.data.DataEntryField;
 import org.eclipse.lemminx.services.extensions.save.AbstractSaveContext;
 import org.eclipse.lemminx.settings.CompositeSettings;
+import org.eclipse.lemminx.settings.ServerSettings;
 import org.eclipse.lemminx.settings.SharedSettings;
 import org.eclipse.lemminx.settings.XMLCodeLensSettings;
 import org.eclipse.lemminx.settings.XMLCompletionSettings;
 import org.eclipse.lemminx.settings.XMLFoldingSettings;
 import org.eclipse.lemminx.settings.XMLFormattingOptions;
 import org.eclipse.lemminx.settings.XMLPreferences;
+import org.eclipse.lemminx.settings.XMLSchedulerSettings;
+import org.eclipse.lemminx.settings.XMLSchedulerSettings.PoolSettings;
 import org.eclipse.lemminx.settings.XMLSymbolSettings;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lemminx.utils.XMLPositionUtility;
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.CodeAction;
@@ -121,6 +131,8 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	private static final Logger LOGGER = Logger.getLogger(XMLTextDocumentService.class.getName());
 
+	private static final Supplier<ITextStore> PIECE_TABLE_TEXT_STORE_FACTORY = PieceTableTextStore::new;
+
 	private final XMLLanguageServer xmlLanguageServer;
 	private final ModelTextDocuments<DOMDocument> documents;
 	private final ModelValidatorDelayer<DOMDocument> xmlValidatorDelayer;
@@ -198,13 +210,23 @@ public class XMLTextDocumentService implements TextDocumentService {
 		this.xmlLanguageServer = xmlLanguageServer;
 		DOMParser parser = DOMParser.getInstance();
 		this.documents = new ModelTextDocuments<DOMDocument>((document, cancelChecker) -> {
-			return parser.parse(document, getXMLLanguageService().getResolverExtensionManager(), true, cancelChecker);
-		});
+			URIResolverExtensionManager resolverExtensionManager = getXMLLanguageService()
+					.getResolverExtensionManager();
+			if (isLargeFile(document)) {
+				return parser.parseLargeFile(document, resolverExtensionManager, true, cancelChecker);
+			}
+			return parser.parse(document, resolverExtensionManager, true, cancelChecker);
+		}, new RequestScheduler());
 		this.sharedSettings = new SharedSettings();
 		this.limitExceededWarner = null;
-		this.xmlValidatorDelayer = new ModelValidatorDelayer<DOMDocument>((document) -> {
+		this.xmlValidatorDelayer = new ModelValidatorDelayer<DOMDocument>(getRequestScheduler(),
+				(document, cancelChecker) -> {
 			DOMDocument xmlDocument = document.getModel();
-			validate(xmlDocument, Collections.emptyMap());
+			// the validation is not cancelled when the document changes, the delayer lets
+			// it finish or cuts it off when a new validation is scheduled
+			DOMDocument.runWithCancelChecker(cancelChecker, () -> {
+				validate(xmlDocument, Collections.emptyMap(), cancelChecker);
+			});
 
 			getXMLLanguageService().getDocumentLifecycleParticipants().forEach(participant -> {
 				try {
@@ -260,33 +282,36 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(CompletionParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			CompletionList list = getXMLLanguageService().doComplete(xmlDocument, params.getPosition(), sharedSettings,
-					cancelChecker);
-			return Either.forRight(list);
-		});
+		return track("textDocument/completion",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					CompletionList list = getXMLLanguageService().doComplete(xmlDocument, params.getPosition(),
+							sharedSettings, cancelChecker);
+					return Either.forRight(list);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
-		return computeDOMAsync(unresolved.getData(), (xmlDocument, cancelChecker) -> {
+		return track("completionItem/resolve", computeDOMAsync(unresolved.getData(), (xmlDocument, cancelChecker) -> {
 			return getXMLLanguageService().resolveCompletionItem(unresolved, xmlDocument, sharedSettings,
 					cancelChecker);
-		});
+		}));
 	}
 
 	@Override
 	public CompletableFuture<Hover> hover(HoverParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+		return track("textDocument/hover", computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
 			return getXMLLanguageService().doHover(xmlDocument, params.getPosition(), sharedSettings, cancelChecker);
-		});
+		}));
 	}
 
 	@Override
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(DocumentHighlightParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().findDocumentHighlights(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		return track("textDocument/documentHighlight",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().findDocumentHighlights(xmlDocument, params.getPosition(),
+							cancelChecker);
+				}));
 	}
 
 	@Override
@@ -303,81 +328,85 @@ public class XMLTextDocumentService implements TextDocumentService {
 			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
 
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			boolean resultLimitExceeded = false;
-			List<Either<SymbolInformation, DocumentSymbol>> symbols = null;
-
-			if (hierarchicalDocumentSymbolSupport) {
-				DocumentSymbolsResult result = getXMLLanguageService().findDocumentSymbols(xmlDocument, symbolSettings,
-						cancelChecker);
-				resultLimitExceeded = result.isResultLimitExceeded();
-				symbols = result //
-						.stream() //
-						.map(s -> {
-							Either<SymbolInformation, DocumentSymbol> e = Either.forRight(s);
-							return e;
-						}) //
-						.collect(Collectors.toList());
-			} else {
-				SymbolInformationResult result = getXMLLanguageService().findSymbolInformations(xmlDocument,
-						symbolSettings, cancelChecker);
-				resultLimitExceeded = result.isResultLimitExceeded();
-				symbols = result.stream() //
-						.map(s -> {
-							Either<SymbolInformation, DocumentSymbol> e = Either.forLeft(s);
-							return e;
-						}) //
-						.collect(Collectors.toList());
-			}
-			if (resultLimitExceeded) {
-				// send warning
-				getLimitExceededWarner().onResultLimitExceeded(xmlDocument.getTextDocument().getUri(),
-						LimitFeature.SYMBOLS);
-			}
-			return symbols;
-		});
+		return track("textDocument/documentSymbol",
+				computeDOMAsync(params.getTextDocument(), Priority.UI, (xmlDocument, cancelChecker) -> {
+					boolean resultLimitExceeded = false;
+					List<Either<SymbolInformation, DocumentSymbol>> symbols = null;
+
+					if (hierarchicalDocumentSymbolSupport) {
+						DocumentSymbolsResult result = getXMLLanguageService().findDocumentSymbols(xmlDocument,
+								symbolSettings, cancelChecker);
+						resultLimitExceeded = result.isResultLimitExceeded();
+						symbols = result //
+								.stream() //
+								.map(s -> {
+									Either<SymbolInformation, DocumentSymbol> e = Either.forRight(s);
+									return e;
+								}) //
+								.collect(Collectors.toList());
+					} else {
+						SymbolInformationResult result = getXMLLanguageService().findSymbolInformations(xmlDocument,
+								symbolSettings, cancelChecker);
+						resultLimitExceeded = result.isResultLimitExceeded();
+						symbols = result.stream() //
+								.map(s -> {
+									Either<SymbolInformation, DocumentSymbol> e = Either.forLeft(s);
+									return e;
+								}) //
+								.collect(Collectors.toList());
+					}
+					if (resultLimitExceeded) {
+						// send warning
+						getLimitExceededWarner().onResultLimitExceeded(xmlDocument.getTextDocument().getUri(),
+								LimitFeature.SYMBOLS);
+					}
+					return symbols;
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			CompositeSettings settings = new CompositeSettings(getSharedSettings(), params.getOptions());
-			return getXMLLanguageService().format(xmlDocument, null, settings);
-		});
+		return track("textDocument/formatting",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					CompositeSettings settings = new CompositeSettings(getSharedSettings(), params.getOptions());
+					return getXMLLanguageService().format(xmlDocument, null, settings);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			CompositeSettings settings = new CompositeSettings(getSharedSettings(), params.getOptions());
-			return getXMLLanguageService().format(xmlDocument, params.getRange(), settings);
-		});
+		return track("textDocument/rangeFormatting",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					CompositeSettings settings = new CompositeSettings(getSharedSettings(), params.getOptions());
+					return getXMLLanguageService().format(xmlDocument, params.getRange(), settings);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> prepareRename(
 			PrepareRenameParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			Either<Range, PrepareRenameResult> either = getXMLLanguageService().prepareRename(xmlDocument,
-					params.getPosition(), cancelChecker);
-			if (either != null) {
-				if (either.isLeft()) {
-					return Either3.forFirst((Range) either.get());
-				} else {
-					return Either3.forSecond((PrepareRenameResult) either.get());
-				}
-			} else {
-				return Either3.forThird(new PrepareRenameDefaultBehavior());
-			}
-		});
+		return track("textDocument/prepareRename",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					Either<Range, PrepareRenameResult> either = getXMLLanguageService().prepareRename(xmlDocument,
+							params.getPosition(), cancelChecker);
+					if (either != null) {
+						if (either.isLeft()) {
+							return Either3.forFirst((Range) either.get());
+						} else {
+							return Either3.forSecond((PrepareRenameResult) either.get());
+						}
+					} else {
+						return Either3.forThird(new PrepareRenameDefaultBehavior());
+					}
+				}));
 	}
 
 	@Override
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+		return track("textDocument/rename", computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
 			return getXMLLanguageService().doRename(xmlDocument, params.getPosition(), params.getNewName(),
 					cancelChecker);
-		});
+		}));
 	}
 
 	@Override
@@ -404,6 +433,7 @@ public class XMLTextDocumentService implements TextDocumentService {
 		documents.onDidCloseTextDocument(params);
 		// Remove the validation from the delayer
 		xmlValidatorDelayer.cleanPendingValidation(uri);
+		PerformanceMetrics.getInstance().removeDocument(uri);
 		// Publish empty errors from the document
 		xmlLanguageServer.getLanguageClient()
 				.publishDiagnostics(new PublishDiagnosticsParams(uri, Collections.emptyList()));
@@ -423,59 +453,64 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().getFoldingRanges(xmlDocument, sharedSettings.getFoldingSettings(),
-					cancelChecker);
-		});
+		return track("textDocument/foldingRange",
+				computeDOMAsync(params.getTextDocument(), Priority.UI, (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().getFoldingRanges(xmlDocument, sharedSettings.getFoldingSettings(),
+							cancelChecker);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<DocumentLink>> documentLink(DocumentLinkParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().findDocumentLinks(xmlDocument);
-		});
+		return track("textDocument/documentLink",
+				computeDOMAsync(params.getTextDocument(), Priority.UI, (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().findDocumentLinks(xmlDocument);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> definition(
 			DefinitionParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			if (definitionLinkSupport) {
-				return Either.forRight(
-						getXMLLanguageService().findDefinition(xmlDocument, params.getPosition(), cancelChecker));
-			}
-			List<? extends Location> locations = getXMLLanguageService()
-					.findDefinition(xmlDocument, params.getPosition(), cancelChecker) //
-					.stream() //
-					.map(locationLink -> XMLPositionUtility.toLocation(locationLink)) //
-					.collect(Collectors.toList());
-			return Either.forLeft(locations);
-		});
+		return track("textDocument/definition",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					if (definitionLinkSupport) {
+						return Either.forRight(getXMLLanguageService().findDefinition(xmlDocument, params.getPosition(),
+								cancelChecker));
+					}
+					List<? extends Location> locations = getXMLLanguageService()
+							.findDefinition(xmlDocument, params.getPosition(), cancelChecker) //
+							.stream() //
+							.map(locationLink -> XMLPositionUtility.toLocation(locationLink)) //
+							.collect(Collectors.toList());
+					return Either.forLeft(locations);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> typeDefinition(
 			TypeDefinitionParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			if (typeDefinitionLinkSupport) {
-				return Either.forRight(
-						getXMLLanguageService().findTypeDefinition(xmlDocument, params.getPosition(), cancelChecker));
-			}
-			List<? extends Location> locations = getXMLLanguageService()
-					.findTypeDefinition(xmlDocument, params.getPosition(), cancelChecker) //
-					.stream() //
-					.map(locationLink -> XMLPositionUtility.toLocation(locationLink)) //
-					.collect(Collectors.toList());
-			return Either.forLeft(locations);
-		});
+		return track("textDocument/typeDefinition",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					if (typeDefinitionLinkSupport) {
+						return Either.forRight(getXMLLanguageService().findTypeDefinition(xmlDocument,
+								params.getPosition(), cancelChecker));
+					}
+					List<? extends Location> locations = getXMLLanguageService()
+							.findTypeDefinition(xmlDocument, params.getPosition(), cancelChecker) //
+							.stream() //
+							.map(locationLink -> XMLPositionUtility.toLocation(locationLink)) //
+							.collect(Collectors.toList());
+					return Either.forLeft(locations);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().findReferences(xmlDocument, params.getPosition(), params.getContext(),
-					cancelChecker);
-		});
+		return track("textDocument/references",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().findReferences(xmlDocument, params.getPosition(),
+							params.getContext(), cancelChecker);
+				}));
 	}
 
 	@Override
@@ -483,47 +518,51 @@ public class XMLTextDocumentService implements TextDocumentService {
 		if (!sharedSettings.getCodeLensSettings().isEnabled()) {
 			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().getCodeLens(xmlDocument, sharedSettings.getCodeLensSettings(),
-					cancelChecker);
-		});
+		return track("textDocument/codeLens",
+				computeDOMAsync(params.getTextDocument(), Priority.UI, (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().getCodeLens(xmlDocument, sharedSettings.getCodeLensSettings(),
+							cancelChecker);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
 		String uri = params.getTextDocument().getUri();
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			XMLFormattingOptions indentationSettings = getIndentationSettings(uri);
-			if (indentationSettings != null) {
-				// FIXME, don't update the shared settings, but use in code action the new
-				// indentationSettings.
-				sharedSettings.getFormattingSettings().merge(indentationSettings);
-			}
+		return track("textDocument/codeAction",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					XMLFormattingOptions indentationSettings = getIndentationSettings(uri);
+					if (indentationSettings != null) {
+						// FIXME, don't update the shared settings, but use in code action the new
+						// indentationSettings.
+						sharedSettings.getFormattingSettings().merge(indentationSettings);
+					}
 
-			return (List<Either<Command, CodeAction>>) getXMLLanguageService()
-					.doCodeActions(params.getContext(), params.getRange(), xmlDocument, sharedSettings, cancelChecker) //
-					.stream() //
-					.map(ca -> {
-						if (codeActionLiteralSupport) {
-							Either<Command, CodeAction> e = Either.forRight(ca);
-							return e;
-						} else {
-							List<Object> arguments = Arrays.asList(uri, xmlDocument.getTextDocument().getVersion(),
-									ca.getEdit().getDocumentChanges().get(0).getLeft().getEdits());
-							Command command = new Command(ca.getTitle(), "_xml.applyCodeAction", arguments);
-							Either<Command, CodeAction> e = Either.forLeft(command);
-							return e;
-						}
-					}) //
-					.collect(Collectors.toList());
-		});
+					return (List<Either<Command, CodeAction>>) getXMLLanguageService()
+							.doCodeActions(params.getContext(), params.getRange(), xmlDocument, sharedSettings,
+									cancelChecker) //
+							.stream() //
+							.map(ca -> {
+								if (codeActionLiteralSupport) {
+									Either<Command, CodeAction> e = Either.forRight(ca);
+									return e;
+								} else {
+									List<Object> arguments = Arrays.asList(uri,
+											xmlDocument.getTextDocument().getVersion(),
+											ca.getEdit().getDocumentChanges().get(0).getLeft().getEdits());
+									Command command = new Command(ca.getTitle(), "_xml.applyCodeAction", arguments);
+									Either<Command, CodeAction> e = Either.forLeft(command);
+									return e;
+								}
+							}) //
+							.collect(Collectors.toList());
+				}));
 	}
 
 	@Override
 	public CompletableFuture<CodeAction> resolveCodeAction(CodeAction unresolved) {
-		return computeDOMAsync(unresolved.getData(), (xmlDocument, cancelChecker) -> {
+		return track("codeAction/resolve", computeDOMAsync(unresolved.getData(), (xmlDocument, cancelChecker) -> {
 			return getXMLLanguageService().resolveCodeAction(unresolved, xmlDocument, sharedSettings, cancelChecker);
-		});
+		}));
 	}
 
 	/**
@@ -572,34 +611,40 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<List<SelectionRange>> selectionRange(SelectionRangeParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().getSelectionRanges(xmlDocument, params.getPositions(), cancelChecker);
-		});
+		return track("textDocument/selectionRange",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().getSelectionRanges(xmlDocument, params.getPositions(),
+							cancelChecker);
+				}));
 	}
 
 	public CompletableFuture<LinkedEditingRanges> linkedEditingRange(LinkedEditingRangeParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().findLinkedEditingRanges(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		return track("textDocument/linkedEditingRange",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().findLinkedEditingRanges(xmlDocument, params.getPosition(),
+							cancelChecker);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<ColorInformation>> documentColor(DocumentColorParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().findDocumentColors(xmlDocument, cancelChecker);
-		});
+		return track("textDocument/documentColor",
+				computeDOMAsync(params.getTextDocument(), Priority.UI, (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().findDocumentColors(xmlDocument, cancelChecker);
+				}));
 	}
 
 	@Override
 	public CompletableFuture<List<ColorPresentation>> colorPresentation(ColorPresentationParams params) {
-		return computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
-			return getXMLLanguageService().getColorPresentations(xmlDocument, params, cancelChecker);
-		});
+		return track("textDocument/colorPresentation",
+				computeDOMAsync(params.getTextDocument(), (xmlDocument, cancelChecker) -> {
+					return getXMLLanguageService().getColorPresentations(xmlDocument, params, cancelChecker);
+				}));
 	}
 
 	@Override
 	public void didSave(DidSaveTextDocumentParams params) {
-		computeAsync((monitor) -> {
+		getRequestScheduler().computeAsync(Priority.BACKGROUND, (monitor) -> {
 			// A document was saved, collect documents to revalidate
 			SaveContext context = new SaveContext(params.getTextDocument().getUri());
 			doSave(context);
@@ -651,12 +696,16 @@ public class XMLTextDocumentService implements TextDocumentService {
 	private void triggerValidationFor(Collection<ModelTextDocument<DOMDocument>> documents) {
 		if (!documents.isEmpty()) {
 			xmlLanguageServer.schedule(() -> {
-				documents.forEach(document -> {
-					try {
+				// The documents are validated in parallel by the background pool, the last
+				// used documents (probably visible in the editor) are validated first.
+				List<ModelTextDocument<DOMDocument>> sortedDocuments = new ArrayList<>(documents);
+				sortedDocuments.sort((d1, d2) -> Long.compare(d2.getLastUsedTime(), d1.getLastUsedTime()));
+				sortedDocuments.forEach(document -> {
+					// The validation is cancelled if the document changes while it is queued
+					getRequestScheduler().computeAsync(Priority.BACKGROUND, document, cancelChecker -> {
 						validate(document.getModel(), Collections.emptyMap());
-					} catch (CancellationException e) {
-						// Ignore the error and continue to validate other documents
-					}
+						return null;
+					});
 				});
 			}, 500, TimeUnit.MILLISECONDS);
 		}
@@ -690,7 +739,9 @@ public class XMLTextDocumentService implements TextDocumentService {
 		if (withDelay) {
 			xmlValidatorDelayer.validateWithDelay((ModelTextDocument<DOMDocument>) document);
 		} else {
-			CompletableFuture.runAsync(() -> {
+			// The validation of an opened document is not linked to the document version
+			// to process the didOpen of the participants even if the document changes
+			getRequestScheduler().computeAsync(Priority.BACKGROUND, cancelChecker -> {
 				DOMDocument xmlDocument = ((ModelTextDocument<DOMDocument>) document).getModel();
 				validate(xmlDocument, Collections.emptyMap());
 				getXMLLanguageService().getDocumentLifecycleParticipants().forEach(participant -> {
@@ -701,6 +752,7 @@ public class XMLTextDocumentService implements TextDocumentService {
 								+ participant.getClass().getName() + "'.", e);
 					}
 				});
+				return null;
 			});
 		}
 	}
@@ -715,7 +767,11 @@ public class XMLTextDocumentService implements TextDocumentService {
 	 *                               diagnostics must be stopped.
 	 */
 	void validate(DOMDocument xmlDocument, Map<String, Object> validationArgs) throws CancellationException {
-		CancelChecker cancelChecker = xmlDocument.getCancelChecker();
+		validate(xmlDocument, validationArgs, xmlDocument.getCancelChecker());
+	}
+
+	private void validate(DOMDocument xmlDocument, Map<String, Object> validationArgs, CancelChecker cancelChecker)
+			throws CancellationException {
 		cancelChecker.checkCanceled();
 		getXMLLanguageService().publishDiagnostics(xmlDocument,
 				params -> xmlLanguageServer.getLanguageClient().publishDiagnostics(params),
@@ -740,6 +796,26 @@ public class XMLTextDocumentService implements TextDocumentService {
 		sharedSettings.getCodeLensSettings().merge(newSettings);
 	}
 
+	public void updateServerSettings(ServerSettings newSettings) {
+		documents.setLargeFileThreshold(newSettings.getLargeFileThreshold());
+		documents.setTextStoreFactory(newSettings.isPieceTableTextStore() ? PIECE_TABLE_TEXT_STORE_FACTORY : null);
+		documents.setModelUpdater(newSettings.isIncrementalParsing() ? (previous, document, region, cancelChecker) -> {
+			return DOMParser.getInstance().parseIncremental(previous, document, region, cancelChecker);
+		} : null);
+		FilesWatcher.getInstance().setPollingInterval(newSettings.getFilesPollingInterval());
+		DOMDocumentCache.getInstance().setMaximumSize(newSettings.getExternalDocumentsCacheSize());
+		XMLSchedulerSettings schedulerSettings = newSettings.getScheduler();
+		if (schedulerSettings != null) {
+			for (Priority priority : Priority.values()) {
+				PoolSettings poolSettings = schedulerSettings.getPoolSettings(priority);
+				if (poolSettings != null) {
+					getRequestScheduler().configure(priority, poolSettings.getPoolSize(),
+							poolSettings.getQueueCapacity());
+				}
+			}
+		}
+	}
+
 	public void updatePreferences(XMLPreferences newPreferences) {
 		sharedSettings.getPreferences().merge(newPreferences);
 	}
@@ -756,6 +832,18 @@ public class XMLTextDocumentService implements TextDocumentService {
 		return documents.isIncremental();
 	}
 
+	/**
+	 * Returns true if the given text document is managed as a large file (lazy
+	 * DOM, no validation) and false otherwise.
+	 * 
+	 * @param document the text document.
+	 * @return true if the given text document is managed as a large file and false
+	 *         otherwise.
+	 */
+	public boolean isLargeFile(TextDocument document) {
+		return documents.isLargeFile(document);
+	}
+
 	public XMLFoldingSettings getSharedFoldingSettings() {
 		return sharedSettings.getFoldingSettings();
 	}
@@ -818,7 +906,58 @@ public class XMLTextDocumentService implements TextDocumentService {
 	 */
 	public <R> CompletableFuture<R> computeDOMAsync(TextDocumentIdentifier documentIdentifier,
 			BiFunction<DOMDocument, CancelChecker, R> code) {
-		return documents.computeModelAsync(documentIdentifier, code);
+		return computeDOMAsync(documentIdentifier, Priority.INTERACTIVE, code);
+	}
+
+	/**
+	 * Compute the DOM Document for a given uri in a future and then apply the given
+	 * function with the given priority.
+	 *
+	 * @param <R>
+	 * @param documentIdentifier the document indetifier.
+	 * @param priority           the priority of the request.
+	 * @param code               a bi function that accepts a {@link CancelChecker}
+	 *                           and parsed {@link DOMDocument} and returns the to
+	 *                           be computed value
+	 * @return the DOM Document for a given uri in a future and then apply the given
+	 *         function.
+	 */
+	public <R> CompletableFuture<R> computeDOMAsync(TextDocumentIdentifier documentIdentifier, Priority priority,
+			BiFunction<DOMDocument, CancelChecker, R> code) {
+		return documents.computeModelAsync(documentIdentifier, priority, code);
+	}
+
+	/**
+	 * Records the latency of the LSP request with the given method in the
+	 * performance metrics when the given future is completed.
+	 *
+	 * @param <R>
+	 * @param method the LSP method (ex : textDocument/completion).
+	 * @param future the future of the request.
+	 * @return the given future.
+	 */
+	private static <R> CompletableFuture<R> track(String method, CompletableFuture<R> future) {
+		return PerformanceMetrics.getInstance().track(method, future);
+	}
+
+	/**
+	 * Returns the scheduler used to process the requests and the validation.
+	 *
+	 * @return the scheduler used to process the requests and the validation.
+	 */
+	public RequestScheduler getRequestScheduler() {
+		return documents.getScheduler();
+	}
+
+	/**
+	 * Returns the statistics of the validations scheduled after the changes of
+	 * the documents.
+	 *
+	 * @return the statistics of the validations scheduled after the changes of
+	 *         the documents.
+	 */
+	public ModelValidatorDelayer.Statistics getValidationStatistics() {
+		return xmlValidatorDelayer.getStatistics();
 	}
 
 	public LimitExceededWarner getLimitExceededWarner() {
@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
 import org.eclipse.lemminx.services.extensions.commands.IXMLCommandService;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
@@ -88,6 +89,8 @@ public class XMLWorkspaceService implements WorkspaceService, IXMLCommandService
 				.getTextDocumentService();
 		List<FileEvent> changes = params.getChanges();
 		for (FileEvent change : changes) {
+			// The grammars which depend on the changed file must be reloaded
+			FilesWatcher.getInstance().invalidate(change.getUri());
 			if (!xmlTextDocumentService.documentIsOpen(change.getUri())) {
 				xmlTextDocumentService.doSave(change.getUri());
 			}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+/**
+ * A dirty region describes the range of a text which has been modified since
+ * a given version of the text:
+ *
+ * <ul>
+ * <li>[offset, offset + oldLength] is the modified range in the old text.</li>
+ * <li>[offset, offset + newLength] is the modified range in the new text.</li>
+ * </ul>
+ *
+ * <p>
+ * Several changes are merged into one dirty region which covers all of them.
+ * </p>
+ */
+public class DirtyRegion {
+
+	private final int offset;
+
+	private final int oldLength;
+
+	private final int newLength;
+
+	public DirtyRegion(int offset, int oldLength, int newLength) {
+		this.offset = offset;
+		this.oldLength = oldLength;
+		this.newLength = newLength;
+	}
+
+	/**
+	 * Returns the start offset of the modified range.
+	 *
+	 * @return the start offset of the modified range.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the length of the modified range in the old text.
+	 *
+	 * @return the length of the modified range in the old text.
+	 */
+	public int getOldLength() {
+		return oldLength;
+	}
+
+	/**
+	 * Returns the length of the modified range in the new text.
+	 *
+	 * @return the length of the modified range in the new text.
+	 */
+	public int getNewLength() {
+		return newLength;
+	}
+
+	/**
+	 * Returns the difference between the new text length and the old text length.
+	 *
+	 * @return the difference between the new text length and the old text length.
+	 */
+	public int getDelta() {
+		return newLength - oldLength;
+	}
+
+	/**
+	 * Returns the dirty region which merges this region with the given replace
+	 * (expressed with offsets of the current text, after this region has been
+	 * applied).
+	 *
+	 * @param offset the replace offset.
+	 * @param length the replaced length.
+	 * @param text   the inserted text.
+	 *
+	 * @return the dirty region which merges this region with the given replace.
+	 */
+	public DirtyRegion merge(int offset, int length, String text) {
+		int textLength = text != null ? text.length() : 0;
+		int start = Math.min(this.offset, offset);
+		// End of the dirty region in the current text, before applying the replace
+		int currentEnd = Math.max(this.offset + newLength, offset + length);
+		// The part of the current text after the old dirty region is not modified
+		int oldEnd = this.offset + oldLength + (currentEnd - (this.offset + newLength));
+		int newEnd = currentEnd + textLength - length;
+		return new DirtyRegion(start, oldEnd - start, newEnd - start);
+	}
+
+	@Override
+	public String toString() {
+		return "DirtyRegion [offset=" + offset + ", oldLength=" + oldLength + ", newLength=" + newLength + "]";
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+/**
+ * Mutable storage of the text content of a {@link TextDocument}.
+ *
+ * <p>
+ * A text store is updated in place by the incremental changes of the document
+ * (see {@link #replace(int, int, String)}), so that a change doesn't copy the
+ * whole text content like a {@link String} concatenation.
+ * </p>
+ *
+ * @see PieceTableTextStore
+ */
+public interface ITextStore {
+
+	/**
+	 * Returns the character at the given offset.
+	 *
+	 * @param offset the offset.
+	 * @return the character at the given offset.
+	 */
+	char get(int offset);
+
+	/**
+	 * Returns the text of the given range.
+	 *
+	 * @param offset the start offset of the range.
+	 * @param length the length of the range.
+	 * @return the text of the given range.
+	 */
+	String get(int offset, int length);
+
+	/**
+	 * Returns the length of the text content.
+	 *
+	 * @return the length of the text content.
+	 */
+	int getLength();
+
+	/**
+	 * Replaces the text of the given range with the given text. An offset equal to
+	 * {@link #getLength()} with a length of 0 appends the text.
+	 *
+	 * @param offset the start offset of the range to replace.
+	 * @param length the length of the range to replace.
+	 * @param text   the new text.
+	 */
+	void replace(int offset, int length, String text);
+
+	/**
+	 * Replaces the whole text content with the given text.
+	 *
+	 * @param text the new text content.
+	 */
+	void set(String text);
+}
@@ -12,9 +12,11 @@
 package org.eclipse.lemminx.commons;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 
@@ -31,16 +33,62 @@ public class ModelTextDocument<T> extends TextDocument {
 
 	private final BiFunction<TextDocument, CancelChecker, T> parse;
 
+	private final Object regionLock = new Object();
+
+	private ModelUpdater<T> modelUpdater;
+
 	private T model;
 
+	private T previousModel;
+
+	private DirtyRegion dirtyRegion;
+
+	private volatile long lastUsedTime;
+
 	public ModelTextDocument(TextDocumentItem document, BiFunction<TextDocument, CancelChecker, T> parse) {
 		super(document);
 		this.parse = parse;
+		markAsUsed();
 	}
 
 	public ModelTextDocument(String text, String uri, BiFunction<TextDocument, CancelChecker, T> parse) {
 		super(text, uri);
 		this.parse = parse;
+		markAsUsed();
+	}
+
+	/**
+	 * Mark the text document as used by the user (opened, changed or used by a
+	 * request like completion, hover, etc).
+	 */
+	public void markAsUsed() {
+		lastUsedTime = System.nanoTime();
+	}
+
+	/**
+	 * Returns the time (see {@link System#nanoTime()}) when the text document was
+	 * last used by the user.
+	 * 
+	 * <p>
+	 * As LSP doesn't give the visible editors, it is used to process first the
+	 * documents which are probably visible (ex : revalidation after a grammar
+	 * save).
+	 * </p>
+	 * 
+	 * @return the time when the text document was last used by the user.
+	 */
+	public long getLastUsedTime() {
+		return lastUsedTime;
+	}
+
+	/**
+	 * Set the model updater used to update the previous model incrementally
+	 * after changes and null to always parse the whole text document.
+	 * 
+	 * @param modelUpdater the model updater.
+	 */
+	public void setModelUpdater(ModelUpdater<T> modelUpdater) {
+		this.modelUpdater = modelUpdater;
 	}
 
 	/**
@@ -79,13 +127,42 @@ public class ModelTextDocument<T> extends TextDocument {
 		}
 		int version = super.getVersion();
 		long start = System.currentTimeMillis();
+		T previous = null;
+		DirtyRegion region = null;
+		synchronized (regionLock) {
+			// the previous model will be updated or replaced by a new model
+			previous = previousModel;
+			region = dirtyRegion;
+			previousModel = null;
+			dirtyRegion = null;
+		}
 		try {
 			LOGGER.fine("Start parsing of model with version '" + version);
 			// Stop of parse process can be done when completable future is canceled or when
 			// version of document changes
 			CancelChecker cancelChecker = new TextDocumentVersionChecker(this, version);
-			// parse the model
-			model = parse.apply(this, cancelChecker);
+			T newModel = null;
+			if (modelUpdater != null && previous != null && region != null) {
+				// update the previous model with the changes
+				newModel = modelUpdater.update(previous, this, region, cancelChecker);
+				if (newModel != null) {
+					LOGGER.fine("Model with version '" + version + "' updated incrementally with " + region);
+				}
+			}
+			if (newModel == null) {
+				// parse the model
+				newModel = parse.apply(this, cancelChecker);
+			}
+			PerformanceMetrics.getInstance().recordParse(getUri(), getTextLength(),
+					TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - start));
+			synchronized (regionLock) {
+				if (super.getVersion() != version) {
+					// the text document changed during the parse, the model must not be used to
+					// track the next changes.
+					return newModel;
+				}
+				model = newModel;
+			}
 		} catch (CancellationException e) {
 			LOGGER.fine("Stop parsing parsing of model with version '" + version + "' in "
 					+ (System.currentTimeMillis() - start) + "ms");
@@ -100,22 +177,54 @@ public class ModelTextDocument<T> extends TextDocument {
 	@Override
 	public void setText(String text) {
 		super.setText(text);
+		synchronized (regionLock) {
+			// the whole text changed, the previous model cannot be updated incrementally
+			previousModel = null;
+			dirtyRegion = null;
+		}
+	}
+
+	@Override
+	protected void textChanged() {
 		// text changed, cancel the completable future which load the model
 		cancelModel();
 	}
 
+	@Override
+	protected void textReplaced(int offset, int length, String text) {
+		synchronized (regionLock) {
+			if (model != null) {
+				cancelModel();
+			}
+			if (previousModel == null) {
+				return;
+			}
+			// track the changes done since the parse of the previous model
+			dirtyRegion = dirtyRegion == null ? new DirtyRegion(offset, length, text != null ? text.length() : 0)
+					: dirtyRegion.merge(offset, length, text);
+		}
+	}
+
 	@Override
 	public void setVersion(int version) {
 		super.setVersion(version);
 		// version changed, mark the model as dirty
 		cancelModel();
+		markAsUsed();
 	}
 
 	/**
 	 * Mark the model as dirty
 	 */
 	private void cancelModel() {
-		model = null;
+		synchronized (regionLock) {
+			if (model != null) {
+				// keep the model to update it incrementally with the next changes
+				previousModel = model;
+				dirtyRegion = null;
+			}
+			model = null;
+		}
 	}
 
 }
\ No newline at end of file
@@ -15,10 +15,10 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures.FutureCancelChecker;
 
 /**
@@ -32,14 +32,45 @@ public class ModelTextDocuments<T> extends TextDocuments<ModelTextDocument<T>> {
 
 	private final BiFunction<TextDocument, CancelChecker, T> parse;
 
+	private final RequestScheduler scheduler;
+
+	private ModelUpdater<T> modelUpdater;
+
 	public ModelTextDocuments(BiFunction<TextDocument, CancelChecker, T> parse) {
+		this(parse, new RequestScheduler());
+	}
+
+	public ModelTextDocuments(BiFunction<TextDocument, CancelChecker, T> parse, RequestScheduler scheduler) {
 		this.parse = parse;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Returns the scheduler used to compute the models asynchronously.
+	 *
+	 * @return the scheduler used to compute the models asynchronously.
+	 */
+	public RequestScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Set the model updater used to update incrementally the models after
+	 * changes and null to always parse the whole text documents.
+	 *
+	 * @param modelUpdater the model updater.
+	 */
+	public void setModelUpdater(ModelUpdater<T> modelUpdater) {
+		this.modelUpdater = modelUpdater;
+		all().forEach(document -> document.setModelUpdater(modelUpdater));
 	}
 
 	@Override
 	public ModelTextDocument<T> createDocument(TextDocumentItem document) {
 		ModelTextDocument<T> doc = new ModelTextDocument<T>(document, parse);
 		doc.setIncremental(isIncremental());
+		doc.setModelUpdater(modelUpdater);
+		initializeTextStore(doc);
 		return doc;
 	}
 
@@ -108,9 +139,34 @@ public class ModelTextDocuments<T> extends TextDocuments<ModelTextDocument<T>> {
 	 */
 	public <R> CompletableFuture<R> computeModelAsync(TextDocumentIdentifier documentIdentifier,
 			BiFunction<T, CancelChecker, R> code) {
-		return CompletableFutures.computeAsync(cancelChecker -> {
+		return computeModelAsync(documentIdentifier, Priority.INTERACTIVE, code);
+	}
+
+	/**
+	 * Get or parse the model and apply the code function which expects the model
+	 * with the given priority.
+	 *
+	 * @param <R>
+	 * @param documentIdentifier the document indentifier.
+	 * @param priority           the priority of the request.
+	 * @param code               a bi function that accepts the parsedmodel and
+	 *                           {@link CancelChecker} and returns the to be
+	 *                           computed value
+	 * @return the DOM Document for a given uri in a future and then apply the given
+	 *         function.
+	 */
+	public <R> CompletableFuture<R> computeModelAsync(TextDocumentIdentifier documentIdentifier, Priority priority,
+			BiFunction<T, CancelChecker, R> code) {
+		ModelTextDocument<T> document = get(documentIdentifier.getUri());
+		if (document != null && priority != Priority.BACKGROUND) {
+			document.markAsUsed();
+		}
+		return scheduler.computeAsync(priority, document, cancelChecker -> {
+			if (document == null) {
+				return null;
+			}
 			// Get or parse the model.
-			T model = getModel(documentIdentifier);
+			T model = document.getModel();
 			if (model == null) {
 				return null;
 			}
@@ -144,9 +200,9 @@ public class ModelTextDocuments<T> extends TextDocuments<ModelTextDocument<T>> {
 		});
 	}
 
-	private static <R> CompletableFuture<R> computeAsyncCompose(Function<CancelChecker, CompletableFuture<R>> code) {
+	private <R> CompletableFuture<R> computeAsyncCompose(Function<CancelChecker, CompletableFuture<R>> code) {
 		CompletableFuture<CancelChecker> start = new CompletableFuture<>();
-		CompletableFuture<R> result = start.thenComposeAsync(code);
+		CompletableFuture<R> result = start.thenComposeAsync(code, scheduler.getExecutor(Priority.INTERACTIVE));
 		start.complete(new FutureCancelChecker(result));
 		return result;
 	}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Model updater API used to update incrementally a model after changes of the
+ * text document.
+ *
+ * @param <T> the model type (ex : DOM Document)
+ */
+@FunctionalInterface
+public interface ModelUpdater<T> {
+
+	/**
+	 * Returns the model updated with the changes of the given dirty region and
+	 * null if the model cannot be updated incrementally (the model must be fully
+	 * parsed).
+	 *
+	 * @param previousModel the model parsed before the changes.
+	 * @param document      the text document which contains the changes.
+	 * @param region        the dirty region since the parse of the previous
+	 *                      model.
+	 * @param cancelChecker the cancel checker.
+	 * @return the model updated with the changes of the given dirty region and
+	 *         null if the model cannot be updated incrementally.
+	 */
+	T update(T previousModel, TextDocument document, DirtyRegion region, CancelChecker cancelChecker);
+}
@@ -13,74 +13,513 @@ package org.eclipse.lemminx.commons;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 
 /**
  * Validate a given model document with delay.
- * 
+ *
+ * <p>
+ * When a {@link RequestScheduler} is given, the validation is done with the
+ * {@link Priority#BACKGROUND} priority once the delay expired, otherwise the
+ * validation is done in the thread of the delayer.
+ * </p>
+ *
+ * <p>
+ * The delay is adapted to the cost of the validation: the delayer tracks a
+ * moving average of the validation time per character for each document (and
+ * for all documents, used for the documents which have not been validated
+ * yet), and the delay is twice the estimated validation time for the current
+ * size of the document, bounded by the half and 10 times the configured delay.
+ * In other words, the small documents are validated sooner and the large
+ * documents wait for a longer pause before starting a validation which would
+ * be cancelled by the next change.
+ * </p>
+ *
+ * <p>
+ * Only one validation of a given document is processed at a time. When the
+ * delay expires while a previous validation of the document is running, the
+ * new validation is started once the running validation ends and:
+ * </p>
+ * <ul>
+ * <li>the running validation is cut off if it is not started or if it has
+ * done less than the half of its estimated time.</li>
+ * <li>the running validation finishes otherwise.</li>
+ * </ul>
+ *
+ * <p>
+ * The validator is given a cancel checker owned by the delayer: a started
+ * validation is not cancelled when the document changes, but only when the
+ * delayer cuts it off.
+ * </p>
+ *
  * @author Angelo ZERR
  *
  * @param <T>
  */
 public class ModelValidatorDelayer<T> {
 
+	private static final Logger LOGGER = Logger.getLogger(ModelValidatorDelayer.class.getName());
+
 	private static final long DEFAULT_VALIDATION_DELAY_MS = 500;
 
+	private static final long ESTIMATED_TIME_FACTOR = 2;
+
+	private static final long MAX_DELAY_FACTOR = 10;
+
+	private static final double SMOOTHING_FACTOR = 0.3;
+
+	private static final double FINISH_PROGRESS = 0.5;
+
+	/**
+	 * Statistics of the validations scheduled by the delayer.
+	 */
+	public static class Statistics {
+
+		private final long scheduledCount;
+
+		private final long startedCount;
+
+		private final long completedCount;
+
+		private final long cancelledCount;
+
+		private final long finishedCount;
+
+		private final long cutOffCount;
+
+		private final long averageDelay;
+
+		Statistics(long scheduledCount, long startedCount, long completedCount, long cancelledCount,
+				long finishedCount, long cutOffCount, long averageDelay) {
+			this.scheduledCount = scheduledCount;
+			this.startedCount = startedCount;
+			this.completedCount = completedCount;
+			this.cancelledCount = cancelledCount;
+			this.finishedCount = finishedCount;
+			this.cutOffCount = cutOffCount;
+			this.averageDelay = averageDelay;
+		}
+
+		/**
+		 * Returns the number of validations scheduled with a delay.
+		 *
+		 * @return the number of validations scheduled with a delay.
+		 */
+		public long getScheduledCount() {
+			return scheduledCount;
+		}
+
+		/**
+		 * Returns the number of started validations.
+		 *
+		 * @return the number of started validations.
+		 */
+		public long getStartedCount() {
+			return startedCount;
+		}
+
+		/**
+		 * Returns the number of validations which have been completed.
+		 *
+		 * @return the number of validations which have been completed.
+		 */
+		public long getCompletedCount() {
+			return completedCount;
+		}
+
+		/**
+		 * Returns the number of validations which have been cancelled (document
+		 * changed, cut off validation, etc).
+		 *
+		 * @return the number of validations which have been cancelled.
+		 */
+		public long getCancelledCount() {
+			return cancelledCount;
+		}
+
+		/**
+		 * Returns the number of running validations which have been kept to finish
+		 * when the delay of a new validation of the same document expired.
+		 *
+		 * @return the number of running validations which have been kept to finish.
+		 */
+		public long getFinishedCount() {
+			return finishedCount;
+		}
+
+		/**
+		 * Returns the number of running validations which have been cut off when the
+		 * delay of a new validation of the same document expired.
+		 *
+		 * @return the number of running validations which have been cut off.
+		 */
+		public long getCutOffCount() {
+			return cutOffCount;
+		}
+
+		/**
+		 * Returns the average delay (in milliseconds) of the scheduled validations.
+		 *
+		 * @return the average delay (in milliseconds) of the scheduled validations.
+		 */
+		public long getAverageDelay() {
+			return averageDelay;
+		}
+
+		@Override
+		public String toString() {
+			return "Validation [scheduled=" + scheduledCount + ", started=" + startedCount + ", completed="
+					+ completedCount + ", cancelled=" + cancelledCount + ", finished=" + finishedCount + ", cutOff="
+					+ cutOffCount + ", averageDelay=" + averageDelay + "ms]";
+		}
+	}
+
+	/**
+	 * Validation state of a document.
+	 */
+	private static class DocumentValidation<T> {
+
+		private final String uri;
+
+		private Future<?> pendingRequest;
+
+		private ValidationRun running;
+
+		private ModelTextDocument<T> next;
+
+		private int nextVersion;
+
+		// moving average of the validation time (in milliseconds) per character
+		private double timePerChar;
+
+		DocumentValidation(String uri) {
+			this.uri = uri;
+			this.timePerChar = -1;
+		}
+	}
+
+	/**
+	 * A validation run of a document.
+	 *
+	 * <p>
+	 * The run is the cancel checker of the validation: the validation of a
+	 * version is not cancelled when the document changes, but only when the
+	 * delayer cuts it off.
+	 * </p>
+	 */
+	private static class ValidationRun implements CancelChecker {
+
+		private static final int NEW = 0;
+
+		private static final int STARTED = 1;
+
+		private static final int ENDED = 2;
+
+		private final AtomicInteger state;
+
+		private final long estimatedTime;
+
+		private final int length;
+
+		private volatile long startTime;
+
+		private volatile boolean cutOff;
+
+		private Future<?> future;
+
+		ValidationRun(long estimatedTime, int length) {
+			this.state = new AtomicInteger(NEW);
+			this.estimatedTime = estimatedTime;
+			this.length = length;
+		}
+
+		boolean start() {
+			startTime = System.currentTimeMillis();
+			return state.compareAndSet(NEW, STARTED);
+		}
+
+		boolean cancel() {
+			return state.compareAndSet(NEW, ENDED);
+		}
+
+		boolean isStarted() {
+			return state.get() == STARTED;
+		}
+
+		void cutOff() {
+			cutOff = true;
+			future.cancel(true);
+		}
+
+		@Override
+		public void checkCanceled() {
+			if (cutOff) {
+				throw new CancellationException("The validation has been cut off by a new validation.");
+			}
+		}
+	}
+
 	private final ScheduledExecutorService executorService;
 
-	private final Consumer<ModelTextDocument<T>> validator;
+	private final RequestScheduler scheduler;
+
+	private final BiConsumer<ModelTextDocument<T>, CancelChecker> validator;
 
-	private final Map<String, Future<?>> pendingValidationRequests;
+	private final Map<String, DocumentValidation<T>> validations;
 
 	private final long validationDelayMs;
 
+	// moving average of the validation time (in milliseconds) per character of
+	// all documents
+	private double timePerChar;
+
+	private final AtomicLong scheduledCount;
+
+	private final AtomicLong startedCount;
+
+	private final AtomicLong completedCount;
+
+	private final AtomicLong cancelledCount;
+
+	private final AtomicLong finishedCount;
+
+	private final AtomicLong cutOffCount;
+
+	private final AtomicLong totalDelay;
+
 	public ModelValidatorDelayer(Consumer<ModelTextDocument<T>> validator) {
 		this(Executors.newScheduledThreadPool(2), validator, DEFAULT_VALIDATION_DELAY_MS);
 	}
 
+	public ModelValidatorDelayer(RequestScheduler scheduler, Consumer<ModelTextDocument<T>> validator) {
+		this(Executors.newSingleThreadScheduledExecutor(), scheduler, validator, DEFAULT_VALIDATION_DELAY_MS);
+	}
+
+	public ModelValidatorDelayer(RequestScheduler scheduler,
+			BiConsumer<ModelTextDocument<T>, CancelChecker> validator) {
+		this(Executors.newSingleThreadScheduledExecutor(), scheduler, validator, DEFAULT_VALIDATION_DELAY_MS);
+	}
+
 	public ModelValidatorDelayer(ScheduledExecutorService executorService, Consumer<ModelTextDocument<T>> validator,
 			long validationDelayMs) {
+		this(executorService, null, validator, validationDelayMs);
+	}
+
+	public ModelValidatorDelayer(ScheduledExecutorService executorService, RequestScheduler scheduler,
+			Consumer<ModelTextDocument<T>> validator, long validationDelayMs) {
+		this(executorService, scheduler, (document, cancelChecker) -> validator.accept(document),
+				validationDelayMs);
+	}
+
+	public ModelValidatorDelayer(ScheduledExecutorService executorService, RequestScheduler scheduler,
+			BiConsumer<ModelTextDocument<T>, CancelChecker> validator, long validationDelayMs) {
 		this.executorService = executorService;
+		this.scheduler = scheduler;
 		this.validator = validator;
-		this.pendingValidationRequests = new HashMap<>();
+		this.validations = new HashMap<>();
 		this.validationDelayMs = validationDelayMs;
+		this.timePerChar = -1;
+		this.scheduledCount = new AtomicLong();
+		this.startedCount = new AtomicLong();
+		this.completedCount = new AtomicLong();
+		this.cancelledCount = new AtomicLong();
+		this.finishedCount = new AtomicLong();
+		this.cutOffCount = new AtomicLong();
+		this.totalDelay = new AtomicLong();
 	}
 
 	/**
 	 * Validate the given model <code>document</code> identified by the given
 	 * <code>uri</code> with a delay.
-	 * 
+	 *
 	 * @param uri      the document URI.
 	 * @param document the document model to validate.
 	 */
 	public void validateWithDelay(ModelTextDocument<T> document) {
 		String uri = document.getUri();
-		cleanPendingValidation(uri);
 		int version = document.getVersion();
-		Future<?> request = executorService.schedule(() -> {
-			synchronized (pendingValidationRequests) {
-				pendingValidationRequests.remove(uri);
+		int length = document.getTextLength();
+		long delay;
+		synchronized (validations) {
+			DocumentValidation<T> validation = validations.computeIfAbsent(uri, k -> new DocumentValidation<>(k));
+			if (validation.pendingRequest != null) {
+				validation.pendingRequest.cancel(true);
 			}
-			if (version == document.getVersion()) {
-				validator.accept(document);
+			delay = getValidationDelay(validation, length);
+			validation.pendingRequest = executorService.schedule(() -> {
+				delayExpired(validation, document, version);
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+		scheduledCount.incrementAndGet();
+		totalDelay.addAndGet(delay);
+		LOGGER.finest(() -> "Validation of '" + uri + "' scheduled in " + delay + "ms");
+	}
+
+	/**
+	 * Returns the delay (in milliseconds) which is used to validate the given
+	 * document.
+	 *
+	 * @param document the document.
+	 *
+	 * @return the delay (in milliseconds) which is used to validate the given
+	 *         document.
+	 */
+	public long getValidationDelay(ModelTextDocument<T> document) {
+		synchronized (validations) {
+			DocumentValidation<T> validation = validations.get(document.getUri());
+			if (validation == null) {
+				validation = new DocumentValidation<>(document.getUri());
+			}
+			return getValidationDelay(validation, document.getTextLength());
+		}
+	}
+
+	private long getValidationDelay(DocumentValidation<T> validation, int length) {
+		long estimatedTime = getEstimatedTime(validation, length);
+		if (estimatedTime < 0) {
+			// the validation time is unknown
+			return validationDelayMs;
+		}
+		return Math.max(validationDelayMs / 2,
+				Math.min(validationDelayMs * MAX_DELAY_FACTOR, estimatedTime * ESTIMATED_TIME_FACTOR));
+	}
+
+	private long getEstimatedTime(DocumentValidation<T> validation, int length) {
+		double time = validation.timePerChar >= 0 ? validation.timePerChar : timePerChar;
+		return time >= 0 ? Math.round(time * length) : -1;
+	}
+
+	private void delayExpired(DocumentValidation<T> validation, ModelTextDocument<T> document, int version) {
+		if (version != document.getVersion()) {
+			// the document changed, a new validation is scheduled
+			return;
+		}
+		synchronized (validations) {
+			if (validations.get(validation.uri) != validation) {
+				// the document is closed
+				return;
+			}
+			validation.pendingRequest = null;
+			ValidationRun running = validation.running;
+			if (running == null) {
+				startValidation(validation, document);
+				return;
+			}
+			// Validate the document once the running validation ends
+			validation.next = document;
+			validation.nextVersion = version;
+			long elapsedTime = System.currentTimeMillis() - running.startTime;
+			if (running.isStarted() && running.estimatedTime > 0
+					&& elapsedTime >= running.estimatedTime * FINISH_PROGRESS) {
+				// the running validation is near to finish, let it finish
+				finishedCount.incrementAndGet();
+			} else {
+				// cut off the running validation
+				cutOffCount.incrementAndGet();
+				running.cutOff();
+			}
+		}
+	}
+
+	private void startValidation(DocumentValidation<T> validation, ModelTextDocument<T> document) {
+		int length = document.getTextLength();
+		ValidationRun run = new ValidationRun(getEstimatedTime(validation, length), length);
+		validation.running = run;
+		startedCount.incrementAndGet();
+		if (scheduler != null) {
+			// The validation is cancelled if the document changes while it is queued. Once
+			// started, the validation is cancelled only when it is cut off.
+			CompletableFuture<Void> future = scheduler.computeAsync(Priority.BACKGROUND, document, cancelChecker -> {
+				validate(validation, run, document);
+				return null;
+			});
+			run.future = future;
+			future.whenComplete((result, error) -> {
+				if (run.cancel()) {
+					// the validation has been cancelled before being started
+					validationEnded(validation, run, false);
+				}
+			});
+		} else {
+			run.future = new CompletableFuture<>();
+			executorService.execute(() -> validate(validation, run, document));
+		}
+	}
+
+	private void validate(DocumentValidation<T> validation, ValidationRun run, ModelTextDocument<T> document) {
+		if (!run.start()) {
+			return;
+		}
+		boolean completed = false;
+		try {
+			validator.accept(document, run);
+			completed = true;
+		} finally {
+			validationEnded(validation, run, completed);
+		}
+	}
+
+	private void validationEnded(DocumentValidation<T> validation, ValidationRun run, boolean completed) {
+		long time = System.currentTimeMillis() - run.startTime;
+		synchronized (validations) {
+			if (validation.running != run) {
+				return;
+			}
+			validation.running = null;
+			if (completed) {
+				completedCount.incrementAndGet();
+				double runTimePerChar = (double) time / Math.max(run.length, 1);
+				validation.timePerChar = average(validation.timePerChar, runTimePerChar);
+				timePerChar = average(timePerChar, runTimePerChar);
+			} else {
+				cancelledCount.incrementAndGet();
+			}
+			ModelTextDocument<T> next = validation.next;
+			validation.next = null;
+			if (next != null && next.getVersion() == validation.nextVersion && validation.pendingRequest == null
+					&& validations.get(validation.uri) == validation) {
+				startValidation(validation, next);
 			}
-		}, validationDelayMs, TimeUnit.MILLISECONDS);
-		synchronized (pendingValidationRequests) {
-			pendingValidationRequests.put(uri, request);
 		}
 	}
 
+	private static double average(double average, double value) {
+		return average < 0 ? value : average + SMOOTHING_FACTOR * (value - average);
+	}
+
 	public void cleanPendingValidation(String uri) {
-		synchronized (pendingValidationRequests) {
-			Future<?> request = pendingValidationRequests.get(uri);
-			if (request != null) {
-				request.cancel(true);
-				pendingValidationRequests.remove(uri);
+		synchronized (validations) {
+			DocumentValidation<T> validation = validations.remove(uri);
+			if (validation != null) {
+				if (validation.pendingRequest != null) {
+					validation.pendingRequest.cancel(true);
+				}
+				validation.next = null;
 			}
 		}
 	}
+
+	/**
+	 * Returns the statistics of the validations scheduled by the delayer.
+	 *
+	 * @return the statistics of the validations scheduled by the delayer.
+	 */
+	public Statistics getStatistics() {
+		long scheduled = scheduledCount.get();
+		return new Statistics(scheduled, startedCount.get(), completedCount.get(), cancelledCount.get(),
+				finishedCount.get(), cutOffCount.get(), scheduled > 0 ? totalDelay.get() / scheduled : 0);
+	}
 }
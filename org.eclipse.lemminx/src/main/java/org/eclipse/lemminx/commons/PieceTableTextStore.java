@@ -0,0 +1,252 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Piece table implementation of {@link ITextStore}.
+ *
+ * <p>
+ * The text is never copied when it is updated: the original content is kept
+ * as-is, inserted text is appended to an 'add' buffer and the document is
+ * described by a list of pieces which reference a range of one of those two
+ * buffers.
+ * </p>
+ *
+ * <p>
+ * <strong>Performance:</strong> locating an offset performs in <i>O(log p)</i>
+ * where <var>p</var> is the number of pieces. A replace performs in
+ * <i>O(p)</i> in the worst case (shifting of the piece list), independently of
+ * the document length. When the number of pieces exceeds a threshold, the
+ * pieces are compacted into a new original buffer.
+ * </p>
+ */
+public class PieceTableTextStore implements ITextStore {
+
+	private static final int DEFAULT_COMPACT_THRESHOLD = 4096;
+
+	private static class Piece {
+
+		final boolean added;
+		final int start;
+		final int length;
+
+		Piece(boolean added, int start, int length) {
+			this.added = added;
+			this.start = start;
+			this.length = length;
+		}
+	}
+
+	private final int compactThreshold;
+
+	private String original;
+
+	private final StringBuilder added;
+
+	private final List<Piece> pieces;
+
+	/**
+	 * Start offsets of the pieces, only the first <code>validStarts</code> values
+	 * are up to date.
+	 */
+	private int[] starts;
+
+	private int validStarts;
+
+	private int length;
+
+	public PieceTableTextStore() {
+		this(DEFAULT_COMPACT_THRESHOLD);
+	}
+
+	public PieceTableTextStore(int compactThreshold) {
+		this.compactThreshold = compactThreshold;
+		this.added = new StringBuilder();
+		this.pieces = new ArrayList<>();
+		this.starts = new int[16];
+		set("");
+	}
+
+	@Override
+	public char get(int offset) {
+		checkRange(offset, 1);
+		int index = findPiece(offset);
+		Piece piece = pieces.get(index);
+		return getBuffer(piece).charAt(piece.start + offset - starts[index]);
+	}
+
+	@Override
+	public String get(int offset, int length) {
+		checkRange(offset, length);
+		if (length == 0) {
+			return "";
+		}
+		if (pieces.size() == 1 && !pieces.get(0).added) {
+			// Not modified store, substring of the original text
+			Piece piece = pieces.get(0);
+			return original.substring(piece.start + offset, piece.start + offset + length);
+		}
+		StringBuilder result = new StringBuilder(length);
+		int index = findPiece(offset);
+		int pieceOffset = offset - starts[index];
+		int remaining = length;
+		while (remaining > 0) {
+			Piece piece = pieces.get(index++);
+			int count = Math.min(piece.length - pieceOffset, remaining);
+			int start = piece.start + pieceOffset;
+			result.append(getBuffer(piece), start, start + count);
+			remaining -= count;
+			pieceOffset = 0;
+		}
+		return result.toString();
+	}
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) {
+		checkRange(offset, length);
+		int textLength = text != null ? text.length() : 0;
+		if (length == 0 && textLength == 0) {
+			return;
+		}
+		int startIndex = split(offset);
+		int endIndex = length > 0 ? split(offset + length) : startIndex;
+		// Remove the replaced pieces
+		if (endIndex > startIndex) {
+			pieces.subList(startIndex, endIndex).clear();
+		}
+		int firstModifiedIndex = startIndex;
+		if (textLength > 0) {
+			int addStart = added.length();
+			added.append(text);
+			Piece previous = startIndex > 0 ? pieces.get(startIndex - 1) : null;
+			if (previous != null && previous.added && previous.start + previous.length == addStart) {
+				// Typing case: the previous piece ends where the new text is appended, extend
+				// it instead of creating a new piece.
+				pieces.set(startIndex - 1, new Piece(true, previous.start, previous.length + textLength));
+				firstModifiedIndex = startIndex - 1;
+			} else {
+				pieces.add(startIndex, new Piece(true, addStart, textLength));
+			}
+		}
+		this.length += textLength - length;
+		validStarts = Math.min(validStarts, firstModifiedIndex + 1);
+		if (pieces.size() > compactThreshold) {
+			set(get(0, this.length));
+		}
+	}
+
+	@Override
+	public void set(String text) {
+		original = text != null ? text : "";
+		added.setLength(0);
+		pieces.clear();
+		if (!original.isEmpty()) {
+			pieces.add(new Piece(false, 0, original.length()));
+		}
+		length = original.length();
+		validStarts = 0;
+	}
+
+	/**
+	 * Returns the number of pieces of the table.
+	 *
+	 * @return the number of pieces of the table.
+	 */
+	int getPieceCount() {
+		return pieces.size();
+	}
+
+	@Override
+	public String toString() {
+		return get(0, length);
+	}
+
+	private CharSequence getBuffer(Piece piece) {
+		return piece.added ? added : original;
+	}
+
+	/**
+	 * Ensure that a piece starts at the given offset and returns its index.
+	 *
+	 * @param offset the offset.
+	 *
+	 * @return the index of the piece which starts at the given offset.
+	 */
+	private int split(int offset) {
+		if (offset == length) {
+			return pieces.size();
+		}
+		int index = findPiece(offset);
+		int pieceStart = starts[index];
+		if (pieceStart == offset) {
+			return index;
+		}
+		Piece piece = pieces.get(index);
+		int leftLength = offset - pieceStart;
+		pieces.set(index, new Piece(piece.added, piece.start, leftLength));
+		pieces.add(index + 1, new Piece(piece.added, piece.start + leftLength, piece.length - leftLength));
+		validStarts = Math.min(validStarts, index + 1);
+		return index + 1;
+	}
+
+	/**
+	 * Returns the index of the piece which contains the given offset.
+	 *
+	 * @param offset the offset.
+	 *
+	 * @return the index of the piece which contains the given offset.
+	 */
+	private int findPiece(int offset) {
+		updateStarts();
+		int low = 0;
+		int high = pieces.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (starts[mid] <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	private void updateStarts() {
+		int size = pieces.size();
+		if (validStarts >= size) {
+			return;
+		}
+		if (starts.length < size) {
+			starts = Arrays.copyOf(starts, Math.max(size, starts.length * 2));
+		}
+		for (int i = validStarts; i < size; i++) {
+			starts[i] = i == 0 ? 0 : starts[i - 1] + pieces.get(i - 1).length;
+		}
+		validStarts = size;
+	}
+
+	private void checkRange(int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > this.length) {
+			throw new IndexOutOfBoundsException(
+					"Range [" + offset + ", " + (offset + length) + "] out of bounds for length " + this.length);
+		}
+	}
+}
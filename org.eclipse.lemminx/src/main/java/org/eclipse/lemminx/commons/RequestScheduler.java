@@ -0,0 +1,523 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.jsonrpc.CompletableFutures.FutureCancelChecker;
+
+/**
+ * Scheduler of the LSP requests and of the validation.
+ *
+ * <p>
+ * Each {@link Priority} has its own thread pool and queue, so that a long
+ * validation cannot delay a completion or a hover. When the queue of a
+ * priority is full, the oldest queued request is cancelled. The commands
+ * executed with {@link #getExecutor(Priority)} are never cancelled, because
+ * the future which depends on a command would never complete.
+ * </p>
+ *
+ * <p>
+ * When virtual threads are enabled (see {@link VirtualThreads}), the threads
+ * of the pools are virtual threads.
+ * </p>
+ *
+ * <p>
+ * A request of priority {@link Priority#UI} or {@link Priority#BACKGROUND}
+ * which is linked to a text document is cancelled when the text document
+ * version changes, before it is started or while it is running.
+ * </p>
+ *
+ */
+public class RequestScheduler {
+
+	private static final Logger LOGGER = Logger.getLogger(RequestScheduler.class.getName());
+
+	private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	/**
+	 * Priority of a request.
+	 */
+	public static enum Priority {
+
+		/**
+		 * Requests which the user is waiting for (completion, hover, linked editing,
+		 * auto close, etc).
+		 */
+		INTERACTIVE(Math.max(2, AVAILABLE_PROCESSORS / 2), 64, Thread.NORM_PRIORITY + 1, false),
+
+		/**
+		 * Requests which refresh the editor (symbols, folding, colors, code lens,
+		 * etc).
+		 */
+		UI(Math.max(1, AVAILABLE_PROCESSORS / 4), 64, Thread.NORM_PRIORITY, true),
+
+		/**
+		 * Validation and other work which is not requested by the user.
+		 */
+		BACKGROUND(Math.max(1, AVAILABLE_PROCESSORS / 2), 256, Thread.MIN_PRIORITY, true);
+
+		private final int defaultPoolSize;
+
+		private final int defaultQueueCapacity;
+
+		private final int threadPriority;
+
+		private final boolean cancelIfStale;
+
+		private Priority(int defaultPoolSize, int defaultQueueCapacity, int threadPriority, boolean cancelIfStale) {
+			this.defaultPoolSize = defaultPoolSize;
+			this.defaultQueueCapacity = defaultQueueCapacity;
+			this.threadPriority = threadPriority;
+			this.cancelIfStale = cancelIfStale;
+		}
+
+		/**
+		 * Returns the default number of threads used to process the requests.
+		 *
+		 * @return the default number of threads used to process the requests.
+		 */
+		public int getDefaultPoolSize() {
+			return defaultPoolSize;
+		}
+
+		/**
+		 * Returns the default maximum number of queued requests.
+		 *
+		 * @return the default maximum number of queued requests.
+		 */
+		public int getDefaultQueueCapacity() {
+			return defaultQueueCapacity;
+		}
+
+		/**
+		 * Returns true if the requests linked to a text document must be cancelled
+		 * when the text document version changes and false otherwise.
+		 *
+		 * @return true if the requests linked to a text document must be cancelled
+		 *         when the text document version changes and false otherwise.
+		 */
+		public boolean isCancelIfStale() {
+			return cancelIfStale;
+		}
+	}
+
+	/**
+	 * Statistics of the requests of a given priority.
+	 */
+	public static class Statistics {
+
+		private final Priority priority;
+
+		private final int poolSize;
+
+		private final int queueCapacity;
+
+		private final int activeCount;
+
+		private final int queuedCount;
+
+		private final long completedCount;
+
+		private final long staleCount;
+
+		private final long evictedCount;
+
+		Statistics(Priority priority, int poolSize, int queueCapacity, int activeCount, int queuedCount,
+				long completedCount, long staleCount, long evictedCount) {
+			this.priority = priority;
+			this.poolSize = poolSize;
+			this.queueCapacity = queueCapacity;
+			this.activeCount = activeCount;
+			this.queuedCount = queuedCount;
+			this.completedCount = completedCount;
+			this.staleCount = staleCount;
+			this.evictedCount = evictedCount;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		/**
+		 * Returns the maximum number of threads used to process the requests.
+		 *
+		 * @return the maximum number of threads used to process the requests.
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+
+		/**
+		 * Returns the maximum number of queued requests.
+		 *
+		 * @return the maximum number of queued requests.
+		 */
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * Returns the number of running requests.
+		 *
+		 * @return the number of running requests.
+		 */
+		public int getActiveCount() {
+			return activeCount;
+		}
+
+		/**
+		 * Returns the number of requests waiting for a thread.
+		 *
+		 * @return the number of requests waiting for a thread.
+		 */
+		public int getQueuedCount() {
+			return queuedCount;
+		}
+
+		/**
+		 * Returns the number of processed requests (including the cancelled
+		 * requests).
+		 *
+		 * @return the number of processed requests.
+		 */
+		public long getCompletedCount() {
+			return completedCount;
+		}
+
+		/**
+		 * Returns the number of requests which have been cancelled before being
+		 * started because the version of their text document changed.
+		 *
+		 * @return the number of requests cancelled because the version of their
+		 *         text document changed.
+		 */
+		public long getStaleCount() {
+			return staleCount;
+		}
+
+		/**
+		 * Returns the number of queued requests which have been cancelled because
+		 * the queue was full.
+		 *
+		 * @return the number of queued requests which have been cancelled because
+		 *         the queue was full.
+		 */
+		public long getEvictedCount() {
+			return evictedCount;
+		}
+
+		@Override
+		public String toString() {
+			return priority + " [poolSize=" + poolSize + ", queueCapacity=" + queueCapacity + ", active="
+					+ activeCount + ", queued=" + queuedCount + ", completed=" + completedCount + ", stale="
+					+ staleCount + ", evicted=" + evictedCount + "]";
+		}
+	}
+
+	/**
+	 * Thread pool and queue of a priority.
+	 */
+	private static class Pool {
+
+		private final Priority priority;
+
+		private final ThreadPoolExecutor executor;
+
+		private volatile int queueCapacity;
+
+		private final AtomicLong staleCount;
+
+		private final AtomicLong evictedCount;
+
+		Pool(Priority priority) {
+			this.priority = priority;
+			this.executor = new ThreadPoolExecutor(priority.getDefaultPoolSize(), priority.getDefaultPoolSize(),
+					KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), createThreadFactory(priority));
+			this.executor.allowCoreThreadTimeOut(true);
+			this.queueCapacity = priority.getDefaultQueueCapacity();
+			this.staleCount = new AtomicLong();
+			this.evictedCount = new AtomicLong();
+		}
+
+		private static ThreadFactory createThreadFactory(Priority priority) {
+			String prefix = "lemminx-" + priority.name().toLowerCase() + "-";
+			// The number of virtual threads is bounded by the pool size, the blocking I/O
+			// releases the carrier thread
+			ThreadFactory virtualThreadFactory = VirtualThreads.newThreadFactory(prefix);
+			if (virtualThreadFactory != null) {
+				return virtualThreadFactory;
+			}
+			AtomicInteger threadNumber = new AtomicInteger();
+			return runnable -> {
+				Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				thread.setPriority(priority.threadPriority);
+				return thread;
+			};
+		}
+
+		void submit(Request<?> request) {
+			BlockingQueue<Runnable> queue = executor.getQueue();
+			while (queue.size() >= queueCapacity) {
+				// The queue is full, cancel the oldest request
+				Request<?> oldest = pollOldestEvictable(queue);
+				if (oldest == null) {
+					break;
+				}
+				evictedCount.incrementAndGet();
+				oldest.cancel();
+			}
+			try {
+				executor.execute(request);
+			} catch (RejectedExecutionException e) {
+				// The scheduler is shut down
+				if (request.isEvictable()) {
+					request.cancel();
+				} else {
+					// The future which depends on the command must complete
+					request.run();
+				}
+			}
+		}
+
+		/**
+		 * Removes and returns the oldest queued request which can be cancelled and
+		 * null if there is none.
+		 */
+		private static Request<?> pollOldestEvictable(BlockingQueue<Runnable> queue) {
+			for (Runnable runnable : queue) {
+				Request<?> request = (Request<?>) runnable;
+				if (request.isEvictable() && queue.remove(request)) {
+					return request;
+				}
+			}
+			return null;
+		}
+
+		synchronized void configure(int poolSize, int queueCapacity) {
+			if (poolSize > 0 && poolSize != executor.getMaximumPoolSize()) {
+				if (poolSize > executor.getMaximumPoolSize()) {
+					executor.setMaximumPoolSize(poolSize);
+					executor.setCorePoolSize(poolSize);
+				} else {
+					executor.setCorePoolSize(poolSize);
+					executor.setMaximumPoolSize(poolSize);
+				}
+			}
+			if (queueCapacity > 0) {
+				this.queueCapacity = queueCapacity;
+			}
+		}
+
+		Statistics getStatistics() {
+			return new Statistics(priority, executor.getMaximumPoolSize(), queueCapacity, executor.getActiveCount(),
+					executor.getQueue().size(), executor.getCompletedTaskCount(), staleCount.get(),
+					evictedCount.get());
+		}
+	}
+
+	/**
+	 * A request which computes its result in a thread of a {@link Pool}.
+	 *
+	 * @param <R> the result type.
+	 */
+	private static class Request<R> implements Runnable {
+
+		private final Pool pool;
+
+		private final TextDocument document;
+
+		private final int version;
+
+		private final Function<CancelChecker, R> code;
+
+		private final CompletableFuture<R> result;
+
+		private final boolean evictable;
+
+		Request(Pool pool, TextDocument document, Function<CancelChecker, R> code, boolean evictable) {
+			this.pool = pool;
+			this.document = document;
+			this.version = document != null ? document.getVersion() : 0;
+			this.code = code;
+			this.result = new CompletableFuture<>();
+			this.evictable = evictable;
+		}
+
+		@Override
+		public void run() {
+			if (result.isDone()) {
+				// The request has been cancelled while it was queued
+				return;
+			}
+			if (document != null && document.getVersion() != version) {
+				// The text document changed while the request was queued
+				pool.staleCount.incrementAndGet();
+				cancel();
+				return;
+			}
+			try {
+				CancelChecker cancelChecker = new FutureCancelChecker(result);
+				if (document != null) {
+					cancelChecker = new MultiCancelChecker(cancelChecker,
+							new TextDocumentVersionChecker(document, version));
+				}
+				result.complete(code.apply(cancelChecker));
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		void cancel() {
+			result.cancel(false);
+		}
+
+		/**
+		 * Returns true if the request can be cancelled when the queue is full and
+		 * false otherwise.
+		 *
+		 * @return true if the request can be cancelled when the queue is full and
+		 *         false otherwise.
+		 */
+		boolean isEvictable() {
+			return evictable;
+		}
+	}
+
+	private final Map<Priority, Pool> pools;
+
+	public RequestScheduler() {
+		pools = new EnumMap<>(Priority.class);
+		for (Priority priority : Priority.values()) {
+			pools.put(priority, new Pool(priority));
+		}
+	}
+
+	/**
+	 * Compute the given code with the given priority.
+	 *
+	 * @param <R>      the result type.
+	 * @param priority the priority.
+	 * @param code     the code to compute.
+	 *
+	 * @return the result of the given code in a future.
+	 */
+	public <R> CompletableFuture<R> computeAsync(Priority priority, Function<CancelChecker, R> code) {
+		return computeAsync(priority, null, code);
+	}
+
+	/**
+	 * Compute the given code with the given priority for the given text document.
+	 *
+	 * <p>
+	 * When the priority cancels the stale requests (see
+	 * {@link Priority#isCancelIfStale()}), the returned future is cancelled if
+	 * the text document version changes.
+	 * </p>
+	 *
+	 * @param <R>      the result type.
+	 * @param priority the priority.
+	 * @param document the text document and null otherwise.
+	 * @param code     the code to compute.
+	 *
+	 * @return the result of the given code in a future.
+	 */
+	public <R> CompletableFuture<R> computeAsync(Priority priority, TextDocument document,
+			Function<CancelChecker, R> code) {
+		Pool pool = pools.get(priority);
+		Request<R> request = new Request<>(pool, priority.isCancelIfStale() ? document : null, code, true);
+		pool.submit(request);
+		return request.result;
+	}
+
+	/**
+	 * Returns an executor which executes the commands with the given priority.
+	 *
+	 * <p>
+	 * The commands are never cancelled when the queue is full, and are executed
+	 * in the calling thread when the scheduler is shut down: a command is
+	 * generally the completion of a future (ex :
+	 * {@link CompletableFuture#thenComposeAsync(Function, Executor)}) which would
+	 * never complete if the command was dropped.
+	 * </p>
+	 *
+	 * @param priority the priority.
+	 *
+	 * @return an executor which executes the commands with the given priority.
+	 */
+	public Executor getExecutor(Priority priority) {
+		Pool pool = pools.get(priority);
+		return command -> pool.submit(new Request<>(pool, null, cancelChecker -> {
+			command.run();
+			return null;
+		}, false));
+	}
+
+	/**
+	 * Configure the thread pool and the queue of the given priority.
+	 *
+	 * @param priority      the priority.
+	 * @param poolSize      the maximum number of threads used to process the
+	 *                      requests, 0 to keep the current value.
+	 * @param queueCapacity the maximum number of queued requests, 0 to keep the
+	 *                      current value.
+	 */
+	public void configure(Priority priority, int poolSize, int queueCapacity) {
+		pools.get(priority).configure(poolSize, queueCapacity);
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine("Request scheduler configured: " + getStatistics(priority));
+		}
+	}
+
+	/**
+	 * Returns the statistics of the requests of the given priority.
+	 *
+	 * @param priority the priority.
+	 *
+	 * @return the statistics of the requests of the given priority.
+	 */
+	public Statistics getStatistics(Priority priority) {
+		return pools.get(priority).getStatistics();
+	}
+
+	/**
+	 * Shutdown the thread pools. The queued requests are cancelled, the queued
+	 * commands of the executors are still executed.
+	 */
+	public void shutdown() {
+		for (Pool pool : pools.values()) {
+			pool.executor.shutdown();
+			Request<?> request = null;
+			while ((request = Pool.pollOldestEvictable(pool.executor.getQueue())) != null) {
+				request.cancel();
+			}
+		}
+	}
+}
@@ -39,6 +39,17 @@ public class TextDocument extends TextDocumentItem {
 
 	private boolean incremental;
 
+	private volatile ITextStore textStore;
+
+	// true when the text store has been updated and the text content must be
+	// created again from the text store. Volatile since it is read without the
+	// lock by getText()
+	private volatile boolean textStoreDirty;
+
+	private Integer trackedVersion;
+
+	private DirtyRegion trackedChanges;
+
 	public TextDocument(TextDocumentItem document) {
 		this(document.getText(), document.getUri());
 		super.setVersion(document.getVersion());
@@ -61,6 +72,147 @@ public class TextDocument extends TextDocumentItem {
 		return incremental;
 	}
 
+	/**
+	 * Set the text store used to apply incremental changes.
+	 * 
+	 * <p>
+	 * When a text store is set, {@link #update(List)} updates the text store in
+	 * place and the text content as {@link String} is only computed when
+	 * {@link #getText()} is called.
+	 * </p>
+	 * 
+	 * @param textStore the text store and null to update a copy of the text
+	 *                  content.
+	 */
+	public void setTextStore(ITextStore textStore) {
+		synchronized (lock) {
+			// Synchronize the text content with the current text store before switching
+			String text = getText();
+			if (textStore != null) {
+				textStore.set(text);
+			}
+			this.textStore = textStore;
+			this.textStoreDirty = false;
+		}
+	}
+
+	/**
+	 * Returns the text store used to apply incremental changes and null
+	 * otherwise.
+	 * 
+	 * @return the text store used to apply incremental changes and null
+	 *         otherwise.
+	 */
+	public ITextStore getTextStore() {
+		return textStore;
+	}
+
+	@Override
+	public String getText() {
+		if (textStoreDirty) {
+			synchronized (lock) {
+				if (textStoreDirty) {
+					// Create the text content from the text store
+					super.setText(textStore.get(0, textStore.getLength()));
+					textStoreDirty = false;
+				}
+			}
+		}
+		return super.getText();
+	}
+
+	/**
+	 * Returns the length of the text content, without creating the text content
+	 * from the text store.
+	 *
+	 * @return the length of the text content.
+	 */
+	public int getTextLength() {
+		synchronized (lock) {
+			return textStore != null ? textStore.getLength() : super.getText().length();
+		}
+	}
+
+	@Override
+	public void setText(String text) {
+		synchronized (lock) {
+			super.setText(text);
+			if (textStore != null) {
+				textStore.set(text);
+			}
+			textStoreDirty = false;
+			// the whole text changed
+			trackedVersion = null;
+		}
+		textChanged();
+	}
+
+	/**
+	 * Start to track the changes of the text content since the given version if
+	 * it is the current version of the document.
+	 *
+	 * @param version the version of the document.
+	 *
+	 * @return true if the changes are tracked and false if the given version is
+	 *         not the current version of the document.
+	 */
+	public boolean trackChanges(int version) {
+		synchronized (lock) {
+			if (getVersion() != version) {
+				return false;
+			}
+			trackedVersion = version;
+			trackedChanges = null;
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the dirty region which covers the changes of the text content since
+	 * the given version and null if there is no change or if the changes are not
+	 * tracked since this version (see {@link #trackChanges(int)}).
+	 *
+	 * @param version the version of the document.
+	 *
+	 * @return the dirty region which covers the changes of the text content since
+	 *         the given version and null otherwise.
+	 */
+	public DirtyRegion getChangesSince(int version) {
+		synchronized (lock) {
+			if (trackedVersion == null || trackedVersion.intValue() != version) {
+				return null;
+			}
+			return trackedChanges;
+		}
+	}
+
+	private void trackChange(int offset, int length, String text) {
+		if (trackedVersion == null) {
+			return;
+		}
+		trackedChanges = trackedChanges == null ? new DirtyRegion(offset, length, text != null ? text.length() : 0)
+				: trackedChanges.merge(offset, length, text);
+	}
+
+	/**
+	 * Called when the text content of the document changed.
+	 */
+	protected void textChanged() {
+		// Do nothing
+	}
+
+	/**
+	 * Called for each incremental change of the text content, before
+	 * {@link #textChanged()}.
+	 * 
+	 * @param offset the offset of the replaced range.
+	 * @param length the length of the replaced range.
+	 * @param text   the inserted text.
+	 */
+	protected void textReplaced(int offset, int length, String text) {
+		// Do nothing
+	}
+
 	public Position positionAt(int position) throws BadLocationException {
 		ILineTracker lineTracker = getLineTracker();
 		return lineTracker.getPositionAt(position);
@@ -74,8 +226,7 @@ public class TextDocument extends TextDocumentItem {
 	public String lineText(int lineNumber) throws BadLocationException {
 		ILineTracker lineTracker = getLineTracker();
 		Line line = lineTracker.getLineInformation(lineNumber);
-		String text = super.getText();
-		return text.substring(line.offset, line.offset + line.length);
+		return getText(line.offset, line.length);
 	}
 
 	public int lineOffsetAt(int position) throws BadLocationException {
@@ -115,8 +266,7 @@ public class TextDocument extends TextDocumentItem {
 			Position pos = positionAt(textOffset);
 			ILineTracker lineTracker = getLineTracker();
 			Line line = lineTracker.getLineInformation(pos.getLine());
-			String text = super.getText();
-			String lineText = text.substring(line.offset, textOffset);
+			String lineText = getText(line.offset, textOffset - line.offset);
 			int position = lineText.length();
 			Matcher m = wordDefinition.matcher(lineText);
 			int currentPosition = 0;
@@ -137,6 +287,26 @@ public class TextDocument extends TextDocumentItem {
 		}
 	}
 
+	/**
+	 * Returns the text of the given range.
+	 * 
+	 * @param offset the start offset of the range.
+	 * @param length the length of the range.
+	 * 
+	 * @return the text of the given range.
+	 */
+	public String getText(int offset, int length) {
+		if (textStoreDirty) {
+			synchronized (lock) {
+				if (textStoreDirty) {
+					// Get the slice from the text store to avoid creating the whole text content
+					return textStore.get(offset, length);
+				}
+			}
+		}
+		return super.getText().substring(offset, offset + length);
+	}
+
 	private ILineTracker getLineTracker() {
 		if (lineTracker == null) {
 			lineTracker = createLineTracker();
@@ -149,7 +319,7 @@ public class TextDocument extends TextDocumentItem {
 			return lineTracker;
 		}
 		ILineTracker lineTracker = isIncremental() ? new TreeLineTracker(new ListLineTracker()) : new ListLineTracker();
-		lineTracker.set(super.getText());
+		lineTracker.set(getText());
 		return lineTracker;
 	}
 
@@ -168,32 +338,13 @@ public class TextDocument extends TextDocumentItem {
 			try {
 				long start = System.currentTimeMillis();
 				synchronized (lock) {
-					// Initialize buffer and line tracker from the current text document
-					StringBuilder buffer = new StringBuilder(getText());
-
-					// Loop for each changes and update the buffer
-					for (int i = 0; i < changes.size(); i++) {
-
-						TextDocumentContentChangeEvent changeEvent = changes.get(i);
-						Range range = changeEvent.getRange();
-						int length = 0;
-
-						if (range != null) {
-							Integer rangeLength = changeEvent.getRangeLength();
-							length = rangeLength != null ? rangeLength.intValue() : offsetAt(range.getEnd()) - offsetAt(range.getStart());
-						} else {
-							// range is optional and if not given, the whole file content is replaced
-							length = buffer.length();
-							range = new Range(positionAt(0), positionAt(length));
-						}
-						String text = changeEvent.getText();
-						int startOffset = offsetAt(range.getStart());
-						buffer.replace(startOffset, startOffset + length, text);
-						lineTracker.replace(startOffset, length, text);
+					if (textStore != null) {
+						updateTextStore(changes);
+					} else {
+						updateBuffer(changes);
 					}
-					// Update the new text content from the updated buffer
-					setText(buffer.toString());
 				}
+				textChanged();
 				LOGGER.fine("Text document content updated in " + (System.currentTimeMillis() - start) + "ms");
 			} catch (BadLocationException e) {
 				// Should never occur.
@@ -209,4 +360,76 @@ public class TextDocument extends TextDocumentItem {
 			}
 		}
 	}
+
+	/**
+	 * Apply the given changes by copying the whole text content in a buffer.
+	 * 
+	 * @param changes the text document changes.
+	 * @throws BadLocationException
+	 */
+	private void updateBuffer(List<TextDocumentContentChangeEvent> changes) throws BadLocationException {
+		// Initialize buffer and line tracker from the current text document
+		StringBuilder buffer = new StringBuilder(getText());
+
+		// Loop for each changes and update the buffer
+		for (int i = 0; i < changes.size(); i++) {
+
+			TextDocumentContentChangeEvent changeEvent = changes.get(i);
+			Range range = changeEvent.getRange();
+			int length = 0;
+
+			if (range != null) {
+				Integer rangeLength = changeEvent.getRangeLength();
+				length = rangeLength != null ? rangeLength.intValue()
+						: offsetAt(range.getEnd()) - offsetAt(range.getStart());
+			} else {
+				// range is optional and if not given, the whole file content is replaced
+				length = buffer.length();
+				range = new Range(positionAt(0), positionAt(length));
+			}
+			String text = changeEvent.getText();
+			int startOffset = offsetAt(range.getStart());
+			buffer.replace(startOffset, startOffset + length, text);
+			lineTracker.replace(startOffset, length, text);
+			trackChange(startOffset, length, text);
+			textReplaced(startOffset, length, text);
+		}
+		// Update the new text content from the updated buffer
+		super.setText(buffer.toString());
+	}
+
+	/**
+	 * Apply the given changes in place in the text store. The text content is
+	 * computed lazily by {@link #getText()}.
+	 * 
+	 * @param changes the text document changes.
+	 * @throws BadLocationException
+	 */
+	private void updateTextStore(List<TextDocumentContentChangeEvent> changes) throws BadLocationException {
+		// Loop for each changes and update the text store and the line tracker
+		for (int i = 0; i < changes.size(); i++) {
+
+			TextDocumentContentChangeEvent changeEvent = changes.get(i);
+			Range range = changeEvent.getRange();
+			String text = changeEvent.getText();
+			if (range == null) {
+				// range is optional and if not given, the whole file content is replaced
+				trackChange(0, textStore.getLength(), text);
+				textReplaced(0, textStore.getLength(), text);
+				super.setText(text);
+				textStore.set(text);
+				lineTracker.set(text);
+				textStoreDirty = false;
+				continue;
+			}
+			Integer rangeLength = changeEvent.getRangeLength();
+			int startOffset = offsetAt(range.getStart());
+			int length = rangeLength != null ? rangeLength.intValue() : offsetAt(range.getEnd()) - startOffset;
+			textStore.replace(startOffset, length, text);
+			lineTracker.replace(startOffset, length, text);
+			textStoreDirty = true;
+			trackChange(startOffset, length, text);
+			textReplaced(startOffset, length, text);
+		}
+	}
 }
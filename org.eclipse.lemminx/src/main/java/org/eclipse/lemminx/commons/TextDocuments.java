@@ -15,6 +15,7 @@ package org.eclipse.lemminx.commons;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
@@ -31,6 +32,16 @@ public class TextDocuments<T extends TextDocument> {
 
 	private boolean incremental = true; // default on
 
+	/**
+	 * Default length (in characters) from which a text document is managed as a
+	 * large file.
+	 */
+	public static final int DEFAULT_LARGE_FILE_THRESHOLD = 100_000_000;
+
+	private Supplier<ITextStore> textStoreFactory;
+
+	private int largeFileThreshold = DEFAULT_LARGE_FILE_THRESHOLD;
+
 	public TextDocuments() {
 		documents = new HashMap<>();
 	}
@@ -58,6 +69,63 @@ public class TextDocuments<T extends TextDocument> {
 		return incremental;
 	}
 
+	/**
+	 * Set the factory used to create the {@link ITextStore} of the text documents
+	 * and null to update a copy of the text content. The text stores of the opened
+	 * documents are created again only if the factory changes, so the same factory
+	 * instance must be given each time.
+	 * 
+	 * @param textStoreFactory the text store factory.
+	 */
+	public void setTextStoreFactory(Supplier<ITextStore> textStoreFactory) {
+		if (this.textStoreFactory == textStoreFactory) {
+			// the text stores of the opened documents are kept
+			return;
+		}
+		this.textStoreFactory = textStoreFactory;
+		synchronized (documents) {
+			documents.values().forEach(document -> initializeTextStore(document));
+		}
+	}
+
+	/**
+	 * Initialize the text store of the given document.
+	 * 
+	 * @param document the text document.
+	 */
+	protected void initializeTextStore(TextDocument document) {
+		if (textStoreFactory != null) {
+			document.setTextStore(textStoreFactory.get());
+		} else {
+			// a large file is always updated in a piece table to avoid copying the
+			// whole text content on each change
+			document.setTextStore(isLargeFile(document) ? new PieceTableTextStore() : null);
+		}
+	}
+
+	/**
+	 * Set the length (in characters) from which a text document is managed as a
+	 * large file and 0 to disable the large file mode.
+	 * 
+	 * @param largeFileThreshold the length from which a text document is managed
+	 *                           as a large file.
+	 */
+	public void setLargeFileThreshold(int largeFileThreshold) {
+		this.largeFileThreshold = largeFileThreshold;
+	}
+
+	/**
+	 * Returns true if the given text document must be managed as a large file
+	 * (lazy DOM, no validation) and false otherwise.
+	 * 
+	 * @param document the text document.
+	 * @return true if the given text document must be managed as a large file and
+	 *         false otherwise.
+	 */
+	public boolean isLargeFile(TextDocument document) {
+		return largeFileThreshold > 0 && document.getTextLength() >= largeFileThreshold;
+	}
+
 	public T get(TextDocumentIdentifier documentIdentifier) {
 		return get(documentIdentifier.getUri());
 	}
@@ -78,6 +146,7 @@ public class TextDocuments<T extends TextDocument> {
 	public T createDocument(TextDocumentItem document) {
 		TextDocument doc = new TextDocument(document);
 		doc.setIncremental(isIncremental());
+		initializeTextStore(doc);
 		return (T) doc;
 	}
 
@@ -0,0 +1,155 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Virtual threads support (JDK 21+).
+ *
+ * <p>
+ * Virtual threads are used when the 'lemminx.virtualThreads' system property
+ * is set to true and the JVM supports them. In this mode:
+ * </p>
+ * <ul>
+ * <li>the LSP messages are handled in a virtual thread per message (see
+ * {@link #newCachedThreadPool()}).</li>
+ * <li>the requests and the validation are processed in virtual threads, but
+ * their number stays bounded by the pool sizes of the {@link RequestScheduler},
+ * so that the CPU-bound work (parse, validation) cannot use more carrier
+ * threads than configured, while the blocking I/O (grammar loading, file
+ * stamps, etc) releases the carrier thread.</li>
+ * </ul>
+ *
+ * <p>
+ * LemMinX is compiled for Java 11, so the virtual threads API is called with
+ * reflection.
+ * </p>
+ *
+ */
+public class VirtualThreads {
+
+	private static final Logger LOGGER = Logger.getLogger(VirtualThreads.class.getName());
+
+	public static final String VIRTUAL_THREADS_PROPERTY = "lemminx.virtualThreads";
+
+	private static final Method OF_VIRTUAL;
+
+	private static final Method NAME;
+
+	private static final Method FACTORY;
+
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	private static volatile boolean unsupportedLogged;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			name = builderClass.getMethod("name", String.class, long.class);
+			factory = builderClass.getMethod("factory");
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+		} catch (ReflectiveOperationException e) {
+			// JDK < 21
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Returns true if the JVM supports virtual threads and false otherwise.
+	 *
+	 * @return true if the JVM supports virtual threads and false otherwise.
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Returns true if virtual threads must be used and false otherwise.
+	 *
+	 * @return true if virtual threads must be used and false otherwise.
+	 */
+	public static boolean isEnabled() {
+		if (!Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+			return false;
+		}
+		if (!isSupported()) {
+			if (!unsupportedLogged) {
+				unsupportedLogged = true;
+				LOGGER.warning("Virtual threads are not supported by Java " + System.getProperty("java.version")
+						+ ", platform threads are used.");
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a thread factory which creates virtual threads named with the given
+	 * prefix and null if virtual threads are not enabled.
+	 *
+	 * @param prefix the prefix of the thread names.
+	 *
+	 * @return a thread factory which creates virtual threads and null if virtual
+	 *         threads are not enabled.
+	 */
+	public static ThreadFactory newThreadFactory(String prefix) {
+		if (!isEnabled()) {
+			return null;
+		}
+		try {
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = NAME.invoke(builder, prefix, 1L);
+			return (ThreadFactory) FACTORY.invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			LOGGER.log(Level.WARNING, "Error while creating the virtual thread factory", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns an executor which starts a virtual thread per task when virtual
+	 * threads are enabled and {@link Executors#newCachedThreadPool()} otherwise.
+	 *
+	 * @return an executor which starts a virtual thread per task when virtual
+	 *         threads are enabled and {@link Executors#newCachedThreadPool()}
+	 *         otherwise.
+	 */
+	public static ExecutorService newCachedThreadPool() {
+		ThreadFactory threadFactory = newThreadFactory("lemminx-message-");
+		if (threadFactory != null) {
+			try {
+				return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+			} catch (ReflectiveOperationException e) {
+				LOGGER.log(Level.WARNING, "Error while creating the virtual thread executor", e);
+			}
+		}
+		return Executors.newCachedThreadPool();
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.customservice;
+
+/**
+ * Parameters of the "xml/metrics" request.
+ *
+ * <ul>
+ * <li>format : "json" (default) or "prometheus".</li>
+ * <li>file : the local file where the metrics must be exported. When it is
+ * not set, the metrics are returned in the response.</li>
+ * </ul>
+ *
+ */
+public class MetricsParams {
+
+	private String format;
+
+	private String file;
+
+	public String getFormat() {
+		return format;
+	}
+
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+}
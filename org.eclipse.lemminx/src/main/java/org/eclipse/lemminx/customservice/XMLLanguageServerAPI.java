@@ -31,6 +31,18 @@ public interface XMLLanguageServerAPI {
 
 	@JsonRequest
 	CompletableFuture<Position> matchingTagPosition(TextDocumentPositionParams params);
+
+	/**
+	 * Returns the performance metrics of the server (latency histograms of the
+	 * requests, parse, validation and hit rates of the caches) as JSON or
+	 * Prometheus text, or exports them in a local file when the file parameter is
+	 * set (in this case the file path is returned).
+	 *
+	 * @param params the format and the optional file.
+	 * @return the performance metrics or the path of the exported file.
+	 */
+	@JsonRequest
+	CompletableFuture<Object> metrics(MetricsParams params);
 }
 
 
@@ -30,7 +30,7 @@ public class DOMAttr extends DOMNode implements org.w3c.dom.Attr {
 
 	private String name;
 
-	private final AttrName nodeAttrName;
+	private AttrName nodeAttrName;
 
 	private int delimiter;
 
@@ -250,6 +250,19 @@ public class DOMAttr extends DOMNode implements org.w3c.dom.Attr {
 		return originalValue;
 	}
 
+	@Override
+	void shift(int delta) {
+		if (nodeAttrName != null) {
+			nodeAttrName = new AttrName(nodeAttrName.getStart() + delta, nodeAttrName.getEnd() + delta);
+		}
+		if (nodeAttrValue != null) {
+			nodeAttrValue = new AttrValue(nodeAttrValue.getStart() + delta, nodeAttrValue.getEnd() + delta);
+		}
+		if (delimiter != NULL_VALUE) {
+			delimiter += delta;
+		}
+	}
+
 	public void setValue(String value, int start, int end) {
 		this.originalValue = value;
 		this.quotelessValue = StringUtils.convertToQuotelessValue(value);
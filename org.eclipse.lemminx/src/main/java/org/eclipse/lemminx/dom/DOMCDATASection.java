@@ -27,6 +27,13 @@ public class DOMCDATASection extends DOMText implements CDATASection {
 		super(start, end);
 	}
 
+	@Override
+	void shift(int delta) {
+		super.shift(delta);
+		startContent += delta;
+		endContent += delta;
+	}
+
 	@Override
 	public int getStartContent() {
 		return startContent;
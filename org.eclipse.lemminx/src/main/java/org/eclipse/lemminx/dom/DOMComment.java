@@ -32,6 +32,13 @@ public class DOMComment extends DOMCharacterData implements org.w3c.dom.Comment
 		return commentSameLineEndTag;
 	}
 
+	@Override
+	void shift(int delta) {
+		super.shift(delta);
+		startContent += delta;
+		endContent += delta;
+	}
+
 	@Override
 	public int getStartContent() {
 		return startContent;
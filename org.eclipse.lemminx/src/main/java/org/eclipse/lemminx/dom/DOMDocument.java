@@ -65,6 +65,14 @@ public class DOMDocument extends DOMNode implements Document {
 	private String schemaPrefix;
 	private CancelChecker cancelChecker;
 	private String externalGrammarFromNamespaceURI;
+	private DOMElementIndex elementIndex;
+	private TextDocument indexedDocument;
+	private boolean ignoreWhitespaceContent;
+	private volatile int modificationStamp;
+
+	// cancel checker which replaces the cancel checker of the DOM documents in the
+	// current thread (see runWithCancelChecker)
+	private static final ThreadLocal<CancelChecker> THREAD_CANCEL_CHECKER = new ThreadLocal<>();
 
 	public DOMDocument(TextDocument textDocument, URIResolverExtensionManager resolverExtensionManager) {
 		super(0, textDocument.getText().length());
@@ -81,10 +89,107 @@ public class DOMDocument extends DOMNode implements Document {
 		return cancelChecker;
 	}
 
+	/**
+	 * Runs the given code with the given cancel checker in place of the cancel
+	 * checker of the DOM documents, in the current thread.
+	 * 
+	 * <p>
+	 * It is used by a delayed validation, which is not cancelled when the text
+	 * document changes, but only when it is cut off by a new validation.
+	 * </p>
+	 * 
+	 * @param cancelChecker the cancel checker.
+	 * @param code          the code to run.
+	 */
+	public static void runWithCancelChecker(CancelChecker cancelChecker, Runnable code) {
+		CancelChecker previous = THREAD_CANCEL_CHECKER.get();
+		THREAD_CANCEL_CHECKER.set(cancelChecker);
+		try {
+			code.run();
+		} finally {
+			if (previous != null) {
+				THREAD_CANCEL_CHECKER.set(previous);
+			} else {
+				THREAD_CANCEL_CHECKER.remove();
+			}
+		}
+	}
+
 	public List<DOMNode> getRoots() {
 		return super.getChildren();
 	}
 
+	/**
+	 * Set the element index used to expand the collapsed elements of a large
+	 * file.
+	 * 
+	 * @param elementIndex    the element index.
+	 * @param indexedDocument the snapshot of the text document which has been
+	 *                        indexed.
+	 */
+	void setElementIndex(DOMElementIndex elementIndex, TextDocument indexedDocument) {
+		this.elementIndex = elementIndex;
+		this.indexedDocument = indexedDocument;
+	}
+
+	/**
+	 * Returns the element index of the large file and null otherwise.
+	 * 
+	 * @return the element index of the large file and null otherwise.
+	 */
+	public DOMElementIndex getElementIndex() {
+		return elementIndex;
+	}
+
+	/**
+	 * Returns the snapshot of the text document which has been indexed (large
+	 * file) and null otherwise.
+	 * 
+	 * @return the snapshot of the text document which has been indexed and null
+	 *         otherwise.
+	 */
+	public TextDocument getIndexedDocument() {
+		return indexedDocument;
+	}
+
+	boolean isIgnoreWhitespaceContent() {
+		return ignoreWhitespaceContent;
+	}
+
+	void setIgnoreWhitespaceContent(boolean ignoreWhitespaceContent) {
+		this.ignoreWhitespaceContent = ignoreWhitespaceContent;
+	}
+
+	/**
+	 * Returns the modification stamp of the DOM document which changes each time
+	 * the DOM document is updated in place.
+	 * 
+	 * <p>
+	 * It can be used to invalidate the information which is computed from the
+	 * DOM document and cached.
+	 * </p>
+	 * 
+	 * @return the modification stamp of the DOM document.
+	 */
+	public int getModificationStamp() {
+		return modificationStamp;
+	}
+
+	void updateModificationStamp() {
+		modificationStamp++;
+	}
+
+	/**
+	 * Returns true if the DOM document has been parsed in large file mode (the
+	 * content of the elements is parsed lazily) and false otherwise.
+	 * 
+	 * @return true if the DOM document has been parsed in large file mode and
+	 *         false otherwise.
+	 */
+	public boolean isLargeFile() {
+		return elementIndex != null;
+	}
+
 	public Position positionAt(int offset) throws BadLocationException {
 		checkCanceled();
 		return textDocument.positionAt(offset);
@@ -941,6 +1046,10 @@ public class DOMDocument extends DOMNode implements Document {
 	}
 
 	private void checkCanceled() {
+		CancelChecker cancelChecker = THREAD_CANCEL_CHECKER.get();
+		if (cancelChecker == null) {
+			cancelChecker = this.cancelChecker;
+		}
 		if (cancelChecker != null) {
 			cancelChecker.checkCanceled();
 		}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
+import org.eclipse.lemminx.services.IXMLDocumentProvider;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lemminx.utils.IOUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the DOM documents of external files (xs:include, xi:include, RelaxNG
+ * include, etc) which are not opened in an editor.
+ *
+ * <p>
+ * A cached DOM document is parsed again when its file changes (see
+ * {@link FilesChangedTracker}). When the file is opened in an editor, the
+ * content of the editor buffer is parsed in a new DOM document which is not
+ * cached (the DOM document of the editor is never shared with the consumers of
+ * the cache).
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by the sum of the text length of the cached documents
+ * (see {@link #setMaximumSize(int)}).
+ * </p>
+ *
+ */
+public class DOMDocumentCache {
+
+	private static final Logger LOGGER = Logger.getLogger(DOMDocumentCache.class.getName());
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 32; // 32 MB of text
+
+	private static final DOMDocumentCache INSTANCE = new DOMDocumentCache();
+
+	public static DOMDocumentCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Cached DOM document.
+	 */
+	private static class CachedDocument {
+
+		private final DOMDocument document;
+
+		private final FilesChangedTracker tracker;
+
+		private boolean dirty;
+
+		CachedDocument(DOMDocument document, FilesChangedTracker tracker) {
+			this.document = document;
+			this.tracker = tracker;
+		}
+
+		synchronized boolean isDirty() {
+			if (!dirty && tracker.isDirty()) {
+				dirty = true;
+			}
+			return dirty;
+		}
+
+		boolean isValidFor(URIResolverExtensionManager resolverExtensionManager) {
+			return document.getResolverExtensionManager() == resolverExtensionManager && !isDirty();
+		}
+
+		int getWeight() {
+			return document.getText().length();
+		}
+	}
+
+	private volatile Cache<String, CachedDocument> cache;
+
+	private int maximumSize;
+
+	private volatile IXMLDocumentProvider openedDocuments;
+
+	DOMDocumentCache() {
+		this.maximumSize = DEFAULT_MAXIMUM_SIZE;
+		this.cache = createCache(maximumSize);
+	}
+
+	private static Cache<String, CachedDocument> createCache(int maximumSize) {
+		return CacheBuilder.newBuilder() //
+				.maximumWeight(maximumSize * 1024L * 1024L) //
+				.weigher((String uri, CachedDocument document) -> document.getWeight()) //
+				.build();
+	}
+
+	/**
+	 * Returns the DOM document of the given document URI and null if the
+	 * document cannot be loaded.
+	 *
+	 * @param documentURI              the document URI.
+	 * @param resolverExtensionManager the resolver extension manager.
+	 *
+	 * @return the DOM document of the given document URI and null if the
+	 *         document cannot be loaded.
+	 */
+	public DOMDocument getDocument(String documentURI, URIResolverExtensionManager resolverExtensionManager) {
+		IXMLDocumentProvider openedDocuments = this.openedDocuments;
+		if (openedDocuments != null) {
+			// The file is opened in an editor, parse the content of the editor
+			DOMDocument document = openedDocuments.getDocument(documentURI);
+			if (document != null) {
+				return DOMParser.getInstance().parse(document.getText(), documentURI, resolverExtensionManager);
+			}
+		}
+		if (!documentURI.startsWith("file:")) {
+			// Only files are tracked
+			return loadDocument(documentURI, resolverExtensionManager);
+		}
+		Cache<String, CachedDocument> cache = this.cache;
+		CachedDocument cachedDocument = cache.getIfPresent(documentURI);
+		if (cachedDocument != null) {
+			if (cachedDocument.isValidFor(resolverExtensionManager)) {
+				return cachedDocument.document;
+			}
+			cache.asMap().remove(documentURI, cachedDocument);
+		}
+		try {
+			return cache.get(documentURI, () -> {
+				// Track the file before loading it to parse it again if it changes during the
+				// loading
+				FilesChangedTracker tracker = new FilesChangedTracker();
+				tracker.addFileURI(documentURI);
+				DOMDocument document = loadDocument(documentURI, resolverExtensionManager);
+				if (document == null) {
+					throw new IOException("Cannot load '" + documentURI + "'");
+				}
+				return new CachedDocument(document, tracker);
+			}).document;
+		} catch (ExecutionException e) {
+			LOGGER.log(Level.FINE, "Error while loading the DOM document '" + documentURI + "'", e.getCause());
+			return null;
+		}
+	}
+
+	private static DOMDocument loadDocument(String documentURI, URIResolverExtensionManager resolverExtensionManager) {
+		try (InputStream in = new URL(documentURI).openStream()) {
+			return DOMParser.getInstance().parse(IOUtils.convertStreamToString(in), documentURI,
+					resolverExtensionManager);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Set the provider of the DOM documents opened in an editor.
+	 *
+	 * @param openedDocuments the provider of the DOM documents opened in an
+	 *                        editor.
+	 */
+	public void setOpenedDocumentsProvider(IXMLDocumentProvider openedDocuments) {
+		this.openedDocuments = openedDocuments;
+	}
+
+	/**
+	 * Returns the maximum size (in MB of text) of the cached documents.
+	 *
+	 * @return the maximum size (in MB of text) of the cached documents.
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Set the maximum size (in MB of text) of the cached documents. 0 disables
+	 * the cache.
+	 *
+	 * @param maximumSize the maximum size (in MB of text) of the cached
+	 *                    documents.
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0 || this.maximumSize == maximumSize) {
+			return;
+		}
+		this.maximumSize = maximumSize;
+		this.cache = createCache(maximumSize);
+	}
+
+	/**
+	 * Remove all cached documents.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+}
@@ -34,6 +34,13 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 
 	String tag;
 	boolean selfClosed;
+	// true if the content of the element has not been parsed (large file mode)
+	volatile boolean collapsed;
+	// the element of a previous DOM document whose children have not been copied
+	// yet in this element (incremental parse)
+	volatile DOMElement copySource;
+	// the delta to add to the offsets of the children copied from copySource
+	int copyDelta;
 
 	// DomElement.start == startTagOpenOffset
 	int startTagOpenOffset = NULL_VALUE; // |<root>
@@ -238,6 +245,90 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 		return selfClosed;
 	}
 
+	/**
+	 * Returns true if the content of the element (of a large file) has not been
+	 * parsed yet and false otherwise.
+	 * 
+	 * @return true if the content of the element has not been parsed yet and
+	 *         false otherwise.
+	 */
+	public boolean isCollapsed() {
+		return collapsed;
+	}
+
+	/**
+	 * Parse the content of the element (of a large file) if it has not been
+	 * parsed yet.
+	 */
+	private void expand() {
+		copyChildren();
+		if (collapsed) {
+			DOMParser.getInstance().expand(this, -1);
+		}
+	}
+
+	/**
+	 * Copy the children of the element of the previous DOM document (incremental
+	 * parse) if they have not been copied yet.
+	 */
+	private void copyChildren() {
+		if (copySource != null) {
+			DOMParser.getInstance().copyChildren(this);
+		}
+	}
+
+	@Override
+	List<DOMNode> getParsedChildren() {
+		copyChildren();
+		return super.getParsedChildren();
+	}
+
+	@Override
+	public List<DOMNode> getChildren() {
+		expand();
+		return super.getChildren();
+	}
+
+	@Override
+	public boolean hasChildNodes() {
+		expand();
+		return super.hasChildNodes();
+	}
+
+	@Override
+	public DOMNode getFirstChild() {
+		expand();
+		return super.getFirstChild();
+	}
+
+	@Override
+	public DOMNode getLastChild() {
+		expand();
+		return super.getLastChild();
+	}
+
+	@Override
+	public NodeList getChildNodes() {
+		expand();
+		return super.getChildNodes();
+	}
+
+	@Override
+	public DOMNode findNodeAt(int offset) {
+		if (collapsed) {
+			DOMParser.getInstance().expand(this, offset);
+		}
+		return super.findNodeAt(offset);
+	}
+
+	@Override
+	public DOMNode findNodeBefore(int offset) {
+		if (collapsed) {
+			DOMParser.getInstance().expand(this, offset);
+		}
+		return super.findNodeBefore(offset);
+	}
+
 	/**
 	 * Will traverse backwards from the start offset returning an offset of the
 	 * given character if it's found before another character. Whitespace is
@@ -356,6 +447,42 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 		return endTagCloseOffset;
 	}
 
+	/**
+	 * Shift the offsets of this element (start and end tags), its attributes and
+	 * its children (copied or not) with the given delta.
+	 * 
+	 * @param delta the delta to add to the offsets.
+	 */
+	@Override
+	void shift(int delta) {
+		super.shift(delta);
+		if (copySource != null) {
+			// the children which are not copied yet will be shifted when they are copied
+			copyDelta += delta;
+		}
+		startTagOpenOffset = shift(startTagOpenOffset, delta);
+		startTagCloseOffset = shift(startTagCloseOffset, delta);
+		shiftEndTag(delta);
+	}
+
+	/**
+	 * Shift the end tag offsets of this element with the given delta.
+	 * 
+	 * @param delta the delta to add to the offsets.
+	 */
+	void shiftEndTag(int delta) {
+		endTagOpenOffset = shift(endTagOpenOffset, delta);
+		endTagCloseOffset = shift(endTagCloseOffset, delta);
+	}
+
+	/**
+	 * Returns the given offset shifted with the given delta and
+	 * {@link DOMNode#NULL_VALUE} if the offset doesn't exist.
+	 */
+	private static int shift(int offset, int delta) {
+		return offset != NULL_VALUE ? offset + delta : NULL_VALUE;
+	}
+
 	/**
 	 * Returns true if has a start tag.
 	 *
@@ -0,0 +1,484 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.TokenType;
+import org.eclipse.lemminx.dom.parser.XMLScanner;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Compact index of the elements of a large XML document, built in one
+ * streaming pass of the {@link XMLScanner} without creating DOM nodes.
+ *
+ * <p>
+ * The elements are stored in document order (an element is stored before its
+ * children) in int arrays:
+ * </p>
+ *
+ * <ul>
+ * <li>start : offset of the start tag (|&lt;root&gt;).</li>
+ * <li>startTagClose : offset of '&gt;' (or '/&gt;' for self-closed element) of
+ * the start tag.</li>
+ * <li>endTagOpen : offset of the end tag (|&lt;/root&gt;) and -1 for a
+ * self-closed element.</li>
+ * <li>end : end offset of the element.</li>
+ * <li>parent, next sibling and depth of the element.</li>
+ * <li>nameEnd : end offset of the tag name and -1 if the element has no
+ * name.</li>
+ * <li>firstAttribute : index of the first attribute of the element in the
+ * attribute table.</li>
+ * </ul>
+ *
+ * <p>
+ * The attributes are stored in document order in the attribute table (int
+ * arrays of the name, delimiter and value offsets), so the attributes of an
+ * element are contiguous. The DOM elements of a large file are created on
+ * demand from those tables (see {@link DOMParser#parseLargeFile}).
+ * </p>
+ *
+ * <p>
+ * The index is only built for well-formed element structures (each start tag
+ * is closed and each end tag matches its start tag).
+ * </p>
+ *
+ */
+public class DOMElementIndex {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private static final int[] EMPTY = new int[0];
+
+	private int size;
+
+	private int[] starts;
+
+	private int[] startTagCloses;
+
+	private int[] endTagOpens;
+
+	private int[] ends;
+
+	private int[] parents;
+
+	private int[] nextSiblings;
+
+	private int[] depths;
+
+	private int[] nameEnds;
+
+	private int[] firstAttributes;
+
+	private int attributeSize;
+
+	private int[] attributeNameStarts;
+
+	private int[] attributeNameEnds;
+
+	private int[] attributeDelimiters;
+
+	private int[] attributeValueStarts;
+
+	private int[] attributeValueEnds;
+
+	private DOMElementIndex() {
+		starts = new int[INITIAL_CAPACITY];
+		startTagCloses = new int[INITIAL_CAPACITY];
+		endTagOpens = new int[INITIAL_CAPACITY];
+		ends = new int[INITIAL_CAPACITY];
+		parents = new int[INITIAL_CAPACITY];
+		nextSiblings = new int[INITIAL_CAPACITY];
+		depths = new int[INITIAL_CAPACITY];
+		nameEnds = new int[INITIAL_CAPACITY];
+		firstAttributes = new int[INITIAL_CAPACITY];
+		attributeNameStarts = new int[INITIAL_CAPACITY];
+		attributeNameEnds = new int[INITIAL_CAPACITY];
+		attributeDelimiters = new int[INITIAL_CAPACITY];
+		attributeValueStarts = new int[INITIAL_CAPACITY];
+		attributeValueEnds = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Returns the index of the elements of the given text and null if the element
+	 * structure of the text is not well-formed.
+	 *
+	 * @param text    the XML text.
+	 * @param monitor the cancel checker.
+	 * @return the index of the elements of the given text and null if the element
+	 *         structure of the text is not well-formed.
+	 */
+	public static DOMElementIndex build(String text, CancelChecker monitor) {
+		DOMElementIndex index = new DOMElementIndex();
+		// stack of the opened elements (index and tag name)
+		int[] stack = new int[64];
+		List<String> names = new ArrayList<>();
+		int top = -1;
+		int lastClosed = -1;
+		int endTagOpenOffset = -1;
+		// the attribute which waits for its value
+		int attribute = -1;
+		Scanner scanner = XMLScanner.createScanner(text);
+		TokenType token = scanner.scan();
+		int count = 0;
+		while (token != TokenType.EOS) {
+			if (monitor != null && (++count & 0xFFF) == 0) {
+				monitor.checkCanceled();
+			}
+			switch (token) {
+			case StartTagOpen: {
+				if (top >= 0 && (index.startTagCloses[stack[top]] == -1 || index.endTagOpens[stack[top]] != -1)) {
+					// ex : <a <b> or <a></a <b>
+					return null;
+				}
+				int parent = top >= 0 ? stack[top] : -1;
+				int element = index.add(scanner.getTokenOffset(), parent, top + 1);
+				// link the previous sibling
+				if (lastClosed != -1 && index.parents[lastClosed] == parent) {
+					index.nextSiblings[lastClosed] = element;
+				}
+				lastClosed = -1;
+				attribute = -1;
+				top++;
+				if (top == stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top] = element;
+				names.add(null);
+				break;
+			}
+			case StartTag:
+				if (top >= 0) {
+					if (scanner.getTokenOffset() != index.starts[stack[top]] + 1) {
+						return null;
+					}
+					names.set(top, scanner.getTokenText());
+					index.nameEnds[stack[top]] = scanner.getTokenEnd();
+				}
+				break;
+			case StartTagClose:
+				if (top >= 0 && index.startTagCloses[stack[top]] == -1) {
+					index.startTagCloses[stack[top]] = scanner.getTokenOffset();
+				}
+				attribute = -1;
+				break;
+			case AttributeName:
+				// the attributes of a processing instruction are ignored
+				attribute = top >= 0 && index.startTagCloses[stack[top]] == -1
+						? index.addAttribute(scanner.getTokenOffset(), scanner.getTokenEnd())
+						: -1;
+				break;
+			case DelimiterAssign:
+				if (attribute != -1) {
+					index.attributeDelimiters[attribute] = scanner.getTokenOffset();
+				}
+				break;
+			case AttributeValue:
+				if (attribute != -1) {
+					index.attributeValueStarts[attribute] = scanner.getTokenOffset();
+					index.attributeValueEnds[attribute] = scanner.getTokenEnd();
+				}
+				attribute = -1;
+				break;
+			case StartTagSelfClose: {
+				if (top < 0 || index.startTagCloses[stack[top]] != -1) {
+					return null;
+				}
+				int element = stack[top];
+				index.startTagCloses[element] = scanner.getTokenOffset();
+				index.ends[element] = scanner.getTokenEnd();
+				lastClosed = element;
+				attribute = -1;
+				names.remove(top);
+				top--;
+				break;
+			}
+			case EndTagOpen:
+				endTagOpenOffset = scanner.getTokenOffset();
+				break;
+			case EndTag: {
+				if (top < 0 || names.get(top) == null || !names.get(top).equals(scanner.getTokenText())
+						|| index.startTagCloses[stack[top]] == -1) {
+					// orphan end tag, unclosed element
+					return null;
+				}
+				index.endTagOpens[stack[top]] = endTagOpenOffset;
+				break;
+			}
+			case EndTagClose: {
+				if (top < 0 || index.endTagOpens[stack[top]] == -1) {
+					// ex : </>
+					return null;
+				}
+				int element = stack[top];
+				index.ends[element] = scanner.getTokenEnd();
+				lastClosed = element;
+				names.remove(top);
+				top--;
+				break;
+			}
+			default:
+			}
+			token = scanner.scan();
+		}
+		if (top != -1) {
+			// unclosed elements
+			return null;
+		}
+		index.trimToSize();
+		return index;
+	}
+
+	private void trimToSize() {
+		starts = Arrays.copyOf(starts, size);
+		startTagCloses = Arrays.copyOf(startTagCloses, size);
+		endTagOpens = Arrays.copyOf(endTagOpens, size);
+		ends = Arrays.copyOf(ends, size);
+		parents = Arrays.copyOf(parents, size);
+		nextSiblings = Arrays.copyOf(nextSiblings, size);
+		depths = Arrays.copyOf(depths, size);
+		nameEnds = Arrays.copyOf(nameEnds, size);
+		firstAttributes = Arrays.copyOf(firstAttributes, size);
+		if (attributeSize == 0) {
+			attributeNameStarts = EMPTY;
+			attributeNameEnds = EMPTY;
+			attributeDelimiters = EMPTY;
+			attributeValueStarts = EMPTY;
+			attributeValueEnds = EMPTY;
+		} else {
+			attributeNameStarts = Arrays.copyOf(attributeNameStarts, attributeSize);
+			attributeNameEnds = Arrays.copyOf(attributeNameEnds, attributeSize);
+			attributeDelimiters = Arrays.copyOf(attributeDelimiters, attributeSize);
+			attributeValueStarts = Arrays.copyOf(attributeValueStarts, attributeSize);
+			attributeValueEnds = Arrays.copyOf(attributeValueEnds, attributeSize);
+		}
+	}
+
+	private int add(int start, int parent, int depth) {
+		if (size == starts.length) {
+			int capacity = size + (size >> 1);
+			starts = Arrays.copyOf(starts, capacity);
+			startTagCloses = Arrays.copyOf(startTagCloses, capacity);
+			endTagOpens = Arrays.copyOf(endTagOpens, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+			depths = Arrays.copyOf(depths, capacity);
+			nameEnds = Arrays.copyOf(nameEnds, capacity);
+			firstAttributes = Arrays.copyOf(firstAttributes, capacity);
+		}
+		int element = size++;
+		starts[element] = start;
+		startTagCloses[element] = -1;
+		endTagOpens[element] = -1;
+		ends[element] = -1;
+		parents[element] = parent;
+		nextSiblings[element] = -1;
+		depths[element] = depth;
+		nameEnds[element] = -1;
+		firstAttributes[element] = attributeSize;
+		return element;
+	}
+
+	private int addAttribute(int nameStart, int nameEnd) {
+		if (attributeSize == attributeNameStarts.length) {
+			int capacity = attributeSize + (attributeSize >> 1);
+			attributeNameStarts = Arrays.copyOf(attributeNameStarts, capacity);
+			attributeNameEnds = Arrays.copyOf(attributeNameEnds, capacity);
+			attributeDelimiters = Arrays.copyOf(attributeDelimiters, capacity);
+			attributeValueStarts = Arrays.copyOf(attributeValueStarts, capacity);
+			attributeValueEnds = Arrays.copyOf(attributeValueEnds, capacity);
+		}
+		int attribute = attributeSize++;
+		attributeNameStarts[attribute] = nameStart;
+		attributeNameEnds[attribute] = nameEnd;
+		attributeDelimiters[attribute] = -1;
+		attributeValueStarts[attribute] = -1;
+		attributeValueEnds[attribute] = -1;
+		return attribute;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return the number of elements.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public int getStart(int element) {
+		return starts[element];
+	}
+
+	public int getStartTagClose(int element) {
+		return startTagCloses[element];
+	}
+
+	public int getEndTagOpen(int element) {
+		return endTagOpens[element];
+	}
+
+	public int getEnd(int element) {
+		return ends[element];
+	}
+
+	public int getParent(int element) {
+		return parents[element];
+	}
+
+	public int getNextSibling(int element) {
+		return nextSiblings[element];
+	}
+
+	public int getDepth(int element) {
+		return depths[element];
+	}
+
+	public boolean isSelfClosed(int element) {
+		return endTagOpens[element] == -1;
+	}
+
+	/**
+	 * Returns the first child element of the given element and -1 otherwise.
+	 *
+	 * @param element the element.
+	 * @return the first child element of the given element and -1 otherwise.
+	 */
+	public int getFirstChild(int element) {
+		int child = element + 1;
+		return child < size && parents[child] == element ? child : -1;
+	}
+
+	/**
+	 * Returns the element which starts at the given offset and -1 otherwise.
+	 *
+	 * @param start the start offset.
+	 * @return the element which starts at the given offset and -1 otherwise.
+	 */
+	public int indexOf(int start) {
+		int index = Arrays.binarySearch(starts, 0, size, start);
+		return index >= 0 ? index : -1;
+	}
+
+	/**
+	 * Returns the last element which starts before (or at) the given offset and -1
+	 * otherwise.
+	 *
+	 * @param offset the offset.
+	 * @return the last element which starts before (or at) the given offset and -1
+	 *         otherwise.
+	 */
+	public int findElementBefore(int offset) {
+		int index = Arrays.binarySearch(starts, 0, size, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Returns the child of the given parent element (-1 for the document) which
+	 * contains or follows the given offset and -1 otherwise.
+	 *
+	 * @param parent the parent element and -1 for the document.
+	 * @param offset the offset.
+	 * @return the child of the given parent element which contains or follows the
+	 *         given offset and -1 otherwise.
+	 */
+	public int findChildAt(int parent, int offset) {
+		int parentDepth = parent == -1 ? -1 : depths[parent];
+		int element = findElementBefore(offset);
+		// the last element which starts before the offset is a child of the parent,
+		// one of its descendants or is not contained in the parent
+		while (element != -1 && parents[element] != parent) {
+			if (depths[element] <= parentDepth) {
+				element = -1;
+				break;
+			}
+			element = parents[element];
+		}
+		if (element == -1) {
+			// the offset is before the first child
+			int firstChild = parent == -1 ? (size > 0 ? 0 : -1) : getFirstChild(parent);
+			return firstChild;
+		}
+		if (ends[element] <= offset) {
+			return nextSiblings[element];
+		}
+		return element;
+	}
+
+	/**
+	 * Returns the name of the given element.
+	 *
+	 * @param element the element.
+	 * @param text    the XML text.
+	 * @return the name of the given element.
+	 */
+	public String getName(int element, String text) {
+		int end = nameEnds[element];
+		return end != -1 ? text.substring(starts[element] + 1, end) : null;
+	}
+
+	/**
+	 * Returns the index of the first attribute of the given element in the
+	 * attribute table.
+	 *
+	 * @param element the element.
+	 * @return the index of the first attribute of the given element in the
+	 *         attribute table.
+	 */
+	public int getFirstAttribute(int element) {
+		return firstAttributes[element];
+	}
+
+	/**
+	 * Returns the number of attributes of the given element.
+	 *
+	 * @param element the element.
+	 * @return the number of attributes of the given element.
+	 */
+	public int getAttributeCount(int element) {
+		int next = element + 1 < size ? firstAttributes[element + 1] : attributeSize;
+		return next - firstAttributes[element];
+	}
+
+	public int getAttributeNameStart(int attribute) {
+		return attributeNameStarts[attribute];
+	}
+
+	public int getAttributeNameEnd(int attribute) {
+		return attributeNameEnds[attribute];
+	}
+
+	public int getAttributeDelimiter(int attribute) {
+		return attributeDelimiters[attribute];
+	}
+
+	public int getAttributeValueStart(int attribute) {
+		return attributeValueStarts[attribute];
+	}
+
+	public int getAttributeValueEnd(int attribute) {
+		return attributeValueEnds[attribute];
+	}
+
+	/**
+	 * Returns the size (in bytes) of the arrays of the index.
+	 *
+	 * @return the size (in bytes) of the arrays of the index.
+	 */
+	public long getMemorySize() {
+		return 4L * (9L * size + 5L * attributeSize);
+	}
+}
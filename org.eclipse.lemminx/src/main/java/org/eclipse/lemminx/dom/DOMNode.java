@@ -65,7 +65,7 @@ public abstract class DOMNode implements Node, DOMRange {
 	private XMLNamedNodeMap<DOMAttr> attributeNodes;
 	private XMLNodeList<DOMNode> children;
 
-	final int start; // |<root> </root>
+	int start; // |<root> </root>
 	int end; // <root> </root>|
 
 	DOMNode parent;
@@ -225,7 +225,7 @@ public abstract class DOMNode implements Node, DOMRange {
 	 * Returns the node before
 	 */
 	public DOMNode findNodeBefore(int offset) {
-		List<DOMNode> children = getChildren();
+		List<DOMNode> children = getParsedChildren();
 		int idx = findFirst(children, c -> offset <= c.start) - 1;
 		if (idx >= 0) {
 			DOMNode child = children.get(idx);
@@ -233,7 +233,8 @@ public abstract class DOMNode implements Node, DOMRange {
 				if (offset < child.end) {
 					return child.findNodeBefore(offset);
 				}
-				DOMNode lastChild = child.getLastChild();
+				List<DOMNode> childChildren = child.getParsedChildren();
+				DOMNode lastChild = childChildren.isEmpty() ? null : childChildren.get(childChildren.size() - 1);
 				if (lastChild != null && lastChild.end == child.end) {
 					return child.findNodeBefore(offset);
 				}
@@ -244,7 +245,7 @@ public abstract class DOMNode implements Node, DOMRange {
 	}
 
 	public DOMNode findNodeAt(int offset) {
-		List<DOMNode> children = getChildren();
+		List<DOMNode> children = getParsedChildren();
 		int idx = findFirst(children, c -> offset <= c.start) - 1;
 		if (idx >= 0) {
 			DOMNode child = children.get(idx);
@@ -487,6 +488,19 @@ public abstract class DOMNode implements Node, DOMRange {
 		return children;
 	}
 
+	/**
+	 * Returns the node children which have been parsed (the content of a
+	 * collapsed element of a large file is not parsed).
+	 * 
+	 * @return the node children which have been parsed.
+	 */
+	List<DOMNode> getParsedChildren() {
+		if (children == null) {
+			return Collections.emptyList();
+		}
+		return children;
+	}
+
 	/**
 	 * Add node child and set child.parent to {@code this}
 	 * 
@@ -497,7 +511,37 @@ public abstract class DOMNode implements Node, DOMRange {
 		if (children == null) {
 			children = new XMLNodeList<>();
 		}
-		getChildren().add(child);
+		children.add(child);
+	}
+
+	/**
+	 * Replace the node children with the given list.
+	 * 
+	 * @param children the new node children.
+	 */
+	void setChildren(XMLNodeList<DOMNode> children) {
+		this.children = children;
+	}
+
+	/**
+	 * Shift the offsets of this node, its attributes and its children with the
+	 * given delta.
+	 * 
+	 * @param delta the delta to add to the offsets.
+	 */
+	void shift(int delta) {
+		start += delta;
+		end += delta;
+		if (attributeNodes != null) {
+			for (DOMAttr attr : attributeNodes) {
+				attr.shift(delta);
+			}
+		}
+		if (children != null) {
+			for (DOMNode child : children) {
+				child.shift(delta);
+			}
+		}
 	}
 
 	/**
@@ -844,7 +888,8 @@ public abstract class DOMNode implements Node, DOMRange {
 			return null;
 		// concatenation of the textContent attribute value of every child node
 		default:
-			if (this.children != null && children.size() > 0) {
+			List<DOMNode> children = getParsedChildren();
+			if (children.size() > 0) {
 				final StringBuilder builder = new StringBuilder();
 				for (DOMNode child : children) {
 					short nodeType = child.getNodeType();
@@ -17,10 +17,14 @@
  */
 package org.eclipse.lemminx.dom;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.DirtyRegion;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.parser.Scanner;
 import org.eclipse.lemminx.dom.parser.TokenType;
@@ -28,6 +32,7 @@ import org.eclipse.lemminx.dom.parser.XMLScanner;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.w3c.dom.Node;
 
 /**
  * Tolerant XML parser.
@@ -39,6 +44,18 @@ public class DOMParser {
 
 	private static final DOMParser INSTANCE = new DOMParser();
 
+	/**
+	 * Maximum size of an element content (of a large file) which is fully parsed
+	 * when the element is expanded.
+	 */
+	private static final int FULL_PARSE_SIZE = 256 * 1024;
+
+	/**
+	 * Number of characters before and after the expanded offset for which the
+	 * child elements of a large element are created.
+	 */
+	private static final int WINDOW_SIZE = 64 * 1024;
+
 	public static DOMParser getInstance() {
 		return INSTANCE;
 	}
@@ -68,11 +85,11 @@ public class DOMParser {
 	public DOMDocument parse(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
 			boolean ignoreWhitespaceContent, CancelChecker monitor) {
 		boolean isDTD = DOMUtils.isDTD(document.getUri());
-		boolean inDTDInternalSubset = false;
 		String text = document.getText();
 		Scanner scanner = XMLScanner.createScanner(text, 0, isDTD);
 		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
 		xmlDocument.setCancelChecker(monitor);
+		xmlDocument.setIgnoreWhitespaceContent(ignoreWhitespaceContent);
 
 		DOMNode curr = isDTD ? new DOMDocumentType(0, text.length()) : xmlDocument;
 		if (isDTD) {
@@ -82,7 +99,574 @@ public class DOMParser {
 			// nothing should affect it's closed status
 			curr.closed = true;
 		}
-		DOMNode lastClosed = curr;
+		parse(xmlDocument, document, text, scanner, curr, curr, null, -1, ignoreWhitespaceContent, monitor);
+		return xmlDocument;
+	}
+
+	/**
+	 * Parse the given large document lazily: only the prolog, the start tag of
+	 * the root element and the content which follows the root element are
+	 * parsed. The content of the root element is parsed on demand (see
+	 * {@link DOMElement#isCollapsed()}) with the element index of the document.
+	 * 
+	 * <p>
+	 * When the element structure of the document is not well-formed, the whole
+	 * document is parsed.
+	 * </p>
+	 * 
+	 * @param document                the text document.
+	 * @param resolverExtensionManager the resolver extension manager.
+	 * @param ignoreWhitespaceContent true if whitespace content must be
+	 *                                ignored.
+	 * @param monitor                 the cancel checker.
+	 * @return the DOM document.
+	 */
+	public DOMDocument parseLargeFile(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
+			boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		if (DOMUtils.isDTD(document.getUri())) {
+			return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+		}
+		String text = document.getText();
+		DOMElementIndex index = DOMElementIndex.build(text, monitor);
+		if (index == null || index.getSize() == 0) {
+			return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+		}
+		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
+		xmlDocument.setCancelChecker(monitor);
+		xmlDocument.setIgnoreWhitespaceContent(ignoreWhitespaceContent);
+
+		// Parse the prolog and the start tag of the root element
+		int root = 0;
+		int rootStartTagEnd = index.isSelfClosed(root) ? index.getEnd(root) : index.getStartTagClose(root) + 1;
+		Scanner scanner = XMLScanner.createScanner(text, 0, false);
+		parse(xmlDocument, document, text, scanner, xmlDocument, xmlDocument, null, rootStartTagEnd,
+				ignoreWhitespaceContent, monitor);
+		DOMNode last = xmlDocument.getLastChild();
+		if (last == null || !last.isElement() || last.start != index.getStart(root)) {
+			return parse(document, resolverExtensionManager, ignoreWhitespaceContent, monitor);
+		}
+		DOMElement rootElement = (DOMElement) last;
+		if (!index.isSelfClosed(root)) {
+			initCollapsedElement(rootElement, index, root);
+		}
+
+		// Parse the content which follows the root element
+		scanner = XMLScanner.createScanner(text, rootElement.end, false);
+		parse(xmlDocument, document, text, scanner, xmlDocument, rootElement, null, -1, ignoreWhitespaceContent,
+				monitor);
+		xmlDocument.setElementIndex(index, new TextDocument(text, document.getUri()));
+		return xmlDocument;
+	}
+
+	/**
+	 * Parse the content of the given collapsed element of a large file around
+	 * the given offset.
+	 * 
+	 * <p>
+	 * When the content is small or has no child element, it is fully parsed.
+	 * Otherwise, only the child elements around the offset (or all the child
+	 * elements when the offset is -1) are created (as collapsed elements) and
+	 * the element stays collapsed until all its child elements have been
+	 * created.
+	 * </p>
+	 * 
+	 * <p>
+	 * The content is parsed with the text which has been indexed (the text
+	 * document could have changed since the parse of the DOM document). The new
+	 * children are fully built before being set in the element, and the
+	 * modification stamp of the DOM document is updated.
+	 * </p>
+	 * 
+	 * @param element the collapsed element.
+	 * @param offset  the offset and -1 to create all the child elements.
+	 */
+	void expand(DOMElement element, int offset) {
+		DOMDocument xmlDocument = element.getOwnerDocument();
+		DOMElementIndex index = xmlDocument != null ? xmlDocument.getElementIndex() : null;
+		if (index == null) {
+			element.collapsed = false;
+			return;
+		}
+		synchronized (index) {
+			if (!element.collapsed) {
+				return;
+			}
+			TextDocument document = xmlDocument.getIndexedDocument();
+			String text = document.getText();
+			int elementIndex = index.indexOf(element.start);
+			if (elementIndex == -1) {
+				element.collapsed = false;
+				return;
+			}
+			int contentStart = element.startTagCloseOffset + 1;
+			int contentEnd = element.endTagOpenOffset;
+			List<DOMNode> existing = element.getParsedChildren();
+			DOMNode.XMLNodeList<DOMNode> children = new DOMNode.XMLNodeList<>();
+			boolean expanded;
+			if (existing.isEmpty() && (contentEnd - contentStart <= FULL_PARSE_SIZE
+					|| index.getFirstChild(elementIndex) == -1)) {
+				// Parse the whole content of the element in a detached copy of the element
+				DOMElement content = xmlDocument.createElement(element.start, element.end);
+				content.tag = element.tag;
+				content.startTagOpenOffset = element.startTagOpenOffset;
+				content.startTagCloseOffset = element.startTagCloseOffset;
+				DOMNode lastClosed = findLastClosedBefore(element);
+				Scanner scanner = XMLScanner.createScanner(text, contentStart, false);
+				if (parse(xmlDocument, document, text, scanner, content, lastClosed, content, contentEnd,
+						xmlDocument.isIgnoreWhitespaceContent(), null)) {
+					for (DOMNode child : content.getParsedChildren()) {
+						child.parent = element;
+						children.add(child);
+					}
+				}
+				expanded = true;
+			} else {
+				// Create the child elements around the offset
+				int from = offset == -1 ? contentStart : Math.max(contentStart, offset - WINDOW_SIZE);
+				int to = offset == -1 ? contentEnd : Math.min(contentEnd, offset + WINDOW_SIZE);
+				int i = 0;
+				int child = index.findChildAt(elementIndex, from);
+				while (child != -1 && index.getStart(child) < to) {
+					int start = index.getStart(child);
+					while (i < existing.size() && existing.get(i).start < start) {
+						children.add(existing.get(i++));
+					}
+					if (i < existing.size() && existing.get(i).start == start) {
+						children.add(existing.get(i++));
+					} else {
+						DOMElement shell = createCollapsedElement(xmlDocument, text, index, child);
+						shell.parent = element;
+						children.add(shell);
+					}
+					child = index.getNextSibling(child);
+				}
+				while (i < existing.size()) {
+					children.add(existing.get(i++));
+				}
+				expanded = from == contentStart && to == contentEnd;
+			}
+			element.setChildren(children.isEmpty() ? null : children);
+			xmlDocument.updateModificationStamp();
+			if (expanded) {
+				// The volatile write publishes the children to the readers which don't take
+				// the lock
+				element.collapsed = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the element (without content) of the given index created from the
+	 * element and attribute tables of the index.
+	 */
+	private static DOMElement createCollapsedElement(DOMDocument xmlDocument, String text, DOMElementIndex index,
+			int element) {
+		int start = index.getStart(element);
+		DOMElement shell = xmlDocument.createElement(start, index.getEnd(element));
+		shell.startTagOpenOffset = start;
+		shell.tag = index.getName(element, text);
+		int attribute = index.getFirstAttribute(element);
+		int lastAttribute = attribute + index.getAttributeCount(element);
+		for (; attribute < lastAttribute; attribute++) {
+			DOMAttr attr = new DOMAttr(null, index.getAttributeNameStart(attribute),
+					index.getAttributeNameEnd(attribute), shell);
+			if (index.getAttributeDelimiter(attribute) != -1) {
+				attr.setDelimiter(index.getAttributeDelimiter(attribute));
+			}
+			if (index.getAttributeValueStart(attribute) != -1) {
+				attr.setValue(null, index.getAttributeValueStart(attribute), index.getAttributeValueEnd(attribute));
+			}
+			shell.setAttributeNode(attr);
+		}
+		if (index.isSelfClosed(element)) {
+			shell.closed = true;
+			shell.selfClosed = true;
+		} else {
+			shell.startTagCloseOffset = index.getStartTagClose(element);
+			initCollapsedElement(shell, index, element);
+		}
+		return shell;
+	}
+
+	/**
+	 * Close the given element with the end tag offsets of the element index and
+	 * mark it as collapsed when it has a content.
+	 */
+	private static void initCollapsedElement(DOMElement element, DOMElementIndex index, int elementIndex) {
+		element.closed = true;
+		element.endTagOpenOffset = index.getEndTagOpen(elementIndex);
+		element.end = index.getEnd(elementIndex);
+		element.endTagCloseOffset = element.end - 1;
+		element.collapsed = element.startTagCloseOffset + 1 < element.endTagOpenOffset;
+	}
+
+	/**
+	 * Returns the DOM document of the given text document built from the given
+	 * previous DOM document by parsing only the content of the smallest element
+	 * which contains the given dirty region.
+	 * 
+	 * <p>
+	 * The path from the root to the element is copied from the previous DOM
+	 * document (which is cheaper than scanning the text again), the other elements
+	 * are copied without their children which are copied only when they are
+	 * accessed (see {@link #copyChildren(DOMElement)}), so the cost of the copy
+	 * doesn't depend on the size of the document. The content of the element is
+	 * parsed again in the copy, and
+	 * the offsets of the nodes which follow the element (end tag of the element
+	 * and of its ancestors, next siblings of the element and of its ancestors) are
+	 * shifted in the copy. The incremental parse is not done when the start or end
+	 * tag of the element could be impacted by the change (ex : the new content has
+	 * an orphan end tag, an unclosed comment, etc.) or when the document has a
+	 * DOCTYPE: in this case, null is returned and the document must be fully
+	 * parsed.
+	 * </p>
+	 * 
+	 * <p>
+	 * The previous DOM document is never modified, so it can still be used by the
+	 * requests and the validation which have been started with it.
+	 * </p>
+	 * 
+	 * @param previous the DOM document parsed before the change.
+	 * @param document the text document which contains the changes.
+	 * @param region   the dirty region since the parse of the previous DOM
+	 *                 document.
+	 * @param monitor  the cancel checker.
+	 * @return the new DOM document and null if the document must be fully parsed.
+	 */
+	public DOMDocument parseIncremental(DOMDocument previous, TextDocument document, DirtyRegion region,
+			CancelChecker monitor) {
+		if (previous == null || region == null || previous.getTextDocument() != document || previous.isDTD()
+				|| previous.isLargeFile() || previous.getDoctype() != null) {
+			return null;
+		}
+		String text = document.getText();
+		int delta = region.getDelta();
+		if (previous.end + delta != text.length()) {
+			// The previous DOM document was not parsed with the text before the dirty
+			// region.
+			return null;
+		}
+		int changeStart = region.getOffset();
+		int changeEnd = changeStart + region.getOldLength();
+
+		// Find the smallest element which contains the change in its content
+		DOMElement previousElement = findSmallestElementContentAt(previous, changeStart, changeEnd);
+		if (previousElement == null) {
+			return null;
+		}
+
+		// Copy the path from the root to the element (without the content of the
+		// element), the other elements are copied lazily
+		boolean ignoreWhitespaceContent = previous.isIgnoreWhitespaceContent();
+		DOMDocument xmlDocument = new DOMDocument(document, previous.getResolverExtensionManager());
+		xmlDocument.setIgnoreWhitespaceContent(ignoreWhitespaceContent);
+		xmlDocument.setCancelChecker(monitor);
+		xmlDocument.start = previous.start;
+		xmlDocument.end = previous.end;
+		xmlDocument.closed = previous.closed;
+		Deque<DOMNode> path = new ArrayDeque<>();
+		for (DOMNode node = previousElement; node != previous; node = node.parent) {
+			path.push(node);
+		}
+		DOMNode node = previous;
+		DOMNode copy = xmlDocument;
+		while (!path.isEmpty()) {
+			DOMNode pathNode = path.pop();
+			DOMNode pathNodeCopy = null;
+			for (DOMNode child : node.getChildren()) {
+				DOMNode childCopy = copyNode(child, xmlDocument, child != pathNode);
+				if (childCopy == null) {
+					return null;
+				}
+				copy.addChild(childCopy);
+				if (child == pathNode) {
+					pathNodeCopy = childCopy;
+				}
+			}
+			node = pathNode;
+			copy = pathNodeCopy;
+		}
+		DOMElement element = (DOMElement) copy;
+
+		// Parse the new content of the element
+		int elementEnd = element.end;
+		int regionEnd = element.endTagOpenOffset + delta;
+		DOMNode lastClosed = findLastClosedBefore(element);
+		element.closed = false;
+		Scanner scanner = XMLScanner.createScanner(text, element.startTagCloseOffset + 1, false);
+		if (!parse(xmlDocument, document, text, scanner, element, lastClosed, element, regionEnd,
+				ignoreWhitespaceContent, monitor)) {
+			return null;
+		}
+		element.closed = true;
+		element.end = elementEnd + delta;
+		element.shiftEndTag(delta);
+
+		// Shift the offsets of the nodes which follow the element
+		DOMNode current = element;
+		DOMNode parent = element.parent;
+		while (parent != null) {
+			List<DOMNode> siblings = parent.getChildren();
+			int index = indexOf(siblings, current);
+			for (int i = index + 1; i < siblings.size(); i++) {
+				siblings.get(i).shift(delta);
+			}
+			parent.end += delta;
+			if (parent.isElement()) {
+				((DOMElement) parent).shiftEndTag(delta);
+			}
+			current = parent;
+			parent = parent.parent;
+		}
+		return xmlDocument;
+	}
+
+	/**
+	 * Returns the smallest element which contains the given range in its content
+	 * and null otherwise.
+	 */
+	private static DOMElement findSmallestElementContentAt(DOMNode node, int start, int end) {
+		DOMElement element = null;
+		DOMElement child = null;
+		while ((child = findElementContentAt(node, start, end)) != null) {
+			element = child;
+			node = child;
+		}
+		return element;
+	}
+
+	/**
+	 * Copy the children of the given element (created by an incremental parse)
+	 * from the element of the previous DOM document if they have not been copied
+	 * yet.
+	 * 
+	 * <p>
+	 * Only one level is copied: the child elements are copied without their
+	 * children which will be copied when they are accessed. The copied children
+	 * are fully built before being set in the element.
+	 * </p>
+	 * 
+	 * @param element the element created by an incremental parse.
+	 */
+	void copyChildren(DOMElement element) {
+		synchronized (element) {
+			DOMElement source = element.copySource;
+			if (source == null) {
+				return;
+			}
+			DOMDocument xmlDocument = element.getOwnerDocument();
+			DOMNode.XMLNodeList<DOMNode> children = new DOMNode.XMLNodeList<>();
+			for (DOMNode child : source.getParsedChildren()) {
+				DOMNode childCopy = copyNode(child, xmlDocument, true);
+				if (childCopy != null) {
+					childCopy.shift(element.copyDelta);
+					childCopy.parent = element;
+					children.add(childCopy);
+				}
+			}
+			element.setChildren(children);
+			element.copyDelta = 0;
+			element.copySource = null;
+		}
+	}
+
+	/**
+	 * Returns a copy (without the children) of the given node and null if the
+	 * node cannot be copied.
+	 * 
+	 * @param node        the node to copy.
+	 * @param xmlDocument the DOM document copy.
+	 * @param lazy        true if the children of an element must be copied when
+	 *                    they are accessed and false if they are not copied.
+	 * @return a copy of the given node and null if the node cannot be copied.
+	 */
+	private static DOMNode copyNode(DOMNode node, DOMDocument xmlDocument, boolean lazy) {
+		DOMNode copy = null;
+		switch (node.getNodeType()) {
+		case Node.ELEMENT_NODE: {
+			DOMElement element = (DOMElement) node;
+			DOMElement elementCopy = xmlDocument.createElement(node.start, node.end);
+			elementCopy.tag = element.tag;
+			elementCopy.selfClosed = element.selfClosed;
+			elementCopy.startTagOpenOffset = element.startTagOpenOffset;
+			elementCopy.startTagCloseOffset = element.startTagCloseOffset;
+			elementCopy.endTagOpenOffset = element.endTagOpenOffset;
+			elementCopy.endTagCloseOffset = element.endTagCloseOffset;
+			if (lazy) {
+				synchronized (element) {
+					if (element.copySource != null) {
+						// the children of the element have not been copied yet, copy them from the
+						// same source to avoid chaining the previous DOM documents
+						elementCopy.copySource = element.copySource;
+						elementCopy.copyDelta = element.copyDelta;
+					} else if (!element.getParsedChildren().isEmpty()) {
+						elementCopy.copySource = element;
+					}
+				}
+			}
+			copy = elementCopy;
+			break;
+		}
+		case Node.TEXT_NODE: {
+			DOMText textCopy = xmlDocument.createText(node.start, node.end);
+			textCopy.setWhitespace(((DOMText) node).isWhitespace());
+			copy = textCopy;
+			break;
+		}
+		case Node.COMMENT_NODE: {
+			DOMComment comment = (DOMComment) node;
+			DOMComment commentCopy = xmlDocument.createComment(node.start, node.end);
+			commentCopy.startContent = comment.startContent;
+			commentCopy.endContent = comment.endContent;
+			commentCopy.commentSameLineEndTag = comment.commentSameLineEndTag;
+			copy = commentCopy;
+			break;
+		}
+		case Node.CDATA_SECTION_NODE: {
+			DOMCDATASection cdata = (DOMCDATASection) node;
+			DOMCDATASection cdataCopy = xmlDocument.createCDataSection(node.start, node.end);
+			cdataCopy.startContent = cdata.startContent;
+			cdataCopy.endContent = cdata.endContent;
+			copy = cdataCopy;
+			break;
+		}
+		case Node.PROCESSING_INSTRUCTION_NODE: {
+			DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) node;
+			DOMProcessingInstruction processingInstructionCopy = xmlDocument
+					.createProcessingInstruction(node.start, node.end);
+			processingInstructionCopy.startTagClose = processingInstruction.startTagClose;
+			processingInstructionCopy.target = processingInstruction.target;
+			processingInstructionCopy.prolog = processingInstruction.prolog;
+			processingInstructionCopy.processingInstruction = processingInstruction.processingInstruction;
+			processingInstructionCopy.startContent = processingInstruction.startContent;
+			processingInstructionCopy.endContent = processingInstruction.endContent;
+			processingInstructionCopy.endTagOpenOffset = processingInstruction.endTagOpenOffset;
+			copy = processingInstructionCopy;
+			break;
+		}
+		default:
+			// DOCTYPE, DTD declarations
+			return null;
+		}
+		copy.closed = node.closed;
+		List<DOMAttr> attributes = node.getAttributeNodes();
+		if (attributes != null) {
+			for (DOMAttr attr : attributes) {
+				DOMRange name = attr.getNodeAttrName();
+				DOMAttr attrCopy = new DOMAttr(null, name.getStart(), name.getEnd(), copy);
+				attrCopy.setDelimiter(attr.getDelimiterOffset());
+				DOMRange value = attr.getNodeAttrValue();
+				if (value != null) {
+					attrCopy.setValue(null, value.getStart(), value.getEnd());
+				}
+				copy.setAttributeNode(attrCopy);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the child element of the given node which contains the given range
+	 * in its content and null otherwise.
+	 * 
+	 * @param node  the parent node.
+	 * @param start the start offset of the range.
+	 * @param end   the end offset of the range.
+	 * @return the child element of the given node which contains the given range
+	 *         in its content and null otherwise.
+	 */
+	private static DOMElement findElementContentAt(DOMNode node, int start, int end) {
+		List<DOMNode> children = node.getChildren();
+		// Binary search of the last child which starts before the range
+		int low = 0;
+		int high = children.size() - 1;
+		int index = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (children.get(mid).start < start) {
+				index = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (index == -1) {
+			return null;
+		}
+		DOMNode child = children.get(index);
+		if (!child.isElement()) {
+			return null;
+		}
+		DOMElement element = (DOMElement) child;
+		if (!element.isClosed() || element.isSelfClosed() || element.startTagOpenOffset == DOMNode.NULL_VALUE
+				|| element.startTagCloseOffset == DOMNode.NULL_VALUE
+				|| element.endTagOpenOffset == DOMNode.NULL_VALUE
+				|| element.endTagCloseOffset == DOMNode.NULL_VALUE) {
+			// The element must have a start and an end tag
+			return null;
+		}
+		if (element.startTagCloseOffset < start && end <= element.endTagOpenOffset) {
+			return element;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the last element closed before the content of the given element.
+	 * 
+	 * @param element the element.
+	 * @return the last element closed before the content of the given element.
+	 */
+	private static DOMNode findLastClosedBefore(DOMElement element) {
+		DOMNode node = element;
+		while (node.parent != null) {
+			List<DOMNode> siblings = node.parent.getParsedChildren();
+			for (int i = indexOf(siblings, node) - 1; i >= 0; i--) {
+				DOMNode previous = siblings.get(i);
+				if (previous.isElement() && previous.isClosed()) {
+					return previous;
+				}
+			}
+			node = node.parent;
+		}
+		return node;
+	}
+
+	private static int indexOf(List<DOMNode> children, DOMNode node) {
+		for (int i = children.size() - 1; i >= 0; i--) {
+			if (children.get(i) == node) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parse the tokens of the given scanner and add the nodes in the given
+	 * current node.
+	 * 
+	 * @param xmlDocument             the DOM document.
+	 * @param document                the text document.
+	 * @param text                    the text to parse.
+	 * @param scanner                 the scanner.
+	 * @param curr                    the current node.
+	 * @param lastClosed              the last closed node.
+	 * @param regionElement           the element to parse and null to parse
+	 *                                the whole text.
+	 * @param regionEnd               the end offset of the region element
+	 *                                content (or of the parse when there is no
+	 *                                region element) and -1 to parse the whole
+	 *                                text.
+	 * @param ignoreWhitespaceContent true if whitespace content must be
+	 *                                ignored.
+	 * @param monitor                 the cancel checker.
+	 * @return true if the nodes have been parsed and false if the parse of the
+	 *         region element content cannot be done safely.
+	 */
+	private boolean parse(DOMDocument xmlDocument, TextDocument document, String text, Scanner scanner,
+			DOMNode curr, DOMNode lastClosed, DOMElement regionElement, int regionEnd,
+			boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		boolean inDTDInternalSubset = false;
 		DOMAttr attr = null;
 		int endTagOpenOffset = -1;
 		DOMNode tempWhitespaceContent = null;
@@ -93,6 +677,16 @@ public class DOMParser {
 			if (monitor != null) {
 				monitor.checkCanceled();
 			}
+			if (regionEnd != -1) {
+				if (scanner.getTokenOffset() >= regionEnd) {
+					// End of the region element content
+					break;
+				}
+				if (regionElement != null && scanner.getTokenEnd() > regionEnd) {
+					// The token overlaps the end tag of the region element (ex : unclosed comment)
+					return false;
+				}
+			}
 			if (tempWhitespaceContent != null && token != TokenType.EndTagOpen) {
 				tempWhitespaceContent = null;
 			}
@@ -106,10 +700,15 @@ public class DOMParser {
 					/**
 					 * Try to find a start element with no tag : <>
 					 */
-					while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null) {
+					while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null
+							&& curr != regionElement) {
 						curr.end = endTagOpenOffset;
 						curr = curr.parent;
 					}
+					if (curr == regionElement) {
+						// The end tag could close the region element
+						return false;
+					}
 					if (curr != xmlDocument) {
 						linkToEmptyStartTag = true;
 						curr.closed = true;
@@ -199,10 +798,15 @@ public class DOMParser {
 					/**
 					 * eg: <a><b><c></d> will set a,b,c end position to the start of |</d>
 					 */
-					while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null) {
+					while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null
+							&& curr != regionElement) {
 						curr.end = endTagOpenOffset;
 						curr = curr.parent;
 					}
+					if (curr == regionElement) {
+						// The end tag could close the region element
+						return false;
+					}
 					if (curr != xmlDocument) {
 						curr.closed = true;
 						if (curr.isElement()) {
@@ -224,7 +828,7 @@ public class DOMParser {
 					break;
 
 				case StartTagSelfClose:
-					if (curr.parent != null) {
+					if (curr.parent != null && curr.isElement()) {
 						curr.closed = true;
 						((DOMElement) curr).selfClosed = true;
 						curr.end = scanner.getTokenEnd();
@@ -408,6 +1012,10 @@ public class DOMParser {
 				// DTD
 
 				case DTDStartDoctypeTag: {
+					if (regionElement != null) {
+						// DOCTYPE in an element content, parse the whole document
+						return false;
+					}
 					DOMDocumentType doctype = xmlDocument.createDocumentType(scanner.getTokenOffset(), text.length());
 					curr.addChild(doctype);
 					doctype.parent = curr;
@@ -676,8 +1284,24 @@ public class DOMParser {
 
 				default:
 			}
+			if (regionElement != null && curr == regionElement.parent) {
+				// The region element has been closed
+				return false;
+			}
 			token = scanner.scan();
 		}
+		if (regionElement != null) {
+			if (token != TokenType.EndTagOpen || scanner.getTokenOffset() != regionEnd || previousTokenWasEndTagOpen
+					|| curr != regionElement) {
+				// The region element content is not parsed like the whole document should
+				// be parsed.
+				return false;
+			}
+			if (tempWhitespaceContent != null) {
+				curr.addChild(tempWhitespaceContent);
+			}
+			return true;
+		}
 		if (previousTokenWasEndTagOpen) {
 			previousTokenWasEndTagOpen = false;
 			if (token != TokenType.EndTag) {
@@ -691,7 +1315,7 @@ public class DOMParser {
 			curr.end = text.length();
 			curr = curr.parent;
 		}
-		return xmlDocument;
+		return true;
 	}
 
 	private static boolean isEmptyElement(String tag) {
@@ -40,6 +40,16 @@ public class DOMProcessingInstruction extends DOMCharacterData implements org.w3
 		return processingInstruction;
 	}
 
+	@Override
+	void shift(int delta) {
+		super.shift(delta);
+		startContent += delta;
+		endContent += delta;
+		if (endTagOpenOffset != NULL_VALUE) {
+			endTagOpenOffset += delta;
+		}
+	}
+
 	public int getStartContent() {
 		return startContent;
 	}
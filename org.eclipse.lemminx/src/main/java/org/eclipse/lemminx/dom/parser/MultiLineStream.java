@@ -29,7 +29,7 @@ import static org.eclipse.lemminx.dom.parser.Constants._WSP;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,20 +39,19 @@ import java.util.regex.Pattern;
  */
 public class MultiLineStream {
 
-	private static final Predicate<Integer> WHITESPACE_PREDICATE = ch -> {
+	private static final IntPredicate WHITESPACE_PREDICATE = ch -> {
 		return ch == _WSP || ch == _TAB || ch == _NWL || ch == _LFD || ch == _CAR;
 	};
 
 	private final String source;
 	private final int len;
 	private int position;
-	private final Map<Pattern, Matcher> regexpCache;
+	private Map<Pattern, Matcher> regexpCache;
 
 	public MultiLineStream(String source, int position) {
 		this.source = source;
 		this.len = source.length();
 		this.position = position;
-		this.regexpCache = new HashMap<>();
 	}
 
 	public boolean eos() {
@@ -293,6 +292,74 @@ public class MultiLineStream {
 		return false;
 	}
 
+	/**
+	 * Advances the stream if one of the given words is at the current position
+	 * and is followed by a char which matches the given delimiter condition (the
+	 * delimiter is not consumed).
+	 * 
+	 * ex : ^(PUBLIC|SYSTEM)([\s<>"']) returns the group 1.
+	 * 
+	 * @param words     the words to match, in order.
+	 * @param delimiter the condition of the char which must follow the word.
+	 * @return the matched word and "" otherwise.
+	 */
+	public String advanceIfWordFollowedBy(String[] words, IntPredicate delimiter) {
+		for (String word : words) {
+			int end = this.position + word.length();
+			if (end < this.len && this.source.startsWith(word, this.position)
+					&& delimiter.test(this.source.codePointAt(end))) {
+				this.position = end;
+				return word;
+			}
+		}
+		return "";
+	}
+
+	/**
+	 * Advances the stream if the current char is <code>open</code> and if the
+	 * current line contains after it a <code>close</code> char followed by a char
+	 * which matches the given delimiter condition (when the condition is not
+	 * null). The stream is advanced after the last matching <code>close</code>
+	 * char of the line (the delimiter is not consumed).
+	 * 
+	 * ex : ^\(.*\)([\s<>"']) returns the group 1, ^".*"
+	 * 
+	 * @param open      the open char.
+	 * @param close     the close char.
+	 * @param delimiter the condition of the char which must follow the close char
+	 *                  and null otherwise.
+	 * @return true if the stream has been advanced and false otherwise.
+	 */
+	public boolean advanceIfEnclosedOnLine(int open, int close, IntPredicate delimiter) {
+		if (peekChar() != open) {
+			return false;
+		}
+		int end = -1;
+		for (int i = this.position + 1; i < this.len; i++) {
+			char c = this.source.charAt(i);
+			if (isLineTerminator(c)) {
+				break;
+			}
+			if (c == close && (delimiter == null
+					|| (i + 1 < this.len && delimiter.test(this.source.codePointAt(i + 1))))) {
+				end = i + 1;
+			}
+		}
+		if (end == -1) {
+			return false;
+		}
+		this.position = end;
+		return true;
+	}
+
+	/**
+	 * Returns true if the given char is a line terminator for the regular
+	 * expression '.' and false otherwise.
+	 */
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
 	/**
 	 * Advances until it reaches a whitespace character
 	 */
@@ -301,7 +368,7 @@ public class MultiLineStream {
 		return n > 0;
 	}
 
-	public int advanceWhileChar(Predicate<Integer> condition) {
+	public int advanceWhileChar(IntPredicate condition) {
 		int posNow = this.position;
 		while (this.position < this.len && condition.test(peekChar())) {
 			this.position++;
@@ -316,6 +383,9 @@ public class MultiLineStream {
 	 * @return the cached matcher from the given regex.
 	 */
 	private Matcher getCachedMatcher(Pattern regex) {
+		if (regexpCache == null) {
+			regexpCache = new HashMap<>();
+		}
 		Matcher matcher = regexpCache.get(regex);
 		if (matcher == null) {
 			matcher = regex.matcher(source);
@@ -18,11 +18,7 @@
 package org.eclipse.lemminx.dom.parser;
 
 import static org.eclipse.lemminx.dom.parser.Constants.ATTRIBUTE_NAME_REGEX;
-import static org.eclipse.lemminx.dom.parser.Constants.DOCTYPE_KIND_OPTIONS;
-import static org.eclipse.lemminx.dom.parser.Constants.DTD_ELEMENT_CATEGORY;
-import static org.eclipse.lemminx.dom.parser.Constants.ELEMENT_NAME_REGEX;
 import static org.eclipse.lemminx.dom.parser.Constants.PROLOG_NAME_OPTIONS;
-import static org.eclipse.lemminx.dom.parser.Constants.URL_VALUE_REGEX;
 import static org.eclipse.lemminx.dom.parser.Constants._AST;
 import static org.eclipse.lemminx.dom.parser.Constants._AVL;
 import static org.eclipse.lemminx.dom.parser.Constants._CAR;
@@ -54,12 +50,13 @@ import static org.eclipse.lemminx.dom.parser.Constants._QMA;
 import static org.eclipse.lemminx.dom.parser.Constants._RAN;
 import static org.eclipse.lemminx.dom.parser.Constants._SIQ;
 import static org.eclipse.lemminx.dom.parser.Constants._SVL;
+import static org.eclipse.lemminx.dom.parser.Constants._TAB;
 import static org.eclipse.lemminx.dom.parser.Constants._TVL;
 import static org.eclipse.lemminx.dom.parser.Constants._UDS;
 import static org.eclipse.lemminx.dom.parser.Constants._WSP;
 import static org.eclipse.lemminx.dom.parser.Constants._YVL;
 
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 import org.eclipse.lemminx.dom.DOMDocumentType.DocumentTypeKind;
 import org.eclipse.lemminx.utils.StringUtils;;
@@ -70,23 +67,82 @@ import org.eclipse.lemminx.utils.StringUtils;;
  */
 public class XMLScanner implements Scanner {
 
-	private static final Predicate<Integer> START_ELEMENT_NAME_PREDICATE = ch -> {
+	private static final IntPredicate START_ELEMENT_NAME_PREDICATE = withAsciiTable(ch -> {
 		// ^[_:\w]
 		return ch == _UDS || ch == _DDT || Character.isLetter(ch);
-	};
+	});
 
-	private static final Predicate<Integer> ELEMENT_NAME_PREDICATE = ch -> {
+	private static final IntPredicate ELEMENT_NAME_PREDICATE = withAsciiTable(ch -> {
 		// [_:\w-.\d]*
 		return ch == _UDS /* '_' */ || ch == _DDT /* ':' */ || ch == _DOT /* '.' */ || ch == _MIN /* '-' */
 				|| Character.isLetterOrDigit(ch);
-	};
+	});
 
-	private static final Predicate<Integer> ATTRIBUTE_NAME_PREDICATE = ch -> {
+	private static final IntPredicate ATTRIBUTE_NAME_PREDICATE = withAsciiTable(ch -> {
 		// ^[^\s\?\"'<>\/=\x00-\x0F\x7F\x80-\x9F]*
 		return !Character.isWhitespace(ch) && ch != _QMA && ch != _DQO && ch != _SIQ && ch != _LAN && ch != _RAN
 				&& ch != _FSL && ch != _EQS && !(ch >= 0x00 && ch <= 0x0F) && ch != 0x7F && !(ch >= 0x80 && ch <= 0x9F);
+	});
+
+	private static final IntPredicate REGEX_WHITESPACE_PREDICATE = ch -> {
+		// \s
+		return ch == _WSP || ch == _TAB || ch == _NWL || ch == 0x0B || ch == 0x0C || ch == _CAR;
 	};
 
+	private static final IntPredicate START_DTD_NAME_PREDICATE = withAsciiTable(ch -> {
+		// ^[_:\w] (\w is [a-zA-Z_0-9])
+		return ch == _UDS || ch == _DDT || (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')
+				|| (ch >= '0' && ch <= '9');
+	});
+
+	private static final IntPredicate DTD_NAME_PREDICATE = withAsciiTable(ch -> {
+		// [_:\w-.\d]*
+		return START_DTD_NAME_PREDICATE.test(ch) || ch == _DOT || ch == _MIN;
+	});
+
+	private static final IntPredicate DTD_ATTRIBUTE_NAME_PREDICATE = withAsciiTable(ch -> {
+		// ^[^\s\?\"'<>\/=\x00-\x0F\x7F\x80-\x9F]*
+		return !REGEX_WHITESPACE_PREDICATE.test(ch) && ch != _QMA && ch != _DQO && ch != _SIQ && ch != _LAN
+				&& ch != _RAN && ch != _FSL && ch != _EQS && !(ch >= 0x00 && ch <= 0x0F) && ch != 0x7F
+				&& !(ch >= 0x80 && ch <= 0x9F);
+	});
+
+	private static final IntPredicate DTD_DELIMITER_PREDICATE = withAsciiTable(ch -> {
+		// [\s<>\"']
+		return REGEX_WHITESPACE_PREDICATE.test(ch) || ch == _LAN || ch == _RAN || ch == _DQO || ch == _SIQ;
+	});
+
+	private static final String[] DOCTYPE_KINDS = { DocumentTypeKind.PUBLIC.name(), DocumentTypeKind.SYSTEM.name() };
+
+	private static final String[] DTD_ELEMENT_CATEGORIES = { "EMPTY", "ANY" };
+
+	private static final String[] DTD_ATTLIST_ATTRIBUTE_TYPES = { "CDATA", "IDREFS", "IDREF", "ID", "NMTOKENS",
+			"NMTOKEN", "ENTITIES", "ENTITY", "NOTATION", "xml:" };
+
+	private static final String[] DTD_ATTLIST_ATTRIBUTE_DEFAULTS = { "#REQUIRED", "#IMPLIED" };
+
+	private static final int[] DTD_ATTLIST_FIXED_PATTERN = "#FIXED ".codePoints().toArray();
+
+	private static final int[] END_DQO_URL_PATTERN = new int[] { _DQO, _LAN, _RAN }; // " or < or >
+
+	private static final int[] END_SIQ_URL_PATTERN = new int[] { _SIQ, _LAN, _RAN }; // ' or < or >
+
+	/**
+	 * Returns a predicate which uses a lookup table computed from the given
+	 * predicate for the ASCII characters and the given predicate for the other
+	 * characters.
+	 * 
+	 * @param predicate the predicate.
+	 * @return a predicate which uses a lookup table for the ASCII characters.
+	 */
+	private static IntPredicate withAsciiTable(IntPredicate predicate) {
+		boolean[] table = new boolean[128];
+		for (int ch = 0; ch < table.length; ch++) {
+			table[ch] = predicate.test(ch);
+		}
+		return ch -> ch >= 0 && ch < 128 ? table[ch] : predicate.test(ch);
+	}
+
 	private static final int[] END_COMMENT_PATTERN = new int[] { _MIN, _MIN, _RAN }; // -->
 
 	private static final int[] END_PROLOG_PATTERN = new int[] { _QMA, _RAN }; // ?>
@@ -124,7 +180,6 @@ public class XMLScanner implements Scanner {
 	String tokenError;
 
 	String lastDoctypeKind;
-	String url;
 	boolean isInsideDTDContent = false; // Either internal dtd in xml file OR external dtd in dtd file
 	boolean isDeclCompleted = false; // If any type of DTD declaration was supplied with all the required properties
 	TokenType tempToken;
@@ -193,17 +248,99 @@ public class XMLScanner implements Scanner {
 		return false;
 	}
 
-	String doctypeName() {
-		return stream.advanceIfRegExp(ELEMENT_NAME_REGEX);
+	/**
+	 * Returns true if the current token is a DTD name (doctype, element, entity,
+	 * notation name) and false otherwise.
+	 * 
+	 * @return true if the current token is a DTD name and false otherwise.
+	 */
+	boolean hasNextDTDName() {
+		// ^[_:\w][_:\w-.\d]*
+		if (!START_DTD_NAME_PREDICATE.test(stream.peekChar())) {
+			return false;
+		}
+		stream.advance(1);
+		stream.advanceWhileChar(DTD_NAME_PREDICATE);
+		return true;
+	}
+
+	/**
+	 * Returns true if the current token is a DTD attribute name and false
+	 * otherwise.
+	 * 
+	 * @return true if the current token is a DTD attribute name and false
+	 *         otherwise.
+	 */
+	boolean hasNextDTDAttributeName() {
+		// ^[^\s\?\"'<>\/=\x00-\x0F\x7F\x80-\x9F]*
+		return stream.advanceWhileChar(DTD_ATTRIBUTE_NAME_PREDICATE) > 0;
+	}
+
+	/**
+	 * Returns true if the current token is an URL value (public / system id) and
+	 * false otherwise.
+	 * 
+	 * @return true if the current token is an URL value and false otherwise.
+	 */
+	boolean hasNextURLValue() {
+		// ^("[^<>"]*")|('[^<>']*')
+		int quote = stream.peekChar();
+		if (quote != _DQO && quote != _SIQ) {
+			return false;
+		}
+		int start = stream.pos();
+		stream.advance(1);
+		if (stream.advanceUntilAnyOfChars(quote == _DQO ? END_DQO_URL_PATTERN : END_SIQ_URL_PATTERN)
+				&& stream.advanceIfChar(quote)) {
+			return true;
+		}
+		stream.goBackTo(start);
+		return false;
+	}
+
+	/**
+	 * Returns true if the current token is a DTD attribute type and false
+	 * otherwise.
+	 * 
+	 * @return true if the current token is a DTD attribute type and false
+	 *         otherwise.
+	 */
+	boolean hasNextDTDAttributeType() {
+		// ^(CDATA|IDREFS|IDREF|ID|NMTOKENS|NMTOKEN|ENTITIES|ENTITY|NOTATION|xml:|\(.*\))([\s<>"'])
+		return !stream.advanceIfWordFollowedBy(DTD_ATTLIST_ATTRIBUTE_TYPES, DTD_DELIMITER_PREDICATE).isEmpty()
+				|| stream.advanceIfEnclosedOnLine(_ORB, _CRB, DTD_DELIMITER_PREDICATE);
+	}
+
+	/**
+	 * Returns true if the current token is a DTD attribute value and false
+	 * otherwise.
+	 * 
+	 * @return true if the current token is a DTD attribute value and false
+	 *         otherwise.
+	 */
+	boolean hasNextDTDAttributeValue() {
+		// ^(#REQUIRED|#IMPLIED|".*"|#FIXED ".*")([\s<>"'])
+		if (!stream.advanceIfWordFollowedBy(DTD_ATTLIST_ATTRIBUTE_DEFAULTS, DTD_DELIMITER_PREDICATE).isEmpty()
+				|| stream.advanceIfEnclosedOnLine(_DQO, _DQO, DTD_DELIMITER_PREDICATE)) {
+			return true;
+		}
+		int start = stream.pos();
+		if (stream.advanceIfChars(DTD_ATTLIST_FIXED_PATTERN)
+				&& stream.advanceIfEnclosedOnLine(_DQO, _DQO, DTD_DELIMITER_PREDICATE)) {
+			return true;
+		}
+		stream.goBackTo(start);
+		return false;
 	}
 
 	/**
-	 * Tries to advance off the regex for either 'PUBLIC' or 'SYSTEM'
+	 * Tries to advance off either 'PUBLIC' or 'SYSTEM'
 	 * 
 	 * @return "PUBLIC" or "SYSTEM" or "" otherwise
 	 */
 	String doctypeKind() {
-		return stream.advanceIfRegExpGroup1(DOCTYPE_KIND_OPTIONS);
+		// ^(PUBLIC|SYSTEM)([\s<>"'])
+		return stream.advanceIfWordFollowedBy(DOCTYPE_KINDS, DTD_DELIMITER_PREDICATE);
 	}
 
 	TokenType finishToken(int offset, TokenType type) {
@@ -482,8 +619,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			if (isDeclCompleted == false) {
-				String doctypeName = doctypeName();
-				if (!doctypeName.equals("")) {
+				if (hasNextDTDName()) {
 					state = ScannerState.DTDAfterDoctypeName;
 					return finishToken(offset, TokenType.DTDDoctypeName);
 				}
@@ -515,8 +651,7 @@ public class XMLScanner implements Scanner {
 			if (stream.skipWhitespace()) {
 				return finishToken(offset, TokenType.Whitespace);
 			}
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX);
-			if (!url.equals("")) {
+			if (hasNextURLValue()) {
 				state = ScannerState.DTDAfterDoctypePublicId;
 				return finishToken(offset, TokenType.DTDDoctypePublicId);
 			}
@@ -530,8 +665,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			state = ScannerState.DTDWithinDoctype;
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX);
-			if (!url.equals("")) {
+			if (hasNextURLValue()) {
 				return finishToken(offset, TokenType.DTDDoctypeSystemId);
 			}
 
@@ -544,8 +678,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			state = ScannerState.DTDWithinDoctype;
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX); // scan the System Identifier URL
-			if (!url.equals("")) {
+			if (hasNextURLValue()) { // scan the System Identifier URL
 				return finishToken(offset, TokenType.DTDDoctypeSystemId);
 			}
 
@@ -658,7 +791,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextDTDName()) {
 				state = ScannerState.DTDElementAfterName;
 				return finishToken(offset, TokenType.DTDElementDeclName);
 			}
@@ -677,7 +810,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.DTDStartElementContent);
 			}
 
-			if (!stream.advanceIfRegExpGroup1(DTD_ELEMENT_CATEGORY).equals("")) {
+			if (!stream.advanceIfWordFollowedBy(DTD_ELEMENT_CATEGORIES, DTD_DELIMITER_PREDICATE).isEmpty()) {
 				isDeclCompleted = true;
 				state = ScannerState.DTDWithinElement;
 				return finishToken(offset, TokenType.DTDElementCategory);
@@ -736,7 +869,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			if (isInitialAttlistDeclCompleted == false
-					&& !stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+					&& hasNextDTDName()) {
 				state = ScannerState.DTDAfterAttlistElementName;
 				return finishToken(offset, TokenType.DTDAttlistElementName);
 			}
@@ -749,7 +882,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ATTRIBUTE_NAME_REGEX).equals("")) {
+			if (hasNextDTDAttributeName()) {
 				state = ScannerState.DTDAfterAttlistAttributeName;
 				return finishToken(offset, TokenType.DTDAttlistAttributeName);
 			}
@@ -767,7 +900,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExpGroup1(Constants.DTD_ATTLIST_ATTRIBUTE_TYPE).equals("")) {
+			if (hasNextDTDAttributeType()) {
 				state = ScannerState.DTDAfterAttlistAttributeType;
 				return finishToken(offset, TokenType.DTDAttlistAttributeType);
 			}
@@ -785,7 +918,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExpGroup1(Constants.DTD_ATTLIST_ATTRIBUTE_VALUE).equals("")) {
+			if (hasNextDTDAttributeValue()) {
 				isInitialAttlistDeclCompleted = true; // we completed the initial attribute declaration
 				isDeclCompleted = true;
 				state = ScannerState.DTDAfterAttlistElementName;
@@ -815,7 +948,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextDTDName()) {
 				state = ScannerState.DTDAfterEntityName;
 				return finishToken(offset, TokenType.DTDEntityName);
 			}
@@ -832,7 +965,8 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExp(Constants.DTD_ENTITY_VALUE).equals("")) {
+			// ^".*"
+			if (stream.advanceIfEnclosedOnLine(_DQO, _DQO, null)) {
 				isDeclCompleted = true;
 				state = ScannerState.DTDWithinEntity;
 				return finishToken(offset, TokenType.DTDEntityValue);
@@ -860,7 +994,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExp(URL_VALUE_REGEX).equals("")) {
+			if (hasNextURLValue()) {
 				state = ScannerState.DTDAfterEntitySYSTEM;
 				return finishToken(offset, TokenType.DTDEntityPublicId);
 			}
@@ -878,7 +1012,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExp(URL_VALUE_REGEX).equals("")) {
+			if (hasNextURLValue()) {
 				isDeclCompleted = true;
 				state = ScannerState.DTDWithinEntity;
 				return finishToken(offset, TokenType.DTDEntitySystemId);
@@ -907,7 +1041,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextDTDName()) {
 				state = ScannerState.DTDAfterNotationName;
 				return finishToken(offset, TokenType.DTDNotationName);
 			}
@@ -936,8 +1070,7 @@ public class XMLScanner implements Scanner {
 			if (stream.skipWhitespace()) {
 				return finishToken(offset, TokenType.Whitespace);
 			}
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX);
-			if (!url.equals("")) {
+			if (hasNextURLValue()) {
 				isDeclCompleted = true;
 				state = ScannerState.DTDAfterNotationPublicId;
 				return finishToken(offset, TokenType.DTDNotationPublicId);
@@ -952,8 +1085,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			state = ScannerState.DTDWithinNotation;
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX);
-			if (!url.equals("")) {
+			if (hasNextURLValue()) {
 				isDeclCompleted = true;
 				state = ScannerState.DTDAfterNotationName;
 				return finishToken(offset, TokenType.DTDNotationSystemId);
@@ -967,8 +1099,7 @@ public class XMLScanner implements Scanner {
 			}
 
 			state = ScannerState.DTDAfterNotationName;
-			url = stream.advanceIfRegExp(URL_VALUE_REGEX); // scan the System Identifier URL
-			if (!url.equals("")) {
+			if (hasNextURLValue()) { // scan the System Identifier URL
 				isDeclCompleted = true;
 				return finishToken(offset, TokenType.DTDNotationSystemId);
 			}
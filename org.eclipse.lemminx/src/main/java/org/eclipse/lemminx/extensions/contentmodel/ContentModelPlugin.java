@@ -12,17 +12,22 @@
  */
 package org.eclipse.lemminx.extensions.contentmodel;
 
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.lemminx.XMLTextDocumentService.SaveContext;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMDocumentType;
 import org.eclipse.lemminx.extensions.contentmodel.commands.AssociateGrammarCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.CheckBoundGrammarCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.CheckFilePatternCommand;
+import org.eclipse.lemminx.extensions.contentmodel.commands.GrammarPoolStatisticsCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.SurroundWithCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.XMLValidationAllFilesCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.XMLValidationFileCommand;
 import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCodeActionParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCodeLensParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCompletionParticipant;
@@ -32,6 +37,7 @@ import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelHove
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelSymbolsProviderParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelTypeDefinitionParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.DocumentTelemetryParticipant;
+import org.eclipse.lemminx.extensions.contentmodel.participants.GrammarDependenciesParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.ContentModelDiagnosticsParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLDownloadExternalResourcesSettings;
@@ -88,6 +94,8 @@ public class ContentModelPlugin implements IXMLExtension {
 
 	private DocumentTelemetryParticipant documentTelemetryParticipant;
 
+	private GrammarDependenciesParticipant grammarDependenciesParticipant;
+
 	private ContentModelFormatterParticipant formatterParticipant;
 
 	public ContentModelPlugin() {
@@ -104,13 +112,30 @@ public class ContentModelPlugin implements IXMLExtension {
 			// The save is done for a given XML file
 			String documentURI = context.getUri();
 			DOMDocument document = context.getDocument(documentURI);
+			// Mark the saved file as changed (even if the file watcher has not
+			// notified the change yet) to reload the saved grammar, catalog, etc
+			FilesWatcher.getInstance().invalidate(documentURI);
 			if (document != null && DOMUtils.isCatalog(document)) {
 				// the XML document which has changed is a XML catalog.
 				// 1) refresh catalogs
 				contentModelManager.refreshCatalogs();
 			}
-			// 2) Validate all opened XML files except the catalog which have changed
+			// 2) Validate the opened XML files except the saved file:
+			// - when the saved file is a grammar, only the XML files which depend on it
+			// (see the grammar dependencies index updated by the validation) and the
+			// opened grammars which could include, import it, and the XML files with a
+			// DTD internal subset which could reference it with a parameter entity.
+			// - otherwise (catalog, external entity, etc), all the opened XML files.
+			// The saved grammar and the grammars which include, import it are removed
+			// from the grammar pool before the validation of the dependent files.
+			boolean grammarSaved = isGrammar(document);
+			Set<String> invalidatedGrammarURIs = grammarSaved ? contentModelManager.invalidateGrammar(documentURI)
+					: Collections.emptySet();
 			context.collectDocumentToValidate(d -> {
+				if (grammarSaved && !documentURI.equals(d.getDocumentURI()) && !isGrammar(d)
+						&& !hasInternalSubset(d) && !dependsOnGrammars(d, documentURI, invalidatedGrammarURIs)) {
+					return false;
+				}
 				DOMDocument xml = context.getDocument(d.getDocumentURI());
 				xml.resetGrammar();
 				return !documentURI.equals(d.getDocumentURI());
@@ -121,6 +146,18 @@ public class ContentModelPlugin implements IXMLExtension {
 		}
 	}
 
+	private boolean dependsOnGrammars(DOMDocument document, String grammarURI, Set<String> grammarURIs) {
+		if (contentModelManager.dependsOnGrammar(document, grammarURI)) {
+			return true;
+		}
+		for (String uri : grammarURIs) {
+			if (contentModelManager.dependsOnGrammar(document, uri)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private void updateSettings(ISaveContext saveContext) {
 		Object initializationOptionsSettings = saveContext.getSettings();
 		cmSettings = ContentModelSettings.getContentModelXMLSettings(initializationOptionsSettings);
@@ -156,6 +193,11 @@ public class ContentModelPlugin implements IXMLExtension {
 		if (useCache != null) {
 			contentModelManager.setUseCache(useCache);
 		}
+		// Update the grammar pool size, only if it is set in the settings.
+		Integer grammarPoolMaximumSize = settings.getGrammarPoolMaximumSize();
+		if (grammarPoolMaximumSize != null) {
+			contentModelManager.setGrammarPoolMaximumSize(grammarPoolMaximumSize);
+		}
 
 		// Download external resources
 		XMLDownloadExternalResourcesSettings downloadExternalResources = settings.getDownloadExternalResources();
@@ -193,6 +235,16 @@ public class ContentModelPlugin implements IXMLExtension {
 		});
 	}
 
+	private static boolean isGrammar(DOMDocument document) {
+		return document != null
+				&& (document.isDTD() || DOMUtils.isXSD(document) || DOMUtils.isRelaxNG(document));
+	}
+
+	private static boolean hasInternalSubset(DOMDocument document) {
+		DOMDocumentType doctype = document.getDoctype();
+		return doctype != null && doctype.getInternalSubset() != null;
+	}
+
 	@Override
 	public void start(InitializeParams params, XMLExtensionsRegistry registry) {
 		URIResolverExtensionManager resolverManager = registry.getComponent(URIResolverExtensionManager.class);
@@ -215,6 +267,8 @@ public class ContentModelPlugin implements IXMLExtension {
 		documentTelemetryParticipant = new DocumentTelemetryParticipant(registry.getTelemetryManager(),
 				contentModelManager);
 		registry.registerDocumentLifecycleParticipant(documentTelemetryParticipant);
+		grammarDependenciesParticipant = new GrammarDependenciesParticipant(contentModelManager);
+		registry.registerDocumentLifecycleParticipant(grammarDependenciesParticipant);
 		formatterParticipant = new ContentModelFormatterParticipant(contentModelManager);
 		registry.registerFormatterParticipant(formatterParticipant);
 
@@ -234,6 +288,8 @@ public class ContentModelPlugin implements IXMLExtension {
 			commandService.registerCommand(CheckFilePatternCommand.COMMAND_ID, new CheckFilePatternCommand());
 			commandService.registerCommand(SurroundWithCommand.COMMAND_ID,
 					new SurroundWithCommand(documentProvider, contentModelManager));
+			commandService.registerCommand(GrammarPoolStatisticsCommand.COMMAND_ID,
+					new GrammarPoolStatisticsCommand(contentModelManager));
 		}
 	}
 
@@ -248,6 +304,7 @@ public class ContentModelPlugin implements IXMLExtension {
 		registry.unregisterSymbolsProviderParticipant(symbolsProviderParticipant);
 		registry.unregisterCodeLensParticipant(codeLensParticipant);
 		registry.unregisterDocumentLifecycleParticipant(documentTelemetryParticipant);
+		registry.unregisterDocumentLifecycleParticipant(grammarDependenciesParticipant);
 		registry.unregisterFormatterParticipant(formatterParticipant);
 
 		// Un-register custom commands to re-validate XML files
@@ -259,6 +316,7 @@ public class ContentModelPlugin implements IXMLExtension {
 			commandService.unregisterCommand(CheckBoundGrammarCommand.COMMAND_ID);
 			commandService.unregisterCommand(CheckFilePatternCommand.COMMAND_ID);
 			commandService.unregisterCommand(SurroundWithCommand.COMMAND_ID);
+			commandService.unregisterCommand(GrammarPoolStatisticsCommand.COMMAND_ID);
 		}
 	}
 
@@ -0,0 +1,40 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.commands;
+
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.services.extensions.commands.IXMLCommandService.IDelegateCommandHandler;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * XML Command "xml.grammar.pool.statistics" which returns the statistics
+ * (size, hit, miss and eviction count) of the Xerces grammar pool used by the
+ * XML validation.
+ */
+public class GrammarPoolStatisticsCommand implements IDelegateCommandHandler {
+
+	public static final String COMMAND_ID = "xml.grammar.pool.statistics";
+
+	private final ContentModelManager contentModelManager;
+
+	public GrammarPoolStatisticsCommand(ContentModelManager contentModelManager) {
+		this.contentModelManager = contentModelManager;
+	}
+
+	@Override
+	public Object executeCommand(ExecuteCommandParams params, SharedSettings sharedSettings,
+			CancelChecker cancelChecker) throws Exception {
+		return contentModelManager.getGrammarPoolStatistics();
+	}
+}
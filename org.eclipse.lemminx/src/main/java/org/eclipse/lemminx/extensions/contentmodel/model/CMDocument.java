@@ -88,6 +88,28 @@ public interface CMDocument {
 	 */
 	boolean isDirty();
 
+	/**
+	 * Returns the tracker of the grammar files (root, included and imported) used
+	 * by the content model document and null otherwise.
+	 * 
+	 * @return the tracker of the grammar files used by the content model document
+	 *         and null otherwise.
+	 */
+	default FilesChangedTracker getFilesChangedTracker() {
+		return null;
+	}
+
+	/**
+	 * Returns the weight of the content model document, which approximates the
+	 * memory used by the document (ex : the number of declared elements, types,
+	 * etc). The weight is used to bound the content model documents cache.
+	 * 
+	 * @return the weight of the content model document.
+	 */
+	default int getWeight() {
+		return 1;
+	}
+
 	/**
 	 * Returns list of declared entities.
 	 * 
@@ -18,21 +18,26 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMElement;
 import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelProvider.Identifier;
+import org.eclipse.lemminx.extensions.contentmodel.model.snapshot.CMDocumentSnapshots;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.GrammarPoolStatistics;
 import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLFileAssociation;
 import org.eclipse.lemminx.extensions.contentmodel.uriresolver.XMLCacheResolverExtension;
 import org.eclipse.lemminx.extensions.contentmodel.uriresolver.XMLCatalogResolverExtension;
 import org.eclipse.lemminx.extensions.contentmodel.uriresolver.XMLFileAssociationResolverExtension;
 import org.eclipse.lemminx.uriresolver.CacheResourceDownloadingException;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
 import org.eclipse.lemminx.uriresolver.CacheResourcesManager;
 import org.eclipse.lemminx.uriresolver.ResolvedURIInfo;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
@@ -40,13 +45,23 @@ import org.eclipse.lemminx.utils.FilesUtils;
 import org.eclipse.lemminx.utils.StringUtils;
 import org.eclipse.lemminx.utils.URIUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 /**
  * Content model manager used to load XML Schema, DTD.
  *
  */
 public class ContentModelManager {
 
-	private final Map<String, CMDocument> cmDocumentCache;
+	/**
+	 * Maximum weight (see {@link CMDocument#getWeight()}) of the content model
+	 * documents cache.
+	 */
+	private static final long CM_DOCUMENT_CACHE_MAXIMUM_WEIGHT = 100000;
+
+	private final Cache<String, CMDocument> cmDocumentCache;
 
 	private final URIResolverExtensionManager resolverManager;
 	private final List<ContentModelProvider> modelProviders;
@@ -55,13 +70,18 @@ public class ContentModelManager {
 	private final XMLCatalogResolverExtension catalogResolverExtension;
 	private final XMLFileAssociationResolverExtension fileAssociationResolver;
 	private final LSPXMLGrammarPool grammarPool;
+	private final CMDocumentSnapshots snapshots;
+	private final GrammarDependencies grammarDependencies;
 
 	private boolean resolveExternalEntities;
 
 	public ContentModelManager(URIResolverExtensionManager resolverManager) {
 		this.resolverManager = resolverManager;
 		modelProviders = new ArrayList<>();
-		cmDocumentCache = Collections.synchronizedMap(new HashMap<>());
+		cmDocumentCache = CacheBuilder.newBuilder() //
+				.maximumWeight(CM_DOCUMENT_CACHE_MAXIMUM_WEIGHT) //
+				.weigher((String key, CMDocument document) -> document.getWeight()) //
+				.build();
 		fileAssociationResolver = new XMLFileAssociationResolverExtension();
 		resolverManager.registerResolver(fileAssociationResolver);
 		catalogResolverExtension = new XMLCatalogResolverExtension();
@@ -69,6 +89,8 @@ public class ContentModelManager {
 		cacheResolverExtension = new XMLCacheResolverExtension();
 		resolverManager.registerResolver(cacheResolverExtension);
 		grammarPool = new LSPXMLGrammarPool();
+		snapshots = new CMDocumentSnapshots();
+		grammarDependencies = new GrammarDependencies();
 		// Use cache by default
 		setUseCache(true);
 	}
@@ -185,6 +207,59 @@ public class ContentModelManager {
 		if (StringUtils.isEmpty(grammarURI)) {
 			return false;
 		}
+		Set<String> grammarURIs = grammarDependencies.getGrammarURIs(document);
+		if (grammarURIs == null) {
+			// The document has been never validated or it has been parsed again since the
+			// last validation
+			grammarURIs = updateGrammarDependencies(document);
+		}
+		return grammarURIs.contains(GrammarDependencies.normalize(grammarURI));
+	}
+
+	/**
+	 * Remove from the grammar pool and from the content model documents cache the
+	 * grammar of the given URI and the grammars which include, import it (ex : when
+	 * the grammar file is saved) and returns the URIs of the removed grammars.
+	 *
+	 * @param grammarURI the grammar URI.
+	 *
+	 * @return the URIs of the removed grammars.
+	 */
+	public Set<String> invalidateGrammar(String grammarURI) {
+		if (StringUtils.isEmpty(grammarURI)) {
+			return Collections.emptySet();
+		}
+		Set<String> grammarURIs = new HashSet<>(grammarPool.removeGrammars(grammarURI));
+		String normalizedURI = GrammarDependencies.normalize(grammarURI);
+		for (Map.Entry<String, CMDocument> entry : cmDocumentCache.asMap().entrySet()) {
+			String resolvedURI = entry.getKey();
+			FilesChangedTracker tracker = entry.getValue().getFilesChangedTracker();
+			if (normalizedURI.equals(GrammarDependencies.normalize(resolvedURI)) || (tracker != null && tracker
+					.getFiles().stream().anyMatch(f -> normalizedURI.equals(f.toUri().toString())))) {
+				if (cmDocumentCache.asMap().remove(resolvedURI, entry.getValue())) {
+					grammarURIs.add(resolvedURI);
+				}
+			}
+		}
+		return grammarURIs;
+	}
+
+	/**
+	 * Update the index of the grammars used by the given DOM document and returns
+	 * the URIs of those grammars.
+	 *
+	 * <p>
+	 * The grammar URIs are the bound grammars (xsi:schemaLocation, DOCTYPE,
+	 * xml-model, catalog, file association) and, when they are cached, the files
+	 * that those grammars include, import.
+	 * </p>
+	 *
+	 * @param document the DOM document.
+	 *
+	 * @return the URIs of the grammars used by the given DOM document.
+	 */
+	public Set<String> updateGrammarDependencies(DOMDocument document) {
+		Set<String> grammarURIs = new HashSet<>();
 		for (ContentModelProvider modelProvider : modelProviders) {
 			if (modelProvider.adaptFor(document, false)) {
 				Collection<Identifier> identifiers = modelProvider.getIdentifiers(document, document.getNamespaceURI());
@@ -192,14 +267,53 @@ public class ContentModelManager {
 					String publicId = identifier.getPublicId();
 					String systemId = identifier.getSystemId();
 					String key = resolverManager.resolve(document.getDocumentURI(), publicId, systemId);
-					if (grammarURI.equals(key)) {
-						return true;
-					}
+					collectGrammarURIs(key, grammarURIs);
 				}
 			}
 		}
 		String key = resolverManager.resolve(document.getDocumentURI(), null, null);
-		return grammarURI.equals(key);
+		collectGrammarURIs(key, grammarURIs);
+		return grammarDependencies.update(document, grammarURIs);
+	}
+
+	private void collectGrammarURIs(String grammarURI, Set<String> grammarURIs) {
+		if (grammarURI == null || !grammarURIs.add(grammarURI)) {
+			return;
+		}
+		// included, imported files of the grammar used for the validation
+		for (Path file : grammarPool.getGrammarFiles(grammarURI)) {
+			grammarURIs.add(file.toUri().toString());
+		}
+		// included, imported files of the grammar used for completion, hover, etc
+		CMDocument cmDocument = cmDocumentCache.getIfPresent(grammarURI);
+		FilesChangedTracker tracker = cmDocument != null ? cmDocument.getFilesChangedTracker() : null;
+		if (tracker != null) {
+			for (Path file : tracker.getFiles()) {
+				grammarURIs.add(file.toUri().toString());
+			}
+		}
+	}
+
+	/**
+	 * Returns the URIs of the documents which depend on the given grammar URI,
+	 * from the index updated when the documents are validated.
+	 *
+	 * @param grammarURI the grammar URI.
+	 *
+	 * @return the URIs of the documents which depend on the given grammar URI.
+	 */
+	public Set<String> getDependentDocuments(String grammarURI) {
+		return grammarDependencies.getDependentDocuments(grammarURI);
+	}
+
+	/**
+	 * Remove the given document URI from the index of the grammar dependencies
+	 * (ex : when the document is closed).
+	 *
+	 * @param documentURI the document URI.
+	 */
+	public void removeGrammarDependencies(String documentURI) {
+		grammarDependencies.remove(documentURI);
 	}
 
 	/**
@@ -311,8 +425,58 @@ public class ContentModelManager {
 		// Try to get the document from the cache
 		CMDocument cmDocument = getCMDocumentFromCache(resolvedUri);
 		if (cmDocument != null) {
+			PerformanceMetrics.getInstance().getCache(PerformanceMetrics.CONTENT_MODEL_CACHE).hit();
 			return cmDocument;
 		}
+		PerformanceMetrics.getInstance().getCache(PerformanceMetrics.CONTENT_MODEL_CACHE).miss();
+		// Load and cache the document. When the document is loading by another
+		// thread (ex : a completion and a validation at the same time), the document is
+		// not loaded twice, the current thread waits for the loaded document.
+		final ContentModelProvider provider = modelProvider;
+		try {
+			return cmDocumentCache.get(resolvedUri, () -> {
+				CMDocument loadedDocument = loadCMDocument(resolvedUri, provider);
+				if (loadedDocument == null) {
+					throw new CMDocumentNotLoadedException();
+				}
+				return loadedDocument;
+			});
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CMDocumentNotLoadedException) {
+				return null;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Exception thrown when a content model document cannot be loaded (the
+	 * document is not cached).
+	 */
+	private static class CMDocumentNotLoadedException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		public CMDocumentNotLoadedException() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Returns the content model document loaded by the given resolved uri and null
+	 * if the document cannot be loaded.
+	 *
+	 * @param resolvedUri   the resolved uri.
+	 * @param modelProvider the model provider.
+	 * @return the content model document loaded by the given resolved uri and null
+	 *         if the document cannot be loaded.
+	 */
+	private CMDocument loadCMDocument(String resolvedUri, ContentModelProvider modelProvider) {
+		CMDocument cmDocument = null;
 		if (cacheResolverExtension.canUseCache(resolvedUri)) {
 			// The DTD/XML Schema comes from http://, ftp:// etc and cache manager is
 			// activated
@@ -320,7 +484,15 @@ public class ContentModelManager {
 			try {
 				Path file = cacheResolverExtension.getCachedResource(resolvedUri);
 				if (file != null) {
-					cmDocument = modelProvider.createCMDocument(file.toUri().toString(), isResolveExternalEntities());
+					String cachedUri = file.toUri().toString();
+					// Try to load the cached DTD/XML Schema from its snapshot, the grammar is
+					// loaded only when the snapshot cannot answer
+					cmDocument = snapshots.loadSnapshot(cachedUri,
+							() -> modelProvider.createCMDocument(cachedUri, isResolveExternalEntities()));
+					if (cmDocument == null) {
+						cmDocument = modelProvider.createCMDocument(cachedUri, isResolveExternalEntities());
+						snapshots.saveSnapshot(cachedUri, cmDocument);
+					}
 				}
 			} catch (CacheResourceDownloadingException e) {
 				// the DTD/XML Schema is downloading
@@ -332,31 +504,18 @@ public class ContentModelManager {
 		} else {
 			cmDocument = modelProvider.createCMDocument(resolvedUri, isResolveExternalEntities());
 		}
-		// Cache the document
-		if (cmDocument != null) {
-			cache(resolvedUri, cmDocument);
-		}
 		return cmDocument;
 	}
 
 	private CMDocument getCMDocumentFromCache(String key) {
-		CMDocument document = null;
-		synchronized (cmDocumentCache) {
-			document = cmDocumentCache.get(key);
-			if (document != null && document.isDirty()) {
-				cmDocumentCache.remove(key);
-				return null;
-			}
+		CMDocument document = cmDocumentCache.getIfPresent(key);
+		if (document != null && document.isDirty()) {
+			cmDocumentCache.asMap().remove(key, document);
+			return null;
 		}
 		return document;
 	}
 
-	private void cache(String key, CMDocument cmDocument) {
-		synchronized (cmDocumentCache) {
-			cmDocumentCache.put(key, cmDocument);
-		}
-	}
-
 	/**
 	 * Returns the model provider by the given uri and null otherwise.
 	 *
@@ -399,7 +558,12 @@ public class ContentModelManager {
 	 * @return true if catalogs changed and false otherwise
 	 */
 	public boolean setCatalogs(String[] catalogs) {
-		return catalogResolverExtension.setCatalogs(catalogs);
+		boolean catalogsChanged = catalogResolverExtension.setCatalogs(catalogs);
+		if (catalogsChanged) {
+			grammarDependencies.clear();
+			resolverManager.clearResolvedURIsCache();
+		}
+		return catalogsChanged;
 	}
 
 	/**
@@ -407,6 +571,8 @@ public class ContentModelManager {
 	 */
 	public void refreshCatalogs() {
 		catalogResolverExtension.refreshCatalogs();
+		grammarDependencies.clear();
+		resolverManager.clearResolvedURIsCache();
 	}
 
 	/**
@@ -416,13 +582,20 @@ public class ContentModelManager {
 	 * @return true if file associations changed and false otherwise
 	 */
 	public boolean setFileAssociations(XMLFileAssociation[] fileAssociations) {
-		return this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		boolean fileAssociationsChanged = this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		if (fileAssociationsChanged) {
+			grammarDependencies.clear();
+			resolverManager.clearResolvedURIsCache();
+		}
+		return fileAssociationsChanged;
 	}
 
 	public void setRootURI(String rootUri) {
 		rootUri = URIUtils.sanitizingUri(rootUri);
 		fileAssociationResolver.setRootUri(rootUri);
 		catalogResolverExtension.setRootUri(rootUri);
+		grammarDependencies.clear();
+		resolverManager.clearResolvedURIsCache();
 	}
 
 	public void setUseCache(boolean useCache) {
@@ -450,6 +623,30 @@ public class ContentModelManager {
 		cacheResolverExtension.setDownloadExternalResources(downloadExternalResources);
 	}
 
+	/**
+	 * Returns true if the given resource URI can be opened and false otherwise.
+	 * 
+	 * @param resourceURI the resource URI.
+	 * 
+	 * @return true if the given resource URI can be opened and false otherwise.
+	 */
+	public boolean isResourceAvailable(String resourceURI) {
+		return cacheResolverExtension.isResourceAvailable(resourceURI);
+	}
+
+	/**
+	 * Returns the background check of the availability of the given resource URI
+	 * which is running and null otherwise.
+	 * 
+	 * @param resourceURI the resource URI.
+	 * 
+	 * @return the background check of the availability of the given resource URI
+	 *         which is running and null otherwise.
+	 */
+	public CompletableFuture<Boolean> getResourceAvailabilityCheck(String resourceURI) {
+		return cacheResolverExtension.getResourceAvailabilityCheck(resourceURI);
+	}
+
 	/**
 	 * Remove the referenced grammar from the given document and clear the Xerces
 	 * grammar cache which stores the XSD, DTD grammar.
@@ -474,7 +671,7 @@ public class ContentModelManager {
 					String resolvedURI = referencedGrammarInfo.getGrammarCacheInfo().getCachedResolvedUri();
 					Files.deleteIfExists(FilesUtils.getPath(resolvedURI));
 					// remove the XSD/DTD content model document from the cache.
-					cmDocumentCache.remove(resolvedURI);
+					cmDocumentCache.invalidate(resolvedURI);
 					nbDeletedFiles++;
 				}
 				// TODO : get XSD, DTD dependencies from the current referenced grammar to
@@ -502,7 +699,10 @@ public class ContentModelManager {
 			// clear Xerces cache
 			grammarPool.clear();
 			// clear the XSD/DTD content model documents.
-			cmDocumentCache.clear();
+			cmDocumentCache.invalidateAll();
+			// the resolved URIs can reference the deleted files (ex : XML Schema for XML
+			// Schema)
+			resolverManager.clearResolvedURIsCache();
 		}
 
 	}
@@ -519,6 +719,26 @@ public class ContentModelManager {
 		return cacheResolverExtension.isUseCache() ? grammarPool : null;
 	}
 
+	/**
+	 * Set the maximum number of grammars (XSD, DTD, RelaxNG) stored in the Xerces
+	 * grammar pool.
+	 *
+	 * @param maximumSize the maximum number of grammars.
+	 */
+	public void setGrammarPoolMaximumSize(int maximumSize) {
+		grammarPool.setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Returns the statistics (hit, miss, eviction count) of the Xerces grammar
+	 * pool.
+	 *
+	 * @return the statistics of the Xerces grammar pool.
+	 */
+	public GrammarPoolStatistics getGrammarPoolStatistics() {
+		return grammarPool.getStatistics();
+	}
+
 	/**
 	 * Returns true if external entities must be resolved and false otherwise.
 	 *
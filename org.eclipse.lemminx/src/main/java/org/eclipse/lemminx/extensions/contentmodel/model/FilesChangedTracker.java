@@ -11,21 +11,25 @@
 *******************************************************************************/
 package org.eclipse.lemminx.extensions.contentmodel.model;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher.WatchedFile;
+
 /**
  * File changed tracker.
  * 
+ * <p>
+ * The changes of the tracked files are notified by the shared
+ * {@link FilesWatcher}.
+ * </p>
+ * 
  * @author Angelo ZERR
  *
  */
@@ -35,33 +39,22 @@ public class FilesChangedTracker {
 
 	private static class FileChangedTracker {
 
-		private final Path file;
-		private FileTime lastModified;
+		private final WatchedFile file;
+		private long stamp;
 
-		public FileChangedTracker(Path file) {
+		public FileChangedTracker(WatchedFile file) {
 			this.file = file;
-			if (Files.exists(file)) {
-				try {
-					lastModified = Files.getLastModifiedTime(file);
-				} catch (IOException e) {
-					LOGGER.log(Level.SEVERE, "Get last modified time failed", e);
-				}
-			}
+			this.stamp = FilesWatcher.getInstance().getStamp(file);
+		}
+
+		public Path getFile() {
+			return file.getFile();
 		}
 
 		public boolean isDirty() {
-			try {
-				if (!Files.exists(file)) {
-					// This case occurs when user delete the XML Schema / DTD file
-					return true;
-				}
-				FileTime currentLastModified = Files.getLastModifiedTime(file);
-				if (!currentLastModified.equals(lastModified)) {
-					lastModified = currentLastModified;
-					return true;
-				}
-			} catch (IOException e) {
-				LOGGER.log(Level.SEVERE, "Get last modified time failed", e);
+			long currentStamp = FilesWatcher.getInstance().getStamp(file);
+			if (currentStamp != stamp) {
+				stamp = currentStamp;
 				return true;
 			}
 			return false;
@@ -94,7 +87,20 @@ public class FilesChangedTracker {
 	 * @param fileURI
 	 */
 	public void addFileURI(URI fileURI) {
-		files.add(new FileChangedTracker(Paths.get(fileURI)));
+		files.add(new FileChangedTracker(FilesWatcher.getInstance().getWatchedFile(Paths.get(fileURI))));
+	}
+
+	/**
+	 * Returns the tracked files.
+	 * 
+	 * @return the tracked files.
+	 */
+	public List<Path> getFiles() {
+		List<Path> paths = new ArrayList<>(files.size());
+		for (FileChangedTracker file : files) {
+			paths.add(file.getFile());
+		}
+		return paths;
 	}
 
 	/**
@@ -0,0 +1,356 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Files watcher shared by all {@link FilesChangedTracker}.
+ *
+ * <p>
+ * A modification stamp of each tracked file is incremented when the last
+ * modified time of the file changes. The last modified time is checked
+ * synchronously when the stamp is read, at most once per polling interval (0
+ * means on each read). The parent directory of each tracked file is registered
+ * too in a {@link WatchService} to take into account immediately the changes
+ * notified by the watch service during the polling interval.
+ * </p>
+ *
+ * <p>
+ * The tracked files which are no longer used by a {@link FilesChangedTracker}
+ * are removed (the watched files are weakly referenced).
+ * </p>
+ *
+ * <p>
+ * The stamp of a file can be incremented too by the client with the workspace
+ * 'didChangeWatchedFiles' notification (see {@link #invalidate(String)}).
+ * </p>
+ *
+ */
+public class FilesWatcher {
+
+	private static final Logger LOGGER = Logger.getLogger(FilesWatcher.class.getName());
+
+	private static final FilesWatcher INSTANCE = new FilesWatcher();
+
+	public static FilesWatcher getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Watched file.
+	 */
+	static class WatchedFile {
+
+		private final Path file;
+
+		private final AtomicLong stamp;
+
+		private boolean exists;
+
+		private FileTime lastModified;
+
+		private long lastPolling;
+
+		WatchedFile(Path file) {
+			this.file = file;
+			this.stamp = new AtomicLong();
+			this.exists = Files.exists(file);
+			if (exists) {
+				try {
+					lastModified = Files.getLastModifiedTime(file);
+				} catch (IOException e) {
+					LOGGER.log(Level.SEVERE, "Get last modified time failed", e);
+				}
+			}
+			this.lastPolling = System.currentTimeMillis();
+		}
+
+		/**
+		 * Returns the modification stamp of the file.
+		 *
+		 * @param pollingInterval the minimum interval (in milliseconds) between two
+		 *                        checks of the last modified time.
+		 *
+		 * @return the modification stamp of the file.
+		 */
+		long getStamp(long pollingInterval) {
+			poll(pollingInterval);
+			return stamp.get();
+		}
+
+		private synchronized void poll(long pollingInterval) {
+			if (pollingInterval > 0 && System.currentTimeMillis() - lastPolling < pollingInterval) {
+				return;
+			}
+			refresh(false);
+		}
+
+		/**
+		 * Check the last modified time of the file and increment the stamp if it has
+		 * changed.
+		 *
+		 * @param force true if the stamp must be incremented even if the last
+		 *              modified time has not changed.
+		 */
+		synchronized void refresh(boolean force) {
+			lastPolling = System.currentTimeMillis();
+			try {
+				if (!Files.exists(file)) {
+					// This case occurs when user delete the XML Schema / DTD file
+					if (exists || force) {
+						exists = false;
+						lastModified = null;
+						touch();
+					}
+					return;
+				}
+				FileTime currentLastModified = Files.getLastModifiedTime(file);
+				if (!exists || !currentLastModified.equals(lastModified) || force) {
+					exists = true;
+					lastModified = currentLastModified;
+					touch();
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, "Get last modified time failed", e);
+				touch();
+			}
+		}
+
+		private void touch() {
+			stamp.incrementAndGet();
+		}
+
+		Path getFile() {
+			return file;
+		}
+
+	}
+
+	private final Cache<Path, WatchedFile> files;
+
+	private final Map<Path, WatchKey> directories;
+
+	private WatchService watchService;
+
+	private boolean watchServiceInitialized;
+
+	private volatile long pollingInterval;
+
+	FilesWatcher() {
+		this.files = CacheBuilder.newBuilder() //
+				.weakValues() //
+				.build();
+		this.directories = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the watched file for the given file path.
+	 *
+	 * @param file the file path.
+	 *
+	 * @return the watched file for the given file path.
+	 */
+	WatchedFile getWatchedFile(Path file) {
+		Path normalizedFile = file.toAbsolutePath().normalize();
+		WatchedFile watchedFile = files.getIfPresent(normalizedFile);
+		if (watchedFile != null) {
+			return watchedFile;
+		}
+		return files.asMap().computeIfAbsent(normalizedFile, f -> {
+			WatchedFile newWatchedFile = new WatchedFile(f);
+			watchDirectory(f.getParent());
+			return newWatchedFile;
+		});
+	}
+
+	/**
+	 * Returns the modification stamp of the given watched file.
+	 *
+	 * @param watchedFile the watched file.
+	 *
+	 * @return the modification stamp of the given watched file.
+	 */
+	long getStamp(WatchedFile watchedFile) {
+		return watchedFile.getStamp(pollingInterval);
+	}
+
+	/**
+	 * Mark as changed the tracked file of the given file URI.
+	 *
+	 * @param fileURI the file URI.
+	 */
+	public void invalidate(String fileURI) {
+		if (fileURI == null || files.size() == 0) {
+			return;
+		}
+		try {
+			URI uri = new URI(fileURI);
+			if (!"file".equals(uri.getScheme())) {
+				return;
+			}
+			WatchedFile watchedFile = files.getIfPresent(Paths.get(uri).toAbsolutePath().normalize());
+			if (watchedFile != null) {
+				watchedFile.refresh(true);
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Invalidate file URI '" + fileURI + "' failed", e);
+		}
+	}
+
+	/**
+	 * Returns the minimum interval (in milliseconds) between two checks of the
+	 * last modified time of a file.
+	 *
+	 * @return the minimum interval (in milliseconds) between two checks of the
+	 *         last modified time of a file.
+	 */
+	public long getPollingInterval() {
+		return pollingInterval;
+	}
+
+	/**
+	 * Set the minimum interval (in milliseconds) between two checks of the last
+	 * modified time of a file. 0 means that the last modified time is checked each
+	 * time the stamp of the file is read.
+	 *
+	 * @param pollingInterval the minimum interval (in milliseconds).
+	 */
+	public void setPollingInterval(long pollingInterval) {
+		this.pollingInterval = pollingInterval < 0 ? 0 : pollingInterval;
+	}
+
+	private void watchDirectory(Path directory) {
+		if (directory == null || directories.containsKey(directory) || !Files.isDirectory(directory)) {
+			return;
+		}
+		synchronized (directories) {
+			if (directories.containsKey(directory)) {
+				return;
+			}
+			WatchService service = getWatchService();
+			if (service == null) {
+				return;
+			}
+			try {
+				WatchKey key = directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				directories.put(directory, key);
+			} catch (Exception e) {
+				LOGGER.log(Level.WARNING, "Watch directory '" + directory + "' failed, the polling is used", e);
+			}
+		}
+	}
+
+	private WatchService getWatchService() {
+		if (watchServiceInitialized) {
+			return watchService;
+		}
+		watchServiceInitialized = true;
+		try {
+			WatchService service = FileSystems.getDefault().newWatchService();
+			if (service.getClass().getName().endsWith("PollingWatchService")) {
+				// The JDK polling watch service (ex : on macOS) notifies changes with a long
+				// delay, it is not better than the polling of the tracked files.
+				service.close();
+				return null;
+			}
+			Thread thread = new Thread(() -> processEvents(service), "LemMinX files watcher");
+			thread.setDaemon(true);
+			thread.start();
+			watchService = service;
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Create watch service failed, the polling is used", e);
+		}
+		return watchService;
+	}
+
+	private void processEvents(WatchService service) {
+		while (true) {
+			WatchKey key;
+			try {
+				key = service.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+			Path directory = (Path) key.watchable();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					// some events are lost, check all files of the directory
+					refreshFiles(directory);
+				} else {
+					WatchedFile watchedFile = files.getIfPresent(directory.resolve((Path) event.context()));
+					if (watchedFile != null) {
+						watchedFile.refresh(false);
+					}
+				}
+			}
+			if (!key.reset()) {
+				// The directory is not accessible (ex : it has been deleted), the files of
+				// this directory are only polled
+				directories.remove(directory);
+				refreshFiles(directory);
+			} else if (!hasFiles(directory)) {
+				// No more tracked files in the directory
+				synchronized (directories) {
+					if (!hasFiles(directory)) {
+						key.cancel();
+						directories.remove(directory);
+					}
+				}
+			}
+		}
+	}
+
+	private void refreshFiles(Path directory) {
+		for (WatchedFile watchedFile : files.asMap().values()) {
+			if (directory.equals(watchedFile.getFile().getParent())) {
+				watchedFile.refresh(false);
+			}
+		}
+	}
+
+	private boolean hasFiles(Path directory) {
+		files.cleanUp();
+		for (Path file : files.asMap().keySet()) {
+			if (directory.equals(file.getParent())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+
+/**
+ * Index of the grammars (XML Schema, DTD, RelaxNG) used by the DOM documents.
+ *
+ * <p>
+ * The index stores for each document URI the URIs of the grammars used to
+ * validate the document (the bound grammars and the grammars that they
+ * include, import) and the reverse index from a grammar URI to the URIs of the
+ * dependent documents, so that saving a grammar doesn't need to resolve the
+ * grammars of all opened documents.
+ * </p>
+ *
+ * <p>
+ * An entry is linked to the DOM document instance which was used to compute
+ * it: when the document is parsed again, the entry is stale and must be
+ * updated.
+ * </p>
+ *
+ */
+class GrammarDependencies {
+
+	private static class Entry {
+
+		private final WeakReference<DOMDocument> document;
+
+		private final Set<String> grammarURIs;
+
+		public Entry(DOMDocument document, Set<String> grammarURIs) {
+			this.document = new WeakReference<>(document);
+			this.grammarURIs = grammarURIs;
+		}
+	}
+
+	private final Map<String /* document URI */, Entry> documents;
+
+	private final Map<String /* grammar URI */, Set<String>> dependents;
+
+	public GrammarDependencies() {
+		documents = new HashMap<>();
+		dependents = new HashMap<>();
+	}
+
+	/**
+	 * Returns the grammar URIs of the given DOM document and null if the index
+	 * must be updated for this document.
+	 *
+	 * @param document the DOM document.
+	 *
+	 * @return the grammar URIs of the given DOM document and null if the index
+	 *         must be updated for this document.
+	 */
+	public synchronized Set<String> getGrammarURIs(DOMDocument document) {
+		Entry entry = documents.get(document.getDocumentURI());
+		if (entry == null || entry.document.get() != document) {
+			return null;
+		}
+		return entry.grammarURIs;
+	}
+
+	/**
+	 * Update the grammar URIs of the given DOM document and returns the normalized
+	 * grammar URIs.
+	 *
+	 * @param document    the DOM document.
+	 * @param grammarURIs the URIs of the grammars used by the DOM document.
+	 *
+	 * @return the normalized grammar URIs.
+	 */
+	public synchronized Set<String> update(DOMDocument document, Set<String> grammarURIs) {
+		String documentURI = document.getDocumentURI();
+		removeDependents(documentURI);
+		Set<String> normalizedURIs = new HashSet<>(grammarURIs.size());
+		for (String grammarURI : grammarURIs) {
+			String normalizedURI = normalize(grammarURI);
+			normalizedURIs.add(normalizedURI);
+			dependents.computeIfAbsent(normalizedURI, k -> new HashSet<>()).add(documentURI);
+		}
+		Entry entry = new Entry(document, Collections.unmodifiableSet(normalizedURIs));
+		documents.put(documentURI, entry);
+		return entry.grammarURIs;
+	}
+
+	/**
+	 * Remove the given document URI from the index.
+	 *
+	 * @param documentURI the document URI.
+	 */
+	public synchronized void remove(String documentURI) {
+		removeDependents(documentURI);
+		documents.remove(documentURI);
+	}
+
+	/**
+	 * Clear the index (ex : when catalogs, file associations change).
+	 */
+	public synchronized void clear() {
+		documents.clear();
+		dependents.clear();
+	}
+
+	/**
+	 * Returns the URIs of the indexed documents which depend on the given grammar
+	 * URI.
+	 *
+	 * @param grammarURI the grammar URI.
+	 *
+	 * @return the URIs of the indexed documents which depend on the given grammar
+	 *         URI.
+	 */
+	public synchronized Set<String> getDependentDocuments(String grammarURI) {
+		Set<String> documentURIs = dependents.get(normalize(grammarURI));
+		return documentURIs != null ? new HashSet<>(documentURIs) : Collections.emptySet();
+	}
+
+	private void removeDependents(String documentURI) {
+		Entry entry = documents.get(documentURI);
+		if (entry == null) {
+			return;
+		}
+		for (String grammarURI : entry.grammarURIs) {
+			Set<String> documentURIs = dependents.get(grammarURI);
+			if (documentURIs != null) {
+				documentURIs.remove(documentURI);
+				if (documentURIs.isEmpty()) {
+					dependents.remove(grammarURI);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the normalized form of the given URI to compare the file URIs
+	 * coming from the client (ex : 'file:///C:/...') with the file URIs coming
+	 * from the resolvers and the grammar pool (ex : 'file:/C:/...').
+	 *
+	 * @param uri the URI.
+	 *
+	 * @return the normalized form of the given URI.
+	 */
+	static String normalize(String uri) {
+		if (uri != null && uri.startsWith("file:")) {
+			try {
+				return Paths.get(new URI(uri)).toUri().toString();
+			} catch (Exception e) {
+				// Invalid file URI, use it as it is
+			}
+		}
+		return uri;
+	}
+}
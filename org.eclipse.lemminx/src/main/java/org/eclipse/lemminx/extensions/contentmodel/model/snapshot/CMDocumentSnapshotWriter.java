@@ -0,0 +1,323 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import static org.eclipse.lemminx.extensions.contentmodel.model.snapshot.CMSnapshotDocument.DOCUMENTATION_VARIANTS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.eclipse.lemminx.extensions.contentmodel.model.CMAttributeDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.extensions.xsi.XSISchemaModel;
+import org.eclipse.lemminx.services.extensions.ISharedSettingsRequest;
+import org.eclipse.lemminx.settings.SchemaDocumentationType;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lsp4j.MarkupKind;
+
+/**
+ * Writer which serializes the element / attribute declarations of a content
+ * model document in the snapshot format read by {@link CMSnapshotDocument}.
+ *
+ * <p>
+ * The snapshot format is:
+ *
+ * <pre>
+ * header : magic (int), version (int), CRC32 of the body (int), body length (int)
+ * body   : grammar files (paths + SHA-256 of their content)
+ *          strings table
+ *          namespaces
+ *          element declarations (with attributes, children, documentations)
+ *          root element declarations
+ * </pre>
+ *
+ * Each documentation is stored for each {@link SchemaDocumentationType} and
+ * with/without markdown support, to be returned without the grammar.
+ * </p>
+ *
+ */
+class CMDocumentSnapshotWriter {
+
+	private static final ISharedSettingsRequest[] REQUESTS = createRequests();
+
+	private final Map<String, Integer> stringIds;
+	private final List<String> strings;
+
+	private final Map<CMElementDeclaration, Integer> elementIds;
+	private final List<CMElementDeclaration> elements;
+	private final List<int[]> elementPaths;
+
+	CMDocumentSnapshotWriter() {
+		this.stringIds = new HashMap<>();
+		this.strings = new ArrayList<>();
+		this.elementIds = new IdentityHashMap<>();
+		this.elements = new ArrayList<>();
+		this.elementPaths = new ArrayList<>();
+	}
+
+	/**
+	 * Returns the snapshot (header + body) of the given content model document.
+	 *
+	 * @param document    the content model document.
+	 * @param files       the grammar files used by the document.
+	 * @param contentHash the hash of the content of the grammar files.
+	 *
+	 * @return the snapshot of the given content model document.
+	 *
+	 * @throws IOException
+	 */
+	byte[] write(CMDocument document, List<Path> files, byte[] contentHash) throws IOException {
+		// 1. Collect the element declarations graph (an element declaration can be
+		// recursive)
+		List<CMElementDeclaration> roots = new ArrayList<>(document.getElements());
+		for (int i = 0; i < roots.size(); i++) {
+			register(roots.get(i), new int[] { i });
+		}
+		ByteArrayOutputStream elementsBytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(elementsBytes);
+		for (int i = 0; i < elements.size(); i++) {
+			writeElement(elements.get(i), elementPaths.get(i), out);
+		}
+		out.flush();
+
+		// 2. Write the body
+		ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+		DataOutputStream body = new DataOutputStream(bodyBytes);
+		body.writeInt(files.size());
+		for (Path file : files) {
+			writeString(file.toString(), body);
+		}
+		body.write(contentHash);
+		Set<String> namespaces = collectNamespaces(document);
+		int[] namespaceIds = new int[namespaces.size()];
+		int index = 0;
+		for (String namespace : namespaces) {
+			namespaceIds[index++] = getStringId(namespace);
+		}
+		body.writeInt(strings.size());
+		for (String s : strings) {
+			writeString(s, body);
+		}
+		body.writeInt(namespaceIds.length);
+		for (int namespaceId : namespaceIds) {
+			body.writeInt(namespaceId);
+		}
+		body.writeInt(elements.size());
+		elementsBytes.writeTo(body);
+		body.writeInt(roots.size());
+		for (CMElementDeclaration root : roots) {
+			body.writeInt(elementIds.get(root));
+		}
+		body.flush();
+
+		// 3. Write the header
+		byte[] content = bodyBytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream(CMSnapshotDocument.HEADER_LENGTH + content.length);
+		DataOutputStream header = new DataOutputStream(snapshot);
+		header.writeInt(CMSnapshotDocument.MAGIC);
+		header.writeInt(CMSnapshotDocument.VERSION);
+		header.writeInt((int) crc.getValue());
+		header.writeInt(content.length);
+		header.write(content);
+		header.flush();
+		return snapshot.toByteArray();
+	}
+
+	private static void writeString(String s, DataOutputStream out) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private int register(CMElementDeclaration element, int[] path) {
+		Integer id = elementIds.get(element);
+		if (id != null) {
+			return id;
+		}
+		id = elements.size();
+		elementIds.put(element, id);
+		elements.add(element);
+		elementPaths.add(path);
+		return id;
+	}
+
+	private void writeElement(CMElementDeclaration element, int[] path, DataOutputStream out) throws IOException {
+		out.writeInt(getStringId(element.getLocalName()));
+		out.writeInt(getStringId(element.getNamespace()));
+		out.writeInt(getStringId(element.getDocumentURI()));
+		int flags = 0;
+		if (element.isEmpty()) {
+			flags |= CMSnapshotElementDeclaration.EMPTY;
+		}
+		if (element.isNillable()) {
+			flags |= CMSnapshotElementDeclaration.NILLABLE;
+		}
+		if (element.isStringType()) {
+			flags |= CMSnapshotElementDeclaration.STRING_TYPE;
+		}
+		if (element.isMixedContent()) {
+			flags |= CMSnapshotElementDeclaration.MIXED_CONTENT;
+		}
+		out.writeByte(flags);
+		for (ISharedSettingsRequest request : REQUESTS) {
+			out.writeInt(getStringId(element.getDocumentation(request)));
+		}
+		// Enumeration values with their documentation
+		List<String> values = new ArrayList<>(element.getEnumerationValues());
+		out.writeInt(values.size());
+		for (String value : values) {
+			out.writeInt(getStringId(value));
+		}
+		for (ISharedSettingsRequest request : REQUESTS) {
+			for (String value : values) {
+				out.writeInt(getStringId(element.getTextDocumentation(value, request)));
+			}
+		}
+		// Attributes
+		Collection<CMAttributeDeclaration> attributes = element.getAttributes();
+		out.writeInt(attributes.size());
+		for (CMAttributeDeclaration attribute : attributes) {
+			writeAttribute(attribute, out);
+		}
+		// Children
+		List<CMElementDeclaration> children = new ArrayList<>(element.getElements());
+		out.writeInt(children.size());
+		for (int i = 0; i < children.size(); i++) {
+			CMElementDeclaration child = children.get(i);
+			int[] childPath = path != null ? Arrays.copyOf(path, path.length + 1) : null;
+			if (childPath != null) {
+				childPath[path.length] = i;
+			}
+			out.writeInt(register(child, childPath));
+			out.writeBoolean(element.isOptional(child.getLocalName()));
+		}
+		Collection<CMElementDeclaration> requiredElements = element.getRequiredElements();
+		out.writeInt(requiredElements.size());
+		for (CMElementDeclaration requiredElement : requiredElements) {
+			out.writeInt(register(requiredElement, null));
+		}
+		// Path used to retrieve the element declaration from the grammar
+		if (path == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(path.length);
+			for (int index : path) {
+				out.writeInt(index);
+			}
+		}
+	}
+
+	private void writeAttribute(CMAttributeDeclaration attribute, DataOutputStream out) throws IOException {
+		out.writeInt(getStringId(attribute.getLocalName()));
+		out.writeInt(getStringId(attribute.getNamespace()));
+		out.writeInt(getStringId(attribute.getPrefix()));
+		out.writeInt(getStringId(attribute.getDefaultValue()));
+		out.writeBoolean(attribute.isRequired());
+		for (ISharedSettingsRequest request : REQUESTS) {
+			out.writeInt(getStringId(attribute.getAttributeNameDocumentation(request)));
+		}
+		List<String> values = new ArrayList<>(attribute.getEnumerationValues());
+		out.writeInt(values.size());
+		for (String value : values) {
+			out.writeInt(getStringId(value));
+		}
+		for (ISharedSettingsRequest request : REQUESTS) {
+			for (String value : values) {
+				out.writeInt(getStringId(attribute.getAttributeValueDocumentation(value, request)));
+			}
+		}
+	}
+
+	private Set<String> collectNamespaces(CMDocument document) {
+		Set<String> candidates = new LinkedHashSet<>();
+		for (CMElementDeclaration element : elements) {
+			candidates.add(element.getNamespace());
+			for (CMAttributeDeclaration attribute : element.getAttributes()) {
+				candidates.add(attribute.getNamespace());
+			}
+		}
+		candidates.add(XSISchemaModel.XSI_WEBSITE);
+		Set<String> namespaces = new LinkedHashSet<>();
+		for (String namespace : candidates) {
+			if (namespace != null && document.hasNamespace(namespace)) {
+				namespaces.add(namespace);
+			}
+		}
+		return namespaces;
+	}
+
+	private int getStringId(String s) {
+		if (s == null) {
+			return -1;
+		}
+		Integer id = stringIds.get(s);
+		if (id == null) {
+			id = strings.size();
+			stringIds.put(s, id);
+			strings.add(s);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the requests used to collect the documentation of each
+	 * {@link SchemaDocumentationType} with/without markdown support, ordered by
+	 * {@link CMSnapshotDocument#getDocumentationIndex(ISharedSettingsRequest)}.
+	 *
+	 * <p>
+	 * Two consecutive requests never use the same documentation type, because XML
+	 * Schema declarations cache their documentation for the last used type.
+	 * </p>
+	 *
+	 * @return the requests used to collect the documentation.
+	 */
+	private static ISharedSettingsRequest[] createRequests() {
+		SchemaDocumentationType[] types = SchemaDocumentationType.values();
+		ISharedSettingsRequest[] requests = new ISharedSettingsRequest[DOCUMENTATION_VARIANTS];
+		for (int markdown = 0; markdown < 2; markdown++) {
+			for (SchemaDocumentationType type : types) {
+				boolean markdownSupported = markdown == 1;
+				SharedSettings sharedSettings = new SharedSettings();
+				sharedSettings.getPreferences().setShowSchemaDocumentationType(type);
+				requests[CMSnapshotDocument.getDocumentationIndex(type, markdownSupported)] = new ISharedSettingsRequest() {
+
+					@Override
+					public boolean canSupportMarkupKind(String kind) {
+						return MarkupKind.PLAINTEXT.equals(kind) || (markdownSupported && MarkupKind.MARKDOWN.equals(kind));
+					}
+
+					@Override
+					public SharedSettings getSharedSettings() {
+						return sharedSettings;
+					}
+				};
+			}
+		}
+		return requests;
+	}
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
+import org.eclipse.lemminx.utils.FilesUtils;
+
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hashing;
+
+/**
+ * Content model documents snapshots.
+ *
+ * <p>
+ * A snapshot stores on the disk (in the 'snapshots' folder of the LemMinX work
+ * directory) the element / attribute declarations and their documentation of
+ * a content model document (XML Schema, DTD). On the next start of the
+ * language server, the snapshot is memory-mapped and used instead of
+ * compiling the grammar, which is loaded only when the snapshot cannot answer
+ * (see {@link CMSnapshotDocument}).
+ * </p>
+ *
+ * <p>
+ * A snapshot is ignored when its format version is not the current version,
+ * when its checksum is not valid, or when the content of a grammar file (root,
+ * included and imported) has changed since the snapshot has been written.
+ * </p>
+ *
+ */
+public class CMDocumentSnapshots {
+
+	private static final Logger LOGGER = Logger.getLogger(CMDocumentSnapshots.class.getName());
+
+	private static final String SNAPSHOTS_PATH = "snapshots";
+
+	private static final String SNAPSHOT_EXTENSION = ".cms";
+
+	private static final int CONTENT_HASH_LENGTH = 32;
+
+	/**
+	 * Returns the content model document read from the snapshot of the given
+	 * grammar URI and null if there is no valid snapshot.
+	 *
+	 * @param grammarURI    the grammar URI.
+	 * @param grammarLoader the loader used to load the grammar document when the
+	 *                      snapshot cannot answer.
+	 *
+	 * @return the content model document read from the snapshot of the given
+	 *         grammar URI and null if there is no valid snapshot.
+	 */
+	public CMDocument loadSnapshot(String grammarURI, Supplier<CMDocument> grammarLoader) {
+		Path snapshotFile = null;
+		try {
+			snapshotFile = getSnapshotPath(grammarURI);
+			if (!Files.exists(snapshotFile)) {
+				return null;
+			}
+			ByteBuffer buffer = map(snapshotFile);
+			// Header
+			if (buffer.remaining() < CMSnapshotDocument.HEADER_LENGTH || buffer.getInt() != CMSnapshotDocument.MAGIC
+					|| buffer.getInt() != CMSnapshotDocument.VERSION) {
+				return invalidate(snapshotFile, "the format version is not supported");
+			}
+			int checksum = buffer.getInt();
+			int length = buffer.getInt();
+			if (length != buffer.remaining()) {
+				return invalidate(snapshotFile, "the snapshot is truncated");
+			}
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				return invalidate(snapshotFile, "the checksum is not valid");
+			}
+			// Grammar files
+			int fileCount = buffer.getInt();
+			List<Path> files = new ArrayList<>(fileCount);
+			for (int i = 0; i < fileCount; i++) {
+				files.add(Paths.get(readString(buffer)));
+			}
+			byte[] contentHash = new byte[CONTENT_HASH_LENGTH];
+			buffer.get(contentHash);
+			FilesChangedTracker tracker = new FilesChangedTracker();
+			for (Path file : files) {
+				tracker.addFileURI(file.toUri());
+			}
+			if (!Arrays.equals(contentHash, computeContentHash(files))) {
+				return invalidate(snapshotFile, "a grammar file has changed");
+			}
+			return new CMSnapshotDocument(buffer, Suppliers.memoize(grammarLoader::get), tracker);
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Error while loading the snapshot of '" + grammarURI + "'", e);
+			return snapshotFile != null ? invalidate(snapshotFile, e.getMessage()) : null;
+		}
+	}
+
+	/**
+	 * Save the snapshot of the given content model document.
+	 *
+	 * <p>
+	 * The snapshot is saved only if the content model document tracks its grammar
+	 * files, to invalidate the snapshot when a grammar file changes.
+	 * </p>
+	 *
+	 * @param grammarURI the grammar URI.
+	 * @param document   the content model document.
+	 */
+	public void saveSnapshot(String grammarURI, CMDocument document) {
+		if (document == null || document instanceof CMSnapshotDocument) {
+			return;
+		}
+		FilesChangedTracker tracker = document.getFilesChangedTracker();
+		if (tracker == null) {
+			return;
+		}
+		List<Path> files = tracker.getFiles();
+		if (files.isEmpty()) {
+			return;
+		}
+		try {
+			files.sort(Comparator.comparing(Path::toString));
+			byte[] contentHash = computeContentHash(files);
+			byte[] snapshot = new CMDocumentSnapshotWriter().write(document, files, contentHash);
+			Path snapshotFile = getSnapshotPath(grammarURI);
+			Files.createDirectories(snapshotFile.getParent());
+			Path tempFile = Files.createTempFile(snapshotFile.getParent(), null, null);
+			try {
+				Files.write(tempFile, snapshot);
+				Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Error while saving the snapshot of '" + grammarURI + "'", e);
+		}
+	}
+
+	/**
+	 * Returns the snapshot file path of the given grammar URI.
+	 *
+	 * @param grammarURI the grammar URI.
+	 *
+	 * @return the snapshot file path of the given grammar URI.
+	 *
+	 * @throws IOException
+	 */
+	public static Path getSnapshotPath(String grammarURI) throws IOException {
+		String name = Hashing.sha256().hashString(grammarURI, StandardCharsets.UTF_8).toString();
+		return FilesUtils.getDeployedPath(Paths.get(SNAPSHOTS_PATH, name + SNAPSHOT_EXTENSION));
+	}
+
+	private static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the content of the given files.
+	 *
+	 * @param files the files.
+	 *
+	 * @return the SHA-256 hash of the content of the given files.
+	 *
+	 * @throws IOException
+	 * @throws NoSuchAlgorithmException
+	 */
+	private static byte[] computeContentHash(List<Path> files) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		byte[] bytes = new byte[8192];
+		for (Path file : files) {
+			digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+			try (InputStream in = Files.newInputStream(file)) {
+				int read;
+				while ((read = in.read(bytes)) != -1) {
+					digest.update(bytes, 0, read);
+				}
+			}
+		}
+		return digest.digest();
+	}
+
+	private static CMDocument invalidate(Path snapshotFile, String reason) {
+		LOGGER.log(Level.FINE, "The snapshot '" + snapshotFile + "' is ignored: " + reason);
+		try {
+			Files.deleteIfExists(snapshotFile);
+		} catch (IOException e) {
+			// the snapshot is mapped (on Windows), it will be replaced by the next save
+		}
+		return null;
+	}
+}
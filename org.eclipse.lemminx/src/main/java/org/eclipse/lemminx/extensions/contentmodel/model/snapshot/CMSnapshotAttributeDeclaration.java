@@ -0,0 +1,103 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import static org.eclipse.lemminx.extensions.contentmodel.model.snapshot.CMSnapshotDocument.DOCUMENTATION_VARIANTS;
+import static org.eclipse.lemminx.extensions.contentmodel.model.snapshot.CMSnapshotElementDeclaration.readInts;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.eclipse.lemminx.extensions.contentmodel.model.CMAttributeDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.services.extensions.ISharedSettingsRequest;
+
+/**
+ * Attribute declaration read from a snapshot.
+ *
+ */
+public class CMSnapshotAttributeDeclaration implements CMAttributeDeclaration {
+
+	private final CMSnapshotElementDeclaration element;
+
+	private final int localName;
+	private final int namespace;
+	private final int prefix;
+	private final int defaultValue;
+	private final boolean required;
+	private final int[] documentations;
+	private final int[] enumerationValues;
+	private final int[] valueDocumentations;
+
+	CMSnapshotAttributeDeclaration(CMSnapshotElementDeclaration element, ByteBuffer buffer) {
+		this.element = element;
+		this.localName = buffer.getInt();
+		this.namespace = buffer.getInt();
+		this.prefix = buffer.getInt();
+		this.defaultValue = buffer.getInt();
+		this.required = buffer.get() != 0;
+		this.documentations = readInts(buffer, DOCUMENTATION_VARIANTS);
+		this.enumerationValues = readInts(buffer, buffer.getInt());
+		this.valueDocumentations = readInts(buffer, enumerationValues.length * DOCUMENTATION_VARIANTS);
+	}
+
+	@Override
+	public String getPrefix() {
+		return element.getOwnerDocument().getString(prefix);
+	}
+
+	@Override
+	public String getLocalName() {
+		return element.getOwnerDocument().getString(localName);
+	}
+
+	@Override
+	public String getNamespace() {
+		return element.getOwnerDocument().getString(namespace);
+	}
+
+	@Override
+	public CMElementDeclaration getOwnerElementDeclaration() {
+		return element;
+	}
+
+	@Override
+	public String getDefaultValue() {
+		return element.getOwnerDocument().getString(defaultValue);
+	}
+
+	@Override
+	public Collection<String> getEnumerationValues() {
+		return element.getStrings(enumerationValues);
+	}
+
+	@Override
+	public String getAttributeNameDocumentation(ISharedSettingsRequest request) {
+		return element.getOwnerDocument()
+				.getString(documentations[CMSnapshotDocument.getDocumentationIndex(request)]);
+	}
+
+	@Override
+	public String getAttributeValueDocumentation(String value, ISharedSettingsRequest request) {
+		return element.getValueDocumentation(value, enumerationValues, valueDocumentations, request);
+	}
+
+	@Override
+	public boolean isRequired() {
+		return required;
+	}
+
+	@Override
+	public String toString() {
+		return getLocalName();
+	}
+}
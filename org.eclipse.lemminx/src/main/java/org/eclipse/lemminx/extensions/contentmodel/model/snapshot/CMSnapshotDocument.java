@@ -0,0 +1,260 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
+import org.eclipse.lemminx.extensions.xsi.XSISchemaModel;
+import org.eclipse.lemminx.services.extensions.ISharedSettingsRequest;
+import org.eclipse.lemminx.settings.SchemaDocumentationType;
+import org.eclipse.lsp4j.LocationLink;
+import org.eclipse.lsp4j.MarkupKind;
+import org.w3c.dom.Entity;
+import org.w3c.dom.Node;
+
+/**
+ * Content model document read from a snapshot (see
+ * {@link CMDocumentSnapshots}).
+ *
+ * <p>
+ * The element / attribute declarations and their documentation are read from
+ * the memory-mapped snapshot (the strings are decoded only when they are
+ * used). The grammar (XML Schema, DTD) is loaded only when an information
+ * which is not stored in the snapshot is required (possible elements at a
+ * given offset, xsi:type, type location, entities).
+ * </p>
+ *
+ */
+public class CMSnapshotDocument implements CMDocument {
+
+	static final int MAGIC = 0x4C4D4353; // LMCS
+
+	static final int VERSION = 1;
+
+	static final int HEADER_LENGTH = 16;
+
+	static final int DOCUMENTATION_VARIANTS = SchemaDocumentationType.values().length * 2;
+
+	private final ByteBuffer buffer;
+
+	private final int[] stringOffsets;
+
+	private final String[] strings;
+
+	private final Set<String> namespaces;
+
+	private final CMSnapshotElementDeclaration[] allElements;
+
+	private final List<CMElementDeclaration> elements;
+
+	private final Supplier<CMDocument> grammarDocument;
+
+	private final FilesChangedTracker tracker;
+
+	/**
+	 * Creates a content model document from the snapshot body.
+	 *
+	 * @param buffer          the snapshot buffer positioned at the strings table.
+	 * @param grammarDocument the supplier which loads the grammar document.
+	 * @param tracker         the tracker of the grammar files.
+	 */
+	CMSnapshotDocument(ByteBuffer buffer, Supplier<CMDocument> grammarDocument, FilesChangedTracker tracker) {
+		this.buffer = buffer;
+		this.grammarDocument = grammarDocument;
+		this.tracker = tracker;
+		// Strings table (the strings are decoded lazily)
+		int stringCount = buffer.getInt();
+		this.stringOffsets = new int[stringCount];
+		this.strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			stringOffsets[i] = buffer.position();
+			int length = buffer.getInt();
+			buffer.position(buffer.position() + length);
+		}
+		// Namespaces
+		int namespaceCount = buffer.getInt();
+		this.namespaces = new HashSet<>(namespaceCount);
+		for (int i = 0; i < namespaceCount; i++) {
+			namespaces.add(getString(buffer.getInt()));
+		}
+		// Element declarations
+		int elementCount = buffer.getInt();
+		this.allElements = new CMSnapshotElementDeclaration[elementCount];
+		for (int i = 0; i < elementCount; i++) {
+			allElements[i] = new CMSnapshotElementDeclaration(this, buffer);
+		}
+		for (CMSnapshotElementDeclaration element : allElements) {
+			element.resolveElements();
+		}
+		int rootCount = buffer.getInt();
+		List<CMElementDeclaration> elements = new ArrayList<>(rootCount);
+		for (int i = 0; i < rootCount; i++) {
+			elements.add(getElement(buffer.getInt()));
+		}
+		this.elements = Collections.unmodifiableList(elements);
+	}
+
+	@Override
+	public boolean hasNamespace(String namespaceURI) {
+		return namespaceURI != null && namespaces.contains(namespaceURI);
+	}
+
+	@Override
+	public Collection<CMElementDeclaration> getElements() {
+		return elements;
+	}
+
+	@Override
+	public CMElementDeclaration findCMElement(DOMElement element, String namespace) {
+		DOMElement originElement = element;
+		List<DOMElement> paths = new ArrayList<>();
+		while (element != null && (namespace == null || namespace.equals(element.getNamespaceURI()))) {
+			if (hasXsiType(element)) {
+				// the element declaration must be refined with the xsi:type, the grammar is
+				// required
+				CMDocument grammarDocument = getGrammarDocument();
+				return grammarDocument != null ? grammarDocument.findCMElement(originElement, namespace) : null;
+			}
+			paths.add(element);
+			element = element.getParentNode() instanceof DOMElement ? (DOMElement) element.getParentNode() : null;
+		}
+		CMElementDeclaration declaration = null;
+		for (int i = paths.size() - 1; i >= 0; i--) {
+			String localName = paths.get(i).getLocalName();
+			declaration = declaration == null ? findElementDeclaration(localName)
+					: declaration.findCMElement(localName, namespace);
+			if (declaration == null) {
+				break;
+			}
+		}
+		return declaration;
+	}
+
+	private CMElementDeclaration findElementDeclaration(String tag) {
+		if (tag == null) {
+			return null;
+		}
+		for (CMElementDeclaration cmElement : elements) {
+			if (tag.equals(cmElement.getLocalName())) {
+				return cmElement;
+			}
+		}
+		return null;
+	}
+
+	private static boolean hasXsiType(DOMElement element) {
+		org.w3c.dom.NamedNodeMap attrs = element.getAttributes();
+		if (attrs == null) {
+			return false;
+		}
+		for (int i = 0; i < attrs.getLength(); i++) {
+			Node attr = attrs.item(i);
+			if ("type".equals(attr.getLocalName()) && XSISchemaModel.XSI_WEBSITE.equals(attr.getNamespaceURI())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public LocationLink findTypeLocation(DOMNode node) {
+		CMDocument grammarDocument = getGrammarDocument();
+		return grammarDocument != null ? grammarDocument.findTypeLocation(node) : null;
+	}
+
+	@Override
+	public List<Entity> getEntities() {
+		CMDocument grammarDocument = getGrammarDocument();
+		return grammarDocument != null ? grammarDocument.getEntities() : Collections.emptyList();
+	}
+
+	@Override
+	public boolean isDirty() {
+		return tracker.isDirty();
+	}
+
+	@Override
+	public FilesChangedTracker getFilesChangedTracker() {
+		return tracker;
+	}
+
+	@Override
+	public int getWeight() {
+		return 1 + allElements.length;
+	}
+
+	/**
+	 * Returns the grammar document (loaded on the first call) and null if it
+	 * cannot be loaded.
+	 *
+	 * @return the grammar document and null if it cannot be loaded.
+	 */
+	CMDocument getGrammarDocument() {
+		return grammarDocument.get();
+	}
+
+	CMSnapshotElementDeclaration getElement(int id) {
+		return allElements[id];
+	}
+
+	String getString(int id) {
+		if (id < 0) {
+			return null;
+		}
+		String s = strings[id];
+		if (s == null) {
+			// Strings are immutable, they can be decoded twice by concurrent requests
+			// without any problem
+			int offset = stringOffsets[id];
+			int length = buffer.getInt(offset);
+			byte[] bytes = new byte[length];
+			ByteBuffer slice = buffer.duplicate();
+			slice.position(offset + 4);
+			slice.get(bytes);
+			s = new String(bytes, StandardCharsets.UTF_8);
+			strings[id] = s;
+		}
+		return s;
+	}
+
+	/**
+	 * Returns the index of the documentation stored for the given request.
+	 *
+	 * @param request the request.
+	 *
+	 * @return the index of the documentation stored for the given request.
+	 */
+	static int getDocumentationIndex(ISharedSettingsRequest request) {
+		SchemaDocumentationType type = request.getSharedSettings().getPreferences()
+				.getShowSchemaDocumentationType();
+		return getDocumentationIndex(type != null ? type : SchemaDocumentationType.all,
+				request.canSupportMarkupKind(MarkupKind.MARKDOWN));
+	}
+
+	static int getDocumentationIndex(SchemaDocumentationType type, boolean markdownSupported) {
+		return (markdownSupported ? SchemaDocumentationType.values().length : 0) + type.ordinal();
+	}
+
+}
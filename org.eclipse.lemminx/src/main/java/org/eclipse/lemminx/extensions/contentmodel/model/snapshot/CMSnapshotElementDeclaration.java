@@ -0,0 +1,295 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import static org.eclipse.lemminx.extensions.contentmodel.model.snapshot.CMSnapshotDocument.DOCUMENTATION_VARIANTS;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMAttributeDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.services.extensions.ISharedSettingsRequest;
+
+/**
+ * Element declaration read from a snapshot.
+ *
+ */
+public class CMSnapshotElementDeclaration implements CMElementDeclaration {
+
+	static final int EMPTY = 1;
+	static final int NILLABLE = 1 << 1;
+	static final int STRING_TYPE = 1 << 2;
+	static final int MIXED_CONTENT = 1 << 3;
+
+	private final CMSnapshotDocument document;
+
+	private final int localName;
+	private final int namespace;
+	private final int documentURI;
+	private final int flags;
+	private final int[] documentations;
+	private final int[] enumerationValues;
+	private final int[] textDocumentations;
+	private final List<CMAttributeDeclaration> attributes;
+	private final int[] elementIds;
+	private final boolean[] optionals;
+	private final int[] requiredElementIds;
+	private final int[] path;
+
+	private List<CMElementDeclaration> elements;
+	private Set<CMElementDeclaration> requiredElements;
+
+	private volatile CMElementDeclaration grammarElement;
+
+	CMSnapshotElementDeclaration(CMSnapshotDocument document, ByteBuffer buffer) {
+		this.document = document;
+		this.localName = buffer.getInt();
+		this.namespace = buffer.getInt();
+		this.documentURI = buffer.getInt();
+		this.flags = buffer.get();
+		this.documentations = readInts(buffer, DOCUMENTATION_VARIANTS);
+		this.enumerationValues = readInts(buffer, buffer.getInt());
+		this.textDocumentations = readInts(buffer, enumerationValues.length * DOCUMENTATION_VARIANTS);
+		int attributeCount = buffer.getInt();
+		List<CMAttributeDeclaration> attributes = new ArrayList<>(attributeCount);
+		for (int i = 0; i < attributeCount; i++) {
+			attributes.add(new CMSnapshotAttributeDeclaration(this, buffer));
+		}
+		this.attributes = Collections.unmodifiableList(attributes);
+		int elementCount = buffer.getInt();
+		this.elementIds = new int[elementCount];
+		this.optionals = new boolean[elementCount];
+		for (int i = 0; i < elementCount; i++) {
+			elementIds[i] = buffer.getInt();
+			optionals[i] = buffer.get() != 0;
+		}
+		this.requiredElementIds = readInts(buffer, buffer.getInt());
+		int pathLength = buffer.getInt();
+		this.path = pathLength < 0 ? null : readInts(buffer, pathLength);
+	}
+
+	static int[] readInts(ByteBuffer buffer, int length) {
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = buffer.getInt();
+		}
+		return values;
+	}
+
+	/**
+	 * Resolve the children / required element declarations once all element
+	 * declarations of the snapshot are created.
+	 */
+	void resolveElements() {
+		List<CMElementDeclaration> elements = new ArrayList<>(elementIds.length);
+		for (int id : elementIds) {
+			elements.add(document.getElement(id));
+		}
+		this.elements = Collections.unmodifiableList(elements);
+		Set<CMElementDeclaration> requiredElements = new LinkedHashSet<>(requiredElementIds.length);
+		for (int id : requiredElementIds) {
+			requiredElements.add(document.getElement(id));
+		}
+		this.requiredElements = Collections.unmodifiableSet(requiredElements);
+	}
+
+	@Override
+	public String getLocalName() {
+		return document.getString(localName);
+	}
+
+	@Override
+	public String getNamespace() {
+		return document.getString(namespace);
+	}
+
+	@Override
+	public String getPrefix(String namespaceURI) {
+		return null;
+	}
+
+	@Override
+	public Collection<CMAttributeDeclaration> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public Collection<CMElementDeclaration> getElements() {
+		return elements;
+	}
+
+	@Override
+	public Collection<CMElementDeclaration> getPossibleElements(DOMElement parentElement, int offset) {
+		// The possible elements depend on the content model (sequence, choice, etc)
+		// which is not stored in the snapshot, the grammar is required
+		CMElementDeclaration grammarElement = getGrammarElement();
+		return grammarElement != null ? grammarElement.getPossibleElements(parentElement, offset) : getElements();
+	}
+
+	@Override
+	public CMElementDeclaration findCMElement(String tag, String namespace) {
+		for (CMElementDeclaration cmElement : getElements()) {
+			if (cmElement.getLocalName().equals(tag)) {
+				return cmElement;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public CMAttributeDeclaration findCMAttribute(String attributeName, String namespace) {
+		for (CMAttributeDeclaration cmAttribute : getAttributes()) {
+			if (cmAttribute.getLocalName().equals(attributeName)) {
+				return cmAttribute;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String getDocumentation(ISharedSettingsRequest request) {
+		return document.getString(documentations[CMSnapshotDocument.getDocumentationIndex(request)]);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (flags & EMPTY) != 0;
+	}
+
+	@Override
+	public boolean isNillable() {
+		return (flags & NILLABLE) != 0;
+	}
+
+	@Override
+	public Collection<String> getEnumerationValues() {
+		return getStrings(enumerationValues);
+	}
+
+	@Override
+	public String getTextDocumentation(String value, ISharedSettingsRequest request) {
+		return getValueDocumentation(value, enumerationValues, textDocumentations, request);
+	}
+
+	@Override
+	public String getDocumentURI() {
+		return document.getString(documentURI);
+	}
+
+	@Override
+	public boolean isStringType() {
+		return (flags & STRING_TYPE) != 0;
+	}
+
+	@Override
+	public boolean isMixedContent() {
+		return (flags & MIXED_CONTENT) != 0;
+	}
+
+	@Override
+	public boolean isOptional(String childElementName) {
+		for (int i = 0; i < elementIds.length; i++) {
+			if (elements.get(i).getLocalName().equals(childElementName)) {
+				return optionals[i];
+			}
+		}
+		CMElementDeclaration grammarElement = getGrammarElement();
+		return grammarElement != null ? grammarElement.isOptional(childElementName) : true;
+	}
+
+	@Override
+	public Collection<CMElementDeclaration> getRequiredElements() {
+		return requiredElements;
+	}
+
+	@Override
+	public String toString() {
+		return getLocalName();
+	}
+
+	/**
+	 * Returns the element declaration of the grammar which matches this element
+	 * declaration and null otherwise.
+	 *
+	 * @return the element declaration of the grammar which matches this element
+	 *         declaration and null otherwise.
+	 */
+	private CMElementDeclaration getGrammarElement() {
+		if (grammarElement != null || path == null) {
+			return grammarElement;
+		}
+		CMDocument grammarDocument = document.getGrammarDocument();
+		if (grammarDocument == null) {
+			return null;
+		}
+		CMElementDeclaration element = null;
+		Collection<CMElementDeclaration> elements = grammarDocument.getElements();
+		for (int index : path) {
+			element = get(elements, index);
+			if (element == null) {
+				return null;
+			}
+			elements = element.getElements();
+		}
+		grammarElement = element;
+		return element;
+	}
+
+	private static CMElementDeclaration get(Collection<CMElementDeclaration> elements, int index) {
+		if (index >= elements.size()) {
+			return null;
+		}
+		if (elements instanceof List) {
+			return ((List<CMElementDeclaration>) elements).get(index);
+		}
+		Iterator<CMElementDeclaration> iterator = elements.iterator();
+		for (int i = 0; i < index; i++) {
+			iterator.next();
+		}
+		return iterator.next();
+	}
+
+	Collection<String> getStrings(int[] ids) {
+		if (ids.length == 0) {
+			return Collections.emptyList();
+		}
+		List<String> values = new ArrayList<>(ids.length);
+		for (int id : ids) {
+			values.add(document.getString(id));
+		}
+		return values;
+	}
+
+	String getValueDocumentation(String value, int[] values, int[] documentations,
+			ISharedSettingsRequest request) {
+		for (int i = 0; i < values.length; i++) {
+			if (document.getString(values[i]).equals(value)) {
+				int index = CMSnapshotDocument.getDocumentationIndex(request) * values.length + i;
+				return document.getString(documentations[index]);
+			}
+		}
+		return null;
+	}
+
+	CMSnapshotDocument getOwnerDocument() {
+		return document;
+	}
+}
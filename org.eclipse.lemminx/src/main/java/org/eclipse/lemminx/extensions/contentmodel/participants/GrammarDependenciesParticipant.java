@@ -0,0 +1,45 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.services.extensions.IDocumentLifecycleParticipant;
+
+/**
+ * Document lifecycle participant which removes the closed documents from the
+ * grammar dependencies index of the {@link ContentModelManager}.
+ *
+ */
+public class GrammarDependenciesParticipant implements IDocumentLifecycleParticipant {
+
+	private final ContentModelManager contentModelManager;
+
+	public GrammarDependenciesParticipant(ContentModelManager contentModelManager) {
+		this.contentModelManager = contentModelManager;
+	}
+
+	@Override
+	public void didOpen(DOMDocument document) {}
+
+	@Override
+	public void didChange(DOMDocument document) {}
+
+	@Override
+	public void didSave(DOMDocument document) {}
+
+	@Override
+	public void didClose(DOMDocument document) {
+		contentModelManager.removeGrammarDependencies(document.getDocumentURI());
+	}
+
+}
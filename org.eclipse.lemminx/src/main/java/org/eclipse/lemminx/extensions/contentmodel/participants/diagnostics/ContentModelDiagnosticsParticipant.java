@@ -14,15 +14,18 @@ package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.ContentModelPlugin;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.participants.codeactions.DownloadDisabledResourceCodeAction;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.extensions.xerces.LSPXMLEntityResolver;
 import org.eclipse.lemminx.services.extensions.diagnostics.DiagnosticsResult;
 import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
 import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
@@ -36,8 +39,11 @@ public class ContentModelDiagnosticsParticipant implements IDiagnosticsParticipa
 
 	private final ContentModelPlugin contentModelPlugin;
 
+	private final IncrementalXMLValidator validator;
+
 	public ContentModelDiagnosticsParticipant(ContentModelPlugin contentModelPlugin) {
 		this.contentModelPlugin = contentModelPlugin;
+		this.validator = new IncrementalXMLValidator();
 	}
 
 	@Override
@@ -55,9 +61,45 @@ public class ContentModelDiagnosticsParticipant implements IDiagnosticsParticipa
 				(DiagnosticsResult) diagnostics);
 
 		// Process validation
-		XMLValidator.doDiagnostics(xmlDocument, entityResolverWrapper, diagnostics, validationSettings,
-				contentModelPlugin.getContentModelManager(), monitor);
+		ContentModelManager contentModelManager = contentModelPlugin.getContentModelManager();
+		long start = System.nanoTime();
+		boolean cancelled = false;
+		try {
+			validator.doDiagnostics(xmlDocument, entityResolverWrapper, diagnostics, validationSettings,
+					contentModelManager, monitor);
+		} catch (CancellationException e) {
+			cancelled = true;
+			throw e;
+		} finally {
+			PerformanceMetrics.getInstance().recordValidation(getGrammarType(xmlDocument), System.nanoTime() - start,
+					cancelled);
+		}
+
+		// Update the grammar dependencies index, now that the grammars (and their
+		// included, imported files) are loaded in the grammar pool
+		contentModelManager.updateGrammarDependencies(xmlDocument);
+	}
 
+	/**
+	 * Returns the type of the grammar bound to the given XML document (xsd, dtd,
+	 * relaxng, xml-model, none) used to group the validation metrics.
+	 *
+	 * @param xmlDocument the XML document.
+	 * @return the type of the grammar bound to the given XML document.
+	 */
+	private static String getGrammarType(DOMDocument xmlDocument) {
+		if (xmlDocument.hasSchemaLocation() || xmlDocument.hasNoNamespaceSchemaLocation()) {
+			return "xsd";
+		}
+		if (xmlDocument.hasDTD()) {
+			return "dtd";
+		}
+		if (xmlDocument.hasXMLModel()) {
+			boolean relaxNG = xmlDocument.getXMLModels().stream() //
+					.anyMatch(model -> model.getHref() != null && DOMUtils.isRelaxNGUri(model.getHref()));
+			return relaxNG ? "relaxng" : "xml-model";
+		}
+		return "none";
 	}
 
 	private void downloadExternalResourcesIfNeeded(List<Diagnostic> diagnostics) {
@@ -0,0 +1,90 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+/**
+ * Statistics of the {@link LSPXMLGrammarPool}.
+ *
+ */
+public class GrammarPoolStatistics {
+
+	private final long size;
+
+	private final int maximumSize;
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long evictionCount;
+
+	public GrammarPoolStatistics(long size, int maximumSize, long hitCount, long missCount, long evictionCount) {
+		this.size = size;
+		this.maximumSize = maximumSize;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * Returns the number of grammars stored in the pool.
+	 * 
+	 * @return the number of grammars stored in the pool.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum number of grammars stored in the pool.
+	 * 
+	 * @return the maximum number of grammars stored in the pool.
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Returns the number of times a grammar was found in the pool.
+	 * 
+	 * @return the number of times a grammar was found in the pool.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the number of times a grammar was not found in the pool (or was
+	 * dirty).
+	 * 
+	 * @return the number of times a grammar was not found in the pool.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the number of grammars evicted from the pool because the maximum
+	 * size was reached.
+	 * 
+	 * @return the number of grammars evicted from the pool.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public String toString() {
+		return "GrammarPoolStatistics [size=" + size + ", maximumSize=" + maximumSize + ", hitCount=" + hitCount
+				+ ", missCount=" + missCount + ", evictionCount=" + evictionCount + "]";
+	}
+}
@@ -0,0 +1,509 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.xerces.impl.xs.SchemaGrammar;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.parser.XMLEntityResolver;
+import org.apache.xerces.xs.XSAttributeDeclaration;
+import org.apache.xerces.xs.XSAttributeUse;
+import org.apache.xerces.xs.XSComplexTypeDefinition;
+import org.apache.xerces.xs.XSConstants;
+import org.apache.xerces.xs.XSElementDeclaration;
+import org.apache.xerces.xs.XSModelGroup;
+import org.apache.xerces.xs.XSNamedMap;
+import org.apache.xerces.xs.XSObjectList;
+import org.apache.xerces.xs.XSParticle;
+import org.apache.xerces.xs.XSSimpleTypeDefinition;
+import org.apache.xerces.xs.XSTerm;
+import org.apache.xerces.xs.XSTypeDefinition;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.DirtyRegion;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.services.extensions.diagnostics.DiagnosticsResult;
+import org.eclipse.lemminx.uriresolver.IExternalGrammarLocationProvider;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Incremental XML Schema validation.
+ *
+ * <p>
+ * Xerces cannot resume a validation from a saved state, so the incremental
+ * validation uses as checkpoint the smallest element whose content contains
+ * the changes of the document since the previous validation:
+ * </p>
+ *
+ * <ul>
+ * <li>only the checkpoint element is validated with its content (see
+ * {@link LSPDOMDocumentSource#setCheckpoint(DOMElement)}). As the start tag and
+ * the end tag of the checkpoint are not modified, the content models of its
+ * ancestors are in the same state after the checkpoint as with the previous
+ * validation, so the validation stops after the checkpoint.</li>
+ * <li>the previous diagnostics which are outside the checkpoint are kept (and
+ * shifted after the checkpoint) and merged with the diagnostics of the
+ * checkpoint.</li>
+ * </ul>
+ *
+ * <p>
+ * The incremental validation is used only when the previous validation has
+ * been done with the DOM document source and with XML Schemas which doesn't
+ * declare constraints between elements (ID/IDREF, identity constraints). In
+ * the other case (DTD, RelaxNG, not well-formed document, grammar loaded by
+ * the changes, etc) the whole document is validated.
+ * </p>
+ *
+ */
+class IncrementalXMLValidator {
+
+	private static class ValidationState {
+
+		private final int version;
+
+		private final XMLValidationSettings validationSettings;
+
+		private final List<Diagnostic> diagnostics;
+
+		// start, end offsets of the diagnostics
+		private final int[] diagnosticOffsets;
+
+		// start, end offsets of the elements, sorted by start offset
+		private final int[] elementOffsets;
+
+		private final Set<Grammar> grammars;
+
+		public ValidationState(int version, XMLValidationSettings validationSettings, List<Diagnostic> diagnostics,
+				int[] diagnosticOffsets, int[] elementOffsets, Set<Grammar> grammars) {
+			this.version = version;
+			this.validationSettings = validationSettings;
+			this.diagnostics = diagnostics;
+			this.diagnosticOffsets = diagnosticOffsets;
+			this.elementOffsets = elementOffsets;
+			this.grammars = grammars;
+		}
+
+		/**
+		 * Returns true if the previous DOM document has an element in the given
+		 * range.
+		 */
+		public boolean hasElement(int start, int end) {
+			int low = 0;
+			int high = elementOffsets.length / 2 - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midStart = elementOffsets[mid * 2];
+				if (midStart < start) {
+					low = mid + 1;
+				} else if (midStart > start) {
+					high = mid - 1;
+				} else {
+					return elementOffsets[mid * 2 + 1] == end;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final Cache<Grammar, Boolean> SUPPORTED_GRAMMARS = CacheBuilder.newBuilder().weakKeys().build();
+
+	private final Cache<TextDocument, ValidationState> states = CacheBuilder.newBuilder().weakKeys().build();
+
+	public void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver, List<Diagnostic> diagnostics,
+			XMLValidationSettings validationSettings, ContentModelManager contentModelManager,
+			CancelChecker monitor) {
+		TextDocument textDocument = document.getTextDocument();
+		if (validationSettings == null || !validationSettings.isIncremental()) {
+			states.invalidate(textDocument);
+			XMLValidator.doDiagnostics(document, entityResolver, diagnostics, validationSettings,
+					contentModelManager, monitor);
+			return;
+		}
+
+		int version = textDocument.getVersion();
+		XMLValidationSettings settings = copy(validationSettings);
+		ValidationState previous = states.getIfPresent(textDocument);
+		states.invalidate(textDocument);
+		if (previous != null && previous.validationSettings.equals(settings)) {
+			DirtyRegion changes = textDocument.getChangesSince(previous.version);
+			if (changes != null) {
+				// Validate only the element which contains the changes
+				ValidationState state = validateCheckpoint(document, version, changes, previous, entityResolver,
+						validationSettings, contentModelManager, monitor);
+				if (state != null) {
+					diagnostics.addAll(state.diagnostics);
+					saveState(textDocument, state, diagnostics, monitor);
+					return;
+				}
+			}
+		}
+
+		// Validate the whole document
+		int start = diagnostics.size();
+		Set<Grammar> grammars = Collections.newSetFromMap(new IdentityHashMap<>());
+		boolean completed = XMLValidator.doDiagnostics(document, entityResolver, diagnostics, validationSettings,
+				contentModelManager, null, grammars, monitor);
+		if (!completed || !isSupported(document, grammars)) {
+			return;
+		}
+		List<Diagnostic> validationDiagnostics = new ArrayList<>(diagnostics.subList(start, diagnostics.size()));
+		int[] diagnosticOffsets = getOffsets(validationDiagnostics, textDocument);
+		if (diagnosticOffsets == null) {
+			return;
+		}
+		ValidationState state = new ValidationState(version, settings, validationDiagnostics,
+				diagnosticOffsets, getElementOffsets(document), grammars);
+		saveState(textDocument, state, diagnostics, monitor);
+	}
+
+	private void saveState(TextDocument textDocument, ValidationState state, List<Diagnostic> diagnostics,
+			CancelChecker monitor) {
+		if (isCanceled(monitor) || !((DiagnosticsResult) diagnostics).getFutures().isEmpty()) {
+			// the validation is not complete (ex : the grammar is downloading)
+			return;
+		}
+		if (textDocument.trackChanges(state.version)) {
+			states.put(textDocument, state);
+		}
+	}
+
+	/**
+	 * Validate the smallest element which contains the given changes and returns
+	 * the new validation state and null if the whole document must be validated.
+	 */
+	private static ValidationState validateCheckpoint(DOMDocument document, int version, DirtyRegion changes,
+			ValidationState previous, XMLEntityResolver entityResolver, XMLValidationSettings validationSettings,
+			ContentModelManager contentModelManager, CancelChecker monitor) {
+		DOMElement checkpoint = findCheckpoint(document, changes);
+		if (checkpoint == null) {
+			return null;
+		}
+		int start = checkpoint.getStart();
+		int end = checkpoint.getEnd();
+		int delta = changes.getDelta();
+		int oldEnd = end - delta;
+		if (!previous.hasElement(start, oldEnd)) {
+			return null;
+		}
+
+		// Validate the checkpoint
+		List<Diagnostic> checkpointDiagnostics = new ArrayList<>();
+		Set<Grammar> grammars = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (!XMLValidator.doDiagnostics(document, entityResolver, checkpointDiagnostics, validationSettings,
+				contentModelManager, checkpoint, grammars, monitor) || !previous.grammars.containsAll(grammars)) {
+			return null;
+		}
+		TextDocument textDocument = document.getTextDocument();
+		int[] checkpointOffsets = getOffsets(checkpointDiagnostics, textDocument);
+		if (checkpointOffsets == null) {
+			return null;
+		}
+
+		// Merge the previous diagnostics with the diagnostics of the checkpoint
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		int[] offsets = new int[previous.diagnosticOffsets.length + checkpointOffsets.length];
+		int count = 0;
+		List<Diagnostic> after = new ArrayList<>();
+		List<Integer> afterIndexes = new ArrayList<>();
+		for (int i = 0; i < previous.diagnostics.size(); i++) {
+			int diagnosticStart = previous.diagnosticOffsets[i * 2];
+			int diagnosticEnd = previous.diagnosticOffsets[i * 2 + 1];
+			if (diagnosticStart >= start && diagnosticEnd <= oldEnd) {
+				// diagnostic of the checkpoint, computed again
+				continue;
+			}
+			if (diagnosticEnd <= start) {
+				diagnostics.add(previous.diagnostics.get(i));
+				offsets[count++] = diagnosticStart;
+				offsets[count++] = diagnosticEnd;
+			} else if (diagnosticStart >= oldEnd) {
+				after.add(previous.diagnostics.get(i));
+				afterIndexes.add(i);
+			} else {
+				// diagnostic which overlaps the checkpoint
+				return null;
+			}
+		}
+		for (int i = 0; i < checkpointDiagnostics.size(); i++) {
+			int diagnosticStart = checkpointOffsets[i * 2];
+			int diagnosticEnd = checkpointOffsets[i * 2 + 1];
+			if (diagnosticStart >= start && diagnosticEnd <= end) {
+				diagnostics.add(checkpointDiagnostics.get(i));
+				offsets[count++] = diagnosticStart;
+				offsets[count++] = diagnosticEnd;
+			} else if (diagnosticStart < end && diagnosticEnd > start) {
+				// diagnostic which overlaps the checkpoint
+				return null;
+			}
+			// the other diagnostics are reported outside the checkpoint
+		}
+		try {
+			for (int i = 0; i < after.size(); i++) {
+				int index = afterIndexes.get(i);
+				int diagnosticStart = previous.diagnosticOffsets[index * 2] + delta;
+				int diagnosticEnd = previous.diagnosticOffsets[index * 2 + 1] + delta;
+				Range range = new Range(textDocument.positionAt(diagnosticStart),
+						textDocument.positionAt(diagnosticEnd));
+				diagnostics.add(copy(after.get(i), range));
+				offsets[count++] = diagnosticStart;
+				offsets[count++] = diagnosticEnd;
+			}
+		} catch (BadLocationException e) {
+			return null;
+		}
+		return new ValidationState(version, previous.validationSettings, diagnostics,
+				Arrays.copyOf(offsets, count), getElementOffsets(document), previous.grammars);
+	}
+
+	/**
+	 * Returns the smallest element (other than the root element) whose content
+	 * contains the given changes and null otherwise.
+	 */
+	private static DOMElement findCheckpoint(DOMDocument document, DirtyRegion changes) {
+		int start = changes.getOffset();
+		int end = start + changes.getNewLength();
+		DOMNode node = document.findNodeAt(start);
+		DOMElement element = node.isElement() ? (DOMElement) node : node.getParentElement();
+		while (element != null) {
+			if (!element.isSelfClosed() && element.getEndTagOpenOffset() != DOMNode.NULL_VALUE
+					&& element.getStartTagCloseOffset() != DOMNode.NULL_VALUE
+					&& element.getStartTagCloseOffset() < start && end <= element.getEndTagOpenOffset()) {
+				break;
+			}
+			element = element.getParentElement();
+		}
+		if (element == null || element.getParentElement() == null) {
+			// the root element must be validated with the whole document
+			return null;
+		}
+		return element;
+	}
+
+	private static int[] getOffsets(List<Diagnostic> diagnostics, TextDocument textDocument) {
+		int[] offsets = new int[diagnostics.size() * 2];
+		try {
+			for (int i = 0; i < diagnostics.size(); i++) {
+				Range range = diagnostics.get(i).getRange();
+				offsets[i * 2] = textDocument.offsetAt(range.getStart());
+				offsets[i * 2 + 1] = textDocument.offsetAt(range.getEnd());
+			}
+		} catch (BadLocationException e) {
+			return null;
+		}
+		return offsets;
+	}
+
+	private static int[] getElementOffsets(DOMDocument document) {
+		int[] offsets = new int[64];
+		int count = 0;
+		// Visit the elements in document order
+		Deque<DOMNode> stack = new ArrayDeque<>();
+		stack.push(document);
+		while (!stack.isEmpty()) {
+			DOMNode node = stack.pop();
+			if (node.isElement()) {
+				if (count + 2 > offsets.length) {
+					offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				}
+				offsets[count++] = node.getStart();
+				offsets[count++] = node.getEnd();
+			}
+			List<DOMNode> children = node.getChildren();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				DOMNode child = children.get(i);
+				if (child.isElement()) {
+					stack.push(child);
+				}
+			}
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+
+	private static Diagnostic copy(Diagnostic diagnostic, Range range) {
+		Diagnostic copy = new Diagnostic(range, diagnostic.getMessage(), diagnostic.getSeverity(),
+				diagnostic.getSource());
+		copy.setCode(diagnostic.getCode());
+		copy.setCodeDescription(diagnostic.getCodeDescription());
+		copy.setTags(diagnostic.getTags());
+		copy.setRelatedInformation(diagnostic.getRelatedInformation());
+		copy.setData(diagnostic.getData());
+		return copy;
+	}
+
+	private static XMLValidationSettings copy(XMLValidationSettings validationSettings) {
+		// the validation settings can be updated when the settings change and the
+		// root validation settings are not equal to the validation settings
+		return new XMLValidationSettings().merge(validationSettings);
+	}
+
+	private static boolean isCanceled(CancelChecker monitor) {
+		try {
+			monitor.checkCanceled();
+			return false;
+		} catch (CancellationException e) {
+			return true;
+		}
+	}
+
+	// ------------------ Supported grammars
+
+	/**
+	 * Returns true if the given DOM document validated with the given grammars
+	 * can be validated incrementally and false otherwise.
+	 */
+	private static boolean isSupported(DOMDocument document, Set<Grammar> grammars) {
+		if (!document.getXMLModels().isEmpty()) {
+			// xml-model (RelaxNG, etc)
+			return false;
+		}
+		Map<String, String> externalGrammarLocation = document.getExternalGrammarLocation();
+		if (externalGrammarLocation != null
+				&& externalGrammarLocation.containsKey(IExternalGrammarLocationProvider.RELAXNG)) {
+			return false;
+		}
+		for (Grammar grammar : grammars) {
+			if (!(grammar instanceof SchemaGrammar)) {
+				return false;
+			}
+			try {
+				if (!SUPPORTED_GRAMMARS.get(grammar, () -> isSupported((SchemaGrammar) grammar,
+						Collections.newSetFromMap(new IdentityHashMap<>())))) {
+					return false;
+				}
+			} catch (ExecutionException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the given XML Schema (and the XML Schemas that it imports)
+	 * doesn't declare constraints between elements (ID/IDREF, identity
+	 * constraints) and false otherwise.
+	 */
+	private static boolean isSupported(SchemaGrammar grammar, Set<Object> visited) {
+		if (!visited.add(grammar)) {
+			return true;
+		}
+		if (grammar.hasIDConstraints()) {
+			return false;
+		}
+		XSNamedMap elements = grammar.getComponents(XSConstants.ELEMENT_DECLARATION);
+		for (int i = 0; i < elements.getLength(); i++) {
+			if (hasIDType(((XSElementDeclaration) elements.item(i)).getTypeDefinition(), visited)) {
+				return false;
+			}
+		}
+		XSNamedMap types = grammar.getComponents(XSConstants.TYPE_DEFINITION);
+		for (int i = 0; i < types.getLength(); i++) {
+			if (hasIDType((XSTypeDefinition) types.item(i), visited)) {
+				return false;
+			}
+		}
+		XSNamedMap attributes = grammar.getComponents(XSConstants.ATTRIBUTE_DECLARATION);
+		for (int i = 0; i < attributes.getLength(); i++) {
+			if (hasIDType(((XSAttributeDeclaration) attributes.item(i)).getTypeDefinition(), visited)) {
+				return false;
+			}
+		}
+		Vector<?> importedGrammars = grammar.getImportedGrammars();
+		if (importedGrammars != null) {
+			for (Object importedGrammar : importedGrammars) {
+				if (!isSupported((SchemaGrammar) importedGrammar, visited)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasIDType(XSTypeDefinition type, Set<Object> visited) {
+		if (type == null || !visited.add(type)) {
+			return false;
+		}
+		if (type.getTypeCategory() == XSTypeDefinition.SIMPLE_TYPE) {
+			XSSimpleTypeDefinition simpleType = (XSSimpleTypeDefinition) type;
+			switch (simpleType.getBuiltInKind()) {
+			case XSConstants.ID_DT:
+			case XSConstants.IDREF_DT:
+				return true;
+			default:
+			}
+			if (simpleType.getVariety() == XSSimpleTypeDefinition.VARIETY_LIST) {
+				// ex : IDREFS is a list of IDREF
+				return hasIDType(simpleType.getItemType(), visited);
+			}
+			if (simpleType.getVariety() == XSSimpleTypeDefinition.VARIETY_UNION) {
+				XSObjectList memberTypes = simpleType.getMemberTypes();
+				for (int i = 0; i < memberTypes.getLength(); i++) {
+					if (hasIDType((XSTypeDefinition) memberTypes.item(i), visited)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+		XSComplexTypeDefinition complexType = (XSComplexTypeDefinition) type;
+		XSObjectList attributeUses = complexType.getAttributeUses();
+		for (int i = 0; i < attributeUses.getLength(); i++) {
+			if (hasIDType(((XSAttributeUse) attributeUses.item(i)).getAttrDeclaration().getTypeDefinition(),
+					visited)) {
+				return true;
+			}
+		}
+		return hasIDType(complexType.getSimpleType(), visited) || hasIDType(complexType.getParticle(), visited);
+	}
+
+	private static boolean hasIDType(XSParticle particle, Set<Object> visited) {
+		if (particle == null) {
+			return false;
+		}
+		XSTerm term = particle.getTerm();
+		switch (term.getType()) {
+		case XSConstants.ELEMENT_DECLARATION:
+			return hasIDType(((XSElementDeclaration) term).getTypeDefinition(), visited);
+		case XSConstants.MODEL_GROUP:
+			XSObjectList particles = ((XSModelGroup) term).getParticles();
+			for (int i = 0; i < particles.getLength(); i++) {
+				if (hasIDType((XSParticle) particles.item(i), visited)) {
+					return true;
+				}
+			}
+			return false;
+		default:
+			// wildcard
+			return false;
+		}
+	}
+}
@@ -0,0 +1,1130 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.xerces.impl.Constants;
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.impl.XMLErrorReporter;
+import org.apache.xerces.impl.msg.XMLMessageFormatter;
+import org.apache.xerces.impl.dtd.XMLDTDValidatorFilter;
+import org.apache.xerces.util.NamespaceSupport;
+import org.apache.xerces.util.SymbolTable;
+import org.apache.xerces.util.URI.MalformedURIException;
+import org.apache.xerces.util.XMLAttributesImpl;
+import org.apache.xerces.util.XMLChar;
+import org.apache.xerces.util.XMLStringBuffer;
+import org.apache.xerces.util.XMLSymbols;
+import org.apache.xerces.xni.NamespaceContext;
+import org.apache.xerces.xni.QName;
+import org.apache.xerces.xni.XMLDocumentHandler;
+import org.apache.xerces.xni.XMLLocator;
+import org.apache.xerces.xni.XMLString;
+import org.apache.xerces.xni.XNIException;
+import org.apache.xerces.xni.parser.XMLComponentManager;
+import org.apache.xerces.xni.parser.XMLDocumentSource;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.dom.DOMRange;
+import org.eclipse.lemminx.dom.XMLModel;
+import org.eclipse.lemminx.uriresolver.IExternalGrammarLocationProvider;
+import org.eclipse.lemminx.utils.DOMUtils;
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Xerces {@link XMLDocumentSource} which fires the XNI events of an already
+ * parsed {@link DOMDocument} to the Xerces validation pipeline (DTD validator,
+ * XML Schema validator, xml-model, RelaxNG...) instead of scanning again the
+ * text of the document with the Xerces document scanner.
+ *
+ * <p>
+ * As the LemMinX DOM parser is tolerant, the DOM document source can be used
+ * only when the DOM document is well-formed (see {@link #create(DOMDocument)})
+ * and doesn't declare a DOCTYPE (the internal subset can declare entities,
+ * default attributes, etc). In the other case, the document must be validated
+ * with the Xerces SAX parser which reports the syntax errors.
+ * </p>
+ *
+ * <p>
+ * The location of an event is the location which is reported by the Xerces
+ * scanner (after the scanned token) and is computed with the DOM node offsets.
+ * </p>
+ *
+ * <p>
+ * When a checkpoint element is set (see {@link #setCheckpoint(DOMElement)}),
+ * only the checkpoint element is validated with its content: the ancestors of
+ * the checkpoint are fired without their text content and the elements which
+ * precede the checkpoint in its ancestors are fired as empty elements, so that
+ * the content models of the ancestors are in the same state as when the whole
+ * document is validated. The events stop after the checkpoint, in other words
+ * the errors which are reported outside the checkpoint must be ignored.
+ * </p>
+ *
+ */
+class LSPDOMDocumentSource implements XMLDocumentSource, XMLLocator {
+
+	private static final String SYMBOL_TABLE = Constants.XERCES_PROPERTY_PREFIX + Constants.SYMBOL_TABLE_PROPERTY;
+
+	private static final String ERROR_REPORTER = Constants.XERCES_PROPERTY_PREFIX
+			+ Constants.ERROR_REPORTER_PROPERTY;
+
+	private static final String XML_VERSION = "1.0";
+
+	private static final String CDATA_START = "<![CDATA[";
+
+	private static final String CDATA_END = "]]>";
+
+	private static final String COMMENT_START = "<!--";
+
+	private static final String COMMENT_END = "-->";
+
+	private static final String PI_START = "<?";
+
+	private static final String PI_END = "?>";
+
+	private final DOMDocument document;
+
+	private final String text;
+
+	private final char[] ch;
+
+	private final String literalSystemId;
+
+	private final String expandedSystemId;
+
+	private final NamespaceSupport namespaceContext;
+
+	private final XMLAttributesImpl attributes;
+
+	private final QName attributeQName;
+
+	private final XMLString xmlString;
+
+	private final XMLStringBuffer stringBuffer;
+
+	private final List<QName> elementQNames;
+
+	private SymbolTable symbolTable;
+
+	private XMLErrorReporter errorReporter;
+
+	private XMLDocumentHandler documentHandler;
+
+	private XMLDTDValidatorFilter dtdValidator;
+
+	private boolean performValidation;
+
+	private int offset;
+
+	private int positionOffset;
+
+	private DOMElement checkpoint;
+
+	private boolean completed;
+
+	private Position position;
+
+	private LSPDOMDocumentSource(DOMDocument document) {
+		this.document = document;
+		this.text = document.getText();
+		this.ch = text.toCharArray();
+		this.literalSystemId = document.getDocumentURI();
+		this.expandedSystemId = expandSystemId(literalSystemId);
+		this.namespaceContext = new NamespaceSupport();
+		this.attributes = new XMLAttributesImpl();
+		this.attributeQName = new QName();
+		this.xmlString = new XMLString();
+		this.stringBuffer = new XMLStringBuffer();
+		this.elementQNames = new ArrayList<>();
+		this.positionOffset = -1;
+	}
+
+	/**
+	 * Returns the DOM document source for the given DOM document and null if the
+	 * DOM document cannot be validated without scanning its text with Xerces (not
+	 * well-formed document, DOCTYPE, entity references, etc).
+	 *
+	 * @param document the DOM document.
+	 * @return the DOM document source for the given DOM document and null if the
+	 *         DOM document cannot be validated without scanning its text with
+	 *         Xerces.
+	 */
+	static LSPDOMDocumentSource create(DOMDocument document) {
+		if (document.hasDTD()) {
+			// the internal subset can declare entities, default attributes, etc
+			return null;
+		}
+		Map<String, String> externalGrammarLocation = document.getExternalGrammarLocation();
+		if (externalGrammarLocation != null
+				&& externalGrammarLocation.containsKey(IExternalGrammarLocationProvider.DOCTYPE)) {
+			return null;
+		}
+		for (XMLModel xmlModel : document.getXMLModels()) {
+			if (DOMUtils.isDTD(xmlModel.getHref())) {
+				return null;
+			}
+		}
+		LSPDOMDocumentSource source = new LSPDOMDocumentSource(document);
+		return source.isWellFormed() ? source : null;
+	}
+
+	/**
+	 * Resets the DOM document source with the Xerces symbol table and error
+	 * reporter of the given component manager.
+	 *
+	 * @param componentManager the Xerces component manager.
+	 */
+	void reset(XMLComponentManager componentManager) {
+		this.symbolTable = (SymbolTable) componentManager.getProperty(SYMBOL_TABLE);
+		this.errorReporter = (XMLErrorReporter) componentManager.getProperty(ERROR_REPORTER);
+		this.namespaceContext.reset();
+		this.performValidation = false;
+	}
+
+	/**
+	 * Set the DTD validator which is removed from the pipeline before the root
+	 * element since the document has no DOCTYPE (like the Xerces namespace
+	 * scanner does).
+	 *
+	 * @param dtdValidator the DTD validator.
+	 */
+	void setDTDValidator(XMLDTDValidatorFilter dtdValidator) {
+		this.dtdValidator = dtdValidator;
+	}
+
+	/**
+	 * Set the element which must be validated with its content, the content of
+	 * the other elements is not validated.
+	 *
+	 * @param checkpoint the checkpoint element and null to validate the whole
+	 *                   document.
+	 */
+	void setCheckpoint(DOMElement checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Returns true if the XNI events have been fired until the end of the document
+	 * and false otherwise (ex : fatal error, cancelled validation).
+	 *
+	 * @return true if the XNI events have been fired until the end of the document
+	 *         and false otherwise.
+	 */
+	boolean isCompleted() {
+		return completed;
+	}
+
+	// ------------------ Well-formedness
+
+	private boolean isWellFormed() {
+		int length = text.length();
+		if (length == 0 || ch[0] == '﻿') {
+			return false;
+		}
+		boolean hasRoot = false;
+		int pos = 0;
+		for (DOMNode child : document.getChildren()) {
+			if (child.isText()) {
+				continue;
+			}
+			int start = child.getStart();
+			if (start < pos || !isWhitespace(pos, start)) {
+				return false;
+			}
+			if (child.isProlog()) {
+				if (start != 0 || !isXMLDeclWellFormed(child)) {
+					return false;
+				}
+			} else if (child.isProcessingInstruction()) {
+				if (!isPIWellFormed(child)) {
+					return false;
+				}
+			} else if (child.isComment()) {
+				if (!isCommentWellFormed(child)) {
+					return false;
+				}
+			} else if (child.isElement() && !hasRoot) {
+				hasRoot = true;
+				if (!isElementWellFormed((DOMElement) child)) {
+					return false;
+				}
+			} else {
+				// DOCTYPE, CDATA, second root element, etc
+				return false;
+			}
+			pos = child.getEnd();
+		}
+		return hasRoot && pos <= length && isWhitespace(pos, length);
+	}
+
+	private boolean isElementWellFormed(DOMElement element) {
+		String tag = element.getTagName();
+		int open = element.getStartTagOpenOffset();
+		if (!element.isClosed() || tag == null || open == DOMNode.NULL_VALUE || ch[open] != '<'
+				|| !isQName(tag) || !text.startsWith(tag, open + 1)) {
+			return false;
+		}
+		boolean selfClosed = element.isSelfClosed();
+		int tagEnd = selfClosed ? element.getEnd() - 2 : element.getStartTagCloseOffset();
+		if (tagEnd < 0 || (selfClosed ? !text.startsWith("/>", tagEnd) : ch[tagEnd] != '>')) {
+			return false;
+		}
+
+		// Start tag attributes
+		int pos = open + 1 + tag.length();
+		List<DOMAttr> attrs = element.getAttributeNodes();
+		if (attrs != null) {
+			for (DOMAttr attr : attrs) {
+				String name = attr.getName();
+				DOMRange value = attr.getNodeAttrValue();
+				int nameStart = attr.getStart();
+				if (name == null || value == null || nameStart <= pos || !isWhitespace(pos, nameStart)
+						|| !isQName(name) || !text.startsWith(name, nameStart)) {
+					return false;
+				}
+				int valueStart = value.getStart();
+				int valueEnd = value.getEnd();
+				if (!isEq(nameStart + name.length(), valueStart) || !isAttValueWellFormed(valueStart, valueEnd)) {
+					return false;
+				}
+				if (isXmlns(name) && !isXmlnsWellFormed(name, valueStart, valueEnd)) {
+					return false;
+				}
+				pos = valueEnd;
+			}
+		}
+		if (pos > tagEnd || !isWhitespace(pos, tagEnd)) {
+			return false;
+		}
+		if (selfClosed) {
+			return true;
+		}
+
+		// Content
+		int endTagOpen = element.getEndTagOpenOffset();
+		int endTagClose = element.getEndTagCloseOffset();
+		if (endTagOpen == DOMNode.NULL_VALUE || endTagClose == DOMNode.NULL_VALUE
+				|| !isContentWellFormed(element, tagEnd + 1, endTagOpen)) {
+			return false;
+		}
+
+		// End tag
+		return text.startsWith("</", endTagOpen) && text.startsWith(tag, endTagOpen + 2)
+				&& endTagOpen + 2 + tag.length() <= endTagClose
+				&& isWhitespace(endTagOpen + 2 + tag.length(), endTagClose) && ch[endTagClose] == '>'
+				&& element.getEnd() == endTagClose + 1;
+	}
+
+	private boolean isContentWellFormed(DOMElement element, int start, int end) {
+		int pos = start;
+		for (DOMNode child : element.getChildren()) {
+			if (child.isText()) {
+				continue;
+			}
+			int childStart = child.getStart();
+			if (childStart < pos || !isCharDataWellFormed(pos, childStart)) {
+				return false;
+			}
+			if (child.isElement()) {
+				if (!isElementWellFormed((DOMElement) child)) {
+					return false;
+				}
+			} else if (child.isComment()) {
+				if (!isCommentWellFormed(child)) {
+					return false;
+				}
+			} else if (child.isCDATA()) {
+				if (!isCDATAWellFormed(child)) {
+					return false;
+				}
+			} else if (child.isProcessingInstruction() && !child.isProlog()) {
+				if (!isPIWellFormed(child)) {
+					return false;
+				}
+			} else {
+				return false;
+			}
+			pos = child.getEnd();
+		}
+		return pos <= end && isCharDataWellFormed(pos, end);
+	}
+
+	private boolean isCharDataWellFormed(int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = ch[i];
+			if (c == '<') {
+				return false;
+			}
+			if (c == '&') {
+				i = skipReference(i, end);
+				if (i == -1) {
+					return false;
+				}
+			} else if (c == ']' && text.startsWith(CDATA_END, i) && i + CDATA_END.length() <= end) {
+				return false;
+			} else {
+				i = skipChar(i, end);
+				if (i == -1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean isAttValueWellFormed(int start, int end) {
+		if (end - start < 2) {
+			return false;
+		}
+		char quote = ch[start];
+		if ((quote != '"' && quote != '\'') || ch[end - 1] != quote) {
+			return false;
+		}
+		for (int i = start + 1; i < end - 1; i++) {
+			char c = ch[i];
+			if (c == '<' || c == quote) {
+				return false;
+			}
+			if (c == '&') {
+				i = skipReference(i, end - 1);
+			} else {
+				i = skipChar(i, end - 1);
+			}
+			if (i == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isXmlnsWellFormed(String name, int valueStart, int valueEnd) {
+		// The namespace binding errors are reported by the Xerces scanner while
+		// scanning the attribute, let the Xerces scanner report them.
+		String uri = getAttributeValue(valueStart, valueEnd);
+		String localpart = name.length() > 5 ? name.substring(6) : XMLSymbols.PREFIX_XMLNS;
+		if (XMLSymbols.PREFIX_XMLNS.equals(localpart) && name.length() > 5) {
+			// xmlns:xmlns
+			return false;
+		}
+		if (NamespaceContext.XMLNS_URI.equals(uri)) {
+			return false;
+		}
+		if (XMLSymbols.PREFIX_XML.equals(localpart) != NamespaceContext.XML_URI.equals(uri)) {
+			return false;
+		}
+		// xmlns:prefix=""
+		return !(uri.isEmpty() && name.length() > 5);
+	}
+
+	private boolean isCommentWellFormed(DOMNode comment) {
+		int start = comment.getStart();
+		int end = comment.getEnd();
+		if (end - start < COMMENT_START.length() + COMMENT_END.length() || !text.startsWith(COMMENT_START, start)
+				|| !text.startsWith(COMMENT_END, end - COMMENT_END.length())) {
+			return false;
+		}
+		int contentStart = start + COMMENT_START.length();
+		int contentEnd = end - COMMENT_END.length();
+		// '--' is not allowed in a comment (and a comment cannot end with '-')
+		int index = text.indexOf("--", contentStart);
+		if (index != -1 && index < contentEnd) {
+			return false;
+		}
+		return isCharsWellFormed(contentStart, contentEnd);
+	}
+
+	private boolean isCDATAWellFormed(DOMNode cdata) {
+		int start = cdata.getStart();
+		int end = cdata.getEnd();
+		if (end - start < CDATA_START.length() + CDATA_END.length() || !text.startsWith(CDATA_START, start)) {
+			return false;
+		}
+		int contentStart = start + CDATA_START.length();
+		int contentEnd = end - CDATA_END.length();
+		return text.indexOf(CDATA_END, contentStart) == contentEnd && isCharsWellFormed(contentStart, contentEnd);
+	}
+
+	private boolean isPIWellFormed(DOMNode pi) {
+		int start = pi.getStart();
+		int end = pi.getEnd();
+		if (end - start < PI_START.length() + PI_END.length() + 1 || !text.startsWith(PI_START, start)) {
+			return false;
+		}
+		int targetEnd = getPITargetEnd(start);
+		int contentEnd = end - PI_END.length();
+		if (targetEnd > contentEnd || text.indexOf(PI_END, start) != contentEnd) {
+			return false;
+		}
+		String target = text.substring(start + PI_START.length(), targetEnd);
+		if (!XMLChar.isValidNCName(target) || "xml".equalsIgnoreCase(target)) {
+			return false;
+		}
+		return (targetEnd == contentEnd || XMLChar.isSpace(ch[targetEnd]))
+				&& isCharsWellFormed(targetEnd, contentEnd);
+	}
+
+	/**
+	 * Returns true if the given prolog is a valid XML declaration:
+	 *
+	 * <pre>
+	 * [23] XMLDecl ::= '&lt;?xml' VersionInfo EncodingDecl? SDDecl? S? '?>'
+	 * </pre>
+	 */
+	private boolean isXMLDeclWellFormed(DOMNode prolog) {
+		int end = prolog.getEnd() - PI_END.length();
+		if (!text.startsWith("<?xml", 0) || end < 5 || !text.startsWith(PI_END, end)) {
+			return false;
+		}
+		int pos = 5;
+		// version (required)
+		int valueEnd = skipPseudoAttribute(pos, end, "version");
+		if (valueEnd == -1 || !XML_VERSION.equals(text.substring(skipEq(skipSpaces(pos, end) + 7, end) + 1,
+				valueEnd - 1))) {
+			return false;
+		}
+		pos = valueEnd;
+		// encoding (optional)
+		valueEnd = skipPseudoAttribute(pos, end, "encoding");
+		if (valueEnd != -1) {
+			String encoding = text.substring(skipEq(skipSpaces(pos, end) + 8, end) + 1, valueEnd - 1);
+			if (!isEncName(encoding)) {
+				return false;
+			}
+			pos = valueEnd;
+		}
+		// standalone (optional)
+		valueEnd = skipPseudoAttribute(pos, end, "standalone");
+		if (valueEnd != -1) {
+			String standalone = text.substring(skipEq(skipSpaces(pos, end) + 10, end) + 1, valueEnd - 1);
+			if (!"yes".equals(standalone) && !"no".equals(standalone)) {
+				return false;
+			}
+			pos = valueEnd;
+		}
+		return isWhitespace(pos, end);
+	}
+
+	/**
+	 * Returns the end offset of the pseudo attribute value with the given name
+	 * (which must be preceded with spaces) and -1 otherwise.
+	 */
+	private int skipPseudoAttribute(int pos, int end, String name) {
+		int nameStart = skipSpaces(pos, end);
+		if (nameStart == pos || !text.startsWith(name, nameStart)) {
+			return -1;
+		}
+		int valueStart = skipEq(nameStart + name.length(), end);
+		if (valueStart == -1 || valueStart >= end) {
+			return -1;
+		}
+		char quote = ch[valueStart];
+		if (quote != '"' && quote != '\'') {
+			return -1;
+		}
+		int valueEnd = text.indexOf(quote, valueStart + 1);
+		return valueEnd != -1 && valueEnd < end ? valueEnd + 1 : -1;
+	}
+
+	private int skipEq(int pos, int end) {
+		pos = skipSpaces(pos, end);
+		if (pos >= end || ch[pos] != '=') {
+			return -1;
+		}
+		return skipSpaces(pos + 1, end);
+	}
+
+	private int skipSpaces(int pos, int end) {
+		while (pos < end && XMLChar.isSpace(ch[pos])) {
+			pos++;
+		}
+		return pos;
+	}
+
+	private boolean isEq(int start, int end) {
+		return start <= end && skipEq(start, end) == end;
+	}
+
+	private boolean isWhitespace(int start, int end) {
+		return skipSpaces(start, end) == end;
+	}
+
+	private boolean isCharsWellFormed(int start, int end) {
+		for (int i = start; i < end; i++) {
+			i = skipChar(i, end);
+			if (i == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the offset of the last character of the XML character at the given
+	 * offset and -1 if the character is not a valid XML character.
+	 */
+	private int skipChar(int i, int end) {
+		char c = ch[i];
+		if (XMLChar.isHighSurrogate(c)) {
+			return i + 1 < end && XMLChar.isLowSurrogate(ch[i + 1]) ? i + 1 : -1;
+		}
+		return XMLChar.isValid(c) ? i : -1;
+	}
+
+	/**
+	 * Returns the offset of the ';' of the character or predefined entity
+	 * reference which starts at the given offset and -1 otherwise.
+	 */
+	private int skipReference(int i, int end) {
+		int semicolon = text.indexOf(';', i);
+		if (semicolon == -1 || semicolon >= end) {
+			return -1;
+		}
+		return getReferenceValue(i + 1, semicolon) != -1 ? semicolon : -1;
+	}
+
+	/**
+	 * Returns the character value of the character or predefined entity reference
+	 * name between the given offsets and -1 otherwise.
+	 */
+	private int getReferenceValue(int start, int end) {
+		if (start >= end) {
+			return -1;
+		}
+		if (ch[start] != '#') {
+			switch (text.substring(start, end)) {
+			case "amp":
+				return '&';
+			case "lt":
+				return '<';
+			case "gt":
+				return '>';
+			case "quot":
+				return '"';
+			case "apos":
+				return '\'';
+			default:
+				// entity expansion is done by the Xerces scanner
+				return -1;
+			}
+		}
+		boolean hex = start + 1 < end && ch[start + 1] == 'x';
+		int digitsStart = start + (hex ? 2 : 1);
+		if (digitsStart >= end || end - digitsStart > 8) {
+			return -1;
+		}
+		int value = 0;
+		for (int i = digitsStart; i < end; i++) {
+			int digit = Character.digit(ch[i], hex ? 16 : 10);
+			if (digit == -1) {
+				return -1;
+			}
+			value = value * (hex ? 16 : 10) + digit;
+		}
+		return XMLChar.isValid(value) ? value : -1;
+	}
+
+	private static boolean isQName(String name) {
+		int index = name.indexOf(':');
+		if (index == -1) {
+			return XMLChar.isValidNCName(name);
+		}
+		return XMLChar.isValidNCName(name.substring(0, index)) && XMLChar.isValidNCName(name.substring(index + 1));
+	}
+
+	private static boolean isEncName(String encoding) {
+		if (encoding.isEmpty()) {
+			return false;
+		}
+		char c = encoding.charAt(0);
+		if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) {
+			return false;
+		}
+		for (int i = 1; i < encoding.length(); i++) {
+			c = encoding.charAt(i);
+			if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.'
+					|| c == '_' || c == '-')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isXmlns(String name) {
+		return name.startsWith(XMLSymbols.PREFIX_XMLNS)
+				&& (name.length() == 5 || name.charAt(5) == ':');
+	}
+
+	// ------------------ XNI events
+
+	/**
+	 * Fires the XNI events of the DOM document to the document handler.
+	 *
+	 * @throws XNIException
+	 */
+	void scanDocument() throws XNIException {
+		completed = false;
+		setOffset(0);
+		documentHandler.startDocument(this, null, namespaceContext, null);
+		for (DOMNode child : document.getChildren()) {
+			if (child.isProlog()) {
+				scanXMLDecl(child);
+			} else if (child.isProcessingInstruction()) {
+				scanPI(child);
+			} else if (child.isComment()) {
+				scanComment(child);
+			} else if (child.isElement()) {
+				reconfigurePipeline();
+				scanElement((DOMElement) child, true);
+			}
+		}
+		setOffset(text.length());
+		documentHandler.endDocument(null);
+		completed = true;
+	}
+
+	/**
+	 * Removes the DTD validator from the pipeline since the document has no DTD
+	 * grammar, like the Xerces namespace scanner does before the root element.
+	 */
+	private void reconfigurePipeline() {
+		if (dtdValidator != null && !dtdValidator.hasGrammar()) {
+			performValidation = dtdValidator.validate();
+			XMLDocumentSource source = dtdValidator.getDocumentSource();
+			XMLDocumentHandler handler = dtdValidator.getDocumentHandler();
+			source.setDocumentHandler(handler);
+			if (handler != null) {
+				handler.setDocumentSource(source);
+			}
+			dtdValidator.setDocumentSource(null);
+			dtdValidator.setDocumentHandler(null);
+		}
+	}
+
+	private void scanXMLDecl(DOMNode prolog) {
+		int end = prolog.getEnd() - PI_END.length();
+		int pos = 5;
+		int valueEnd = skipPseudoAttribute(pos, end, "version");
+		pos = valueEnd;
+		String encoding = null;
+		valueEnd = skipPseudoAttribute(pos, end, "encoding");
+		if (valueEnd != -1) {
+			encoding = text.substring(skipEq(skipSpaces(pos, end) + 8, end) + 1, valueEnd - 1);
+			pos = valueEnd;
+		}
+		String standalone = null;
+		valueEnd = skipPseudoAttribute(pos, end, "standalone");
+		if (valueEnd != -1) {
+			standalone = text.substring(skipEq(skipSpaces(pos, end) + 10, end) + 1, valueEnd - 1);
+		}
+		setOffset(prolog.getEnd());
+		documentHandler.xmlDecl(XML_VERSION, encoding, standalone, null);
+	}
+
+	private void scanPI(DOMNode pi) {
+		int start = pi.getStart();
+		int targetEnd = getPITargetEnd(start);
+		int contentEnd = pi.getEnd() - PI_END.length();
+		String target = symbolTable.addSymbol(ch, start + PI_START.length(),
+				targetEnd - start - PI_START.length());
+		setOffset(pi.getEnd());
+		documentHandler.processingInstruction(target, getCharacters(skipSpaces(targetEnd, contentEnd), contentEnd),
+				null);
+	}
+
+	private void scanComment(DOMNode comment) {
+		setOffset(comment.getEnd());
+		documentHandler.comment(
+				getCharacters(comment.getStart() + COMMENT_START.length(), comment.getEnd() - COMMENT_END.length()),
+				null);
+	}
+
+	private void scanCDATA(DOMNode cdata) {
+		int contentStart = cdata.getStart() + CDATA_START.length();
+		int contentEnd = cdata.getEnd() - CDATA_END.length();
+		setOffset(contentStart);
+		documentHandler.startCDATA(null);
+		setOffset(cdata.getEnd());
+		if (contentEnd > contentStart) {
+			documentHandler.characters(getCharacters(contentStart, contentEnd), null);
+		}
+		documentHandler.endCDATA(null);
+	}
+
+	private void scanCharData(int start, int end) {
+		if (end > start) {
+			setOffset(end);
+			documentHandler.characters(getCharacters(start, end), null);
+		}
+	}
+
+	private void scanElement(DOMElement element, boolean root) {
+		String tag = element.getTagName();
+		int open = element.getStartTagOpenOffset();
+		QName elementQName = getElementQName(element);
+		setQName(elementQName, open + 1, tag.length());
+
+		namespaceContext.pushContext();
+		if (root && performValidation) {
+			setOffset(open + 1 + tag.length());
+			errorReporter.reportError(XMLMessageFormatter.XML_DOMAIN, "MSG_GRAMMAR_NOT_FOUND",
+					new Object[] { elementQName.rawname }, XMLErrorReporter.SEVERITY_ERROR);
+			errorReporter.reportError(XMLMessageFormatter.XML_DOMAIN, "RootElementTypeMustMatchDoctypedecl",
+					new Object[] { null, elementQName.rawname }, XMLErrorReporter.SEVERITY_ERROR);
+		}
+
+		// attributes
+		attributes.removeAllAttributes();
+		List<DOMAttr> attrs = element.getAttributeNodes();
+		if (attrs != null) {
+			for (DOMAttr attr : attrs) {
+				scanAttribute(attr);
+			}
+		}
+
+		boolean selfClosed = element.isSelfClosed();
+		setOffset(selfClosed ? element.getEnd() : element.getStartTagCloseOffset() + 1);
+		bindNamespaces(elementQName);
+
+		if (selfClosed || (checkpoint != null && element.getEnd() <= checkpoint.getStart())) {
+			// the content of the elements which precede the checkpoint is not validated
+			documentHandler.emptyElement(elementQName, attributes, null);
+			namespaceContext.popContext();
+			return;
+		}
+		documentHandler.startElement(elementQName, attributes, null);
+
+		if (checkpoint != null && element.getStart() < checkpoint.getStart()) {
+			// ancestor of the checkpoint, fire only the elements until the checkpoint
+			for (DOMNode child : element.getChildren()) {
+				if (child.getStart() >= checkpoint.getEnd()) {
+					break;
+				}
+				if (child.isElement()) {
+					scanElement((DOMElement) child, false);
+				}
+			}
+			setOffset(element.getEnd());
+			documentHandler.endElement(elementQName, null);
+			namespaceContext.popContext();
+			return;
+		}
+
+		// content
+		int pos = element.getStartTagCloseOffset() + 1;
+		for (DOMNode child : element.getChildren()) {
+			if (child.isText()) {
+				continue;
+			}
+			scanCharData(pos, child.getStart());
+			if (child.isElement()) {
+				scanElement((DOMElement) child, false);
+			} else if (child.isComment()) {
+				scanComment(child);
+			} else if (child.isCDATA()) {
+				scanCDATA(child);
+			} else if (child.isProcessingInstruction()) {
+				scanPI(child);
+			}
+			pos = child.getEnd();
+		}
+		scanCharData(pos, element.getEndTagOpenOffset());
+
+		setOffset(element.getEnd());
+		documentHandler.endElement(elementQName, null);
+		namespaceContext.popContext();
+	}
+
+	private void scanAttribute(DOMAttr attr) {
+		int nameStart = attr.getStart();
+		setQName(attributeQName, nameStart, attr.getName().length());
+		int attrIndex = attributes.getLength();
+		attributes.addAttributeNS(attributeQName, XMLSymbols.fCDATASymbol, null);
+		DOMRange valueRange = attr.getNodeAttrValue();
+		String value = getAttributeValue(valueRange.getStart(), valueRange.getEnd());
+		attributes.setValue(attrIndex, value);
+		attributes.setSpecified(attrIndex, true);
+
+		// record namespace declarations if any.
+		String localpart = attributeQName.localpart;
+		String prefix = attributeQName.prefix != null ? attributeQName.prefix : XMLSymbols.EMPTY_STRING;
+		if (prefix == XMLSymbols.PREFIX_XMLNS
+				|| prefix == XMLSymbols.EMPTY_STRING && localpart == XMLSymbols.PREFIX_XMLNS) {
+			String uri = symbolTable.addSymbol(value);
+			prefix = localpart != XMLSymbols.PREFIX_XMLNS ? localpart : XMLSymbols.EMPTY_STRING;
+			namespaceContext.declarePrefix(prefix, uri.length() != 0 ? uri : null);
+			attributes.setURI(attrIndex, namespaceContext.getURI(XMLSymbols.PREFIX_XMLNS));
+		} else if (attributeQName.prefix != null) {
+			attributes.setURI(attrIndex, namespaceContext.getURI(attributeQName.prefix));
+		}
+	}
+
+	/**
+	 * Binds the element and attributes with the namespace context like the Xerces
+	 * namespace scanner does.
+	 *
+	 * @param elementQName the element QName.
+	 */
+	private void bindNamespaces(QName elementQName) {
+		if (elementQName.prefix == XMLSymbols.PREFIX_XMLNS) {
+			errorReporter.reportError(XMLMessageFormatter.XMLNS_DOMAIN, "ElementXMLNSPrefix",
+					new Object[] { elementQName.rawname }, XMLErrorReporter.SEVERITY_FATAL_ERROR);
+		}
+		// bind the element
+		String prefix = elementQName.prefix != null ? elementQName.prefix : XMLSymbols.EMPTY_STRING;
+		elementQName.uri = namespaceContext.getURI(prefix);
+		if (elementQName.prefix == null && elementQName.uri != null) {
+			elementQName.prefix = XMLSymbols.EMPTY_STRING;
+		}
+		if (elementQName.prefix != null && elementQName.uri == null) {
+			errorReporter.reportError(XMLMessageFormatter.XMLNS_DOMAIN, "ElementPrefixUnbound",
+					new Object[] { elementQName.prefix, elementQName.rawname },
+					XMLErrorReporter.SEVERITY_FATAL_ERROR);
+		}
+
+		// bind attributes (xmlns are already bound)
+		int length = attributes.getLength();
+		for (int i = 0; i < length; i++) {
+			attributes.getName(i, attributeQName);
+			String aprefix = attributeQName.prefix != null ? attributeQName.prefix : XMLSymbols.EMPTY_STRING;
+			String uri = namespaceContext.getURI(aprefix);
+			if (attributeQName.uri != null && attributeQName.uri == uri) {
+				continue;
+			}
+			if (aprefix != XMLSymbols.EMPTY_STRING) {
+				attributeQName.uri = uri;
+				if (uri == null) {
+					errorReporter.reportError(XMLMessageFormatter.XMLNS_DOMAIN, "AttributePrefixUnbound",
+							new Object[] { elementQName.rawname, attributeQName.rawname, aprefix },
+							XMLErrorReporter.SEVERITY_FATAL_ERROR);
+				}
+				attributes.setURI(i, uri);
+			}
+		}
+		if (length > 1) {
+			QName name = attributes.checkDuplicatesNS();
+			if (name != null) {
+				if (name.uri != null) {
+					errorReporter.reportError(XMLMessageFormatter.XMLNS_DOMAIN, "AttributeNSNotUnique",
+							new Object[] { elementQName.rawname, name.localpart, name.uri },
+							XMLErrorReporter.SEVERITY_FATAL_ERROR);
+				} else {
+					errorReporter.reportError(XMLMessageFormatter.XMLNS_DOMAIN, "AttributeNotUnique",
+							new Object[] { elementQName.rawname, name.rawname },
+							XMLErrorReporter.SEVERITY_FATAL_ERROR);
+				}
+			}
+		}
+	}
+
+	private QName getElementQName(DOMElement element) {
+		// Reuse the QName of the element depth
+		int depth = 0;
+		DOMNode parent = element.getParentNode();
+		while (parent != null && parent.isElement()) {
+			depth++;
+			parent = parent.getParentNode();
+		}
+		while (elementQNames.size() <= depth) {
+			elementQNames.add(new QName());
+		}
+		return elementQNames.get(depth);
+	}
+
+	/**
+	 * Fill the given QName with the name at the given offset, using the symbol
+	 * table like the Xerces entity scanner does.
+	 */
+	private void setQName(QName qname, int start, int length) {
+		String rawname = symbolTable.addSymbol(ch, start, length);
+		String prefix = null;
+		String localpart = rawname;
+		int index = rawname.indexOf(':');
+		if (index != -1) {
+			prefix = symbolTable.addSymbol(ch, start, index);
+			localpart = symbolTable.addSymbol(ch, start + index + 1, length - index - 1);
+		}
+		qname.setValues(prefix, localpart, rawname, null);
+	}
+
+	private int getPITargetEnd(int start) {
+		int pos = start + PI_START.length();
+		while (pos < ch.length && !XMLChar.isSpace(ch[pos]) && ch[pos] != '?') {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Returns the normalized value of the attribute value (with quotes) at the
+	 * given offsets: references are replaced and white spaces are normalized.
+	 */
+	private String getAttributeValue(int start, int end) {
+		int contentStart = start + 1;
+		int contentEnd = end - 1;
+		int i = contentStart;
+		while (i < contentEnd && ch[i] != '&' && ch[i] != '\r' && ch[i] != '\n' && ch[i] != '\t') {
+			i++;
+		}
+		if (i == contentEnd) {
+			return text.substring(contentStart, contentEnd);
+		}
+		StringBuilder value = new StringBuilder(contentEnd - contentStart);
+		value.append(ch, contentStart, i - contentStart);
+		for (; i < contentEnd; i++) {
+			char c = ch[i];
+			if (c == '&') {
+				int semicolon = text.indexOf(';', i);
+				value.appendCodePoint(getReferenceValue(i + 1, semicolon));
+				i = semicolon;
+			} else if (c == '\r' || c == '\n' || c == '\t') {
+				if (c == '\r' && i + 1 < contentEnd && ch[i + 1] == '\n') {
+					i++;
+				}
+				value.append(' ');
+			} else {
+				value.append(c);
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Returns the characters between the given offsets with normalized line
+	 * endings and replaced references.
+	 */
+	private XMLString getCharacters(int start, int end) {
+		int i = start;
+		while (i < end && ch[i] != '&' && ch[i] != '\r') {
+			i++;
+		}
+		if (i == end) {
+			xmlString.setValues(ch, start, end - start);
+			return xmlString;
+		}
+		stringBuffer.clear();
+		stringBuffer.append(ch, start, i - start);
+		for (; i < end; i++) {
+			char c = ch[i];
+			if (c == '&') {
+				int semicolon = text.indexOf(';', i);
+				int value = getReferenceValue(i + 1, semicolon);
+				if (XMLChar.isSupplemental(value)) {
+					stringBuffer.append(XMLChar.highSurrogate(value));
+					stringBuffer.append(XMLChar.lowSurrogate(value));
+				} else {
+					stringBuffer.append((char) value);
+				}
+				i = semicolon;
+			} else if (c == '\r') {
+				if (i + 1 < end && ch[i + 1] == '\n') {
+					i++;
+				}
+				stringBuffer.append('\n');
+			} else {
+				stringBuffer.append(c);
+			}
+		}
+		return stringBuffer;
+	}
+
+	private static String expandSystemId(String systemId) {
+		try {
+			String expandedSystemId = XMLEntityManager.expandSystemId(systemId, null, false);
+			return expandedSystemId != null ? expandedSystemId : systemId;
+		} catch (MalformedURIException e) {
+			return systemId;
+		}
+	}
+
+	// ------------------ XMLDocumentSource
+
+	@Override
+	public void setDocumentHandler(XMLDocumentHandler documentHandler) {
+		this.documentHandler = documentHandler;
+	}
+
+	@Override
+	public XMLDocumentHandler getDocumentHandler() {
+		return documentHandler;
+	}
+
+	// ------------------ XMLLocator
+
+	private void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	private Position getPosition() {
+		if (positionOffset != offset) {
+			try {
+				position = document.positionAt(offset);
+			} catch (BadLocationException e) {
+				position = null;
+			}
+			positionOffset = offset;
+		}
+		return position;
+	}
+
+	@Override
+	public String getPublicId() {
+		return null;
+	}
+
+	@Override
+	public String getLiteralSystemId() {
+		return literalSystemId;
+	}
+
+	@Override
+	public String getBaseSystemId() {
+		return expandedSystemId;
+	}
+
+	@Override
+	public String getExpandedSystemId() {
+		return expandedSystemId;
+	}
+
+	@Override
+	public int getLineNumber() {
+		Position position = getPosition();
+		return position != null ? position.getLine() + 1 : -1;
+	}
+
+	@Override
+	public int getColumnNumber() {
+		Position position = getPosition();
+		return position != null ? position.getCharacter() + 1 : -1;
+	}
+
+	@Override
+	public int getCharacterOffset() {
+		return offset;
+	}
+
+	@Override
+	public String getEncoding() {
+		return null;
+	}
+
+	@Override
+	public String getXMLVersion() {
+		return XML_VERSION;
+	}
+}
@@ -27,6 +27,7 @@ import org.apache.xerces.xni.parser.XMLParserConfiguration;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMDocumentType;
 import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 
@@ -186,6 +187,35 @@ public class LSPSAXParser extends SAXParser {
 		}
 	}
 
+	/**
+	 * Parses the DOM document of the given DOM document source without scanning
+	 * its text.
+	 *
+	 * @param source the DOM document source.
+	 *
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	void parse(LSPDOMDocumentSource source) throws SAXException, IOException {
+		try {
+			reset();
+			((LSPXMLParserConfiguration) fConfiguration).parse(source);
+		} catch (XNIException e) {
+			// wrap XNI exceptions as SAX exceptions
+			Exception ex = e.getException();
+			if (ex == null) {
+				throw new SAXException(e.getMessage());
+			}
+			if (ex instanceof SAXException) {
+				throw (SAXException) ex;
+			}
+			if (ex instanceof IOException) {
+				throw (IOException) ex;
+			}
+			throw new SAXException(ex);
+		}
+	}
+
 	@Override
 	public void setContentHandler(ContentHandler contentHandler) {
 		((MultipleContentHandler) getContentHandler()).addContentHandler(contentHandler);
@@ -16,6 +16,17 @@
  */
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.xerces.impl.dtd.DTDGrammar;
 import org.apache.xerces.impl.dtd.XMLDTDDescription;
 import org.apache.xerces.impl.xs.SchemaGrammar;
@@ -27,18 +38,36 @@ import org.eclipse.lemminx.extensions.dtd.utils.DTDUtils;
 import org.eclipse.lemminx.extensions.relaxng.jing.RelaxNGGrammar;
 import org.eclipse.lemminx.extensions.relaxng.utils.RelaxNGUtils;
 import org.eclipse.lemminx.extensions.xsd.utils.XSDUtils;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
+import org.eclipse.lemminx.utils.FilesUtils;
 
 import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * LSP XML grammar pool.
  * 
  * <p>
- * This class is a copy/paste of
+ * This class was a copy/paste of
  * {@link org.apache.xerces.util.XMLGrammarPoolImpl.XMLGrammarPoolImpl} from
  * Xerces adapated to use .lemminx cache.
  * </p>
  * 
+ * <p>
+ * The grammars are stored by expanded system id in a concurrent cache (the
+ * lookup of a grammar doesn't lock the whole pool) which is bounded with a
+ * maximum number of grammars (the least recently used grammar is evicted).
+ * </p>
+ * 
+ * <p>
+ * When a grammar is not found for a given owner (an XML validation), the owner
+ * loads the grammar and the other owners which try to retrieve the same grammar
+ * wait for the grammar loaded by the first owner (see
+ * {@link #retrieveGrammar(XMLGrammarDescription, Object)}) to avoid compiling
+ * the same XML Schema / DTD several times at the same time.
+ * </p>
+ * 
  * @author Jeffrey Rodriguez, IBM
  * @author Andy Clark, IBM
  * @author Neil Graham, IBM
@@ -50,17 +79,69 @@ import com.google.common.base.Objects;
  */
 public class LSPXMLGrammarPool implements XMLGrammarPool {
 
-	private static final int TABLE_SIZE = 11;
+	public static final int DEFAULT_MAXIMUM_SIZE = 500;
+
+	private static final long LOAD_TIMEOUT = 30000;
+
+	/**
+	 * Grammar loading.
+	 */
+	private static class GrammarLoad {
+
+		private final Object owner;
+
+		private final CountDownLatch latch;
+
+		public GrammarLoad(Object owner) {
+			this.owner = owner;
+			this.latch = new CountDownLatch(1);
+		}
+
+		public boolean await() throws InterruptedException {
+			return latch.await(LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+
+		public void release() {
+			latch.countDown();
+		}
+	}
 
 	/** Grammars. */
-	private final Entry[] fGrammars;
+	private volatile Cache<String, Entry> fGrammars;
+
+	private volatile int maximumSize;
+
+	/** Grammars which are loading. */
+	private final Map<String, GrammarLoad> loadingGrammars;
+
+	private final LongAdder hitCount;
+
+	private final LongAdder missCount;
+
+	private final LongAdder evictionCount;
 
 	public LSPXMLGrammarPool() {
-		this(TABLE_SIZE);
+		this(DEFAULT_MAXIMUM_SIZE);
 	}
 
-	public LSPXMLGrammarPool(int initialCapacity) {
-		fGrammars = new Entry[initialCapacity];
+	public LSPXMLGrammarPool(int maximumSize) {
+		this.loadingGrammars = new ConcurrentHashMap<>();
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+		this.evictionCount = new LongAdder();
+		this.maximumSize = maximumSize;
+		this.fGrammars = createCache(maximumSize);
+	}
+
+	private Cache<String, Entry> createCache(int maximumSize) {
+		return CacheBuilder.newBuilder() //
+				.maximumSize(maximumSize) //
+				.removalListener(notification -> {
+					if (notification.wasEvicted()) {
+						evictionCount.increment();
+					}
+				}) //
+				.build();
 	}
 
 	@Override
@@ -84,20 +165,99 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 		return getGrammar(desc);
 	}
 
-	private void putGrammar(Grammar grammar) {
-		synchronized (fGrammars) {
-			XMLGrammarDescription desc = grammar.getGrammarDescription();
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index]; entry != null; entry = entry.next) {
-				if (entry.hash == hash && equals(entry.desc, desc)) {
-					entry.grammar = grammar;
-					return;
+	/**
+	 * Returns the grammar associated to the specified grammar description and null
+	 * otherwise.
+	 * 
+	 * <p>
+	 * When the grammar is not cached, the given owner is registered as the loader
+	 * of the grammar: another owner which retrieves the same grammar waits until
+	 * the grammar is cached (see {@link #cacheGrammars(String, Grammar[])}) or the
+	 * owner releases its loading (see {@link #releaseLoadingGrammars(Object)}).
+	 * </p>
+	 * 
+	 * @param desc  the grammar description.
+	 * @param owner the owner (ex : the XML validation) which retrieves the grammar.
+	 * 
+	 * @return the grammar associated to the specified grammar description and null
+	 *         otherwise.
+	 */
+	public Grammar retrieveGrammar(XMLGrammarDescription desc, Object owner) {
+		String key = getKey(desc);
+		if (key == null) {
+			return null;
+		}
+		while (true) {
+			Grammar grammar = getGrammar(desc);
+			if (grammar != null) {
+				return grammar;
+			}
+			GrammarLoad load = new GrammarLoad(owner);
+			GrammarLoad currentLoad = loadingGrammars.putIfAbsent(key, load);
+			if (currentLoad == null || currentLoad.owner == owner) {
+				// The owner must load the grammar
+				return null;
+			}
+			if (isLoading(owner)) {
+				// The owner is loading another grammar (ex : an XML Schema which imports the
+				// grammar), don't wait to avoid dead lock.
+				return null;
+			}
+			try {
+				if (!currentLoad.await()) {
+					return null;
 				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Release the grammars loading of the given owner.
+	 * 
+	 * @param owner the owner (ex : the XML validation).
+	 */
+	public void releaseLoadingGrammars(Object owner) {
+		if (loadingGrammars.isEmpty()) {
+			return;
+		}
+		loadingGrammars.entrySet().removeIf(entry -> {
+			GrammarLoad load = entry.getValue();
+			if (load.owner == owner) {
+				load.release();
+				return true;
+			}
+			return false;
+		});
+	}
+
+	private boolean isLoading(Object owner) {
+		for (GrammarLoad load : loadingGrammars.values()) {
+			if (load.owner == owner) {
+				return true;
 			}
+		}
+		return false;
+	}
+
+	private void putGrammar(Grammar grammar) {
+		XMLGrammarDescription desc = grammar.getGrammarDescription();
+		String key = getKey(desc);
+		if (key == null) {
+			return;
+		}
+		Entry entry = fGrammars.getIfPresent(key);
+		if (entry != null) {
+			entry.grammar = grammar;
+		} else {
 			// create a new entry
-			Entry entry = new Entry(hash, desc, grammar, fGrammars[index]);
-			fGrammars[index] = entry;
+			fGrammars.put(key, new Entry(desc, grammar));
+		}
+		GrammarLoad load = loadingGrammars.remove(key);
+		if (load != null) {
+			load.release();
 		}
 	}
 
@@ -109,20 +269,23 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	 * @param desc The Grammar Description.
 	 */
 	private Grammar getGrammar(XMLGrammarDescription desc) {
-		synchronized (fGrammars) {
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index]; entry != null; entry = entry.next) {
-				if ((entry.hash == hash) && equals(entry.desc, desc)) {
-					if (entry.isDirty()) {
-						removeGrammar(entry.desc);
-						return null;
-					}
-					return entry.grammar;
+		String key = getKey(desc);
+		Entry entry = key != null ? fGrammars.getIfPresent(key) : null;
+		if (entry != null) {
+			if (entry.isDirty()) {
+				fGrammars.asMap().remove(key, entry);
+			} else {
+				Grammar grammar = entry.grammar;
+				if (grammar != null) {
+					hitCount.increment();
+					PerformanceMetrics.getInstance().getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).hit();
+					return grammar;
 				}
 			}
-			return null;
 		}
+		missCount.increment();
+		PerformanceMetrics.getInstance().getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).miss();
+		return null;
 	}
 
 	/**
@@ -135,34 +298,71 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	 * @return The removed grammar.
 	 */
 	public Grammar removeGrammar(XMLGrammarDescription desc) {
-		synchronized (fGrammars) {
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index], prev = null; entry != null; prev = entry, entry = entry.next) {
-				if ((entry.hash == hash) && equals(entry.desc, desc)) {
-					if (prev != null) {
-						prev.next = entry.next;
-					} else {
-						fGrammars[index] = entry.next;
-					}
-					Grammar tempGrammar = entry.grammar;
-					entry.grammar = null;
-					return tempGrammar;
+		String key = getKey(desc);
+		Entry entry = key != null ? fGrammars.asMap().remove(key) : null;
+		return entry != null ? entry.grammar : null;
+	}
+
+	public void removeGrammar(String grammarURI) {
+		fGrammars.invalidate(grammarURI);
+	}
+
+	/**
+	 * Remove the cached grammar of the given file URI and the cached grammars
+	 * which include, import this file and returns the URIs of the removed
+	 * grammars.
+	 *
+	 * @param fileURI the file URI of the grammar (ex : a saved XSD file).
+	 *
+	 * @return the URIs of the removed grammars.
+	 */
+	public Set<String> removeGrammars(String fileURI) {
+		Path file = toFile(fileURI);
+		if (file == null) {
+			removeGrammar(fileURI);
+			return Collections.singleton(fileURI);
+		}
+		Set<String> removedGrammarURIs = new HashSet<>();
+		for (Map.Entry<String, Entry> entry : fGrammars.asMap().entrySet()) {
+			String grammarURI = entry.getKey();
+			FilesChangedTracker tracker = entry.getValue().tracker;
+			if (file.equals(toFile(grammarURI)) || (tracker != null && tracker.getFiles().stream()
+					.anyMatch(f -> file.equals(f.toAbsolutePath().normalize())))) {
+				if (fGrammars.asMap().remove(grammarURI, entry.getValue())) {
+					removedGrammarURIs.add(grammarURI);
 				}
 			}
+		}
+		return removedGrammarURIs;
+	}
+
+	private static Path toFile(String uri) {
+		if (uri == null || !uri.startsWith("file:")) {
+			return null;
+		}
+		try {
+			return FilesUtils.toFile(uri).toPath().toAbsolutePath().normalize();
+		} catch (Exception e) {
 			return null;
 		}
 	}
 
-	public void removeGrammar(String grammarURI) {
-		for (Entry entry : fGrammars) {
-			if (entry != null) {
-				if (grammarURI.equals(entry.desc.getExpandedSystemId())) {
-					removeGrammar(entry.desc);
-					return;
-				}
-			}
+	/**
+	 * Returns the files of the cached grammar for the given grammar URI (the
+	 * grammar file and the files that it includes, imports) and an empty list if
+	 * the grammar is not cached.
+	 *
+	 * @param grammarURI the expanded system id of the grammar.
+	 *
+	 * @return the files of the cached grammar for the given grammar URI and an
+	 *         empty list if the grammar is not cached.
+	 */
+	public List<Path> getGrammarFiles(String grammarURI) {
+		Entry entry = grammarURI != null ? fGrammars.getIfPresent(grammarURI) : null;
+		if (entry == null || entry.tracker == null) {
+			return Collections.emptyList();
 		}
+		return entry.tracker.getFiles();
 	}
 
 	@Override
@@ -177,12 +377,42 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 
 	@Override
 	public void clear() {
-		for (int i = 0; i < fGrammars.length; i++) {
-			if (fGrammars[i] != null) {
-				fGrammars[i].clear();
-				fGrammars[i] = null;
-			}
+		fGrammars.invalidateAll();
+	}
+
+	/**
+	 * Returns the maximum number of grammars stored in the pool.
+	 * 
+	 * @return the maximum number of grammars stored in the pool.
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Set the maximum number of grammars stored in the pool. When this size is
+	 * reached, the least recently used grammars are evicted.
+	 * 
+	 * @param maximumSize the maximum number of grammars stored in the pool.
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		if (this.maximumSize == maximumSize) {
+			return;
 		}
+		Cache<String, Entry> grammars = createCache(maximumSize);
+		grammars.putAll(fGrammars.asMap());
+		this.fGrammars = grammars;
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Returns the statistics of the grammar pool.
+	 * 
+	 * @return the statistics of the grammar pool.
+	 */
+	public GrammarPoolStatistics getStatistics() {
+		return new GrammarPoolStatistics(fGrammars.size(), maximumSize, hitCount.sum(), missCount.sum(),
+				evictionCount.sum());
 	}
 
 	/**
@@ -214,22 +444,29 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	}
 
 	/**
-	 * This class is a grammar pool entry. Each entry acts as a node in a linked
-	 * list.
+	 * Returns the key of the grammar pool for the given grammar description and
+	 * null if the grammar cannot be cached.
+	 * 
+	 * @param desc the grammar description.
+	 * @return the key of the grammar pool for the given grammar description and
+	 *         null if the grammar cannot be cached.
+	 */
+	private static String getKey(XMLGrammarDescription desc) {
+		return desc != null ? desc.getExpandedSystemId() : null;
+	}
+
+	/**
+	 * This class is a grammar pool entry.
 	 */
 	protected static final class Entry {
-		public int hash;
-		public XMLGrammarDescription desc;
-		public Grammar grammar;
-		public Entry next;
+		public final XMLGrammarDescription desc;
+		public volatile Grammar grammar;
 		private final FilesChangedTracker tracker;
 		public String internalSubset;
 
-		protected Entry(int hash, XMLGrammarDescription desc, Grammar grammar, Entry next) {
-			this.hash = hash;
+		protected Entry(XMLGrammarDescription desc, Grammar grammar) {
 			this.desc = desc;
 			this.grammar = grammar;
-			this.next = next;
 			this.tracker = create(grammar);
 		}
 
@@ -249,17 +486,6 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 		public boolean isDirty() {
 			return tracker != null ? tracker.isDirty() : true;
 		}
-
-		// clear this entry; useful to promote garbage collection
-		// since reduces reference count of objects to be destroyed
-		protected void clear() {
-			desc = null;
-			grammar = null;
-			if (next != null) {
-				next.clear();
-				next = null;
-			}
-		}
 	}
 
 	/**
@@ -274,20 +500,18 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	 *         internal subset and false otherwise.
 	 */
 	public boolean setInternalSubset(XMLDTDDescription desc, String internalSubset) {
-		synchronized (fGrammars) {
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index]; entry != null; entry = entry.next) {
-				if ((entry.hash == hash) && equals(entry.desc, desc)) {
-					if (Objects.equal(entry.internalSubset, internalSubset)) {
-						return false;
-					}
-					entry.internalSubset = internalSubset;
-					return true;
-				}
+		String key = getKey(desc);
+		Entry entry = key != null ? fGrammars.getIfPresent(key) : null;
+		if (entry == null) {
+			return false;
+		}
+		synchronized (entry) {
+			if (Objects.equal(entry.internalSubset, internalSubset)) {
+				return false;
 			}
+			entry.internalSubset = internalSubset;
+			return true;
 		}
-		return false;
 	}
 
 }
@@ -12,7 +12,10 @@
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.xerces.impl.dtd.XMLDTDDescription;
 import org.apache.xerces.xni.grammars.Grammar;
@@ -31,9 +34,14 @@ public class LSPXMLGrammarPoolWrapper extends LSPXMLGrammarPool {
 
 	private final List<Grammar> cachedGrammars;
 
+	private final Set<Grammar> usedGrammars;
+
 	public LSPXMLGrammarPoolWrapper(LSPXMLGrammarPool delegate) {
+		// the wrapper doesn't store grammars
+		super(0);
 		this.delegate = delegate;
 		this.cachedGrammars = new ArrayList<>();
+		this.usedGrammars = Collections.newSetFromMap(new IdentityHashMap<>());
 	}
 
 	public Grammar[] retrieveInitialGrammarSet(String grammarType) {
@@ -43,6 +51,7 @@ public class LSPXMLGrammarPoolWrapper extends LSPXMLGrammarPool {
 	public void cacheGrammars(String grammarType, Grammar[] grammars) {
 		for (Grammar grammar : grammars) {
 			cachedGrammars.add(grammar);
+			usedGrammars.add(grammar);
 		}
 		delegate.cacheGrammars(grammarType, grammars);
 	}
@@ -52,7 +61,22 @@ public class LSPXMLGrammarPoolWrapper extends LSPXMLGrammarPool {
 	}
 
 	public Grammar retrieveGrammar(XMLGrammarDescription desc) {
-		return delegate.retrieveGrammar(desc);
+		Grammar grammar = delegate.retrieveGrammar(desc, this);
+		if (grammar != null) {
+			usedGrammars.add(grammar);
+		}
+		return grammar;
+	}
+
+	/**
+	 * Returns the grammars which have been retrieved from the pool or loaded by
+	 * the XML validation.
+	 *
+	 * @return the grammars which have been retrieved from the pool or loaded by
+	 *         the XML validation.
+	 */
+	public Set<Grammar> getUsedGrammars() {
+		return usedGrammars;
 	}
 
 	public Grammar removeGrammar(XMLGrammarDescription desc) {
@@ -84,6 +108,13 @@ public class LSPXMLGrammarPoolWrapper extends LSPXMLGrammarPool {
 		}
 	}
 
+	/**
+	 * Release the grammars which are loading by the XML validation.
+	 */
+	public void dispose() {
+		delegate.releaseLoadingGrammars(this);
+	}
+
 	public boolean equals(XMLGrammarDescription desc1, XMLGrammarDescription desc2) {
 		return delegate.equals(desc1, desc2);
 	}
@@ -96,6 +127,11 @@ public class LSPXMLGrammarPoolWrapper extends LSPXMLGrammarPool {
 		return delegate.toString();
 	}
 
+	@Override
+	public GrammarPoolStatistics getStatistics() {
+		return delegate.getStatistics();
+	}
+
 	@Override
 	public boolean setInternalSubset(XMLDTDDescription grammarDesc, String internalSubset) {
 		return delegate.setInternalSubset(grammarDesc, internalSubset);
@@ -11,6 +11,9 @@
 *******************************************************************************/
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 import org.apache.xerces.impl.Constants;
 import org.apache.xerces.impl.dtd.XMLDTDValidator;
 import org.apache.xerces.util.SecurityManager;
@@ -20,6 +23,7 @@ import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.apache.xerces.xni.parser.XMLComponentManager;
 import org.apache.xerces.xni.parser.XMLConfigurationException;
 import org.apache.xerces.xni.parser.XMLDocumentSource;
+import org.apache.xerces.xni.parser.XMLInputSource;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.extensions.relaxng.xml.validator.ExternalRelaxNGValidator;
 import org.eclipse.lemminx.extensions.xerces.AbstractLSPErrorReporter;
@@ -46,6 +50,8 @@ class LSPXMLParserConfiguration extends XMLModelAwareParserConfiguration {
 	private static final String SECURITY_MANAGER = Constants.XERCES_PROPERTY_PREFIX
 			+ Constants.SECURITY_MANAGER_PROPERTY;
 
+	private static final String DOCUMENT_ENTITY = "[xml]";
+
 	private final boolean disableDTDValidation;
 	private ExternalXMLDTDValidator externalDTDValidator;
 
@@ -77,6 +83,57 @@ class LSPXMLParserConfiguration extends XMLModelAwareParserConfiguration {
 		addCommonComponent(fEntityManager);
 	}
 
+	/**
+	 * Parses the DOM document of the given DOM document source: the XNI events are
+	 * fired by the DOM document source to the validation pipeline instead of the
+	 * Xerces document scanner.
+	 *
+	 * @param source the DOM document source.
+	 *
+	 * @throws XNIException Throws exception on XNI error.
+	 * @throws IOException  Throws exception on i/o error.
+	 */
+	public void parse(LSPDOMDocumentSource source) throws XNIException, IOException {
+		if (fParseInProgress) {
+			throw new XNIException("FWK005 parse may not be called while parsing.");
+		}
+		fParseInProgress = true;
+		try {
+			fValidationManager.reset();
+			fVersionDetector.reset(this);
+			resetCommon();
+			configurePipeline();
+			reset();
+			fConfigUpdated = false;
+
+			// Setup the document entity without scanning it, to resolve relative
+			// references (ex : xml-model href) with the document location like the Xerces
+			// document scanner does.
+			fEntityManager.setScannerVersion(Constants.XML_VERSION_1_0);
+			fEntityManager.setupCurrentEntity(DOCUMENT_ENTITY,
+					new XMLInputSource(null, source.getLiteralSystemId(), null, new StringReader(""), null), false,
+					true);
+
+			// Replace the Xerces document scanner with the DOM document source at the
+			// head of the pipeline
+			XMLDocumentHandler handler = fCurrentScanner.getDocumentHandler();
+			fCurrentScanner.setDocumentHandler(null);
+			source.setDocumentHandler(handler);
+			if (handler != null) {
+				handler.setDocumentSource(source);
+			}
+			source.setDTDValidator(handler == fDTDValidator ? fDTDValidator : null);
+			source.reset(this);
+			fErrorReporter.setDocumentLocator(source);
+
+			source.scanDocument();
+		} finally {
+			fParseInProgress = false;
+			// close all streams opened by xerces
+			this.cleanup();
+		}
+	}
+
 	@Override
 	protected void reset() throws XNIException {
 		super.reset();
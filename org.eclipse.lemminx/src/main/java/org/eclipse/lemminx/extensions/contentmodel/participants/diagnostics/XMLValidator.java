@@ -13,18 +13,19 @@
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.xerces.impl.XMLEntityManager;
 import org.apache.xerces.parsers.SAXParser;
 import org.apache.xerces.util.URI.MalformedURIException;
+import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lemminx.dom.DOMAttr;
 import org.eclipse.lemminx.dom.DOMDocument;
@@ -42,6 +43,7 @@ import org.eclipse.lemminx.extensions.contentmodel.settings.XMLSchemaSettings;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.extensions.xerces.LSPXMLEntityManager;
 import org.eclipse.lemminx.extensions.xerces.ReferencedGrammarDiagnosticsInfo;
+import org.eclipse.lemminx.services.extensions.diagnostics.DiagnosticsResult;
 import org.eclipse.lemminx.services.extensions.diagnostics.LSPContentHandler;
 import org.eclipse.lemminx.uriresolver.CacheResourceException;
 import org.eclipse.lemminx.uriresolver.IExternalGrammarLocationProvider;
@@ -69,6 +71,34 @@ public class XMLValidator {
 	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
 			List<Diagnostic> diagnostics, XMLValidationSettings validationSettings,
 			ContentModelManager contentModelManager, CancelChecker monitor) {
+		doDiagnostics(document, entityResolver, diagnostics, validationSettings, contentModelManager, null, null,
+				monitor);
+	}
+
+	/**
+	 * Validate the given DOM document.
+	 *
+	 * @param document            the DOM document.
+	 * @param entityResolver      the entity resolver.
+	 * @param diagnostics         the list to fill with the diagnostics.
+	 * @param validationSettings  the validation settings.
+	 * @param contentModelManager the content model manager.
+	 * @param checkpoint          the element to validate with its content (see
+	 *                            {@link LSPDOMDocumentSource#setCheckpoint(DOMElement)})
+	 *                            and null to validate the whole document.
+	 * @param usedGrammars        the set to fill with the grammars used by the
+	 *                            validation and null otherwise.
+	 * @param monitor             the cancel checker.
+	 *
+	 * @return true if the DOM document has been validated until the end with the
+	 *         DOM document source and false otherwise (SAX parser, fatal error,
+	 *         cancelled validation, or checkpoint which cannot be validated
+	 *         without scanning the text).
+	 */
+	static boolean doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
+			List<Diagnostic> diagnostics, XMLValidationSettings validationSettings,
+			ContentModelManager contentModelManager, DOMElement checkpoint, Set<Grammar> usedGrammars,
+			CancelChecker monitor) {
 
 		LSPXMLGrammarPool pool = contentModelManager.getGrammarPool();
 		LSPXMLGrammarPoolWrapper grammarPool = pool != null ? new LSPXMLGrammarPoolWrapper(pool) : null;
@@ -84,6 +114,7 @@ public class XMLValidator {
 				contentModelManager, validationSettings != null ? validationSettings.isRelatedInformation() : false,
 				referencedGrammarDiagnosticsInfoCache);
 		LSPXMLEntityManager entityManager = new LSPXMLEntityManager(reporterForXML, grammarPool);
+		LSPDOMDocumentSource source = null;
 		try {
 
 			LSPXMLParserConfiguration configuration = new LSPXMLParserConfiguration(grammarPool,
@@ -94,7 +125,7 @@ public class XMLValidator {
 				configuration.setProperty("http://apache.org/xml/properties/internal/entity-resolver", entityResolver); //$NON-NLS-1$
 			}
 
-			SAXParser parser = new LSPSAXParser(reporterForXML, configuration, grammarPool, document);
+			LSPSAXParser parser = new LSPSAXParser(reporterForXML, configuration, grammarPool, document);
 
 			// Add LSP content handler to stop XML parsing if monitor is canceled.
 			parser.setContentHandler(new LSPContentHandler(monitor));
@@ -109,9 +140,9 @@ public class XMLValidator {
 			boolean hasSchemaGrammar = hasSchemaLocation || hasNoNamespaceSchemaLocation
 					|| hasExternalSchemaGrammar(document);
 			boolean schemaValidationEnabled = (hasSchemaGrammar
-					&& isSchemaValidationEnabled(document, validationSettings)
-					|| (hasNoNamespaceSchemaLocation
-							&& isNoNamespaceSchemaValidationEnabled(document, validationSettings)));
+					&& isSchemaValidationEnabled(document, validationSettings, contentModelManager, diagnostics)
+					|| (hasNoNamespaceSchemaLocation && isNoNamespaceSchemaValidationEnabled(document,
+							validationSettings, contentModelManager, diagnostics)));
 			parser.setFeature("http://apache.org/xml/features/validation/schema", schemaValidationEnabled); //$NON-NLS-1$
 
 			boolean hasRelaxNG = hasRelaxNGReference(document, parser);
@@ -128,8 +159,22 @@ public class XMLValidator {
 			parser.setFeature("http://xml.org/sax/features/namespaces", namespacesValidationEnabled); //$NON-NLS-1$
 
 			// Parse XML
-			InputSource input = DOMUtils.createInputSource(document);
-			parser.parse(input);
+			source = namespacesValidationEnabled && !isXIncludeEnabled(validationSettings)
+					? LSPDOMDocumentSource.create(document)
+					: null;
+			if (checkpoint != null) {
+				if (source == null) {
+					return false;
+				}
+				source.setCheckpoint(checkpoint);
+			}
+			if (source != null) {
+				// The DOM document is well-formed, validate it without scanning its text.
+				parser.parse(source);
+			} else {
+				InputSource input = DOMUtils.createInputSource(document);
+				parser.parse(input);
+			}
 		} catch (IOException | SAXException | CancellationException exception) {
 			// ignore error
 		} catch (CacheResourceException e) {
@@ -142,7 +187,19 @@ public class XMLValidator {
 			// remove DTD grammars cache which are not completely loaded (because of some
 			// downloading of included DTD which is not finished)
 			entityManager.dispose();
+			if (grammarPool != null) {
+				if (usedGrammars != null) {
+					usedGrammars.addAll(grammarPool.getUsedGrammars());
+				}
+				// the grammars which are not cached can be loaded by another validation
+				grammarPool.dispose();
+			}
 		}
+		return source != null && source.isCompleted();
+	}
+
+	private static boolean isXIncludeEnabled(XMLValidationSettings validationSettings) {
+		return validationSettings != null && validationSettings.getXInclude().isEnabled();
 	}
 
 	private static boolean isNamespacesValidationEnabled(DOMDocument document,
@@ -187,7 +244,8 @@ public class XMLValidator {
 		return false;
 	}
 
-	private static boolean isSchemaValidationEnabled(DOMDocument document, XMLValidationSettings validationSettings) {
+	private static boolean isSchemaValidationEnabled(DOMDocument document, XMLValidationSettings validationSettings,
+			ContentModelManager contentModelManager, List<Diagnostic> diagnostics) {
 		if (validationSettings == null) {
 			return true;
 		}
@@ -202,7 +260,7 @@ public class XMLValidator {
 			case never:
 				return false;
 			case onValidSchema:
-				return isValidSchemaLocation(document);
+				return isValidSchemaLocation(document, contentModelManager, diagnostics);
 			default:
 				return true;
 		}
@@ -220,11 +278,14 @@ public class XMLValidator {
 	 * <li>the URI can be opened</li>
 	 * </ul>
 	 *
-	 * @param document the DOM document.
+	 * @param document            the DOM document.
+	 * @param contentModelManager the content model manager.
+	 * @param diagnostics         the diagnostics.
 	 * @return true if the given DOM document declares a xsi:schemaLocation hint for
 	 *         the document root element is valid and false otherwise.
 	 */
-	private static boolean isValidSchemaLocation(DOMDocument document) {
+	private static boolean isValidSchemaLocation(DOMDocument document, ContentModelManager contentModelManager,
+			List<Diagnostic> diagnostics) {
 		if (!document.hasSchemaLocation()) {
 			return false;
 		}
@@ -234,11 +295,12 @@ public class XMLValidator {
 			return false;
 		}
 		String location = hint.getHint();
-		return isValidLocation(document.getDocumentURI(), location);
+		return isValidLocation(document.getDocumentURI(), location, contentModelManager, diagnostics);
 	}
 
 	private static boolean isNoNamespaceSchemaValidationEnabled(DOMDocument document,
-			XMLValidationSettings validationSettings) {
+			XMLValidationSettings validationSettings, ContentModelManager contentModelManager,
+			List<Diagnostic> diagnostics) {
 		if (validationSettings == null) {
 			return true;
 		}
@@ -253,7 +315,7 @@ public class XMLValidator {
 			case never:
 				return false;
 			case onValidSchema:
-				return isValidNoNamespaceSchemaLocation(document);
+				return isValidNoNamespaceSchemaLocation(document, contentModelManager, diagnostics);
 			default:
 				return true;
 		}
@@ -270,29 +332,40 @@ public class XMLValidator {
 	 * <li>the URI can be opened</li>
 	 * </ul>
 	 *
-	 * @param document the DOM document.
+	 * @param document            the DOM document.
+	 * @param contentModelManager the content model manager.
+	 * @param diagnostics         the diagnostics.
 	 * @return true if the given DOM document declares a xsi:schemaLocation hint for
 	 *         the document root element is valid and false otherwise.
 	 */
-	private static boolean isValidNoNamespaceSchemaLocation(DOMDocument document) {
+	private static boolean isValidNoNamespaceSchemaLocation(DOMDocument document,
+			ContentModelManager contentModelManager, List<Diagnostic> diagnostics) {
 		NoNamespaceSchemaLocation noNamespaceSchemaLocation = document.getNoNamespaceSchemaLocation();
 		if (noNamespaceSchemaLocation == null) {
 			return false;
 		}
 		String location = noNamespaceSchemaLocation.getLocation();
-		return isValidLocation(document.getDocumentURI(), location);
+		return isValidLocation(document.getDocumentURI(), location, contentModelManager, diagnostics);
 	}
 
-	private static boolean isValidLocation(String documentURI, String location) {
+	private static boolean isValidLocation(String documentURI, String location,
+			ContentModelManager contentModelManager, List<Diagnostic> diagnostics) {
 		String resolvedLocation = getResolvedLocation(documentURI, location);
 		if (resolvedLocation == null) {
 			return false;
 		}
-		try (InputStream is = new URL(resolvedLocation).openStream()) {
+		// The availability of the location is cached to avoid opening the file (or
+		// connecting to the server) on each validation
+		if (contentModelManager.isResourceAvailable(resolvedLocation)) {
 			return true;
-		} catch (Exception e) {
-			return false;
 		}
+		// The availability of a remote location is checked in background, validate
+		// again the document once the check is done
+		CompletableFuture<Boolean> check = contentModelManager.getResourceAvailabilityCheck(resolvedLocation);
+		if (check != null && diagnostics instanceof DiagnosticsResult) {
+			((DiagnosticsResult) diagnostics).addFuture(check);
+		}
+		return false;
 	}
 
 	private static String getResolvedLocation(String documentURI, String location) {
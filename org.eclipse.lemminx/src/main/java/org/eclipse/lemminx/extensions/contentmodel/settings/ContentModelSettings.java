@@ -22,6 +22,8 @@ public class ContentModelSettings {
 
 	private Boolean useCache;
 
+	private Integer grammarPoolMaximumSize;
+
 	private XMLDownloadExternalResourcesSettings downloadExternalResources;
 
 	private String[] catalogs = null;
@@ -53,6 +55,27 @@ public class ContentModelSettings {
 		this.useCache = useCache;
 	}
 
+	/**
+	 * Returns the maximum number of grammars (XSD, DTD, RelaxNG) stored in the
+	 * grammar pool used by the validation and null if it is not set.
+	 *
+	 * @return the maximum number of grammars stored in the grammar pool and null if
+	 *         it is not set.
+	 */
+	public Integer getGrammarPoolMaximumSize() {
+		return grammarPoolMaximumSize;
+	}
+
+	/**
+	 * Set the maximum number of grammars (XSD, DTD, RelaxNG) stored in the grammar
+	 * pool used by the validation.
+	 *
+	 * @param grammarPoolMaximumSize the maximum number of grammars.
+	 */
+	public void setGrammarPoolMaximumSize(Integer grammarPoolMaximumSize) {
+		this.grammarPoolMaximumSize = grammarPoolMaximumSize;
+	}
+
 	/**
 	 * Register the list of the XML catalogs file path.
 	 *
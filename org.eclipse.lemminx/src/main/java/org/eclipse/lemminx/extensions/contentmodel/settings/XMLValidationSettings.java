@@ -41,6 +41,8 @@ public class XMLValidationSettings {
 	 */
 	private String noGrammar;
 
+	private boolean incremental;
+
 	private PublishDiagnosticsCapabilities publishDiagnostics;
 
 	public XMLValidationSettings() {
@@ -172,6 +174,30 @@ public class XMLValidationSettings {
 		this.xInclude = xInclude;
 	}
 
+	/**
+	 * Returns true if the XML Schema validation must only revalidate the element
+	 * which contains the changes of the document since the previous validation
+	 * and false otherwise.
+	 *
+	 * @return true if the XML Schema validation must only revalidate the element
+	 *         which contains the changes of the document since the previous
+	 *         validation and false otherwise.
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Set true if the XML Schema validation must only revalidate the element
+	 * which contains the changes of the document since the previous validation
+	 * and false otherwise.
+	 *
+	 * @param incremental true if the validation is incremental.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	/**
 	 * Returns the <code>noGrammar</code> severity according the given settings and
 	 * {@link DiagnosticSeverity#Hint} otherwise.
@@ -208,6 +234,7 @@ public class XMLValidationSettings {
 			this.disallowDocTypeDecl = settings.disallowDocTypeDecl;
 			this.resolveExternalEntities = settings.resolveExternalEntities;
 			this.xInclude = settings.xInclude;
+			this.incremental = settings.incremental;
 		}
 		return this;
 	}
@@ -227,6 +254,7 @@ public class XMLValidationSettings {
 		int result = 1;
 		result = prime * result + (disallowDocTypeDecl ? 1231 : 1237);
 		result = prime * result + ((enabled == null) ? 0 : enabled.hashCode());
+		result = prime * result + (incremental ? 1231 : 1237);
 		result = prime * result + ((namespaces == null) ? 0 : namespaces.hashCode());
 		result = prime * result + ((noGrammar == null) ? 0 : noGrammar.hashCode());
 		result = prime * result + (resolveExternalEntities ? 1231 : 1237);
@@ -274,6 +302,9 @@ public class XMLValidationSettings {
 		if (resolveExternalEntities != other.resolveExternalEntities) {
 			return false;
 		}
+		if (incremental != other.incremental) {
+			return false;
+		}
 		if (xInclude == null) {
 			if (other.xInclude != null) {
 				return false;
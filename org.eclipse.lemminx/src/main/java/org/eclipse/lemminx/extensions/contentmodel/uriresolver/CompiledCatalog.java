@@ -0,0 +1,646 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.uriresolver;
+
+import static org.eclipse.lemminx.utils.platform.Platform.isWindows;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.xerces.parsers.SAXParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * XML catalog file compiled in memory.
+ *
+ * <p>
+ * The exact entries (system, public, uri) are indexed in hash maps, the
+ * rewrite and delegate entries in prefix tries and the suffix entries in
+ * suffix tries, so the local resolution of an identifier doesn't depend on the
+ * number of entries of the catalog. The entries are normalized like the Apache
+ * xml-resolver catalog (URI normalization, public identifier normalization,
+ * absolute URIs computed with the base URI of the entry).
+ * </p>
+ *
+ * <p>
+ * A compiled catalog is immutable and resolves only its own entries: the next
+ * catalogs and the delegated catalogs are resolved by {@link XMLCatalogIndex}.
+ * </p>
+ *
+ */
+class CompiledCatalog {
+
+	private static final Logger LOGGER = Logger.getLogger(CompiledCatalog.class.getName());
+
+	private static final String OASIS_CATALOG_NAMESPACE = "urn:oasis:names:tc:entity:xmlns:xml:catalog";
+
+	private static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
+
+	private static final String LOAD_EXTERNAL_DTD_FEATURE = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+
+	private static class RewriteEntry {
+
+		private final int startStringLength;
+
+		private final String rewritePrefix;
+
+		RewriteEntry(int startStringLength, String rewritePrefix) {
+			this.startStringLength = startStringLength;
+			this.rewritePrefix = rewritePrefix;
+		}
+
+		String rewrite(String id) {
+			return rewritePrefix + id.substring(startStringLength);
+		}
+	}
+
+	/**
+	 * Trie of the entries indexed by a prefix (or by a suffix when the keys are
+	 * read from the end).
+	 *
+	 * @param <T> the entry type.
+	 */
+	private static class Trie<T> {
+
+		private static class Node<T> {
+
+			private char[] chars = new char[0];
+
+			@SuppressWarnings("unchecked")
+			private Node<T>[] children = new Node[0];
+
+			private T value;
+
+			Node<T> getChild(char c) {
+				for (int i = 0; i < chars.length; i++) {
+					if (chars[i] == c) {
+						return children[i];
+					}
+				}
+				return null;
+			}
+
+			Node<T> getOrCreateChild(char c) {
+				Node<T> child = getChild(c);
+				if (child == null) {
+					child = new Node<>();
+					chars = Arrays.copyOf(chars, chars.length + 1);
+					chars[chars.length - 1] = c;
+					children = Arrays.copyOf(children, children.length + 1);
+					children[children.length - 1] = child;
+				}
+				return child;
+			}
+		}
+
+		private final boolean suffix;
+
+		private final Node<T> root;
+
+		private boolean empty;
+
+		Trie(boolean suffix) {
+			this.suffix = suffix;
+			this.root = new Node<>();
+			this.empty = true;
+		}
+
+		/**
+		 * Add the given entry if there is no entry for the given key.
+		 */
+		void add(String key, T value) {
+			Node<T> node = root;
+			for (int i = 0; i < key.length(); i++) {
+				node = node.getOrCreateChild(charAt(key, i));
+			}
+			if (node.value == null) {
+				node.value = value;
+			}
+			empty = false;
+		}
+
+		/**
+		 * Returns the entry with the longest key which matches the given identifier
+		 * and null otherwise.
+		 */
+		T getLongestMatch(String id) {
+			if (empty) {
+				return null;
+			}
+			Node<T> node = root;
+			T match = node.value;
+			for (int i = 0; i < id.length(); i++) {
+				node = node.getChild(charAt(id, i));
+				if (node == null) {
+					break;
+				}
+				if (node.value != null) {
+					match = node.value;
+				}
+			}
+			return match;
+		}
+
+		/**
+		 * Returns the entries with a key which matches the given identifier, the
+		 * longest key first.
+		 */
+		List<T> getMatches(String id) {
+			if (empty) {
+				return Collections.emptyList();
+			}
+			List<T> matches = new ArrayList<>();
+			Node<T> node = root;
+			if (node.value != null) {
+				matches.add(node.value);
+			}
+			for (int i = 0; i < id.length(); i++) {
+				node = node.getChild(charAt(id, i));
+				if (node == null) {
+					break;
+				}
+				if (node.value != null) {
+					matches.add(node.value);
+				}
+			}
+			Collections.reverse(matches);
+			return matches;
+		}
+
+		private char charAt(String s, int index) {
+			return suffix ? s.charAt(s.length() - 1 - index) : s.charAt(index);
+		}
+	}
+
+	private final String catalogURL;
+
+	private final FilesChangedTracker tracker;
+
+	private final Map<String, String> systemEntries;
+	private final Trie<RewriteEntry> rewriteSystemEntries;
+	private final Trie<String> systemSuffixEntries;
+	private final Trie<String> delegateSystemEntries;
+
+	// the first public entry and the first public entry which prefers public for
+	// each public identifier
+	private final Map<String, String> publicEntries;
+	private final Map<String, String> preferPublicEntries;
+	private final Trie<String> delegatePublicEntries;
+	private boolean delegatePublicPreferPublic;
+
+	private final Map<String, String> uriEntries;
+	private final Trie<RewriteEntry> rewriteURIEntries;
+	private final Trie<String> uriSuffixEntries;
+	private final Trie<String> delegateURIEntries;
+
+	private final List<String> nextCatalogs;
+
+	private CompiledCatalog(String catalogURL) {
+		this.catalogURL = catalogURL;
+		this.tracker = createFilesChangedTracker(catalogURL);
+		this.systemEntries = new HashMap<>();
+		this.rewriteSystemEntries = new Trie<>(false);
+		this.systemSuffixEntries = new Trie<>(true);
+		this.delegateSystemEntries = new Trie<>(false);
+		this.publicEntries = new HashMap<>();
+		this.preferPublicEntries = new HashMap<>();
+		this.delegatePublicEntries = new Trie<>(false);
+		this.uriEntries = new HashMap<>();
+		this.rewriteURIEntries = new Trie<>(false);
+		this.uriSuffixEntries = new Trie<>(true);
+		this.delegateURIEntries = new Trie<>(false);
+		this.nextCatalogs = new ArrayList<>();
+	}
+
+	/**
+	 * Returns the compiled catalog of the given catalog URL.
+	 *
+	 * <p>
+	 * When the catalog cannot be loaded or parsed, the entries read before the
+	 * error are kept, like the Apache xml-resolver catalog.
+	 * </p>
+	 *
+	 * @param catalogURL the catalog URL.
+	 * @return the compiled catalog of the given catalog URL.
+	 */
+	static CompiledCatalog compile(String catalogURL) {
+		CompiledCatalog catalog = new CompiledCatalog(catalogURL);
+		try {
+			CatalogHandler handler = catalog.new CatalogHandler(new URL(catalogURL));
+			try {
+				SAXParser parser = new SAXParser();
+				parser.setFeature(LOAD_EXTERNAL_DTD_FEATURE, false);
+				parser.setContentHandler(handler);
+				parser.setErrorHandler(handler);
+				parser.parse(new InputSource(catalogURL));
+			} finally {
+				// Like the Apache xml-resolver catalog, the delegatePublic entries use the
+				// prefer of the end of the catalog.
+				catalog.delegatePublicPreferPublic = handler.preferPublic;
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Error while loading XML catalog '" + catalogURL + "'.", e);
+		}
+		return catalog;
+	}
+
+	private static FilesChangedTracker createFilesChangedTracker(String catalogURL) {
+		if (!catalogURL.startsWith("file:")) {
+			return null;
+		}
+		FilesChangedTracker tracker = new FilesChangedTracker();
+		try {
+			tracker.addFileURI(new URL(catalogURL).toURI());
+		} catch (Exception e) {
+			// The catalog file cannot be tracked, it will be reloaded with each refresh.
+			return null;
+		}
+		return tracker;
+	}
+
+	/**
+	 * SAX handler which compiles the entries of an OASIS XML catalog.
+	 */
+	private class CatalogHandler extends DefaultHandler {
+
+		private final Deque<URL> baseURLs;
+
+		// Like the OASIS reader of the Apache xml-resolver, the prefer of a group is
+		// not restored at the end of the group.
+		private boolean preferPublic;
+
+		CatalogHandler(URL catalogURL) {
+			this.baseURLs = new ArrayDeque<>();
+			this.baseURLs.push(catalogURL);
+			this.preferPublic = true;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			URL base = baseURLs.peek();
+			String xmlBase = attributes.getValue(XML_NAMESPACE, "base");
+			if (xmlBase != null) {
+				try {
+					base = new URL(base, fixSlashes(xmlBase));
+				} catch (MalformedURLException e) {
+					// Ignore the malformed base URI
+				}
+			}
+			baseURLs.push(base);
+			if (OASIS_CATALOG_NAMESPACE.equals(uri)) {
+				switch (localName) {
+				case "catalog":
+				case "group":
+					String prefer = attributes.getValue("prefer");
+					if ("public".equals(prefer)) {
+						preferPublic = true;
+					} else if ("system".equals(prefer)) {
+						preferPublic = false;
+					}
+					break;
+				case "public":
+					addPublic(attributes.getValue("publicId"), attributes.getValue("uri"), base, preferPublic);
+					break;
+				case "system":
+					addSystem(attributes.getValue("systemId"), attributes.getValue("uri"), base);
+					break;
+				case "rewriteSystem":
+					addRewrite(rewriteSystemEntries, attributes.getValue("systemIdStartString"),
+							attributes.getValue("rewritePrefix"), base);
+					break;
+				case "systemSuffix":
+					addEntry(systemSuffixEntries, attributes.getValue("systemIdSuffix"),
+							attributes.getValue("uri"), base);
+					break;
+				case "delegatePublic":
+					addDelegatePublic(attributes.getValue("publicIdStartString"), attributes.getValue("catalog"),
+							base);
+					break;
+				case "delegateSystem":
+					addEntry(delegateSystemEntries, attributes.getValue("systemIdStartString"),
+							attributes.getValue("catalog"), base);
+					break;
+				case "uri":
+					addURI(attributes.getValue("name"), attributes.getValue("uri"), base);
+					break;
+				case "rewriteURI":
+					addRewrite(rewriteURIEntries, attributes.getValue("uriStartString"),
+							attributes.getValue("rewritePrefix"), base);
+					break;
+				case "uriSuffix":
+					addEntry(uriSuffixEntries, attributes.getValue("uriSuffix"), attributes.getValue("uri"), base);
+					break;
+				case "delegateURI":
+					addEntry(delegateURIEntries, attributes.getValue("uriStartString"),
+							attributes.getValue("catalog"), base);
+					break;
+				case "nextCatalog":
+					String catalog = attributes.getValue("catalog");
+					if (catalog != null) {
+						nextCatalogs.add(makeAbsolute(base, normalizeURI(catalog)));
+					}
+					break;
+				}
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			baseURLs.pop();
+		}
+	}
+
+	private void addPublic(String publicId, String uri, URL base, boolean preferPublic) {
+		if (publicId == null || uri == null) {
+			return;
+		}
+		String key = normalizePublicId(publicId);
+		String resolved = makeAbsolute(base, normalizeURI(uri));
+		publicEntries.putIfAbsent(key, resolved);
+		if (preferPublic) {
+			preferPublicEntries.putIfAbsent(key, resolved);
+		}
+	}
+
+	private void addSystem(String systemId, String uri, URL base) {
+		if (systemId == null || uri == null) {
+			return;
+		}
+		systemEntries.putIfAbsent(getSystemKey(systemId), makeAbsolute(base, normalizeURI(uri)));
+	}
+
+	private void addURI(String name, String uri, URL base) {
+		if (name == null || uri == null) {
+			return;
+		}
+		uriEntries.putIfAbsent(name, makeAbsolute(base, normalizeURI(uri)));
+	}
+
+	private static void addRewrite(Trie<RewriteEntry> entries, String startString, String rewritePrefix, URL base) {
+		if (startString == null || rewritePrefix == null) {
+			return;
+		}
+		String key = normalizeURI(startString);
+		entries.add(key, new RewriteEntry(key.length(), makeAbsolute(base, normalizeURI(rewritePrefix))));
+	}
+
+	private static void addEntry(Trie<String> entries, String key, String uri, URL base) {
+		if (key == null || uri == null) {
+			return;
+		}
+		entries.add(normalizeURI(key), makeAbsolute(base, normalizeURI(uri)));
+	}
+
+	private void addDelegatePublic(String publicIdStartString, String catalog, URL base) {
+		if (publicIdStartString == null || catalog == null) {
+			return;
+		}
+		delegatePublicEntries.add(normalizePublicId(publicIdStartString), makeAbsolute(base, normalizeURI(catalog)));
+	}
+
+	/**
+	 * Returns the catalog URL.
+	 *
+	 * @return the catalog URL.
+	 */
+	String getCatalogURL() {
+		return catalogURL;
+	}
+
+	/**
+	 * Returns true if the catalog file has changed since the compilation and false
+	 * otherwise.
+	 *
+	 * @return true if the catalog file has changed since the compilation and false
+	 *         otherwise.
+	 */
+	boolean isDirty() {
+		return tracker == null || tracker.isDirty();
+	}
+
+	/**
+	 * Returns the URLs of the next catalogs.
+	 *
+	 * @return the URLs of the next catalogs.
+	 */
+	List<String> getNextCatalogs() {
+		return nextCatalogs;
+	}
+
+	/**
+	 * Returns the URLs of the next catalogs and of the delegated catalogs.
+	 *
+	 * @return the URLs of the next catalogs and of the delegated catalogs.
+	 */
+	Set<String> getReferencedCatalogs() {
+		Set<String> catalogs = new LinkedHashSet<>(nextCatalogs);
+		collectValues(delegateSystemEntries.root, catalogs);
+		collectValues(delegateURIEntries.root, catalogs);
+		collectValues(delegatePublicEntries.root, catalogs);
+		return catalogs;
+	}
+
+	private static <T> void collectValues(Trie.Node<T> node, Collection<T> values) {
+		if (node.value != null) {
+			values.add(node.value);
+		}
+		for (Trie.Node<T> child : node.children) {
+			collectValues(child, values);
+		}
+	}
+
+	/**
+	 * Resolves the given normalized system identifier with the entries of this
+	 * catalog (system, rewriteSystem, systemSuffix, delegateSystem).
+	 *
+	 * @param systemId the normalized system identifier.
+	 * @param index    the catalog index used to resolve the delegated catalogs.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolveLocalSystem(String systemId, XMLCatalogIndex index) {
+		String resolved = systemEntries.get(getSystemKey(systemId));
+		if (resolved != null) {
+			return resolved;
+		}
+		RewriteEntry rewrite = rewriteSystemEntries.getLongestMatch(systemId);
+		if (rewrite != null) {
+			return rewrite.rewrite(systemId);
+		}
+		resolved = systemSuffixEntries.getLongestMatch(systemId);
+		if (resolved != null) {
+			return resolved;
+		}
+		List<String> delegatedCatalogs = delegateSystemEntries.getMatches(systemId);
+		if (!delegatedCatalogs.isEmpty()) {
+			return index.resolveSystem(delegatedCatalogs, systemId);
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the given normalized public identifier with the entries of this
+	 * catalog (public, delegatePublic).
+	 *
+	 * @param publicId the normalized public identifier.
+	 * @param systemId the normalized system identifier and null otherwise.
+	 * @param index    the catalog index used to resolve the delegated catalogs.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolveLocalPublic(String publicId, String systemId, XMLCatalogIndex index) {
+		// a public entry is used for an external identifier with a system identifier
+		// only when it prefers public
+		String resolved = systemId == null ? publicEntries.get(publicId) : preferPublicEntries.get(publicId);
+		if (resolved != null) {
+			return resolved;
+		}
+		if (delegatePublicPreferPublic || systemId == null) {
+			List<String> delegatedCatalogs = delegatePublicEntries.getMatches(publicId);
+			if (!delegatedCatalogs.isEmpty()) {
+				return index.resolvePublic(delegatedCatalogs, publicId, null);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the given normalized URI with the entries of this catalog (uri,
+	 * rewriteURI, uriSuffix, delegateURI).
+	 *
+	 * @param uri   the normalized URI.
+	 * @param index the catalog index used to resolve the delegated catalogs.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolveLocalURI(String uri, XMLCatalogIndex index) {
+		String resolved = uriEntries.get(uri);
+		if (resolved != null) {
+			return resolved;
+		}
+		RewriteEntry rewrite = rewriteURIEntries.getLongestMatch(uri);
+		if (rewrite != null) {
+			return rewrite.rewrite(uri);
+		}
+		resolved = uriSuffixEntries.getLongestMatch(uri);
+		if (resolved != null) {
+			return resolved;
+		}
+		List<String> delegatedCatalogs = delegateURIEntries.getMatches(uri);
+		if (!delegatedCatalogs.isEmpty()) {
+			return index.resolveURI(delegatedCatalogs, uri);
+		}
+		return null;
+	}
+
+	private static String getSystemKey(String systemId) {
+		// system identifiers are compared ignoring the case on Windows
+		return isWindows ? systemId.toLowerCase(Locale.ROOT) : systemId;
+	}
+
+	/**
+	 * Returns the absolute URI of the given URI reference resolved with the given
+	 * base URL and the URI reference itself if it is malformed.
+	 */
+	static String makeAbsolute(URL base, String uri) {
+		try {
+			return new URL(base, fixSlashes(uri)).toString();
+		} catch (MalformedURLException e) {
+			return uri;
+		}
+	}
+
+	static String fixSlashes(String uri) {
+		return uri.replace('\\', '/');
+	}
+
+	/**
+	 * Returns the given URI with the disallowed characters percent-encoded (as
+	 * UTF-8 bytes).
+	 *
+	 * @param uri the URI.
+	 * @return the given URI with the disallowed characters percent-encoded.
+	 */
+	static String normalizeURI(String uri) {
+		if (uri == null) {
+			return null;
+		}
+		int length = uri.length();
+		int i = 0;
+		while (i < length && !isEncoded(uri.charAt(i))) {
+			i++;
+		}
+		if (i == length) {
+			return uri;
+		}
+		StringBuilder normalized = new StringBuilder(length + 16);
+		normalized.append(uri, 0, i);
+		byte[] bytes = uri.substring(i).getBytes(StandardCharsets.UTF_8);
+		for (byte b : bytes) {
+			int c = b & 0xFF;
+			if (isEncoded(c)) {
+				normalized.append('%');
+				if (c < 0x10) {
+					normalized.append('0');
+				}
+				normalized.append(Integer.toHexString(c).toUpperCase(Locale.ROOT));
+			} else {
+				normalized.append((char) c);
+			}
+		}
+		return normalized.toString();
+	}
+
+	private static boolean isEncoded(int c) {
+		return c <= 0x20 || c >= 0x7F || c == '"' || c == '<' || c == '>' || c == '\\' || c == '^' || c == '`'
+				|| c == '{' || c == '|' || c == '}';
+	}
+
+	/**
+	 * Returns the given public identifier with the whitespaces normalized.
+	 *
+	 * @param publicId the public identifier.
+	 * @return the given public identifier with the whitespaces normalized.
+	 */
+	static String normalizePublicId(String publicId) {
+		StringBuilder normalized = new StringBuilder(publicId.length());
+		boolean space = false;
+		for (int i = 0; i < publicId.length(); i++) {
+			char c = publicId.charAt(i);
+			if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+				space = normalized.length() > 0;
+			} else {
+				if (space) {
+					normalized.append(' ');
+					space = false;
+				}
+				normalized.append(c);
+			}
+		}
+		return normalized.toString();
+	}
+}
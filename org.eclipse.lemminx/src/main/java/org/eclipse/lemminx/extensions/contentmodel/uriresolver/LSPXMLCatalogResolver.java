@@ -12,6 +12,8 @@
 package org.eclipse.lemminx.extensions.contentmodel.uriresolver;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.xerces.dom.DOMInputImpl;
 import org.apache.xerces.impl.xs.XSDDescription;
@@ -26,13 +28,38 @@ import org.xml.sax.SAXException;
 /**
  * Extension of Xerces XML catalog resolver to support include of XSD.
  * 
+ * <p>
+ * The catalogs are resolved with the compiled catalogs of the given
+ * {@link XMLCatalogIndex} instead of the Apache xml-resolver catalog.
+ * </p>
+ * 
  * @author Angelo ZERR
  *
  */
 class LSPXMLCatalogResolver extends XMLCatalogResolver {
 
-	public LSPXMLCatalogResolver(String[] catalogs) {
+	private final XMLCatalogIndex catalogIndex;
+
+	private final List<String> catalogURLs;
+
+	public LSPXMLCatalogResolver(String[] catalogs, XMLCatalogIndex catalogIndex) {
 		super(catalogs);
+		this.catalogIndex = catalogIndex;
+		this.catalogURLs = new ArrayList<>(catalogs.length);
+		for (String catalog : catalogs) {
+			if (catalog != null && !catalog.isEmpty()) {
+				catalogURLs.add(XMLCatalogIndex.getCatalogURL(catalog));
+			}
+		}
+	}
+
+	/**
+	 * Returns the URLs of the catalogs.
+	 * 
+	 * @return the URLs of the catalogs.
+	 */
+	List<String> getCatalogURLs() {
+		return catalogURLs;
 	}
 
 	/**
@@ -56,59 +83,54 @@ class LSPXMLCatalogResolver extends XMLCatalogResolver {
 
 		String resolvedId = null;
 
-		try {
-			// The namespace is useful for resolving namespace aware
-			// grammars such as XML schema. Let it take precedence over
-			// the external identifier if one exists.
-			if (namespaceURI != null) {
-				resolvedId = resolveURI(namespaceURI);
-				if (resolvedId != null) {
-					return resolvedId;
-				}
+		// The namespace is useful for resolving namespace aware
+		// grammars such as XML schema. Let it take precedence over
+		// the external identifier if one exists.
+		if (namespaceURI != null) {
+			resolvedId = catalogIndex.resolveURI(catalogURLs, namespaceURI);
+			if (resolvedId != null) {
+				return resolvedId;
 			}
+		}
 
-			if (!getUseLiteralSystemId() && baseURI != null) {
-				// Attempt to resolve the system identifier against the base URI.
-				try {
-					URI uri = new URI(new URI(baseURI), systemId);
-					systemId = uri.toString();
-				}
-				// Ignore the exception. Fallback to the literal system identifier.
-				catch (URI.MalformedURIException ex) {
-				}
+		if (!getUseLiteralSystemId() && baseURI != null) {
+			// Attempt to resolve the system identifier against the base URI.
+			try {
+				URI uri = new URI(new URI(baseURI), systemId);
+				systemId = uri.toString();
 			}
-
-			// Resolve against an external identifier if one exists. This
-			// is useful for resolving DTD external subsets and other
-			// external entities. For XML schemas if there was no namespace
-			// mapping we might be able to resolve a system identifier
-			// specified as a location hint.
-			if (resolvedId == null) {
-				if (publicId != null && systemId != null) {
-					resolvedId = resolvePublic(publicId, systemId);
-				} else if (systemId != null) {
-					resolvedId = resolveSystem(systemId);
-				} else if (publicId != null) {
-					return resolvePublic(publicId, null);
-				}
-				if (resolvedId == null && systemId != null) {
-					// ex systemId = http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd
-					//
-					// XML
-					// <web-app xmlns="http://java.sun.com/xml/ns/j2ee"
-					// xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
-					// xsi:schemaLocation="http://java.sun.com/xml/ns/j2ee
-					// http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd"
-
-					// XML catalog
-					// <uri name="http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd"
-					// uri="file:///...web-app_2_4.xsd"/>
-					resolvedId = resolveURI(systemId);
-				}
+			// Ignore the exception. Fallback to the literal system identifier.
+			catch (URI.MalformedURIException ex) {
 			}
 		}
-		// Ignore IOException. It cannot be thrown from this method.
-		catch (IOException ex) {
+
+		// Resolve against an external identifier if one exists. This
+		// is useful for resolving DTD external subsets and other
+		// external entities. For XML schemas if there was no namespace
+		// mapping we might be able to resolve a system identifier
+		// specified as a location hint.
+		if (resolvedId == null) {
+			if (publicId != null && systemId != null) {
+				resolvedId = catalogIndex.resolvePublic(catalogURLs, publicId, systemId);
+			} else if (systemId != null) {
+				resolvedId = catalogIndex.resolveSystem(catalogURLs, systemId);
+			} else if (publicId != null) {
+				return catalogIndex.resolvePublic(catalogURLs, publicId, null);
+			}
+			if (resolvedId == null && systemId != null) {
+				// ex systemId = http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd
+				//
+				// XML
+				// <web-app xmlns="http://java.sun.com/xml/ns/j2ee"
+				// xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+				// xsi:schemaLocation="http://java.sun.com/xml/ns/j2ee
+				// http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd"
+
+				// XML catalog
+				// <uri name="http://java.sun.com/xml/ns/j2ee/web-app_2_4.xsd"
+				// uri="file:///...web-app_2_4.xsd"/>
+				resolvedId = catalogIndex.resolveURI(catalogURLs, systemId);
+			}
 		}
 		return resolvedId;
 	}
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.xerces.xni.XMLResourceIdentifier;
 import org.apache.xerces.xni.XNIException;
@@ -63,6 +64,11 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 		this.cacheResourcesManager = new CacheResourcesManager();
 	}
 
+	@Override
+	public boolean isResolveCacheable() {
+		return true;
+	}
+
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
 		// Don't resolve the URI
@@ -115,6 +121,34 @@ public class XMLCacheResolverExtension implements URIResolverExtension {
 		return cacheResourcesManager.canUseCache(url);
 	}
 
+	/**
+	 * Returns true if the given resource URI can be opened and false otherwise.
+	 * 
+	 * @param resourceURI the resource URI.
+	 * 
+	 * @return true if the given resource URI can be opened and false otherwise.
+	 * 
+	 * @see CacheResourcesManager#isResourceAvailable(String)
+	 */
+	public boolean isResourceAvailable(String resourceURI) {
+		return cacheResourcesManager.isResourceAvailable(resourceURI);
+	}
+
+	/**
+	 * Returns the background check of the availability of the given resource URI
+	 * which is running and null otherwise.
+	 * 
+	 * @param resourceURI the resource URI.
+	 * 
+	 * @return the background check of the availability of the given resource URI
+	 *         which is running and null otherwise.
+	 * 
+	 * @see CacheResourcesManager#getResourceAvailabilityCheck(String)
+	 */
+	public CompletableFuture<Boolean> getResourceAvailabilityCheck(String resourceURI) {
+		return cacheResourcesManager.getResourceAvailabilityCheck(resourceURI);
+	}
+
 	/**
 	 * Set <code>true</code> if cache must be used, <code>false</code> otherwise.
 	 * 
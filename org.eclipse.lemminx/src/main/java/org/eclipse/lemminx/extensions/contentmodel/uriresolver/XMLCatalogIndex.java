@@ -0,0 +1,239 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.uriresolver;
+
+import static org.eclipse.lemminx.extensions.contentmodel.uriresolver.CompiledCatalog.fixSlashes;
+import static org.eclipse.lemminx.extensions.contentmodel.uriresolver.CompiledCatalog.normalizePublicId;
+import static org.eclipse.lemminx.extensions.contentmodel.uriresolver.CompiledCatalog.normalizeURI;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index of the XML catalogs compiled in memory.
+ *
+ * <p>
+ * Each catalog file (the catalogs of the settings, the next catalogs and the
+ * delegated catalogs) is compiled once into a {@link CompiledCatalog} which is
+ * shared by the catalog resolvers. {@link #refresh(Collection)} reloads only
+ * the catalog files which have changed.
+ * </p>
+ *
+ * <p>
+ * The resolution follows the Apache xml-resolver catalog used by Xerces: the
+ * entries of a catalog are tried before its next catalogs, and the catalogs
+ * of a list are tried in the order of the list. When delegate entries match an
+ * identifier, the identifier is resolved with the delegated catalogs (longest
+ * start string first) instead of the next catalogs of the catalog.
+ * </p>
+ *
+ */
+class XMLCatalogIndex {
+
+	private static final String URN_PUBLICID = "urn:publicid:";
+
+	private final Map<String, CompiledCatalog> catalogs;
+
+	public XMLCatalogIndex() {
+		this.catalogs = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the catalog URL of the given catalog file path or URI.
+	 *
+	 * @param catalogFile the catalog file path or URI.
+	 * @return the catalog URL of the given catalog file path or URI.
+	 */
+	static String getCatalogURL(String catalogFile) {
+		try {
+			URL cwd = new URL("file:" + fixSlashes(new File("").getAbsolutePath()) + "/");
+			return new URL(cwd, fixSlashes(catalogFile)).toString();
+		} catch (MalformedURLException e) {
+			return catalogFile;
+		}
+	}
+
+	/**
+	 * Returns the compiled catalog of the given catalog URL.
+	 *
+	 * @param catalogURL the catalog URL.
+	 * @return the compiled catalog of the given catalog URL.
+	 */
+	CompiledCatalog getCatalog(String catalogURL) {
+		return catalogs.computeIfAbsent(catalogURL, CompiledCatalog::compile);
+	}
+
+	/**
+	 * Removes the compiled catalogs which have changed or which are not
+	 * referenced by the given catalogs, so they will be compiled again when they
+	 * are used.
+	 *
+	 * @param catalogURLs the URLs of the catalogs which are used.
+	 */
+	void refresh(Collection<String> catalogURLs) {
+		Iterator<CompiledCatalog> compiledCatalogs = catalogs.values().iterator();
+		while (compiledCatalogs.hasNext()) {
+			if (compiledCatalogs.next().isDirty()) {
+				compiledCatalogs.remove();
+			}
+		}
+		// Remove the compiled catalogs which are not used anymore
+		Set<String> referencedURLs = new HashSet<>();
+		Deque<String> toVisit = new ArrayDeque<>(catalogURLs);
+		while (!toVisit.isEmpty()) {
+			String catalogURL = toVisit.pop();
+			if (referencedURLs.add(catalogURL)) {
+				CompiledCatalog catalog = catalogs.get(catalogURL);
+				if (catalog != null) {
+					toVisit.addAll(catalog.getReferencedCatalogs());
+				}
+			}
+		}
+		catalogs.keySet().retainAll(referencedURLs);
+	}
+
+	/**
+	 * Resolves the given system identifier with the given catalogs.
+	 *
+	 * @param catalogURLs the catalog URLs.
+	 * @param systemId    the system identifier.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolveSystem(List<String> catalogURLs, String systemId) {
+		String normalizedSystemId = normalizeURI(systemId);
+		if (normalizedSystemId != null && normalizedSystemId.startsWith(URN_PUBLICID)) {
+			return resolvePublic(catalogURLs, decodeURN(normalizedSystemId), null);
+		}
+		if (normalizedSystemId == null) {
+			return null;
+		}
+		return resolve(catalogURLs, catalog -> catalog.resolveLocalSystem(normalizedSystemId, this));
+	}
+
+	/**
+	 * Resolves the given public identifier with the given catalogs.
+	 *
+	 * @param catalogURLs the catalog URLs.
+	 * @param publicId    the public identifier.
+	 * @param systemId    the system identifier and null otherwise.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolvePublic(List<String> catalogURLs, String publicId, String systemId) {
+		systemId = normalizeURI(systemId);
+		if (publicId != null && publicId.startsWith(URN_PUBLICID)) {
+			publicId = decodeURN(publicId);
+		}
+		if (systemId != null && systemId.startsWith(URN_PUBLICID)) {
+			systemId = decodeURN(systemId);
+			if (publicId == null || publicId.equals(systemId)) {
+				publicId = systemId;
+			}
+			systemId = null;
+		}
+		if (publicId == null) {
+			return systemId != null ? resolveSystem(catalogURLs, systemId) : null;
+		}
+		String normalizedPublicId = normalizePublicId(publicId);
+		String normalizedSystemId = systemId;
+		return resolve(catalogURLs, catalog -> {
+			if (normalizedSystemId != null) {
+				String resolved = catalog.resolveLocalSystem(normalizedSystemId, this);
+				if (resolved != null) {
+					return resolved;
+				}
+			}
+			return catalog.resolveLocalPublic(normalizedPublicId, normalizedSystemId, this);
+		});
+	}
+
+	/**
+	 * Resolves the given URI with the given catalogs.
+	 *
+	 * @param catalogURLs the catalog URLs.
+	 * @param uri         the URI.
+	 * @return the resolved URI and null otherwise.
+	 */
+	String resolveURI(List<String> catalogURLs, String uri) {
+		String normalizedURI = normalizeURI(uri);
+		if (normalizedURI != null && normalizedURI.startsWith(URN_PUBLICID)) {
+			return resolvePublic(catalogURLs, decodeURN(normalizedURI), null);
+		}
+		if (normalizedURI == null) {
+			return null;
+		}
+		return resolve(catalogURLs, catalog -> catalog.resolveLocalURI(normalizedURI, this));
+	}
+
+	/**
+	 * Returns the first URI resolved by the given catalogs and their next
+	 * catalogs (depth-first) and null otherwise.
+	 */
+	private String resolve(List<String> catalogURLs, Function<CompiledCatalog, String> resolver) {
+		Set<String> visitedURLs = new HashSet<>();
+		for (String catalogURL : catalogURLs) {
+			String resolved = resolve(catalogURL, resolver, visitedURLs);
+			if (resolved != null) {
+				return resolved;
+			}
+		}
+		return null;
+	}
+
+	private String resolve(String catalogURL, Function<CompiledCatalog, String> resolver, Set<String> visitedURLs) {
+		if (!visitedURLs.add(catalogURL)) {
+			// the catalog has already been tried (or next catalogs cycle)
+			return null;
+		}
+		CompiledCatalog catalog = getCatalog(catalogURL);
+		String resolved = resolver.apply(catalog);
+		if (resolved != null) {
+			return resolved;
+		}
+		for (String nextCatalog : catalog.getNextCatalogs()) {
+			resolved = resolve(nextCatalog, resolver, visitedURLs);
+			if (resolved != null) {
+				return resolved;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the public identifier of the given publicid URN (RFC 3151).
+	 */
+	private static String decodeURN(String urn) {
+		String publicId = urn.substring(URN_PUBLICID.length());
+		publicId = publicId.replace("%2F", "/");
+		publicId = publicId.replace(":", "//");
+		publicId = publicId.replace("%3A", ":");
+		publicId = publicId.replace(";", "::");
+		publicId = publicId.replace("+", " ");
+		publicId = publicId.replace("%2B", "+");
+		publicId = publicId.replace("%23", "#");
+		publicId = publicId.replace("%3F", "?");
+		publicId = publicId.replace("%27", "'");
+		publicId = publicId.replace("%3B", ";");
+		publicId = publicId.replace("%25", "%");
+		return publicId;
+	}
+}
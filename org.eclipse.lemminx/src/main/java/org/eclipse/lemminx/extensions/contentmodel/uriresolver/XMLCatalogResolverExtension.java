@@ -15,6 +15,7 @@ package org.eclipse.lemminx.extensions.contentmodel.uriresolver;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
@@ -35,6 +36,8 @@ public class XMLCatalogResolverExtension implements URIResolverExtension {
 
 	private static final Logger LOGGER = Logger.getLogger(XMLCatalogResolverExtension.class.getName());
 
+	private final XMLCatalogIndex catalogIndex = new XMLCatalogIndex();
+
 	private LSPXMLCatalogResolver catalogResolver;
 	private String rootUri;
 
@@ -43,6 +46,11 @@ public class XMLCatalogResolverExtension implements URIResolverExtension {
 		return "catalog";
 	}
 
+	@Override
+	public boolean isResolveCacheable() {
+		return true;
+	}
+
 	@Override
 	public String resolve(String baseURI, String publicId, String systemId) {
 		if (catalogResolver != null) {
@@ -97,7 +105,7 @@ public class XMLCatalogResolverExtension implements URIResolverExtension {
 			}
 			if (xmlCatalogFiles.size() > 0) {
 				LSPXMLCatalogResolver catalogResolver = new LSPXMLCatalogResolver(
-						xmlCatalogFiles.toArray(new String[0]));
+						xmlCatalogFiles.toArray(new String[0]), catalogIndex);
 				setCatalogResolver(catalogResolver);
 			} else {
 				setCatalogResolver(null);
@@ -119,10 +127,17 @@ public class XMLCatalogResolverExtension implements URIResolverExtension {
 
 	private void setCatalogResolver(LSPXMLCatalogResolver catalogResolver) {
 		this.catalogResolver = catalogResolver;
+		// Reload only the catalog files which have changed
+		catalogIndex.refresh(
+				catalogResolver != null ? catalogResolver.getCatalogURLs() : Collections.emptyList());
 	}
 
 	/**
 	 * Refresh the XML catalogs.
+	 * 
+	 * <p>
+	 * Only the catalog files which have changed are reloaded.
+	 * </p>
 	 */
 	public void refreshCatalogs() {
 		if (catalogResolver != null) {
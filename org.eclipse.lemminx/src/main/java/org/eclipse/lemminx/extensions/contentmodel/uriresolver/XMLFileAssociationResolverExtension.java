@@ -53,6 +53,11 @@ public class XMLFileAssociationResolverExtension implements URIResolverExtension
 		return !Arrays.equals(oldFileAssociations, fileAssociations);
 	}
 
+	@Override
+	public boolean isResolveCacheable() {
+		return true;
+	}
+
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
 		if (systemId != null) {
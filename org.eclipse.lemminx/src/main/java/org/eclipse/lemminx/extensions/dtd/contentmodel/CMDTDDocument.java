@@ -230,7 +230,7 @@ public class CMDTDDocument extends LSPXML11DTDProcessor implements CMDocument {
 	private final String uri;
 
 	private Map<String, DTDElementInfo> hierarchiesMap;
-	private List<CMElementDeclaration> elements;
+	private volatile List<CMElementDeclaration> elements;
 	private DTDGrammar grammar;
 	private Set<String> hierarchies;
 	private FilesChangedTracker tracker;
@@ -255,7 +255,10 @@ public class CMDTDDocument extends LSPXML11DTDProcessor implements CMDocument {
 
 	@Override
 	public Collection<CMElementDeclaration> getElements() {
+		List<CMElementDeclaration> elements = this.elements;
 		if (elements == null) {
+			// the elements list is published once it is filled, to be used by concurrent
+			// requests (completion, hover, validation...)
 			elements = new ArrayList<>();
 			// Xerces returns 0 even if there are no element declarations
 			int index = grammar.getFirstElementDeclIndex();
@@ -267,11 +270,16 @@ public class CMDTDDocument extends LSPXML11DTDProcessor implements CMDocument {
 				}
 				index = grammar.getNextElementDeclIndex(index);
 			}
-
+			this.elements = elements;
 		}
 		return elements;
 	}
 
+	@Override
+	public int getWeight() {
+		return 1 + getElements().size() + entities.size();
+	}
+
 	/**
 	 * Returns the URI of this document, is none was provided this returns null.
 	 */
@@ -462,6 +470,11 @@ public class CMDTDDocument extends LSPXML11DTDProcessor implements CMDocument {
 		return tracker != null ? tracker.isDirty() : false;
 	}
 
+	@Override
+	public FilesChangedTracker getFilesChangedTracker() {
+		return tracker;
+	}
+
 	@Override
 	public List<Entity> getEntities() {
 		return entities;
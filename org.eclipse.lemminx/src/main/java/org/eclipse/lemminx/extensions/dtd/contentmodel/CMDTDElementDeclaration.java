@@ -36,8 +36,8 @@ public class CMDTDElementDeclaration extends XMLElementDecl implements CMElement
 
 	private final int index;
 	private final CMDTDDocument document;
-	private List<CMElementDeclaration> elements;
-	private List<CMAttributeDeclaration> attributes;
+	private volatile List<CMElementDeclaration> elements;
+	private volatile List<CMAttributeDeclaration> attributes;
 	private String documentation;
 
 	public CMDTDElementDeclaration(CMDTDDocument document, int index) {
@@ -62,18 +62,22 @@ public class CMDTDElementDeclaration extends XMLElementDecl implements CMElement
 
 	@Override
 	public Collection<CMAttributeDeclaration> getAttributes() {
+		List<CMAttributeDeclaration> attributes = this.attributes;
 		if (attributes == null) {
 			attributes = new ArrayList<>();
 			document.collectAttributesDeclaration(this, attributes);
+			this.attributes = attributes;
 		}
 		return attributes;
 	}
 
 	@Override
 	public Collection<CMElementDeclaration> getElements() {
+		List<CMElementDeclaration> elements = this.elements;
 		if (elements == null) {
 			elements = new ArrayList<>();
 			document.collectElementsDeclaration(getLocalName(), elements);
+			this.elements = elements;
 		}
 		return elements;
 	}
@@ -124,10 +128,10 @@ public class CMDTDElementDeclaration extends XMLElementDecl implements CMElement
 			Map<String, DTDNodeInfo> attributesMap = dtdElementInfo.getAttributes();
 			DTDNodeInfo nodeInfo = attributesMap.get(attrName);
 			if (nodeInfo != null) {
-				documentation = nodeInfo.getComment();
+				return nodeInfo.getComment();
 			}
 		}
-		return documentation;
+		return null;
 	}
 
 	@Override
@@ -67,22 +67,19 @@ public class XMLReferencesCodeLensParticipant implements ICodeLensParticipant {
 				DOMElement toElement = toNode.isAttribute() ? ((DOMAttr) toNode).getOwnerElement()
 						: toNode.getParentElement();
 				if (toElement != null) {
-					for (SearchNode from : link.getFroms()) {
-						if (from.matchesValue(to)) {
-
-							CodeLens codeLens = cache.get(toElement);
-							if (codeLens == null) {
-								Range range = XMLPositionUtility.createRange(toNode);
-								codeLens = new CodeLens(range);
-								codeLens.setCommand(
-										new ReferenceCommand(document.getDocumentURI(), range.getStart(),
-												supportedByClient));
-								cache.put(toElement, codeLens);
-								lenses.add(codeLens);
-							} else {
-								((ReferenceCommand) codeLens.getCommand()).increment();
-							}
-
+					int nbReferences = link.getFromCount(to);
+					for (int i = 0; i < nbReferences; i++) {
+						CodeLens codeLens = cache.get(toElement);
+						if (codeLens == null) {
+							Range range = XMLPositionUtility.createRange(toNode);
+							codeLens = new CodeLens(range);
+							codeLens.setCommand(
+									new ReferenceCommand(document.getDocumentURI(), range.getStart(),
+											supportedByClient));
+							cache.put(toElement, codeLens);
+							lenses.add(codeLens);
+						} else {
+							((ReferenceCommand) codeLens.getCommand()).increment();
 						}
 					}
 				}
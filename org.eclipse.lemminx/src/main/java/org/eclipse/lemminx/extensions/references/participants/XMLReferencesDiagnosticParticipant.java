@@ -73,13 +73,7 @@ public class XMLReferencesDiagnosticParticipant implements IDiagnosticsParticipa
 						diagnostics.add(diagnostic);
 					}
 				} else {
-					boolean validReference = false;
-					for (SearchNode to : link.getTos()) {
-						if (from.matchesValue(to)) {
-							validReference = true;
-							break;
-						}
-					}
+					boolean validReference = link.getToCount(from) > 0;
 					if (!validReference) {
 						// Undefined reference error
 						Range range = XMLPositionUtility.createRange(from);
@@ -12,7 +12,9 @@
 package org.eclipse.lemminx.extensions.references.search;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.lemminx.extensions.references.settings.XMLReferenceExpression;
 
@@ -29,6 +31,10 @@ public class ReferenceLink {
 	private final List<SearchNode> froms;
 	private final List<SearchNode> tos;
 
+	// number of 'from' / 'to' search nodes by matching value, computed lazily
+	private Map<String, Integer> fromCounts;
+	private Map<String, Integer> toCounts;
+
 	public ReferenceLink(XMLReferenceExpression expression) {
 		this.froms = new ArrayList<>();
 		this.tos = new ArrayList<>();
@@ -37,10 +43,63 @@ public class ReferenceLink {
 
 	public void addTo(SearchNode to) {
 		tos.add(to);
+		toCounts = null;
 	}
 
 	public void addFrom(SearchNode from) {
 		froms.add(from);
+		fromCounts = null;
+	}
+
+	/**
+	 * Returns the number of 'from' search nodes which match the given 'to' search
+	 * node.
+	 * 
+	 * @param to the 'to' search node.
+	 * 
+	 * @return the number of 'from' search nodes which match the given 'to' search
+	 *         node.
+	 */
+	public int getFromCount(SearchNode to) {
+		if (fromCounts == null) {
+			fromCounts = countByValue(froms);
+		}
+		return getCount(fromCounts, to);
+	}
+
+	/**
+	 * Returns the number of 'to' search nodes which match the given 'from' search
+	 * node.
+	 * 
+	 * @param from the 'from' search node.
+	 * 
+	 * @return the number of 'to' search nodes which match the given 'from' search
+	 *         node.
+	 */
+	public int getToCount(SearchNode from) {
+		if (toCounts == null) {
+			toCounts = countByValue(tos);
+		}
+		return getCount(toCounts, from);
+	}
+
+	private static Map<String, Integer> countByValue(List<SearchNode> searchNodes) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (SearchNode searchNode : searchNodes) {
+			String value = searchNode.getMatchValue();
+			if (value != null) {
+				counts.merge(value, 1, Integer::sum);
+			}
+		}
+		return counts;
+	}
+
+	private static int getCount(Map<String, Integer> counts, SearchNode searchNode) {
+		String value = searchNode.getMatchValue();
+		if (value == null) {
+			return 0;
+		}
+		return counts.getOrDefault(value, 0);
 	}
 
 	public List<SearchNode> getFroms() {
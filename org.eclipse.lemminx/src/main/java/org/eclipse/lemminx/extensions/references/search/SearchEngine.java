@@ -11,36 +11,34 @@
 *******************************************************************************/
 package org.eclipse.lemminx.extensions.references.search;
 
-import static org.eclipse.lemminx.extensions.references.search.SearchQueryFactory.getInversedDirection;
-
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import org.eclipse.lemminx.dom.DOMAttr;
 import org.eclipse.lemminx.dom.DOMDocument;
-import org.eclipse.lemminx.dom.DOMElement;
-import org.eclipse.lemminx.dom.DOMNode;
-import org.eclipse.lemminx.dom.DOMText;
+import org.eclipse.lemminx.extensions.references.search.SearchIndex.IndexedNode;
 import org.eclipse.lemminx.extensions.references.search.SearchNode.Direction;
 import org.eclipse.lemminx.extensions.references.search.SearchQuery.QueryDirection;
 import org.eclipse.lemminx.extensions.references.settings.XMLReferenceExpression;
 import org.eclipse.lemminx.extensions.references.settings.XMLReferencesSettings;
-import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
-import org.eclipse.lemminx.utils.DOMUtils;
-import org.eclipse.lemminx.utils.URIUtils;
+import org.eclipse.lemminx.utils.IncludedDocumentsSearch;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * XML references search engine to collect attribute , text which matches XML
  * references expression {@link XMLReferenceExpression}.
  * 
+ * <p>
+ * The search is done with the {@link SearchIndex} of the DOM document which is
+ * cached while the DOM document is not updated.
+ * </p>
+ * 
  * @author Angelo ZERR
  *
  */
@@ -52,9 +50,33 @@ public class SearchEngine {
 		return INSTANCE;
 	}
 
-	private static final String INCLUDE_TAG = "include";
+	private static final int MAX_INDEXES = 100;
+
+	/**
+	 * Index of the DOM documents by document URI. The index is rebuilt when the
+	 * DOM document is updated and the indexes are released when the memory is
+	 * low.
+	 */
+	/**
+	 * Attribute, text nodes collected in an included file.
+	 */
+	private static class CollectedReference {
+
+		private final SearchNode from;
+		private final SearchNode to;
+		private final XMLReferenceExpression expression;
 
-	private static final String HREF_ATTR = "href";
+		CollectedReference(SearchNode from, SearchNode to, XMLReferenceExpression expression) {
+			this.from = from;
+			this.to = to;
+			this.expression = expression;
+		}
+	}
+
+	private final Cache<String, SearchIndex> indexes = CacheBuilder.newBuilder() //
+			.maximumSize(MAX_INDEXES) //
+			.softValues() //
+			.build();
 
 	/**
 	 * Perform the XML references search by using the given search query.
@@ -66,8 +88,7 @@ public class SearchEngine {
 	 */
 	public final void search(SearchQuery query, IXMLReferenceCollector collector, CancelChecker cancelChecker) {
 		DOMDocument document = query.getNode().getOwnerDocument();
-		Set<String> visitedURIs = query.isSearchInIncludedFiles() ? new HashSet<>() : null;
-		searchInDocument(document, query, collector, visitedURIs, cancelChecker);
+		searchInDocument(document, query, collector, cancelChecker);
 	}
 
 	public Collection<ReferenceLink> searchLinks(DOMDocument document, XMLReferencesSettings settings,
@@ -99,162 +120,98 @@ public class SearchEngine {
 	}
 
 	/**
-	 * Perform the search in the given DOM document.
+	 * Perform the search in the given DOM document and in the included files
+	 * (xi:include) if the query requires it.
+	 * 
+	 * <p>
+	 * The included files are searched in parallel with
+	 * {@link IncludedDocumentsSearch}.
+	 * </p>
 	 * 
 	 * @param document      the DOM document.
 	 * @param query         the search query.
 	 * @param collector     the collector used to collect attribute, text nodes.
-	 * @param visitedURIs   visited URis used to avoid document loading recursion
-	 *                      when document contains some xi:include.
 	 * @param cancelChecker the cancel checker.
 	 */
 	private void searchInDocument(DOMDocument document, SearchQuery query, IXMLReferenceCollector collector,
-			Set<String> visitedURIs, CancelChecker cancelChecker) {
-
-		// Perform the search by using the DOM document
-		Set<String> externalURIsForDocument = query.isSearchInIncludedFiles() ? new HashSet<>() : null;
-		searchInNode(document, query, collector, externalURIsForDocument, cancelChecker);
-
-		if (externalURIsForDocument != null && !externalURIsForDocument.isEmpty()) {
-			// The search for the document has collected some external document, URIs,
-			// perform the search for each of them.
-			URIResolverExtensionManager resolverExtensionManager = document.getResolverExtensionManager();
-			for (String externalURI : externalURIsForDocument) {
-				String baseURI = document.getDocumentURI();
-				String resourceURI = resolverExtensionManager.resolve(baseURI, null, externalURI);
-				if (URIUtils.isFileResource(resourceURI) && canPerformSearch(resourceURI, visitedURIs)) {
-					// The search was never done for the exterlam document, perform the search by
-					// using this external document.
-					if (visitedURIs != null) {
-						visitedURIs.add(baseURI);
-					}
-					DOMDocument externalDocument = DOMUtils.loadDocument(resourceURI,
-							document.getResolverExtensionManager());
-					if (externalDocument != null) {
-						searchInDocument(externalDocument, query, collector, visitedURIs, cancelChecker);
-					}
-				}
-			}
-		}
-	}
-
-	/**
-	 * Returns true if the search can be performed for the given document URI and
-	 * false otherwise.
-	 * 
-	 * @param documentURI the document URI.
-	 * @param visitedURIs the visited URIs.
-	 * 
-	 * @return true if the search can be performed for the given document URI and
-	 *         false otherwise.
-	 */
-	private boolean canPerformSearch(String documentURI, Set<String> visitedURIs) {
-		return visitedURIs == null || !visitedURIs.contains(documentURI);
-	}
-
-	/**
-	 * Perform the search in the given DOM node.
-	 * 
-	 * @param node          the DOM node.
-	 * @param query         the search query.
-	 * @param collector     the collector used to collect attribute, text nodes.
-	 * @param externalURIs  the collected external URIs (xi:include/@href)
-	 * @param cancelChecker the cancel checker.
-	 */
-	private void searchInNode(DOMNode node, SearchQuery query, IXMLReferenceCollector collector,
-			Set<String> externalURIs, CancelChecker cancelChecker) {
-		// Stop the search if required
-		if (cancelChecker != null) {
-			cancelChecker.checkCanceled();
-		}
-
-		if (node.isElement()) {
-			// Search in the attributes of the element
-			DOMElement element = (DOMElement) node;
-			searchInAttributes(element, query, collector, cancelChecker);
-			if (externalURIs != null) {
-				if (isInclude(element)) {
-					// collect xi:include
-					String includedFile = element.getAttribute(HREF_ATTR);
-					if (includedFile != null) {
-						externalURIs.add(includedFile);
+			CancelChecker cancelChecker) {
+		IncludedDocumentsSearch.<CollectedReference>search(document, query.isSearchInIncludedFiles(),
+				(doc, results, externalLocations, cc) -> {
+					// Perform the search by using the index of the DOM document
+					SearchIndex index = getIndex(doc, query.getExpressions(), cc);
+					searchInIndex(index, query,
+							(from, to, expression) -> results.accept(new CollectedReference(from, to, expression)),
+							cc);
+					if (externalLocations != null) {
+						// collect xi:include
+						externalLocations.addAll(index.getExternalURIs());
 					}
-				}
-			}
-
-		} else if (node.isText()) {
-			// Search in the text
-			searchInText((DOMText) node, query, collector, cancelChecker);
-		}
-		if (node.hasChildNodes()) {
-			// Search in the children
-			for (DOMNode child : node.getChildren()) {
-				searchInNode(child, query, collector, externalURIs, cancelChecker);
-			}
-		}
+				}, reference -> collector.collect(reference.from, reference.to, reference.expression), cancelChecker);
 	}
 
 	/**
-	 * Perform the search in the given DOM text node.
+	 * Perform the search in the index of the given DOM document.
 	 * 
-	 * @param text          the DOM text node.
+	 * @param index         the index of the DOM document.
 	 * @param query         the search query.
 	 * @param collector     the collector used to collect attribute, text nodes.
 	 * @param cancelChecker the cancel checker.
 	 */
-	private void searchInText(DOMText text, SearchQuery query, IXMLReferenceCollector collector,
+	private void searchInIndex(SearchIndex index, SearchQuery query, IXMLReferenceCollector collector,
 			CancelChecker cancelChecker) {
-		if (query.isSearchInText()) {
+		// When the query must match the requested search node, only the nodes which
+		// have the same value are retrieved from the index.
+		List<IndexedNode> nodes = query.isMatchNode() ? index.findNodes(query, query.getSearchNode())
+				: index.getNodes();
+		QueryDirection queryDirection = query.getQueryDirection();
+		for (IndexedNode node : nodes) {
+			// Stop the search if required
 			if (cancelChecker != null) {
 				cancelChecker.checkCanceled();
 			}
-			collectNodes(text, query, collector);
+			// Loop for reference expressions of the query
+			for (XMLReferenceExpression expression : query.getExpressions()) {
+				for (SearchNode searchNode : node.getSearchNodes(index.indexOf(expression), queryDirection)) {
+					// Collect the current search node
+					collect(query, searchNode, expression, collector);
+				}
+			}
 		}
 	}
 
 	/**
-	 * Perform the search in the attributes of the given DOM element node.
+	 * Returns the index of the given DOM document which contains the given
+	 * expressions.
 	 * 
-	 * @param element       the DOM element node.
-	 * @param query         the search query.
-	 * @param collector     the collector used to collect attribute, text nodes.
+	 * @param document      the DOM document.
+	 * @param expressions   the XML references expressions.
 	 * @param cancelChecker the cancel checker.
+	 * @return the index of the given DOM document which contains the given
+	 *         expressions.
 	 */
-	private void searchInAttributes(DOMElement element, SearchQuery query, IXMLReferenceCollector collector,
+	SearchIndex getIndex(DOMDocument document, List<XMLReferenceExpression> expressions,
 			CancelChecker cancelChecker) {
-		if (query.isSearchInAttribute()) {
-			// Search to reference in attribute nodes
-			if (element.hasAttributes()) {
-				NamedNodeMap toAttributes = element.getAttributes();
-				if (toAttributes != null) {
-					for (int j = 0; j < toAttributes.getLength(); j++) {
-						DOMAttr toAttr = (DOMAttr) toAttributes.item(j);
-						if (cancelChecker != null) {
-							cancelChecker.checkCanceled();
-						}
-						collectNodes(toAttr, query, collector);
-					}
-				}
-			}
+		String uri = document.getDocumentURI();
+		SearchIndex index = uri != null ? indexes.getIfPresent(uri) : null;
+		if (index != null && index.isValidFor(document, expressions)) {
+			return index;
 		}
-	}
-
-	private void collectNodes(DOMNode node, SearchQuery query, IXMLReferenceCollector collector) {
-		QueryDirection queryDirection = query.getQueryDirection();
-		// Loop for reference expressions of the query
-		for (XMLReferenceExpression expression : query.getExpressions()) {
-			Direction nodeDirection = getInversedDirection(node, expression, queryDirection);
-			if (nodeDirection != null) {
-				// The DOM node matches the XPath (from / to) declared in the reference
-				// expression
-				// get the search nodes for this attribute / text node
-				List<SearchNode> searchNodes = findSearchNodes(node, expression, nodeDirection);
-				for (SearchNode searchNode : searchNodes) {
-					// Collect the current search node
-					collect(query, searchNode, expression, collector);
+		List<XMLReferenceExpression> indexExpressions = expressions;
+		if (index != null && index.isUpToDate(document)) {
+			// The index is used by an other query with other expressions, build the index
+			// with the expressions of both queries.
+			indexExpressions = new ArrayList<>(index.getExpressions());
+			for (XMLReferenceExpression expression : expressions) {
+				if (!indexExpressions.contains(expression)) {
+					indexExpressions.add(expression);
 				}
 			}
 		}
+		index = SearchIndex.build(document, indexExpressions, cancelChecker);
+		if (uri != null) {
+			indexes.put(uri, index);
+		}
+		return index;
 	}
 
 	private void collect(SearchQuery query, SearchNode searchNode, XMLReferenceExpression expression,
@@ -282,25 +239,4 @@ public class SearchEngine {
 				}
 		}
 	}
-
-	private List<SearchNode> findSearchNodes(DOMNode node, XMLReferenceExpression expression, Direction nodeDirection) {
-		if (nodeDirection == Direction.FROM) {
-			return SearchNodeFactory.findSearchNodes(node, expression.getPrefix(), expression.isMultiple(),
-					nodeDirection);
-		}
-		return SearchNodeFactory.findSearchNodes(node, null, false, nodeDirection);
-	}
-
-	/**
-	 * Returns true if the given element is an include element (ex : xi:include) and
-	 * false otherwise.
-	 * 
-	 * @param element the DOM element.
-	 * 
-	 * @return true if the given element is an include element (ex : xi:include) and
-	 *         false otherwise.
-	 */
-	private static boolean isInclude(Element element) {
-		return element != null && INCLUDE_TAG.equals(element.getLocalName());
-	}
 }
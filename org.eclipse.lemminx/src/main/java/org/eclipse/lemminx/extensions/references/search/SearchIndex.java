@@ -0,0 +1,385 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.references.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.extensions.references.search.SearchNode.Direction;
+import org.eclipse.lemminx.extensions.references.search.SearchQuery.QueryDirection;
+import org.eclipse.lemminx.extensions.references.settings.XMLReferenceExpression;
+import org.eclipse.lemminx.xpath.matcher.XPathMultiMatcher;
+import org.eclipse.lemminx.xpath.matcher.XPathMultiMatcher.State;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Index of the attribute, text nodes of a DOM document which match the 'from'
+ * / 'to' XPath of some XML references expressions.
+ *
+ * <p>
+ * The index is built with one traversal of the DOM document (the XPath of the
+ * expressions are matched with a {@link XPathMultiMatcher}) and stores the
+ * search nodes by (expression, direction, value) to retrieve the search nodes
+ * which match a given search node without comparing it with all the search
+ * nodes of the document.
+ * </p>
+ *
+ */
+class SearchIndex {
+
+	private static final String INCLUDE_TAG = "include";
+
+	private static final String HREF_ATTR = "href";
+
+	/**
+	 * Attribute, text node which matches the 'from' and / or 'to' XPath of some
+	 * expressions of the index.
+	 */
+	static class IndexedNode {
+
+		private final int order;
+
+		// 'from' / 'to' search nodes of the node, per expression of the index (null
+		// when the node doesn't match the XPath of the expression)
+		private final List<SearchNode>[] froms;
+		private final List<SearchNode>[] tos;
+
+		IndexedNode(int order, List<SearchNode>[] froms, List<SearchNode>[] tos) {
+			this.order = order;
+			this.froms = froms;
+			this.tos = tos;
+		}
+
+		/**
+		 * Returns the search nodes of the node for the given expression index and
+		 * query direction.
+		 *
+		 * @param expressionIndex the index of the expression.
+		 * @param queryDirection  the query direction.
+		 * @return the search nodes of the node for the given expression index and
+		 *         query direction.
+		 */
+		List<SearchNode> getSearchNodes(int expressionIndex, QueryDirection queryDirection) {
+			List<SearchNode> searchNodes = null;
+			switch (queryDirection) {
+				case FROM_2_TO:
+					searchNodes = tos != null ? tos[expressionIndex] : null;
+					break;
+				case TO_2_FROM:
+					searchNodes = froms != null ? froms[expressionIndex] : null;
+					break;
+				default:
+					searchNodes = froms != null ? froms[expressionIndex] : null;
+					if (searchNodes == null && tos != null) {
+						searchNodes = tos[expressionIndex];
+					}
+			}
+			return searchNodes != null ? searchNodes : Collections.emptyList();
+		}
+	}
+
+	/**
+	 * The 'from' / 'to' XPath of an expression matched by a node.
+	 */
+	private static class ExpressionMatch {
+
+		private final int expressionIndex;
+		private final Direction direction;
+
+		ExpressionMatch(int expressionIndex, Direction direction) {
+			this.expressionIndex = expressionIndex;
+			this.direction = direction;
+		}
+	}
+
+	private static class ValueKey {
+
+		private final int expressionIndex;
+		private final Direction direction;
+		private final String value;
+
+		ValueKey(int expressionIndex, Direction direction, String value) {
+			this.expressionIndex = expressionIndex;
+			this.direction = direction;
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(expressionIndex, direction, value);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ValueKey)) {
+				return false;
+			}
+			ValueKey other = (ValueKey) obj;
+			return expressionIndex == other.expressionIndex && direction == other.direction
+					&& value.equals(other.value);
+		}
+	}
+
+	private final DOMDocument document;
+	private final int modificationStamp;
+	private final List<XMLReferenceExpression> expressions;
+	private final List<IndexedNode> nodes;
+	private final Map<ValueKey, List<IndexedNode>> nodesByValue;
+	private final Set<String> externalURIs;
+
+	private SearchIndex(DOMDocument document, List<XMLReferenceExpression> expressions) {
+		this.document = document;
+		this.modificationStamp = document.getModificationStamp();
+		this.expressions = expressions;
+		this.nodes = new ArrayList<>();
+		this.nodesByValue = new HashMap<>();
+		this.externalURIs = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Build the index of the given DOM document for the given expressions.
+	 *
+	 * @param document      the DOM document.
+	 * @param expressions   the XML references expressions.
+	 * @param cancelChecker the cancel checker.
+	 * @return the index of the given DOM document.
+	 */
+	static SearchIndex build(DOMDocument document, List<XMLReferenceExpression> expressions,
+			CancelChecker cancelChecker) {
+		SearchIndex index = new SearchIndex(document, expressions);
+		// Compile the 'from' / 'to' XPath of all expressions to match the DOM nodes
+		// with all expressions in one traversal.
+		XPathMultiMatcher<ExpressionMatch> matcher = new XPathMultiMatcher<>();
+		boolean searchInAttribute = false;
+		boolean searchInText = false;
+		for (int i = 0; i < expressions.size(); i++) {
+			XMLReferenceExpression expression = expressions.get(i);
+			matcher.add(expression.getFromMatcher(), new ExpressionMatch(i, Direction.FROM));
+			matcher.add(expression.getToMatcher(), new ExpressionMatch(i, Direction.TO));
+			searchInAttribute |= expression.isFromSearchInAttribute() || expression.isToSearchInAttribute();
+			searchInText |= expression.isFromSearchInText() || expression.isToSearchInText();
+		}
+		index.indexNode(document, matcher, matcher.getInitialState(), searchInAttribute, searchInText,
+				cancelChecker);
+		return index;
+	}
+
+	private void indexNode(DOMNode node, XPathMultiMatcher<ExpressionMatch> matcher, State parentState,
+			boolean searchInAttribute, boolean searchInText, CancelChecker cancelChecker) {
+		// Stop the indexing if required
+		if (cancelChecker != null) {
+			cancelChecker.checkCanceled();
+		}
+
+		State state = matcher.next(parentState, node);
+		if (node.isElement()) {
+			DOMElement element = (DOMElement) node;
+			if (searchInAttribute && element.hasAttributes()) {
+				for (DOMAttr attr : element.getAttributeNodes()) {
+					State attrState = matcher.next(state, attr);
+					if (attrState.hasMatches()) {
+						indexAttrOrText(attr, matcher.getMatches(attrState));
+					}
+				}
+			}
+			if (INCLUDE_TAG.equals(element.getLocalName())) {
+				// collect xi:include
+				String includedFile = element.getAttribute(HREF_ATTR);
+				if (includedFile != null) {
+					externalURIs.add(includedFile);
+				}
+			}
+		} else if (node.isText()) {
+			if (searchInText && state.hasMatches()) {
+				indexAttrOrText(node, matcher.getMatches(state));
+			}
+		}
+		if (node.hasChildNodes()) {
+			for (DOMNode child : node.getChildren()) {
+				indexNode(child, matcher, state, searchInAttribute, searchInText, cancelChecker);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void indexAttrOrText(DOMNode node, List<ExpressionMatch> matches) {
+		List<SearchNode>[] froms = null;
+		List<SearchNode>[] tos = null;
+		for (ExpressionMatch match : matches) {
+			int i = match.expressionIndex;
+			XMLReferenceExpression expression = expressions.get(i);
+			if (match.direction == Direction.FROM) {
+				if (froms == null) {
+					froms = new List[expressions.size()];
+				}
+				froms[i] = SearchNodeFactory.findSearchNodes(node, expression.getPrefix(), expression.isMultiple(),
+						Direction.FROM);
+			} else {
+				if (tos == null) {
+					tos = new List[expressions.size()];
+				}
+				tos[i] = SearchNodeFactory.findSearchNodes(node, null, false, Direction.TO);
+			}
+		}
+		if (froms == null && tos == null) {
+			return;
+		}
+		IndexedNode indexedNode = new IndexedNode(nodes.size(), froms, tos);
+		nodes.add(indexedNode);
+		addValues(indexedNode, froms, Direction.FROM);
+		addValues(indexedNode, tos, Direction.TO);
+	}
+
+	private void addValues(IndexedNode indexedNode, List<SearchNode>[] searchNodesPerExpression, Direction direction) {
+		if (searchNodesPerExpression == null) {
+			return;
+		}
+		for (int i = 0; i < searchNodesPerExpression.length; i++) {
+			List<SearchNode> searchNodes = searchNodesPerExpression[i];
+			if (searchNodes == null) {
+				continue;
+			}
+			for (SearchNode searchNode : searchNodes) {
+				String value = searchNode.getMatchValue();
+				if (value == null) {
+					// 'from' search node with an invalid prefix, it matches nothing
+					continue;
+				}
+				List<IndexedNode> valueNodes = nodesByValue.computeIfAbsent(new ValueKey(i, direction, value),
+						k -> new ArrayList<>());
+				if (valueNodes.isEmpty() || valueNodes.get(valueNodes.size() - 1) != indexedNode) {
+					valueNodes.add(indexedNode);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the index can be used for the given DOM document and
+	 * expressions and false otherwise.
+	 *
+	 * @param document    the DOM document.
+	 * @param expressions the XML references expressions.
+	 * @return true if the index can be used for the given DOM document and
+	 *         expressions and false otherwise.
+	 */
+	boolean isValidFor(DOMDocument document, List<XMLReferenceExpression> expressions) {
+		return isUpToDate(document) && this.expressions.containsAll(expressions);
+	}
+
+	/**
+	 * Returns true if the index has been built with the current state of the given
+	 * DOM document and false otherwise.
+	 *
+	 * @param document the DOM document.
+	 * @return true if the index has been built with the current state of the given
+	 *         DOM document and false otherwise.
+	 */
+	boolean isUpToDate(DOMDocument document) {
+		return this.document == document && modificationStamp == document.getModificationStamp();
+	}
+
+	int indexOf(XMLReferenceExpression expression) {
+		return expressions.indexOf(expression);
+	}
+
+	List<XMLReferenceExpression> getExpressions() {
+		return expressions;
+	}
+
+	/**
+	 * Returns the indexed nodes, in the document order.
+	 *
+	 * @return the indexed nodes, in the document order.
+	 */
+	List<IndexedNode> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the indexed nodes, in the document order, which have a search node
+	 * matching the given search node for the given query.
+	 *
+	 * @param query      the search query.
+	 * @param searchNode the requested search node.
+	 * @return the indexed nodes which have a search node matching the given
+	 *         search node.
+	 */
+	List<IndexedNode> findNodes(SearchQuery query, SearchNode searchNode) {
+		Direction direction = null;
+		switch (query.getQueryDirection()) {
+			case FROM_2_TO:
+				direction = Direction.TO;
+				break;
+			case TO_2_FROM:
+				direction = Direction.FROM;
+				break;
+			default:
+				return nodes;
+		}
+		String value = searchNode != null ? searchNode.getMatchValue() : null;
+		if (value == null) {
+			return Collections.emptyList();
+		}
+		List<IndexedNode> result = null;
+		boolean merged = false;
+		for (XMLReferenceExpression expression : query.getExpressions()) {
+			List<IndexedNode> valueNodes = nodesByValue.get(new ValueKey(indexOf(expression), direction, value));
+			if (valueNodes == null) {
+				continue;
+			}
+			if (result == null) {
+				result = valueNodes;
+			} else {
+				if (!merged) {
+					result = new ArrayList<>(result);
+					merged = true;
+				}
+				for (IndexedNode valueNode : valueNodes) {
+					if (!result.contains(valueNode)) {
+						result.add(valueNode);
+					}
+				}
+			}
+		}
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		if (merged) {
+			// Keep the document order
+			result.sort((n1, n2) -> n1.order - n2.order);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the included files (xi:include/@href) of the DOM document.
+	 *
+	 * @return the included files (xi:include/@href) of the DOM document.
+	 */
+	Set<String> getExternalURIs() {
+		return externalURIs;
+	}
+}
@@ -154,6 +154,22 @@ public class SearchNode implements DOMRange {
 		return true;
 	}
 
+	/**
+	 * Returns the value which is compared to match a 'from' and a 'to' search
+	 * node (the value without the prefix for a 'from' search node) and null if
+	 * the prefix of the 'from' search node is invalid.
+	 * 
+	 * @return the value which is compared to match a 'from' and a 'to' search
+	 *         node and null if the prefix of the 'from' search node is invalid.
+	 */
+	public String getMatchValue() {
+		int adjust = direction == Direction.FROM ? adjustWithPrefix(this) : 0;
+		if (adjust == -1) {
+			return null;
+		}
+		return getOwnerDocument().getText().substring(start + adjust, end);
+	}
+
 	private static int adjustWithPrefix(SearchNode node) {
 		String prefix = node.getPrefix();
 		if (prefix == null) {
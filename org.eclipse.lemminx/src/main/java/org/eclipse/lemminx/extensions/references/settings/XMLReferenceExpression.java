@@ -91,7 +91,12 @@ public class XMLReferenceExpression {
 		return getFromMatcher().match(node);
 	}
 
-	private XPathMatcher getFromMatcher() {
+	/**
+	 * Returns the XPath matcher of the 'from' XPath expression.
+	 * 
+	 * @return the XPath matcher of the 'from' XPath expression.
+	 */
+	public XPathMatcher getFromMatcher() {
 		if (fromMatcher == null) {
 			fromMatcher = new XPathMatcher(from);
 		}
@@ -111,7 +116,12 @@ public class XMLReferenceExpression {
 		return getToMatcher().match(node);
 	}
 
-	private XPathMatcher getToMatcher() {
+	/**
+	 * Returns the XPath matcher of the 'to' XPath expression.
+	 * 
+	 * @return the XPath matcher of the 'to' XPath expression.
+	 */
+	public XPathMatcher getToMatcher() {
 		if (toMatcher == null) {
 			toMatcher = new XPathMatcher(to);
 		}
@@ -38,6 +38,11 @@ public class RelaxNGURIResolverExtension implements URIResolverExtension {
 		return "embedded relaxng.rng";
 	}
 
+	@Override
+	public boolean isResolveCacheable() {
+		return true;
+	}
+
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
 		if (!RELAXNG_NAMESPACE_URI.equals(publicId)) {
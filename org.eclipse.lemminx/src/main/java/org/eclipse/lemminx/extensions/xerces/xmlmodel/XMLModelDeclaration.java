@@ -171,7 +171,7 @@ public class XMLModelDeclaration {
 		StringBuilder value = new StringBuilder();
 		State state = State.Content;
 		char equals = '"';
-		for (int i = offset; i < length; i++) {
+		for (int i = offset; i < offset + length; i++) {
 			char ch = data[i];
 			switch (state) {
 				case Content:
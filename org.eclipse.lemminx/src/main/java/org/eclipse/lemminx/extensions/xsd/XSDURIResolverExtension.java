@@ -57,6 +57,11 @@ public class XSDURIResolverExtension implements URIResolverExtension {
 
 	}
 
+	@Override
+	public boolean isResolveCacheable() {
+		return true;
+	}
+
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
 		if (SCHEMA_FOR_SCHEMA_URI_2001.equals(publicId)) {
@@ -14,11 +14,11 @@ package org.eclipse.lemminx.extensions.xsd.contentmodel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -84,7 +84,7 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 	private final Map<XSElementDeclaration, CMXSDElementDeclaration> elementMappings;
 	private final Map<CMXSDElementDeclaration, Map<XSTypeDefinition, CMXSDElementDeclaration>> refinedElementMappings;
 
-	private Collection<CMElementDeclaration> elements;
+	private volatile Collection<CMElementDeclaration> elements;
 
 	private final FilesChangedTracker tracker;
 
@@ -93,8 +93,8 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 	public CMXSDDocument(XSModel model, XSLoaderImpl xsLoaderImpl) {
 		this.model = model;
 		this.xsLoader = xsLoaderImpl;
-		this.elementMappings = new HashMap<>();
-		this.refinedElementMappings = new HashMap<>();
+		this.elementMappings = new ConcurrentHashMap<>();
+		this.refinedElementMappings = new ConcurrentHashMap<>();
 		this.tracker = createFilesChangedTracker(model);
 	}
 
@@ -125,15 +125,28 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 		return model.getNamespaces().contains(namespaceURI);
 	}
 
+	@Override
+	public int getWeight() {
+		return 1 + model.getComponents(XSConstants.ELEMENT_DECLARATION).getLength()
+				+ model.getComponents(XSConstants.TYPE_DEFINITION).getLength()
+				+ model.getComponents(XSConstants.ATTRIBUTE_DECLARATION).getLength()
+				+ model.getComponents(XSConstants.MODEL_GROUP_DEFINITION).getLength()
+				+ model.getComponents(XSConstants.ATTRIBUTE_GROUP).getLength();
+	}
+
 	@Override
 	public Collection<CMElementDeclaration> getElements() {
+		Collection<CMElementDeclaration> elements = this.elements;
 		if (elements == null) {
+			// the elements list is published once it is filled, to be used by concurrent
+			// requests (completion, hover, validation...)
 			elements = new ArrayList<>();
 			XSNamedMap map = model.getComponents(XSConstants.ELEMENT_DECLARATION);
 			for (int j = 0; j < map.getLength(); j++) {
 				XSElementDeclaration elementDeclaration = (XSElementDeclaration) map.item(j);
 				collectElement(elementDeclaration, elements);
 			}
+			this.elements = elements;
 		}
 		return elements;
 	}
@@ -196,13 +209,10 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 				CMXSDElementDeclaration baseDeclaration = declaration;
 				Map<XSTypeDefinition, CMXSDElementDeclaration> refinedElementMappingsForDeclaration =
 						refinedElementMappings.computeIfAbsent(baseDeclaration,
-								_key -> new HashMap<>());
+								_key -> new ConcurrentHashMap<>());
 
-				declaration = refinedElementMappingsForDeclaration.get(exactType);
-				if (declaration == null) {
-					declaration = baseDeclaration.refineType(exactType);
-					refinedElementMappingsForDeclaration.put(exactType, declaration);
-				}
+				declaration = refinedElementMappingsForDeclaration.computeIfAbsent(exactType,
+						type -> baseDeclaration.refineType(type));
 			}
 		}
 		return declaration;
@@ -243,12 +253,8 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 	}
 
 	CMElementDeclaration getXSDElement(XSElementDeclaration elementDeclaration) {
-		CMXSDElementDeclaration element = elementMappings.get(elementDeclaration);
-		if (element == null) {
-			element = new CMXSDElementDeclaration(this, elementDeclaration);
-			elementMappings.put(elementDeclaration, element);
-		}
-		return element;
+		return elementMappings.computeIfAbsent(elementDeclaration,
+				declaration -> new CMXSDElementDeclaration(this, declaration));
 	}
 
 	static Collection<String> getEnumerationValues(XSSimpleTypeDefinition typeDefinition) {
@@ -782,4 +788,9 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 	public boolean isDirty() {
 		return tracker.isDirty();
 	}
+
+	@Override
+	public FilesChangedTracker getFilesChangedTracker() {
+		return tracker;
+	}
 }
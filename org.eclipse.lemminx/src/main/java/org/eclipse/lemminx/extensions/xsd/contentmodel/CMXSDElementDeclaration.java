@@ -69,9 +69,9 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 
 	private final XSTypeDefinition typeDefinition;
 
-	private Collection<CMAttributeDeclaration> attributes;
+	private volatile Collection<CMAttributeDeclaration> attributes;
 
-	private Collection<CMElementDeclaration> elements;
+	private volatile Collection<CMElementDeclaration> elements;
 
 	private String documentation;
 
@@ -79,7 +79,7 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 
 	private SchemaDocumentationType docStrategy;
 
-	private Map<String, Boolean> elementOptionality;
+	private volatile Map<String, Boolean> elementOptionality;
 
 	private CMXSDElementDeclaration(CMXSDDocument document, XSElementDeclaration elementDeclaration,
 								   XSTypeDefinition typeDefinition) {
@@ -114,9 +114,11 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 
 	@Override
 	public Collection<CMAttributeDeclaration> getAttributes() {
+		Collection<CMAttributeDeclaration> attributes = this.attributes;
 		if (attributes == null) {
 			attributes = new ArrayList<>();
 			collectAttributesDeclaration(elementDeclaration, attributes);
+			this.attributes = attributes;
 		}
 		return attributes;
 	}
@@ -149,9 +151,11 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 
 	@Override
 	public Collection<CMElementDeclaration> getElements() {
+		Collection<CMElementDeclaration> elements = this.elements;
 		if (elements == null) {
 			elements = new ArrayList<>();
 			collectElementsDeclaration(elementDeclaration, elements);
+			this.elements = elements;
 		}
 		return elements;
 	}
@@ -330,8 +334,9 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 	}
 
 	public boolean isOptional(String childElementName) {
+		Map<String, Boolean> elementOptionality = this.elementOptionality;
 		if (elementOptionality == null) {
-			this.elementOptionality = new HashMap<String, Boolean>();
+			elementOptionality = new HashMap<String, Boolean>();
 			switch (typeDefinition.getTypeCategory()) {
 			case XSTypeDefinition.SIMPLE_TYPE:
 				break;
@@ -350,6 +355,7 @@ public class CMXSDElementDeclaration implements CMElementDeclaration {
 					}
 				}
 			}
+			this.elementOptionality = elementOptionality;
 		}
 		Boolean isOptional = elementOptionality.get(childElementName);
 		return (isOptional != null) ? isOptional : false;
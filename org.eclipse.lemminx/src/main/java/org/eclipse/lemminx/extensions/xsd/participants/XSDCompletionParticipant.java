@@ -70,7 +70,7 @@ public class XSDCompletionParticipant extends CompletionParticipantAdapter {
 						item.setFilterText(insertText);
 						item.setTextEdit(Either.forLeft(new TextEdit(fullRange, insertText)));
 						response.addCompletionItem(item);
-					});
+					}, cancelChecker);
 			if (bindingType.isSimple()) {
 				// Completion on @type (ex : xs:element/@type) bound to Built-in types (ex:
 				// xs:string) ->
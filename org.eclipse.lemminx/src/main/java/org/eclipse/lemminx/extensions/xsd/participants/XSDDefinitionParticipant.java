@@ -62,7 +62,7 @@ public class XSDDefinitionParticipant extends AbstractDefinitionParticipant {
 				LocationLink location = XMLPositionUtility.createLocationLink(attr.getNodeAttrValue(),
 						targetAttr.getNodeAttrValue());
 				locations.add(location);
-			});
+			}, cancelChecker);
 		}
 	}
 
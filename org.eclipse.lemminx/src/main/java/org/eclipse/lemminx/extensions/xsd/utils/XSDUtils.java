@@ -12,12 +12,14 @@
 package org.eclipse.lemminx.extensions.xsd.utils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.apache.xerces.impl.XMLEntityManager;
 import org.apache.xerces.impl.xs.SchemaGrammar;
@@ -28,8 +30,7 @@ import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMElement;
 import org.eclipse.lemminx.dom.DOMNode;
 import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
-import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
-import org.eclipse.lemminx.utils.DOMUtils;
+import org.eclipse.lemminx.utils.IncludedDocumentsSearch;
 import org.eclipse.lemminx.utils.StringUtils;
 import org.eclipse.lemminx.utils.URIUtils;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
@@ -144,6 +145,28 @@ public class XSDUtils {
 	 */
 	public static void searchXSTargetAttributes(DOMAttr originAttr, BindingType bindingType, boolean matchAttr,
 			boolean searchInExternalSchema, BiConsumer<String, DOMAttr> collector) {
+		searchXSTargetAttributes(originAttr, bindingType, matchAttr, searchInExternalSchema, collector, null);
+	}
+
+	/**
+	 * Collect XSD target attributes declared in the XML Schema according the given
+	 * attribute and binding type.
+	 *
+	 * <p>
+	 * The included / imported XML Schemas are searched in parallel.
+	 * </p>
+	 *
+	 * @param originAttr             the origin attribute.
+	 * @param matchAttr              true if the attribute value must match the
+	 *                               value of target attribute value and false
+	 *                               otherwise.
+	 * @param searchInExternalSchema true if search must be done in included XML
+	 *                               Schema (xs:include) and false otherwise.
+	 * @param collector              collector to collect XSD target attributes.
+	 * @param cancelChecker          the cancel checker.
+	 */
+	public static void searchXSTargetAttributes(DOMAttr originAttr, BindingType bindingType, boolean matchAttr,
+			boolean searchInExternalSchema, BiConsumer<String, DOMAttr> collector, CancelChecker cancelChecker) {
 		if (bindingType == BindingType.NONE) {
 			return;
 		}
@@ -177,21 +200,23 @@ public class XSDUtils {
 			originName = getOriginName(originAttrValue, targetNamespacePrefix);
 		}
 
-		// Loop for element complexType.
-		searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector, documentElement, targetNamespacePrefix,
-				originName, new HashSet<>(), searchInExternalSchema);
+		// Loop for element complexType, in the XML Schema and in the included /
+		// imported XML Schemas (searched in parallel).
+		final String prefix = targetNamespacePrefix;
+		final String name = originName;
+		IncludedDocumentsSearch.<DOMAttr>search(document, searchInExternalSchema,
+				(schema, results, externalLocations, cc) -> {
+					DOMElement schemaElement = schema.getDocumentElement();
+					if (schemaElement != null) {
+						searchXSTargetAttributes(originAttr, bindingType, matchAttr, results, schemaElement, name,
+								externalLocations);
+					}
+				}, targetAttr -> collector.accept(prefix, targetAttr), cancelChecker);
 	}
 
 	private static void searchXSTargetAttributes(DOMAttr originAttr, BindingType bindingType, boolean matchAttr,
-			BiConsumer<String, DOMAttr> collector, DOMElement documentElement, String targetNamespacePrefix,
-			String originName, Set<String> visitedURIs, boolean searchInExternalSchema) {
-		DOMDocument document = documentElement.getOwnerDocument();
-		String documentURI = document.getDocumentURI();
-		if (visitedURIs.contains(documentURI)) {
-			return;
-		}
-		visitedURIs.add(documentURI);
-		Set<String> externalURIS = null;
+			Consumer<DOMAttr> collector, DOMElement documentElement, String originName,
+			Collection<String> externalLocations) {
 		NodeList children = documentElement.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node node = children.item(i);
@@ -202,32 +227,13 @@ public class XSDUtils {
 					// matches the binding type of the originAttr
 					DOMAttr targetAttr = (DOMAttr) targetElement.getAttributeNode("name");
 					if (targetAttr != null && (!matchAttr || Objects.equal(originName, targetAttr.getValue()))) {
-						collector.accept(targetNamespacePrefix, targetAttr);
+						collector.accept(targetAttr);
 					}
-				} else if (isXSInclude(targetElement) || isXSImport(targetElement)) {
+				} else if (externalLocations != null && (isXSInclude(targetElement) || isXSImport(targetElement))) {
 					// collect xs:include XML Schema location
 					String schemaLocation = targetElement.getAttribute(SCHEMA_LOCATION_ATTR);
 					if (schemaLocation != null) {
-						if (externalURIS == null) {
-							externalURIS = new HashSet<>();
-						}
-						externalURIS.add(schemaLocation);
-					}
-				}
-			}
-		}
-		if (searchInExternalSchema && externalURIS != null) {
-			// Search in xs:include XML Schema location
-			URIResolverExtensionManager resolverExtensionManager = document.getResolverExtensionManager();
-			for (String externalURI : externalURIS) {
-				String resourceURI = resolverExtensionManager.resolve(documentURI, null, externalURI);
-				if (URIUtils.isFileResource(resourceURI)) {
-					DOMDocument externalDocument = DOMUtils.loadDocument(resourceURI,
-							document.getResolverExtensionManager());
-					if (externalDocument != null) {
-						searchXSTargetAttributes(originAttr, bindingType, matchAttr, collector,
-								externalDocument.getDocumentElement(), targetNamespacePrefix, originName, visitedURIs,
-								searchInExternalSchema);
+						externalLocations.add(schemaLocation);
 					}
 				}
 			}
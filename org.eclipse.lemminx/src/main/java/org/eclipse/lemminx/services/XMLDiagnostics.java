@@ -45,6 +45,10 @@ class XMLDiagnostics {
 		if (validationSettings != null && !validationSettings.isEnabled()) {
 			return DiagnosticsResult.EMPTY;
 		}
+		if (xmlDocument.isLargeFile()) {
+			// the validation of a large file requires the whole DOM document
+			return DiagnosticsResult.EMPTY;
+		}
 		DiagnosticsResult diagnostics = new DiagnosticsResult(validationArgs);
 		doExtensionsDiagnostics(xmlDocument, diagnostics, validationSettings, validationArgs, cancelChecker);
 		return diagnostics;
@@ -207,16 +207,15 @@ public class XMLLanguageService extends XMLExtensionsRegistry implements IXMLFul
 		publishDiagnostics.accept(new PublishDiagnosticsParams(uri, diagnostics));
 
 		// If there are some XSD, DTD which are downloading, wait for all download and
-		// re-trigger the validation.
+		// re-trigger the validation. The validation is re-triggered asynchronously
+		// because a download can fail at once (ex : connection refused) and must not
+		// publish again the diagnostics before this publish returns.
 		List<CompletableFuture<?>> futures = diagnostics.getFutures();
 		if (!futures.isEmpty()) {
 			CompletableFuture<Void> allFutures = CompletableFuture
 					.allOf(futures.toArray(new CompletableFuture[futures.size()]));
-			allFutures.thenAccept(Void -> {
+			allFutures.whenCompleteAsync((result, downloadException) -> {
 				triggerValidation.accept(document);
-			}).exceptionally(downloadException -> {
-				triggerValidation.accept(document);
-				return null;
 			});
 		}
 		return null;
@@ -12,9 +12,11 @@
  */
 package org.eclipse.lemminx.services;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,9 +24,11 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.DOMAttr;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMElementIndex;
 import org.eclipse.lemminx.dom.DOMNode;
 import org.eclipse.lemminx.dom.DTDAttlistDecl;
 import org.eclipse.lemminx.dom.DTDDeclParameter;
@@ -132,6 +136,11 @@ class XMLSymbolsProvider {
 			symbols.add(symbol);
 		}
 		final String containerName = name;
+		if (isIndexed(node, filter)) {
+			// large file: the children are collected from the element index
+			findIndexedSymbolInformations((DOMElement) node, containerName, symbols, cancelChecker);
+			return;
+		}
 		if (node.isElement()) {
 			boolean collectAttributes = hasFilterForAttr && node.hasAttributes();
 			if (collectAttributes) {
@@ -197,7 +206,8 @@ class XMLSymbolsProvider {
 		}
 		cancelChecker.checkCanceled();
 
-		boolean hasChildNodes = node.hasChildNodes();
+		boolean indexed = isIndexed(node, filter);
+		boolean hasChildNodes = indexed || node.hasChildNodes();
 		DocumentSymbolsResult childrenSymbols = symbols;
 		if (nodesToIgnore == null || !nodesToIgnore.contains(node)) {
 			String name;
@@ -261,6 +271,11 @@ class XMLSymbolsProvider {
 		if (!hasChildNodes) {
 			return;
 		}
+		if (indexed) {
+			// large file: the children are collected from the element index
+			findIndexedDocumentSymbols((DOMElement) node, childrenSymbols, cancelChecker);
+			return;
+		}
 		final DocumentSymbolsResult childrenOfChild = childrenSymbols;
 		node.getChildren().forEach(child -> {
 			try {
@@ -272,6 +287,118 @@ class XMLSymbolsProvider {
 		});
 	}
 
+	// -------------- Large file symbols
+
+	/**
+	 * An element of the element index to visit, with the symbols of its parent.
+	 *
+	 * @param <T> the type of the symbols of the parent element.
+	 */
+	private static class IndexedElement<T> {
+
+		private final int element;
+
+		private final T parent;
+
+		IndexedElement(int element, T parent) {
+			this.element = element;
+			this.parent = parent;
+		}
+	}
+
+	/**
+	 * Returns true if the symbols of the children of the given node must be
+	 * collected from the element index and false otherwise.
+	 *
+	 * <p>
+	 * The element index is used for the children of a collapsed element (large
+	 * file) when the filter has no expressions: all the elements are symbols
+	 * and their name is the tag name. Otherwise the expressions must be matched
+	 * with the DOM nodes and the collapsed element is parsed.
+	 * </p>
+	 */
+	private static boolean isIndexed(DOMNode node, XMLSymbolFilter filter) {
+		if (!node.isElement() || !((DOMElement) node).isCollapsed()) {
+			return false;
+		}
+		XMLSymbolExpressionFilter[] expressions = filter.getExpressions();
+		return expressions == null || expressions.length == 0;
+	}
+
+	/**
+	 * Collect the symbol informations of the descendant elements of the given
+	 * collapsed element from the element index (without parsing the element
+	 * content).
+	 */
+	private static void findIndexedSymbolInformations(DOMElement element, String container,
+			List<SymbolInformation> symbols, CancelChecker cancelChecker) throws BadLocationException {
+		DOMDocument xmlDocument = element.getOwnerDocument();
+		DOMElementIndex index = xmlDocument.getElementIndex();
+		int parent = index.indexOf(element.getStart());
+		if (parent == -1) {
+			return;
+		}
+		// The offsets of the element index are the offsets of the indexed text
+		TextDocument document = xmlDocument.getIndexedDocument();
+		String text = document.getText();
+		String uri = xmlDocument.getDocumentURI();
+		// Visit the descendant elements in the document order
+		Deque<IndexedElement<String>> stack = new ArrayDeque<>();
+		pushIndexedElement(index.getFirstChild(parent), container, stack);
+		while (!stack.isEmpty()) {
+			cancelChecker.checkCanceled();
+			IndexedElement<String> current = stack.pop();
+			int child = current.element;
+			String name = index.getName(child, text);
+			Range range = new Range(document.positionAt(index.getStart(child)),
+					document.positionAt(index.getEnd(child)));
+			symbols.add(new SymbolInformation(name, SymbolKind.Field, new Location(uri, range), current.parent));
+			pushIndexedElement(index.getNextSibling(child), current.parent, stack);
+			pushIndexedElement(index.getFirstChild(child), name, stack);
+		}
+	}
+
+	/**
+	 * Collect the document symbols of the descendant elements of the given
+	 * collapsed element from the element index (without parsing the element
+	 * content).
+	 */
+	private static void findIndexedDocumentSymbols(DOMElement element, DocumentSymbolsResult symbols,
+			CancelChecker cancelChecker) throws BadLocationException {
+		DOMDocument xmlDocument = element.getOwnerDocument();
+		DOMElementIndex index = xmlDocument.getElementIndex();
+		int parent = index.indexOf(element.getStart());
+		if (parent == -1) {
+			return;
+		}
+		// The offsets of the element index are the offsets of the indexed text
+		TextDocument document = xmlDocument.getIndexedDocument();
+		String text = document.getText();
+		// Visit the descendant elements in the document order
+		Deque<IndexedElement<DocumentSymbolsResult>> stack = new ArrayDeque<>();
+		pushIndexedElement(index.getFirstChild(parent), symbols, stack);
+		while (!stack.isEmpty()) {
+			cancelChecker.checkCanceled();
+			IndexedElement<DocumentSymbolsResult> current = stack.pop();
+			int child = current.element;
+			int firstChild = index.getFirstChild(child);
+			Range range = new Range(document.positionAt(index.getStart(child)),
+					document.positionAt(index.getEnd(child)));
+			DocumentSymbolsResult childrenSymbols = firstChild != -1 ? current.parent.createList()
+					: DocumentSymbolsResult.EMPTY_LIMITLESS_LIST;
+			current.parent.add(new DocumentSymbol(index.getName(child, text), SymbolKind.Field, range, range, null,
+					childrenSymbols));
+			pushIndexedElement(index.getNextSibling(child), current.parent, stack);
+			pushIndexedElement(firstChild, childrenSymbols, stack);
+		}
+	}
+
+	private static <T> void pushIndexedElement(int element, T parent, Deque<IndexedElement<T>> stack) {
+		if (element != -1) {
+			stack.push(new IndexedElement<>(element, parent));
+		}
+	}
+
 	private List<DOMNode> getFilteredNodeAttributes(DOMNode node, XMLSymbolFilter filter, boolean hasFilterForAttr){
 		if(!hasFilterForAttr){
 			return null;
@@ -346,7 +473,8 @@ class XMLSymbolsProvider {
 		if (node.isElement()) {
 			DOMElement element = (DOMElement) node;
 			if (element.hasTagName()) {
-				DOMNode firstChild = node.getFirstChild();
+				// large file: the content of an indexed element is not parsed
+				DOMNode firstChild = isIndexed(element, filter) ? null : node.getFirstChild();
 				if (firstChild != null && firstChild.isText() && filter.isNodeSymbol(firstChild)) {
 					return element.getTagName() + ": " + firstChild.getNodeValue();
 				} else if(hasFilterForAttr && node.hasAttributes()){
@@ -11,6 +11,8 @@
 *******************************************************************************/
 package org.eclipse.lemminx.settings;
 
+import org.eclipse.lemminx.commons.TextDocuments;
+import org.eclipse.lemminx.dom.DOMDocumentCache;
 import org.eclipse.lemminx.utils.FilesUtils;
 
 /**
@@ -22,6 +24,18 @@ public class ServerSettings {
 
 	private String workDir;
 
+	private boolean pieceTableTextStore;
+
+	private boolean incrementalParsing;
+
+	private long filesPollingInterval;
+
+	private int largeFileThreshold = TextDocuments.DEFAULT_LARGE_FILE_THRESHOLD;
+
+	private int externalDocumentsCacheSize = DOMDocumentCache.DEFAULT_MAXIMUM_SIZE;
+
+	private XMLSchedulerSettings scheduler;
+
 	/**
 	 * @return the workDir
 	 */
@@ -49,4 +63,141 @@ public class ServerSettings {
 		return FilesUtils.normalizePath(workDir);
 	}
 
+	/**
+	 * Returns true if the text document content must be updated in a piece table
+	 * (without copying the whole text content on each change) and false
+	 * otherwise.
+	 * 
+	 * @return true if the text document content must be updated in a piece table
+	 *         and false otherwise.
+	 */
+	public boolean isPieceTableTextStore() {
+		return pieceTableTextStore;
+	}
+
+	/**
+	 * Set true if the text document content must be updated in a piece table and
+	 * false otherwise.
+	 * 
+	 * @param pieceTableTextStore true if the text document content must be updated
+	 *                            in a piece table and false otherwise.
+	 */
+	public void setPieceTableTextStore(boolean pieceTableTextStore) {
+		this.pieceTableTextStore = pieceTableTextStore;
+	}
+
+	/**
+	 * Returns true if the DOM document must be updated by parsing only the
+	 * content of the element which contains the changes and false otherwise.
+	 * 
+	 * @return true if the DOM document must be updated incrementally and false
+	 *         otherwise.
+	 */
+	public boolean isIncrementalParsing() {
+		return incrementalParsing;
+	}
+
+	/**
+	 * Set true if the DOM document must be updated by parsing only the content of
+	 * the element which contains the changes and false otherwise.
+	 * 
+	 * @param incrementalParsing true if the DOM document must be updated
+	 *                           incrementally and false otherwise.
+	 */
+	public void setIncrementalParsing(boolean incrementalParsing) {
+		this.incrementalParsing = incrementalParsing;
+	}
+
+	/**
+	 * Returns the length (in characters) from which a text document is managed as
+	 * a large file: the content of the elements is parsed on demand and the
+	 * document is not validated. 0 disables the large file mode.
+	 * 
+	 * @return the length (in characters) from which a text document is managed
+	 *         as a large file.
+	 */
+	public int getLargeFileThreshold() {
+		return largeFileThreshold;
+	}
+
+	/**
+	 * Set the length (in characters) from which a text document is managed as a
+	 * large file. 0 disables the large file mode.
+	 * 
+	 * @param largeFileThreshold the length (in characters) from which a text
+	 *                           document is managed as a large file.
+	 */
+	public void setLargeFileThreshold(int largeFileThreshold) {
+		this.largeFileThreshold = largeFileThreshold;
+	}
+
+	/**
+	 * Returns the minimum interval (in milliseconds) between two checks of the
+	 * last modified time of a grammar file (XSD, DTD, etc). The changes notified
+	 * by the file system watch service are taken into account immediately. 0
+	 * means that the last modified time is checked each time the grammar is used.
+	 * 
+	 * @return the minimum interval (in milliseconds) between two checks of the
+	 *         last modified time of a grammar file.
+	 */
+	public long getFilesPollingInterval() {
+		return filesPollingInterval;
+	}
+
+	/**
+	 * Set the minimum interval (in milliseconds) between two checks of the last
+	 * modified time of a grammar file (XSD, DTD, etc).
+	 * 
+	 * @param filesPollingInterval the minimum interval (in milliseconds) between two
+	 *                             checks of the last modified time.
+	 */
+	public void setFilesPollingInterval(long filesPollingInterval) {
+		this.filesPollingInterval = filesPollingInterval;
+	}
+
+	/**
+	 * Returns the maximum size (in MB of text) of the DOM documents of the
+	 * external files (xs:include, xi:include, etc) which are cached. 0 disables
+	 * the cache.
+	 * 
+	 * @return the maximum size (in MB of text) of the cached DOM documents of the
+	 *         external files.
+	 */
+	public int getExternalDocumentsCacheSize() {
+		return externalDocumentsCacheSize;
+	}
+
+	/**
+	 * Set the maximum size (in MB of text) of the DOM documents of the external
+	 * files (xs:include, xi:include, etc) which are cached.
+	 * 
+	 * @param externalDocumentsCacheSize the maximum size (in MB of text) of the
+	 *                                   cached DOM documents.
+	 */
+	public void setExternalDocumentsCacheSize(int externalDocumentsCacheSize) {
+		this.externalDocumentsCacheSize = externalDocumentsCacheSize;
+	}
+
+	/**
+	 * Returns the settings of the thread pools and queues used to process the
+	 * requests and null otherwise.
+	 * 
+	 * @return the settings of the thread pools and queues used to process the
+	 *         requests and null otherwise.
+	 */
+	public XMLSchedulerSettings getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Set the settings of the thread pools and queues used to process the
+	 * requests.
+	 * 
+	 * @param scheduler the settings of the thread pools and queues used to
+	 *                  process the requests.
+	 */
+	public void setScheduler(XMLSchedulerSettings scheduler) {
+		this.scheduler = scheduler;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.settings;
+
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
+
+/**
+ * Settings of the thread pools and queues used to process the requests (see
+ * {@link Priority}).
+ *
+ * <code>
+ * "xml.server.scheduler": {
+ *   "interactive": { "poolSize": 4, "queueCapacity": 64 },
+ *   "ui": { "poolSize": 2 },
+ *   "background": { "poolSize": 2, "queueCapacity": 256 }
+ * }
+ * </code>
+ */
+public class XMLSchedulerSettings {
+
+	/**
+	 * Settings of the thread pool and queue of a priority.
+	 */
+	public static class PoolSettings {
+
+		private int poolSize;
+
+		private int queueCapacity;
+
+		/**
+		 * Returns the maximum number of threads used to process the requests and 0
+		 * to use the default value.
+		 *
+		 * @return the maximum number of threads used to process the requests.
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+
+		/**
+		 * Set the maximum number of threads used to process the requests.
+		 *
+		 * @param poolSize the maximum number of threads used to process the
+		 *                 requests.
+		 */
+		public void setPoolSize(int poolSize) {
+			this.poolSize = poolSize;
+		}
+
+		/**
+		 * Returns the maximum number of queued requests and 0 to use the default
+		 * value.
+		 *
+		 * @return the maximum number of queued requests.
+		 */
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * Set the maximum number of queued requests.
+		 *
+		 * @param queueCapacity the maximum number of queued requests.
+		 */
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+	}
+
+	private PoolSettings interactive;
+
+	private PoolSettings ui;
+
+	private PoolSettings background;
+
+	public PoolSettings getInteractive() {
+		return interactive;
+	}
+
+	public void setInteractive(PoolSettings interactive) {
+		this.interactive = interactive;
+	}
+
+	public PoolSettings getUi() {
+		return ui;
+	}
+
+	public void setUi(PoolSettings ui) {
+		this.ui = ui;
+	}
+
+	public PoolSettings getBackground() {
+		return background;
+	}
+
+	public void setBackground(PoolSettings background) {
+		this.background = background;
+	}
+
+	/**
+	 * Returns the settings of the given priority and null otherwise.
+	 *
+	 * @param priority the priority.
+	 *
+	 * @return the settings of the given priority and null otherwise.
+	 */
+	public PoolSettings getPoolSettings(Priority priority) {
+		switch (priority) {
+		case INTERACTIVE:
+			return interactive;
+		case UI:
+			return ui;
+		case BACKGROUND:
+			return background;
+		default:
+			return null;
+		}
+	}
+}
@@ -11,9 +11,13 @@
 *******************************************************************************/
 package org.eclipse.lemminx.settings;
 
+import java.util.List;
+
 import org.eclipse.lemminx.dom.DOMAttr;
 import org.eclipse.lemminx.dom.DOMNode;
 import org.eclipse.lemminx.xpath.matcher.IXPathNodeMatcher.MatcherType;
+import org.eclipse.lemminx.xpath.matcher.XPathMatcher;
+import org.eclipse.lemminx.xpath.matcher.XPathMultiMatcher;
 
 /**
  * XML symbol filter used to show/hide DOM attributes, text nodes specified with
@@ -89,6 +93,10 @@ public class XMLSymbolFilter extends PathPatternMatcher {
 
 	private XMLSymbolExpressionFilter[] expressions;
 
+	// XPath expressions compiled to match a node with all expressions at once
+	private transient volatile XPathMultiMatcher<XMLSymbolExpressionFilter> matcher;
+	private transient volatile XPathMatcher[] matcherXPaths;
+
 	/**
 	 * Set the expression list filter.
 	 * 
@@ -96,6 +104,7 @@ public class XMLSymbolFilter extends PathPatternMatcher {
 	 */
 	public void setExpressions(XMLSymbolExpressionFilter[] expressions) {
 		this.expressions = expressions;
+		this.matcher = null;
 	}
 
 	/**
@@ -119,8 +128,8 @@ public class XMLSymbolFilter extends PathPatternMatcher {
 	 */
 	public XMLSymbolExpressionFilter getFilterForInlineAttr(DOMAttr attrNode){
 		if (expressions != null && expressions.length > 0) {
-			for (XMLSymbolExpressionFilter expression : expressions) {
-				if (expression.match(attrNode) && expression.isInlineAttribute()) {
+			for (XMLSymbolExpressionFilter expression : getMatcher().match(attrNode)) {
+				if (expression.isInlineAttribute()) {
 					return expression;
 				}
 			}
@@ -141,12 +150,10 @@ public class XMLSymbolFilter extends PathPatternMatcher {
 			return false;
 		}
 		if (expressions != null && expressions.length > 0) {
-			// loop for list of XPath expression and returns the first expression which
-			// matches the given node.
-			for (XMLSymbolExpressionFilter expression : expressions) {
-				if (expression.match(node)) {
-					return !expression.isExcluded();
-				}
+			// get the first expression which matches the given node.
+			List<XMLSymbolExpressionFilter> matches = getMatcher().match(node);
+			if (!matches.isEmpty()) {
+				return !matches.get(0).isExcluded();
 			}
 		}
 		// By default DOM attributes and Text nodes are excluded.
@@ -180,4 +187,34 @@ public class XMLSymbolFilter extends PathPatternMatcher {
 		}
 		return false;
 	}
+
+	private XPathMultiMatcher<XMLSymbolExpressionFilter> getMatcher() {
+		XPathMultiMatcher<XMLSymbolExpressionFilter> matcher = this.matcher;
+		XPathMatcher[] matcherXPaths = this.matcherXPaths;
+		if (matcher == null || !isSameXPaths(matcherXPaths)) {
+			// compile the XPath of the expressions (the XPath of an expression has been
+			// updated)
+			matcher = new XPathMultiMatcher<>();
+			matcherXPaths = new XPathMatcher[expressions.length];
+			for (int i = 0; i < expressions.length; i++) {
+				matcherXPaths[i] = expressions[i].getMatcher();
+				matcher.add(matcherXPaths[i], expressions[i]);
+			}
+			this.matcherXPaths = matcherXPaths;
+			this.matcher = matcher;
+		}
+		return matcher;
+	}
+
+	private boolean isSameXPaths(XPathMatcher[] matcherXPaths) {
+		if (matcherXPaths == null || matcherXPaths.length != expressions.length) {
+			return false;
+		}
+		for (int i = 0; i < expressions.length; i++) {
+			if (matcherXPaths[i] != expressions[i].getMatcher()) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
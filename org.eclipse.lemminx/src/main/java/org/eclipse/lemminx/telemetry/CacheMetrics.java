@@ -0,0 +1,64 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.telemetry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts of a cache.
+ *
+ */
+public class CacheMetrics {
+
+	private final LongAdder hitCount;
+
+	private final LongAdder missCount;
+
+	public CacheMetrics() {
+		this.hitCount = new LongAdder();
+		this.missCount = new LongAdder();
+	}
+
+	/**
+	 * Records a cache hit.
+	 */
+	public void hit() {
+		hitCount.increment();
+	}
+
+	/**
+	 * Records a cache miss.
+	 */
+	public void miss() {
+		missCount.increment();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Returns the ratio of the hits (between 0 and 1) and 0 if the cache was not
+	 * used.
+	 *
+	 * @return the ratio of the hits.
+	 */
+	public double getHitRate() {
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.telemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets (in milliseconds) which counts the
+ * completed, cancelled and failed operations.
+ *
+ * <p>
+ * The histogram is lock free and can be updated by several threads.
+ * </p>
+ *
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Upper bounds (inclusive) of the buckets in milliseconds, the last bucket
+	 * (+Inf) is implicit.
+	 */
+	static final long[] BUCKETS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 };
+
+	private final LongAdder[] buckets;
+
+	private final LongAdder count;
+
+	private final LongAdder totalTime;
+
+	private final AtomicLong maxTime;
+
+	private final LongAdder cancelledCount;
+
+	private final LongAdder errorCount;
+
+	public LatencyHistogram() {
+		this.buckets = new LongAdder[BUCKETS.length + 1];
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+		this.count = new LongAdder();
+		this.totalTime = new LongAdder();
+		this.maxTime = new AtomicLong();
+		this.cancelledCount = new LongAdder();
+		this.errorCount = new LongAdder();
+	}
+
+	/**
+	 * Records an operation which took the given time.
+	 *
+	 * @param nanos the time of the operation in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		buckets[getBucketIndex(millis)].increment();
+		count.increment();
+		totalTime.add(millis);
+		maxTime.accumulateAndGet(millis, Math::max);
+	}
+
+	/**
+	 * Records an operation which was cancelled after the given time.
+	 *
+	 * @param nanos the time of the operation in nanoseconds.
+	 */
+	public void recordCancelled(long nanos) {
+		record(nanos);
+		cancelledCount.increment();
+	}
+
+	/**
+	 * Records an operation which failed after the given time.
+	 *
+	 * @param nanos the time of the operation in nanoseconds.
+	 */
+	public void recordError(long nanos) {
+		record(nanos);
+		errorCount.increment();
+	}
+
+	private static int getBucketIndex(long millis) {
+		for (int i = 0; i < BUCKETS.length; i++) {
+			if (millis <= BUCKETS[i]) {
+				return i;
+			}
+		}
+		return BUCKETS.length;
+	}
+
+	/**
+	 * Returns the number of recorded operations (including the cancelled and
+	 * failed operations).
+	 *
+	 * @return the number of recorded operations.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the total time of the recorded operations in milliseconds.
+	 *
+	 * @return the total time of the recorded operations in milliseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime.sum();
+	}
+
+	/**
+	 * Returns the maximum time of the recorded operations in milliseconds.
+	 *
+	 * @return the maximum time of the recorded operations in milliseconds.
+	 */
+	public long getMaxTime() {
+		return maxTime.get();
+	}
+
+	/**
+	 * Returns the number of cancelled operations.
+	 *
+	 * @return the number of cancelled operations.
+	 */
+	public long getCancelledCount() {
+		return cancelledCount.sum();
+	}
+
+	/**
+	 * Returns the number of failed operations.
+	 *
+	 * @return the number of failed operations.
+	 */
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+	/**
+	 * Returns the cumulative counts of the buckets (the last one is +Inf) as
+	 * expected by Prometheus.
+	 *
+	 * @return the cumulative counts of the buckets.
+	 */
+	public long[] getCumulativeCounts() {
+		long[] counts = new long[buckets.length];
+		long total = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			total += buckets[i].sum();
+			counts[i] = total;
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns an estimation of the given percentile (0-100) in milliseconds, which
+	 * is the upper bound of the bucket which contains it.
+	 *
+	 * @param percentile the percentile.
+	 * @return an estimation of the given percentile in milliseconds.
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = getCumulativeCounts();
+		long total = counts[counts.length - 1];
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100);
+		for (int i = 0; i < BUCKETS.length; i++) {
+			if (counts[i] >= rank) {
+				return BUCKETS[i];
+			}
+		}
+		return getMaxTime();
+	}
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.telemetry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+/**
+ * Performance metrics of the XML language server:
+ *
+ * <ul>
+ * <li>latency histograms of the LSP requests (with the cancelled and failed
+ * requests count).</li>
+ * <li>latency histogram of the DOM parsing and the size, parse time of each
+ * opened document.</li>
+ * <li>latency histograms of the validation per grammar type (xsd, dtd,
+ * relaxng, xml-model, none).</li>
+ * <li>hit rates of the caches (content model documents, grammar pool,
+ * downloaded resources).</li>
+ * </ul>
+ *
+ * <p>
+ * The metrics can be exported as JSON or as Prometheus text format.
+ * </p>
+ *
+ */
+public class PerformanceMetrics {
+
+	/**
+	 * Export format of the metrics.
+	 */
+	public static enum Format {
+		JSON, PROMETHEUS;
+
+		public static Format get(String value) {
+			if (value != null) {
+				for (Format format : values()) {
+					if (format.name().equalsIgnoreCase(value)) {
+						return format;
+					}
+				}
+			}
+			return JSON;
+		}
+	}
+
+	public static final String REQUEST = "request";
+
+	public static final String PARSE = "parse";
+
+	public static final String VALIDATION = "validation";
+
+	public static final String RESOLVER = "resolver";
+
+	public static final String CONTENT_MODEL_CACHE = "contentModel";
+
+	public static final String GRAMMAR_POOL_CACHE = "grammarPool";
+
+	public static final String RESOURCES_CACHE = "resources";
+
+	public static final String RESOURCES_AVAILABILITY_CACHE = "resourcesAvailability";
+
+	public static final String RESOLVED_URIS_CACHE = "resolvedURIs";
+
+	private static final String PROMETHEUS_PREFIX = "lemminx_";
+
+	private static final PerformanceMetrics INSTANCE = new PerformanceMetrics();
+
+	public static PerformanceMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Size and parse time of an opened document.
+	 */
+	private static class DocumentMetrics {
+
+		private volatile int length;
+
+		private volatile long parseTime;
+
+		private final AtomicInteger parseCount = new AtomicInteger();
+	}
+
+	private final Map<String, Map<String, LatencyHistogram>> histograms;
+
+	private final Map<String, CacheMetrics> caches;
+
+	private final Map<String, DocumentMetrics> documents;
+
+	PerformanceMetrics() {
+		this.histograms = new ConcurrentHashMap<>();
+		this.caches = new ConcurrentHashMap<>();
+		this.documents = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the latency histogram of the given category (request, parse,
+	 * validation) and name.
+	 *
+	 * @param category the category.
+	 * @param name     the name.
+	 * @return the latency histogram of the given category and name.
+	 */
+	public LatencyHistogram getHistogram(String category, String name) {
+		return histograms.computeIfAbsent(category, k -> new ConcurrentHashMap<>()) //
+				.computeIfAbsent(name, k -> new LatencyHistogram());
+	}
+
+	/**
+	 * Returns the metrics of the cache with the given name.
+	 *
+	 * @param name the cache name.
+	 * @return the metrics of the cache with the given name.
+	 */
+	public CacheMetrics getCache(String name) {
+		return caches.computeIfAbsent(name, k -> new CacheMetrics());
+	}
+
+	/**
+	 * Records the latency of the given LSP request when the given future is
+	 * completed.
+	 *
+	 * @param <T>    the result type.
+	 * @param method the LSP method (ex : textDocument/completion).
+	 * @param future the future of the request.
+	 * @return the given future.
+	 */
+	public <T> CompletableFuture<T> track(String method, CompletableFuture<T> future) {
+		long start = System.nanoTime();
+		future.whenComplete((result, error) -> {
+			long time = System.nanoTime() - start;
+			LatencyHistogram histogram = getHistogram(REQUEST, method);
+			if (error == null) {
+				histogram.record(time);
+			} else if (isCancelled(error)) {
+				histogram.recordCancelled(time);
+			} else {
+				histogram.recordError(time);
+			}
+		});
+		return future;
+	}
+
+	private static boolean isCancelled(Throwable error) {
+		if (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		if (error instanceof CancellationException) {
+			return true;
+		}
+		return error instanceof ResponseErrorException && ((ResponseErrorException) error).getResponseError()
+				.getCode() == ResponseErrorCode.RequestCancelled.getValue();
+	}
+
+	/**
+	 * Records the parse of the document with the given uri.
+	 *
+	 * @param uri    the document uri.
+	 * @param length the document length.
+	 * @param nanos  the parse time in nanoseconds.
+	 */
+	public void recordParse(String uri, int length, long nanos) {
+		getHistogram(PARSE, "dom").record(nanos);
+		if (uri == null) {
+			return;
+		}
+		DocumentMetrics document = documents.computeIfAbsent(uri, k -> new DocumentMetrics());
+		document.length = length;
+		document.parseTime = nanos / 1_000_000;
+		document.parseCount.incrementAndGet();
+	}
+
+	/**
+	 * Records the validation of a document bound to the given grammar type.
+	 *
+	 * @param grammarType the grammar type (xsd, dtd, relaxng, xml-model, none).
+	 * @param nanos       the validation time in nanoseconds.
+	 * @param cancelled   true if the validation was cancelled.
+	 */
+	public void recordValidation(String grammarType, long nanos, boolean cancelled) {
+		LatencyHistogram histogram = getHistogram(VALIDATION, grammarType);
+		if (cancelled) {
+			histogram.recordCancelled(nanos);
+		} else {
+			histogram.record(nanos);
+		}
+	}
+
+	/**
+	 * Removes the metrics of the closed document with the given uri.
+	 *
+	 * @param uri the document uri.
+	 */
+	public void removeDocument(String uri) {
+		documents.remove(uri);
+	}
+
+	/**
+	 * Clears all metrics.
+	 */
+	public void reset() {
+		histograms.clear();
+		caches.clear();
+		documents.clear();
+	}
+
+	/**
+	 * Returns the metrics as JSON object.
+	 *
+	 * @return the metrics as JSON object.
+	 */
+	public JsonObject toJSON() {
+		JsonObject json = new JsonObject();
+		for (Map.Entry<String, Map<String, LatencyHistogram>> category : new TreeMap<>(histograms).entrySet()) {
+			JsonObject categoryJson = new JsonObject();
+			for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(category.getValue()).entrySet()) {
+				categoryJson.add(entry.getKey(), toJSON(entry.getValue()));
+			}
+			json.add(category.getKey(), categoryJson);
+		}
+		if (!documents.isEmpty()) {
+			JsonObject documentsJson = new JsonObject();
+			for (Map.Entry<String, DocumentMetrics> entry : new TreeMap<>(documents).entrySet()) {
+				JsonObject documentJson = new JsonObject();
+				DocumentMetrics document = entry.getValue();
+				documentJson.addProperty("length", document.length);
+				documentJson.addProperty("parseTime", document.parseTime);
+				documentJson.addProperty("parseCount", document.parseCount.get());
+				documentsJson.add(entry.getKey(), documentJson);
+			}
+			json.add("documents", documentsJson);
+		}
+		JsonObject cachesJson = new JsonObject();
+		for (Map.Entry<String, CacheMetrics> entry : new TreeMap<>(caches).entrySet()) {
+			CacheMetrics cache = entry.getValue();
+			JsonObject cacheJson = new JsonObject();
+			cacheJson.addProperty("hitCount", cache.getHitCount());
+			cacheJson.addProperty("missCount", cache.getMissCount());
+			cacheJson.addProperty("hitRate", cache.getHitRate());
+			cachesJson.add(entry.getKey(), cacheJson);
+		}
+		json.add("caches", cachesJson);
+		return json;
+	}
+
+	private static JsonObject toJSON(LatencyHistogram histogram) {
+		JsonObject json = new JsonObject();
+		json.addProperty("count", histogram.getCount());
+		json.addProperty("cancelled", histogram.getCancelledCount());
+		json.addProperty("errors", histogram.getErrorCount());
+		json.addProperty("totalTime", histogram.getTotalTime());
+		json.addProperty("maxTime", histogram.getMaxTime());
+		json.addProperty("p50", histogram.getPercentile(50));
+		json.addProperty("p90", histogram.getPercentile(90));
+		json.addProperty("p99", histogram.getPercentile(99));
+		return json;
+	}
+
+	/**
+	 * Returns the metrics in the Prometheus text format.
+	 *
+	 * @return the metrics in the Prometheus text format.
+	 */
+	public String toPrometheus() {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<String, Map<String, LatencyHistogram>> category : new TreeMap<>(histograms).entrySet()) {
+			String metric = PROMETHEUS_PREFIX + category.getKey() + "_duration_milliseconds";
+			text.append("# TYPE ").append(metric).append(" histogram\n");
+			for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(category.getValue()).entrySet()) {
+				String name = escapeLabel(entry.getKey());
+				LatencyHistogram histogram = entry.getValue();
+				long[] counts = histogram.getCumulativeCounts();
+				for (int i = 0; i < counts.length; i++) {
+					String le = i < LatencyHistogram.BUCKETS.length ? String.valueOf(LatencyHistogram.BUCKETS[i])
+							: "+Inf";
+					text.append(metric).append("_bucket{name=\"").append(name).append("\",le=\"").append(le)
+							.append("\"} ").append(counts[i]).append('\n');
+				}
+				text.append(metric).append("_sum{name=\"").append(name).append("\"} ")
+						.append(histogram.getTotalTime()).append('\n');
+				text.append(metric).append("_count{name=\"").append(name).append("\"} ")
+						.append(histogram.getCount()).append('\n');
+			}
+			appendCounters(text, PROMETHEUS_PREFIX + category.getKey() + "_cancelled_total", category.getValue(),
+					LatencyHistogram::getCancelledCount);
+			appendCounters(text, PROMETHEUS_PREFIX + category.getKey() + "_errors_total", category.getValue(),
+					LatencyHistogram::getErrorCount);
+		}
+		if (!caches.isEmpty()) {
+			Map<String, CacheMetrics> sortedCaches = new TreeMap<>(caches);
+			appendCounters(text, PROMETHEUS_PREFIX + "cache_hits_total", sortedCaches, CacheMetrics::getHitCount);
+			appendCounters(text, PROMETHEUS_PREFIX + "cache_misses_total", sortedCaches, CacheMetrics::getMissCount);
+		}
+		return text.toString();
+	}
+
+	private static <T> void appendCounters(StringBuilder text, String metric, Map<String, T> values,
+			ToLongFunction<T> counter) {
+		text.append("# TYPE ").append(metric).append(" counter\n");
+		for (Map.Entry<String, T> entry : new TreeMap<>(values).entrySet()) {
+			text.append(metric).append("{name=\"").append(escapeLabel(entry.getKey())).append("\"} ")
+					.append(counter.applyAsLong(entry.getValue())).append('\n');
+		}
+	}
+
+	private static String escapeLabel(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	/**
+	 * Returns the metrics in the given format.
+	 *
+	 * @param format the format.
+	 * @return the metrics in the given format.
+	 */
+	public String format(Format format) {
+		if (format == Format.PROMETHEUS) {
+			return toPrometheus();
+		}
+		return new GsonBuilder().setPrettyPrinting().create().toJson(toJSON());
+	}
+
+	/**
+	 * Exports the metrics in the given file with the given format.
+	 *
+	 * @param file   the file.
+	 * @param format the format.
+	 * @throws IOException
+	 */
+	public void export(Path file, Format format) throws IOException {
+		Path parent = file.getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Files.write(file, format(format).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns a summary of the metrics (count and percentiles of the requests,
+	 * validation, parse and hit rates of the caches) to send with the telemetry.
+	 *
+	 * @return a summary of the metrics.
+	 */
+	public Map<String, Object> getTelemetryProperties() {
+		Map<String, Object> properties = new HashMap<>();
+		for (Map.Entry<String, Map<String, LatencyHistogram>> category : histograms.entrySet()) {
+			for (Map.Entry<String, LatencyHistogram> entry : category.getValue().entrySet()) {
+				LatencyHistogram histogram = entry.getValue();
+				String key = "metrics." + category.getKey() + "." + entry.getKey();
+				properties.put(key + ".count", histogram.getCount());
+				properties.put(key + ".cancelled", histogram.getCancelledCount());
+				properties.put(key + ".p50", histogram.getPercentile(50));
+				properties.put(key + ".p99", histogram.getPercentile(99));
+			}
+		}
+		for (Map.Entry<String, CacheMetrics> entry : caches.entrySet()) {
+			properties.put("metrics.cache." + entry.getKey() + ".hitRate", entry.getValue().getHitRate());
+		}
+		return properties;
+	}
+
+	/**
+	 * Returns true if no metrics was recorded and false otherwise.
+	 *
+	 * @return true if no metrics was recorded and false otherwise.
+	 */
+	public boolean isEmpty() {
+		return histograms.isEmpty() && caches.isEmpty();
+	}
+}
@@ -33,6 +33,8 @@ public class TelemetryManager {
 
 	private static final String DOC_OPEN_EVENT_NAME = "server.document.open";
 
+	private static final String METRICS_EVENT_NAME = "server.metrics";
+
 	private final LanguageClient languageClient;
 
 	private final TelemetryCache telemetryCache;
@@ -72,6 +74,10 @@ public class TelemetryManager {
 					telemetryEvent(DOC_OPEN_EVENT_NAME, telemetryCache.getProperties());
 					telemetryCache.clear();
 				}
+				PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+				if (isEnabled() && !metrics.isEmpty()) {
+					telemetryEvent(METRICS_EVENT_NAME, metrics.getTelemetryProperties());
+				}
 			}
 		}, 30, 60, TimeUnit.MINUTES);
 	}
@@ -17,24 +17,42 @@ import static org.eclipse.lemminx.utils.ExceptionUtils.getRootCause;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.lemminx.commons.VirtualThreads;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
+import org.eclipse.lemminx.telemetry.CacheMetrics;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
 import org.eclipse.lemminx.uriresolver.CacheResourceDownloadingException.CacheResourceDownloadingError;
 import org.eclipse.lemminx.uriresolver.InvalidURIException.InvalidURIError;
 import org.eclipse.lemminx.utils.FilesUtils;
@@ -49,6 +67,21 @@ import com.google.common.io.RecursiveDeleteOption;
 /**
  * Cache resources manager.
  *
+ * <p>
+ * The resources are downloaded in background by a bounded pool of threads,
+ * and a resource which is downloading is never downloaded twice at the same
+ * time. When a grammar (XML Schema, DTD, RelaxNG) is downloaded, the grammars
+ * that it includes / imports are downloaded too, so they are available when
+ * the grammar is loaded.
+ * </p>
+ *
+ * <p>
+ * The ETag and Last-Modified headers of a downloaded resource are stored next
+ * to the resource in the cache, and are used to revalidate the resource with
+ * a conditional request (If-None-Match / If-Modified-Since) once a day: the
+ * resource is downloaded again only if it has changed.
+ * </p>
+ *
  */
 public class CacheResourcesManager {
 
@@ -60,6 +93,30 @@ public class CacheResourcesManager {
 
 	private final Cache<String, Boolean> forceDownloadExternalResources;
 
+	private final Cache<String, ResourceAvailability> resourcesAvailability;
+
+	private final Map<String, CompletableFuture<Boolean>> resourcesAvailabilityChecking;
+
+	// Time to live (in milliseconds) of an unavailable resource which cannot be
+	// tracked with the files watcher
+	private static final long UNAVAILABLE_RESOURCE_TTL = TimeUnit.SECONDS.toMillis(5);
+
+	// Time to live (in milliseconds) of an available resource which cannot be
+	// tracked with the files watcher
+	private static final long AVAILABLE_RESOURCE_TTL = TimeUnit.SECONDS.toMillis(30);
+
+	private static final int AVAILABILITY_CHECK_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+
+	private static final int DOWNLOAD_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
+
+	// Interval (in milliseconds) between two revalidations of a downloaded
+	// resource
+	private static final long REVALIDATION_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+	private static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
+	private static final String VALIDATORS_FILE_EXTENSION = ".lemminx-validators";
+
 	private static final String CACHE_PATH = "cache";
 	private static final Logger LOGGER = Logger.getLogger(CacheResourcesManager.class.getName());
 
@@ -74,7 +131,15 @@ public class CacheResourcesManager {
 		TEMP_DOWNLOAD_DIR = tempDownloadDir;
 	}
 
+	// The downloads (requested or prefetched) and the revalidations of all the
+	// managers share the same threads
+	private static final ExecutorService DOWNLOAD_EXECUTOR = createDownloadExecutor();
+
 	private final Map<String, CompletableFuture<Path>> resourcesLoading;
+
+	private final Cache<String, Long> resourcesRevalidation;
+
+	private long revalidationInterval;
 	private boolean useCache;
 
 	private boolean downloadExternalResources;
@@ -89,6 +154,129 @@ public class CacheResourcesManager {
 
 	}
 
+	/**
+	 * Availability of a resource.
+	 */
+	private static class ResourceAvailability {
+
+		private final boolean available;
+
+		private final long expirationTime;
+
+		private final FilesChangedTracker tracker;
+
+		private boolean dirty;
+
+		ResourceAvailability(boolean available, long timeToLive, FilesChangedTracker tracker) {
+			this.available = available;
+			this.expirationTime = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+			this.tracker = tracker;
+		}
+
+		synchronized boolean isValid() {
+			if (System.currentTimeMillis() >= expirationTime) {
+				return false;
+			}
+			if (!dirty && tracker != null && tracker.isDirty()) {
+				dirty = true;
+			}
+			return !dirty;
+		}
+	}
+
+	/**
+	 * The validators (ETag, Last-Modified) of a downloaded resource, stored in a
+	 * properties file next to the resource in the cache.
+	 */
+	private static class ResourceValidators {
+
+		private static final String ETAG = "etag";
+
+		private static final String LAST_MODIFIED = "last-modified";
+
+		private static final String LAST_VALIDATED = "last-validated";
+
+		private final String etag;
+
+		private final long lastModified;
+
+		private final long lastValidated;
+
+		ResourceValidators(String etag, long lastModified, long lastValidated) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.lastValidated = lastValidated;
+		}
+
+		/**
+		 * Returns the validators of the given response and null if the response has
+		 * no validators.
+		 */
+		static ResourceValidators of(URLConnection conn) {
+			String etag = conn.getHeaderField("ETag");
+			long lastModified = conn.getLastModified();
+			if (etag == null && lastModified <= 0) {
+				return null;
+			}
+			return new ResourceValidators(etag, lastModified, System.currentTimeMillis());
+		}
+
+		/**
+		 * Returns the stored validators of the given cached resource and null if
+		 * the resource has no validators (ex : resource deployed from the
+		 * classpath).
+		 */
+		static ResourceValidators load(Path resourceCachePath) {
+			Path file = getPath(resourceCachePath);
+			if (!Files.exists(file)) {
+				return null;
+			}
+			try (Reader reader = Files.newBufferedReader(file)) {
+				Properties properties = new Properties();
+				properties.load(reader);
+				return new ResourceValidators(properties.getProperty(ETAG),
+						Long.parseLong(properties.getProperty(LAST_MODIFIED, "0")),
+						Long.parseLong(properties.getProperty(LAST_VALIDATED, "0")));
+			} catch (Exception e) {
+				LOGGER.log(Level.WARNING, "Error while reading " + file, e);
+				return null;
+			}
+		}
+
+		static void delete(Path resourceCachePath) throws IOException {
+			Files.deleteIfExists(getPath(resourceCachePath));
+		}
+
+		void save(Path resourceCachePath) throws IOException {
+			Properties properties = new Properties();
+			if (etag != null) {
+				properties.setProperty(ETAG, etag);
+			}
+			properties.setProperty(LAST_MODIFIED, String.valueOf(lastModified));
+			properties.setProperty(LAST_VALIDATED, String.valueOf(lastValidated));
+			try (Writer writer = Files.newBufferedWriter(getPath(resourceCachePath))) {
+				properties.store(writer, null);
+			}
+		}
+
+		ResourceValidators validated() {
+			return new ResourceValidators(etag, lastModified, System.currentTimeMillis());
+		}
+
+		void addConditionalHeaders(URLConnection conn) {
+			if (etag != null) {
+				conn.setRequestProperty("If-None-Match", etag);
+			}
+			if (lastModified > 0) {
+				conn.setIfModifiedSince(lastModified);
+			}
+		}
+
+		private static Path getPath(Path resourceCachePath) {
+			return resourceCachePath.resolveSibling(resourceCachePath.getFileName() + VALIDATORS_FILE_EXTENSION);
+		}
+	}
+
 	/**
 	 * Classpath resource to deploy into the lemminx cache
 	 */
@@ -150,6 +338,10 @@ public class CacheResourcesManager {
 		unavailableURICache = cache;
 		forceDownloadExternalResources = CacheBuilder.newBuilder().maximumSize(100)
 				.expireAfterWrite(30, TimeUnit.SECONDS).build();
+		resourcesAvailability = CacheBuilder.newBuilder().maximumSize(1000).build();
+		resourcesAvailabilityChecking = new ConcurrentHashMap<>();
+		resourcesRevalidation = CacheBuilder.newBuilder().maximumSize(1000).build();
+		revalidationInterval = REVALIDATION_INTERVAL;
 		addDefaultProtocolsForCache();
 		setDownloadExternalResources(true);
 	}
@@ -157,8 +349,11 @@ public class CacheResourcesManager {
 	public Path getResource(final String resourceURI) throws IOException {
 		Path resourceCachePath = getResourceCachePath(resourceURI);
 		if (Files.exists(resourceCachePath)) {
+			PerformanceMetrics.getInstance().getCache(PerformanceMetrics.RESOURCES_CACHE).hit();
+			revalidateIfNeeded(resourceURI, resourceCachePath);
 			return resourceCachePath;
 		}
+		PerformanceMetrics.getInstance().getCache(PerformanceMetrics.RESOURCES_CACHE).miss();
 
 		if (!isDownloadExternalResources() && !isForceDownloadExternalResource(resourceURI)) {
 			throw new CacheResourceDownloadingException(resourceURI, resourceCachePath,
@@ -178,18 +373,32 @@ public class CacheResourcesManager {
 			throw cacheException;
 		}
 
-		CompletableFuture<Path> f = null;
+		CompletableFuture<Path> f;
+		boolean started;
 		synchronized (resourcesLoading) {
-			if (resourcesLoading.containsKey(resourceURI)) {
-				CompletableFuture<Path> future = resourcesLoading.get(resourceURI);
-				throw new CacheResourceDownloadingException(resourceURI, resourceCachePath,
-						CacheResourceDownloadingError.RESOURCE_LOADING, future, null);
+			started = !resourcesLoading.containsKey(resourceURI);
+			f = startDownload(resourceURI, resourceCachePath, false);
+		}
+		if (!started && f.isCompletedExceptionally()) {
+			// The download in progress has already failed (ex : connection refused), throw
+			// the error of the download
+			cacheException = unavailableURICache.getIfPresent(resourceURI);
+			if (cacheException != null) {
+				throw cacheException;
+			}
+			try {
+				f.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw e;
 			}
-			f = downloadResource(resourceURI, resourceCachePath);
-			resourcesLoading.put(resourceURI, f);
 		}
-
-		if (f.getNow(null) == null) {
+		if (started || !f.isDone()) {
+			// The download started by this call is always reported as loading (even if it
+			// completes or fails at once), its result is taken into account by the
+			// validation triggered when it completes
 			throw new CacheResourceDownloadingException(resourceURI, resourceCachePath,
 					CacheResourceDownloadingError.RESOURCE_LOADING, f, null);
 		}
@@ -197,80 +406,419 @@ public class CacheResourcesManager {
 		return resourceCachePath;
 	}
 
-	private CompletableFuture<Path> downloadResource(final String resourceURI, Path resourceCachePath) {
-		return CompletableFuture.supplyAsync(() -> {
-			long start = System.currentTimeMillis();
-			URLConnection conn = null;
-			try {
-				String actualURI = resourceURI;
-				URL url = new URL(actualURI);
-				String originalProtocol = url.getProtocol();
-				if (!protocolsForCache.contains(formatProtocol(originalProtocol))) {
-					throw new InvalidURIException(resourceURI, InvalidURIException.InvalidURIError.UNSUPPORTED_PROTOCOL,
-							originalProtocol);
-				}
-				boolean isOriginalRequestSecure = isSecure(originalProtocol);
-				LOGGER.info("Downloading " + resourceURI + " to " + resourceCachePath + "...");
-				conn = url.openConnection();
-				conn.setRequestProperty(USER_AGENT_KEY, USER_AGENT_VALUE);
-				/* XXX: This should really be implemented using HttpClient or similar */
-				int allowedRedirects = 5;
-				while (conn.getHeaderField("Location") != null && allowedRedirects > 0) //$NON-NLS-1$
-				{
-					allowedRedirects--;
-					url = new URL(actualURI = conn.getHeaderField("Location")); //$NON-NLS-1$
-					String protocol = url.getProtocol();
-					if (!protocolsForCache.contains(formatProtocol(protocol))) {
-						throw new InvalidURIException(url.toString(),
-								InvalidURIException.InvalidURIError.UNSUPPORTED_PROTOCOL, protocol);
-					}
-					if (isOriginalRequestSecure && !isSecure(protocol)) {
-						throw new InvalidURIException(resourceURI,
-								InvalidURIException.InvalidURIError.INSECURE_REDIRECTION, url.toString());
+	/**
+	 * Returns the download (or the revalidation) in progress of the given
+	 * resource, or starts it in background.
+	 *
+	 * @param resourceURI       the resource URI.
+	 * @param resourceCachePath the path of the resource in the cache.
+	 * @param revalidate        true if the cached resource must be revalidated and
+	 *                          false if it must be downloaded.
+	 * @return the download (or the revalidation) of the given resource.
+	 */
+	private CompletableFuture<Path> startDownload(String resourceURI, Path resourceCachePath, boolean revalidate) {
+		synchronized (resourcesLoading) {
+			CompletableFuture<Path> future = resourcesLoading.get(resourceURI);
+			if (future != null) {
+				// The resource is already downloading
+				return future;
+			}
+			future = CompletableFuture.supplyAsync(() -> {
+				try {
+					return revalidate ? revalidateResource(resourceURI, resourceCachePath)
+							: downloadResource(resourceURI, resourceCachePath);
+				} finally {
+					synchronized (resourcesLoading) {
+						resourcesLoading.remove(resourceURI);
 					}
-					conn = url.openConnection();
-					conn.setRequestProperty(USER_AGENT_KEY, USER_AGENT_VALUE);
 				}
+			}, DOWNLOAD_EXECUTOR);
+			resourcesLoading.put(resourceURI, future);
+			return future;
+		}
+	}
 
-				// Download resource in a temporary file
-				Path path = Files.createTempFile(TEMP_DOWNLOAD_DIR, resourceCachePath.getFileName().toString(), ".lemminx");
-				try (ReadableByteChannel rbc = Channels.newChannel(conn.getInputStream());
-						FileOutputStream fos = new FileOutputStream(path.toFile())) {
-					fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-				}
+	private Path downloadResource(final String resourceURI, Path resourceCachePath) {
+		long start = System.currentTimeMillis();
+		URLConnection conn = null;
+		try {
+			LOGGER.info("Downloading " + resourceURI + " to " + resourceCachePath + "...");
+			conn = openConnection(resourceURI, null);
+			saveResource(conn, resourceCachePath);
+			long elapsed = System.currentTimeMillis() - start;
+			LOGGER.info("Downloaded " + resourceURI + " to " + resourceCachePath + " in " + elapsed + "ms");
+		} catch (Exception e) {
+			// Do nothing
+			Throwable rootCause = getRootCause(e);
+			String error = "[" + rootCause.getClass().getTypeName() + "] " + rootCause.getMessage();
+			LOGGER.log(Level.SEVERE,
+					"Error while downloading " + resourceURI + " to " + resourceCachePath + " : " + error);
+			String httpResponseCode = getHttpResponseCode(conn);
+			if (httpResponseCode != null) {
+				error = error + " with code: " + httpResponseCode;
+			}
+			CacheResourceDownloadedException cacheException = new CacheResourceDownloadedException(resourceURI,
+					resourceCachePath, error, e);
+			unavailableURICache.put(resourceURI, cacheException);
+			throw cacheException;
+		} finally {
+			disconnect(conn);
+		}
+		prefetchReferences(resourceURI, resourceCachePath);
+		return resourceCachePath;
+	}
 
-				// Move the temporary file in the lemminx cache folder.
-				Path dir = resourceCachePath.getParent();
-				if (!Files.exists(dir)) {
-					Files.createDirectories(dir);
-				}
-				Files.move(path, resourceCachePath);
-				long elapsed = System.currentTimeMillis() - start;
-				LOGGER.info("Downloaded " + resourceURI + " to " + resourceCachePath + " in " + elapsed + "ms");
-			} catch (Exception e) {
-				// Do nothing
-				Throwable rootCause = getRootCause(e);
-				String error = "[" + rootCause.getClass().getTypeName() + "] " + rootCause.getMessage();
-				LOGGER.log(Level.SEVERE,
-						"Error while downloading " + resourceURI + " to " + resourceCachePath + " : " + error);
-				String httpResponseCode = getHttpResponseCode(conn);
-				if (httpResponseCode != null) {
-					error = error + " with code: " + httpResponseCode;
-				}
-				CacheResourceDownloadedException cacheException = new CacheResourceDownloadedException(resourceURI,
-						resourceCachePath, error, e);
-				unavailableURICache.put(resourceURI, cacheException);
-				throw cacheException;
-			} finally {
-				synchronized (resourcesLoading) {
-					resourcesLoading.remove(resourceURI);
+	/**
+	 * Revalidates the given cached resource with a conditional request if its
+	 * last validation is too old: the resource is downloaded again only if it has
+	 * changed. When the resource cannot be revalidated (ex : network not
+	 * available), the cached resource is kept.
+	 */
+	private Path revalidateResource(final String resourceURI, Path resourceCachePath) {
+		ResourceValidators validators = ResourceValidators.load(resourceCachePath);
+		if (validators == null
+				|| System.currentTimeMillis() - validators.lastValidated < revalidationInterval) {
+			// - the resource has no validators (ex : resource deployed from the classpath)
+			// - or the resource has been validated recently
+			return resourceCachePath;
+		}
+		URLConnection conn = null;
+		try {
+			conn = openConnection(resourceURI, validators);
+			if (conn instanceof HttpURLConnection
+					&& ((HttpURLConnection) conn).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				// The cached resource is up to date
+				validators.validated().save(resourceCachePath);
+				LOGGER.fine("Revalidated " + resourceURI + " (not modified)");
+			} else {
+				saveResource(conn, resourceCachePath);
+				// Invalidate the grammars loaded from the cached resource
+				FilesWatcher.getInstance().invalidate(resourceCachePath.toUri().toString());
+				LOGGER.info("Downloaded " + resourceURI + " to " + resourceCachePath + " (modified)");
+			}
+		} catch (Exception e) {
+			Throwable rootCause = getRootCause(e);
+			LOGGER.log(Level.WARNING, "Error while revalidating " + resourceURI + " : ["
+					+ rootCause.getClass().getTypeName() + "] " + rootCause.getMessage());
+			return resourceCachePath;
+		} finally {
+			disconnect(conn);
+		}
+		prefetchReferences(resourceURI, resourceCachePath);
+		return resourceCachePath;
+	}
+
+	/**
+	 * Opens the connection of the given resource URI by following the
+	 * redirections.
+	 *
+	 * @param resourceURI the resource URI.
+	 * @param validators  the validators of the cached resource to send a
+	 *                    conditional request and null otherwise.
+	 * @return the opened connection.
+	 */
+	private URLConnection openConnection(String resourceURI, ResourceValidators validators) throws IOException {
+		String actualURI = resourceURI;
+		URL url = new URL(actualURI);
+		String originalProtocol = url.getProtocol();
+		if (!protocolsForCache.contains(formatProtocol(originalProtocol))) {
+			throw new InvalidURIException(resourceURI, InvalidURIException.InvalidURIError.UNSUPPORTED_PROTOCOL,
+					originalProtocol);
+		}
+		boolean isOriginalRequestSecure = isSecure(originalProtocol);
+		URLConnection conn = openConnection(url, validators);
+		/* XXX: This should really be implemented using HttpClient or similar */
+		int allowedRedirects = 5;
+		while (conn.getHeaderField("Location") != null && allowedRedirects > 0) //$NON-NLS-1$
+		{
+			allowedRedirects--;
+			url = new URL(actualURI = conn.getHeaderField("Location")); //$NON-NLS-1$
+			String protocol = url.getProtocol();
+			if (!protocolsForCache.contains(formatProtocol(protocol))) {
+				throw new InvalidURIException(url.toString(),
+						InvalidURIException.InvalidURIError.UNSUPPORTED_PROTOCOL, protocol);
+			}
+			if (isOriginalRequestSecure && !isSecure(protocol)) {
+				throw new InvalidURIException(resourceURI, InvalidURIException.InvalidURIError.INSECURE_REDIRECTION,
+						url.toString());
+			}
+			disconnect(conn);
+			conn = openConnection(url, validators);
+		}
+		return conn;
+	}
+
+	private static URLConnection openConnection(URL url, ResourceValidators validators) throws IOException {
+		URLConnection conn = url.openConnection();
+		conn.setRequestProperty(USER_AGENT_KEY, USER_AGENT_VALUE);
+		conn.setConnectTimeout(DOWNLOAD_TIMEOUT);
+		conn.setReadTimeout(DOWNLOAD_TIMEOUT);
+		if (validators != null) {
+			validators.addConditionalHeaders(conn);
+		}
+		return conn;
+	}
+
+	/**
+	 * Saves the content of the given connection in the cache with its
+	 * validators.
+	 */
+	private static void saveResource(URLConnection conn, Path resourceCachePath) throws IOException {
+		// Download resource in a temporary file
+		Path path = Files.createTempFile(TEMP_DOWNLOAD_DIR, resourceCachePath.getFileName().toString(), ".lemminx");
+		try {
+			try (ReadableByteChannel rbc = Channels.newChannel(conn.getInputStream());
+					FileOutputStream fos = new FileOutputStream(path.toFile())) {
+				fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
+			}
+
+			// Move the temporary file in the lemminx cache folder.
+			Path dir = resourceCachePath.getParent();
+			if (!Files.exists(dir)) {
+				Files.createDirectories(dir);
+			}
+			try {
+				Files.move(path, resourceCachePath, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				// the temporary directory and the cache are not in the same file system
+				Files.move(path, resourceCachePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(path);
+		}
+
+		ResourceValidators validators = ResourceValidators.of(conn);
+		if (validators != null) {
+			validators.save(resourceCachePath);
+		} else {
+			ResourceValidators.delete(resourceCachePath);
+		}
+	}
+
+	private static void disconnect(URLConnection conn) {
+		if (conn != null && conn instanceof HttpURLConnection) {
+			((HttpURLConnection) conn).disconnect();
+		}
+	}
+
+	/**
+	 * Downloads in background the grammars referenced by the given downloaded
+	 * resource (xs:include, xs:import, DTD external entities, etc) which are not
+	 * in the cache.
+	 */
+	private void prefetchReferences(String resourceURI, Path resourceCachePath) {
+		if (!isDownloadExternalResources()) {
+			return;
+		}
+		for (String location : ResourceReferencesCollector.collect(resourceURI, resourceCachePath)) {
+			try {
+				String referenceURI = new URL(new URL(resourceURI), location).toString();
+				if (!isUseCacheFor(referenceURI) || unavailableURICache.getIfPresent(referenceURI) != null) {
+					continue;
 				}
-				if (conn != null && conn instanceof HttpURLConnection) {
-					((HttpURLConnection) conn).disconnect();
+				Path referenceCachePath = getResourceCachePath(referenceURI);
+				if (!Files.exists(referenceCachePath) && FilesUtils.isIncludedInDeployedPath(referenceCachePath)) {
+					startDownload(referenceURI, referenceCachePath, false);
 				}
+			} catch (MalformedURLException e) {
+				// Invalid location
+			} catch (IOException e) {
+				// Invalid URI
 			}
-			return resourceCachePath;
+		}
+	}
+
+	/**
+	 * Revalidates in background the given cached resource if it has not been done
+	 * recently.
+	 */
+	private void revalidateIfNeeded(String resourceURI, Path resourceCachePath) {
+		if (!isDownloadExternalResources()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Long nextRevalidation = resourcesRevalidation.getIfPresent(resourceURI);
+		if (nextRevalidation != null && now < nextRevalidation) {
+			return;
+		}
+		resourcesRevalidation.put(resourceURI, now + revalidationInterval);
+		startDownload(resourceURI, resourceCachePath, true);
+	}
+
+	/**
+	 * Revalidates in background the given cached resource if its last validation
+	 * is older than the revalidation interval.
+	 *
+	 * @param resourceURI the resource URI.
+	 * @return the revalidation of the given cached resource.
+	 * @throws IOException if the resource URI is invalid.
+	 */
+	CompletableFuture<Path> revalidateResource(String resourceURI) throws IOException {
+		return startDownload(resourceURI, getResourceCachePath(resourceURI), true);
+	}
+
+	/**
+	 * Set the interval (in milliseconds) between two revalidations of a
+	 * downloaded resource.
+	 *
+	 * @param revalidationInterval the interval (in milliseconds) between two
+	 *                             revalidations of a downloaded resource.
+	 */
+	void setRevalidationInterval(long revalidationInterval) {
+		this.revalidationInterval = revalidationInterval;
+	}
+
+	private static ExecutorService createDownloadExecutor() {
+		String prefix = "lemminx-download-";
+		ThreadFactory threadFactory = VirtualThreads.newThreadFactory(prefix);
+		if (threadFactory == null) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			threadFactory = runnable -> {
+				Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CONCURRENT_DOWNLOADS, MAX_CONCURRENT_DOWNLOADS, 60L,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Returns true if the given resource URI can be opened and false otherwise.
+	 *
+	 * <p>
+	 * The availability is cached:
+	 * </p>
+	 *
+	 * <ul>
+	 * <li>for a file, until the files watcher notifies a change of the file. An
+	 * unavailable file is checked again after a short delay too, in case the
+	 * change is not notified (ex : network file system).</li>
+	 * <li>for a remote resource ("http(s)", "ftp"), the resource is available if it
+	 * is in the lemminx cache, and unavailable if its last download failed.
+	 * Otherwise the resource is checked in background with the download executor
+	 * to never block the caller, the last known availability (unavailable when the
+	 * resource has never been checked) is returned until the check is done (see
+	 * {@link #getResourceAvailabilityCheck(String)}).</li>
+	 * </ul>
+	 *
+	 * @param resourceURI the resource URI.
+	 *
+	 * @return true if the given resource URI can be opened and false otherwise.
+	 */
+	public boolean isResourceAvailable(String resourceURI) {
+		CacheMetrics metrics = PerformanceMetrics.getInstance()
+				.getCache(PerformanceMetrics.RESOURCES_AVAILABILITY_CACHE);
+		ResourceAvailability availability = resourcesAvailability.getIfPresent(resourceURI);
+		if (availability != null && availability.isValid()) {
+			metrics.hit();
+			return availability.available;
+		}
+		metrics.miss();
+
+		if (isUseCacheFor(resourceURI)) {
+			// Remote resource
+			return isRemoteResourceAvailable(resourceURI, availability);
+		}
+
+		// Track the file before checking it to check it again if it changes during the
+		// check
+		FilesChangedTracker tracker = createTracker(resourceURI);
+		boolean available = tracker != null ? isFileAvailable(tracker.getFiles().get(0))
+				: canOpenResource(resourceURI);
+		long timeToLive = !available ? UNAVAILABLE_RESOURCE_TTL : tracker == null ? AVAILABLE_RESOURCE_TTL : 0;
+		resourcesAvailability.put(resourceURI, new ResourceAvailability(available, timeToLive, tracker));
+		return available;
+	}
+
+	private boolean isRemoteResourceAvailable(String resourceURI, ResourceAvailability lastAvailability) {
+		try {
+			if (isUseCache() && Files.exists(getResourceCachePath(resourceURI))) {
+				// The resource has been downloaded
+				return true;
+			}
+		} catch (IOException e) {
+			// Invalid URI
+			return false;
+		}
+		if (unavailableURICache.getIfPresent(resourceURI) != null) {
+			// The last download of the resource failed
+			return false;
+		}
+		resourcesAvailabilityChecking.computeIfAbsent(resourceURI, uri -> {
+			CompletableFuture<Boolean> future = new CompletableFuture<>();
+			DOWNLOAD_EXECUTOR.execute(() -> {
+				boolean available = false;
+				try {
+					available = canOpenResource(uri);
+					resourcesAvailability.put(uri, new ResourceAvailability(available,
+							available ? AVAILABLE_RESOURCE_TTL : UNAVAILABLE_RESOURCE_TTL, null));
+				} finally {
+					resourcesAvailabilityChecking.remove(uri);
+					future.complete(available);
+				}
+			});
+			return future;
 		});
+		return lastAvailability != null ? lastAvailability.available : false;
+	}
+
+	/**
+	 * Returns the background check of the availability of the given remote
+	 * resource URI which is running and null otherwise.
+	 *
+	 * <p>
+	 * It gives the capability to check again the availability of the resource
+	 * (ex : to validate again a XML document) once the check is done.
+	 * </p>
+	 *
+	 * @param resourceURI the resource URI.
+	 *
+	 * @return the background check of the availability of the given remote
+	 *         resource URI which is running and null otherwise.
+	 */
+	public CompletableFuture<Boolean> getResourceAvailabilityCheck(String resourceURI) {
+		return resourcesAvailabilityChecking.get(resourceURI);
+	}
+
+	private static FilesChangedTracker createTracker(String resourceURI) {
+		if (!resourceURI.startsWith("file:")) {
+			return null;
+		}
+		try {
+			FilesChangedTracker tracker = new FilesChangedTracker();
+			tracker.addFileURI(resourceURI);
+			return tracker.getFiles().isEmpty() ? null : tracker;
+		} catch (Exception e) {
+			// The file URI cannot be converted to a path
+			return null;
+		}
+	}
+
+	private static boolean isFileAvailable(Path file) {
+		return Files.isReadable(file);
+	}
+
+	private static boolean canOpenResource(String resourceURI) {
+		URLConnection conn = null;
+		try {
+			conn = new URL(resourceURI).openConnection();
+			conn.setRequestProperty(USER_AGENT_KEY, USER_AGENT_VALUE);
+			conn.setConnectTimeout(AVAILABILITY_CHECK_TIMEOUT);
+			conn.setReadTimeout(AVAILABILITY_CHECK_TIMEOUT);
+			try (InputStream is = conn.getInputStream()) {
+				return true;
+			}
+		} catch (Exception e) {
+			return false;
+		} finally {
+			if (conn != null && conn instanceof HttpURLConnection) {
+				((HttpURLConnection) conn).disconnect();
+			}
+		}
 	}
 
 	/**
@@ -409,6 +957,8 @@ public class CacheResourcesManager {
 			// Remove the cache directory
 			MoreFiles.deleteDirectoryContents(cachePath, RecursiveDeleteOption.ALLOW_INSECURE);
 		}
+		resourcesAvailability.invalidateAll();
+		resourcesRevalidation.invalidateAll();
 	}
 
 	/**
@@ -0,0 +1,197 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.uriresolver;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.xerces.parsers.SAXParser;
+import org.eclipse.lemminx.utils.DOMUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Collects the locations of the grammars referenced by a downloaded grammar:
+ *
+ * <ul>
+ * <li>the schemaLocation of the xs:include, xs:import, xs:redefine and
+ * xs:override of a XML Schema.</li>
+ * <li>the href of the include and externalRef of a RelaxNG grammar (XML
+ * syntax).</li>
+ * <li>the system identifier of the external parameter entities of a DTD.</li>
+ * </ul>
+ *
+ * <p>
+ * The locations are returned as they are declared (they can be relative).
+ * </p>
+ *
+ */
+class ResourceReferencesCollector {
+
+	private static final Logger LOGGER = Logger.getLogger(ResourceReferencesCollector.class.getName());
+
+	private static final String XML_SCHEMA_NS = "http://www.w3.org/2001/XMLSchema";
+
+	private static final String RELAXNG_NS = "http://relaxng.org/ns/structure/1.0";
+
+	private static final String LOAD_EXTERNAL_DTD_FEATURE = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+
+	private static final String EXTERNAL_GENERAL_ENTITIES_FEATURE = "http://xml.org/sax/features/external-general-entities";
+
+	private static final String EXTERNAL_PARAMETER_ENTITIES_FEATURE = "http://xml.org/sax/features/external-parameter-entities";
+
+	private static final Pattern DTD_COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+
+	// <!ENTITY % name SYSTEM "uri"> or <!ENTITY % name PUBLIC "publicId" "uri">
+	private static final Pattern DTD_EXTERNAL_PARAMETER_ENTITY = Pattern.compile(
+			"<!ENTITY\\s+%\\s+\\S+\\s+(?:SYSTEM|PUBLIC\\s+(?:\"[^\"]*\"|'[^']*'))\\s+(?:\"([^\"]*)\"|'([^']*)')");
+
+	/**
+	 * Stops the parse of a XML Schema when the include/import declarations
+	 * (which must be declared first) have been read.
+	 */
+	private static class StopParsingException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+
+		StopParsingException() {
+			super("Stop parsing");
+		}
+	}
+
+	private static class ReferencesHandler extends DefaultHandler {
+
+		private final Set<String> locations;
+
+		private int depth;
+
+		private boolean xmlSchema;
+
+		ReferencesHandler(Set<String> locations) {
+			this.locations = locations;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			depth++;
+			if (depth == 1) {
+				xmlSchema = XML_SCHEMA_NS.equals(uri);
+				if (!xmlSchema && !RELAXNG_NS.equals(uri)) {
+					// not a grammar
+					throw new StopParsingException();
+				}
+				return;
+			}
+			if (xmlSchema) {
+				if (depth == 2) {
+					switch (localName) {
+					case "include":
+					case "import":
+					case "redefine":
+					case "override":
+						addLocation(attributes.getValue("schemaLocation"));
+						break;
+					case "annotation":
+						break;
+					default:
+						// The include/import must be declared before the other components
+						throw new StopParsingException();
+					}
+				}
+			} else if (RELAXNG_NS.equals(uri) && ("include".equals(localName) || "externalRef".equals(localName))) {
+				addLocation(attributes.getValue("href"));
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			depth--;
+		}
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+			// Never load the external entities
+			return new InputSource(new StringReader(""));
+		}
+
+		private void addLocation(String location) {
+			if (location != null && !location.isBlank()) {
+				locations.add(location.trim());
+			}
+		}
+	}
+
+	private ResourceReferencesCollector() {
+	}
+
+	/**
+	 * Returns the locations of the grammars referenced by the given downloaded
+	 * resource.
+	 *
+	 * @param resourceURI       the resource URI.
+	 * @param resourceCachePath the path of the resource in the cache.
+	 * @return the locations of the grammars referenced by the given downloaded
+	 *         resource.
+	 */
+	static Set<String> collect(String resourceURI, Path resourceCachePath) {
+		if (DOMUtils.isRelaxNGUriCompactSyntax(resourceURI)) {
+			return Collections.emptySet();
+		}
+		Set<String> locations = new LinkedHashSet<>();
+		try {
+			if (DOMUtils.isDTD(resourceURI)) {
+				collectDTDReferences(Files.readString(resourceCachePath), locations);
+			} else {
+				collectXMLReferences(resourceCachePath, locations);
+			}
+		} catch (StopParsingException e) {
+			// the references have been collected
+		} catch (Exception e) {
+			LOGGER.log(Level.FINE, "Error while collecting the references of " + resourceURI, e);
+		}
+		return locations;
+	}
+
+	private static void collectDTDReferences(String content, Set<String> locations) {
+		Matcher matcher = DTD_EXTERNAL_PARAMETER_ENTITY.matcher(DTD_COMMENT.matcher(content).replaceAll(""));
+		while (matcher.find()) {
+			String location = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+			if (!location.isBlank()) {
+				locations.add(location.trim());
+			}
+		}
+	}
+
+	private static void collectXMLReferences(Path resourceCachePath, Set<String> locations)
+			throws IOException, SAXException {
+		ReferencesHandler handler = new ReferencesHandler(locations);
+		SAXParser parser = new SAXParser();
+		parser.setFeature(LOAD_EXTERNAL_DTD_FEATURE, false);
+		parser.setFeature(EXTERNAL_GENERAL_ENTITIES_FEATURE, false);
+		parser.setFeature(EXTERNAL_PARAMETER_ENTITIES_FEATURE, false);
+		parser.setContentHandler(handler);
+		parser.setEntityResolver(handler);
+		parser.parse(new InputSource(resourceCachePath.toUri().toString()));
+	}
+}
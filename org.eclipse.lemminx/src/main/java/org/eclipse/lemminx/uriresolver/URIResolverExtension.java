@@ -40,6 +40,26 @@ public interface URIResolverExtension extends XMLEntityResolver {
 	 */
 	public String resolve(String baseLocation, String publicId, String systemId);
 
+	/**
+	 * Returns true if the URI resolved by {@link #resolve(String, String, String)}
+	 * depends only on the given base location, public id, system id and on the
+	 * settings of the resolver, and false otherwise (ex : the resolved URI depends
+	 * on the content of the base location file).
+	 * 
+	 * <p>
+	 * The URIs resolved by a cacheable resolver are cached by the
+	 * {@link URIResolverExtensionManager} which must be cleared with
+	 * {@link URIResolverExtensionManager#clearResolvedURIsCache()} when the
+	 * settings of the resolver change.
+	 * </p>
+	 * 
+	 * @return true if the URI resolved by {@link #resolve(String, String, String)}
+	 *         can be cached and false otherwise.
+	 */
+	default boolean isResolveCacheable() {
+		return false;
+	}
+
 	@Override
 	default XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		return null;
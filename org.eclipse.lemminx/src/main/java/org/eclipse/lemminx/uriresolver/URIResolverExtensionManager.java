@@ -17,26 +17,100 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.xerces.impl.XMLEntityManager;
 import org.apache.xerces.util.URI.MalformedURIException;
 import org.apache.xerces.xni.XMLResourceIdentifier;
 import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.parser.XMLInputSource;
+import org.eclipse.lemminx.telemetry.CacheMetrics;
+import org.eclipse.lemminx.telemetry.PerformanceMetrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * URI resolver manager.
  *
+ * <p>
+ * The URIs resolved by {@link #resolve(String, String, String)} and
+ * {@link #resolveInfo(String, String, String)} are cached by (base location,
+ * public id, system id) with the resolver which has resolved them. Only the
+ * results of the resolvers which are cacheable (see
+ * {@link URIResolverExtension#isResolveCacheable()}) are cached, the other
+ * resolvers are always called. The cache must be cleared with
+ * {@link #clearResolvedURIsCache()} when the settings of a resolver change (ex
+ * : catalogs, file associations).
+ * </p>
+ *
  */
 public class URIResolverExtensionManager implements URIResolverExtension, IExternalGrammarLocationProvider {
 
+	private static final int RESOLVED_URIS_CACHE_MAXIMUM_SIZE = 1000;
+
 	private final List<URIResolverExtension> resolvers;
 
 	private final URIResolverExtension defaultURIResolverExtension;
 
+	private volatile Cache<ResolvedURIKey, ResolvedURI> resolvedURIs;
+
 	public URIResolverExtensionManager() {
 		resolvers = new ArrayList<>();
 		this.defaultURIResolverExtension = new DefaultURIResolverExtension();
+		this.resolvedURIs = createResolvedURIsCache();
+	}
+
+	/**
+	 * Key of a resolved URI.
+	 */
+	private static class ResolvedURIKey {
+
+		private final String baseLocation;
+		private final String publicId;
+		private final String systemId;
+
+		ResolvedURIKey(String baseLocation, String publicId, String systemId) {
+			this.baseLocation = baseLocation;
+			this.publicId = publicId;
+			this.systemId = systemId;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(baseLocation, publicId, systemId);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ResolvedURIKey)) {
+				return false;
+			}
+			ResolvedURIKey other = (ResolvedURIKey) obj;
+			return Objects.equals(baseLocation, other.baseLocation) && Objects.equals(publicId, other.publicId)
+					&& Objects.equals(systemId, other.systemId);
+		}
+	}
+
+	/**
+	 * Resolved URI with the resolver which has resolved it.
+	 */
+	private static class ResolvedURI {
+
+		// index of the resolver in the resolvers list (the size of the list for the
+		// default resolver)
+		private final int resolverIndex;
+		private final URIResolverExtension resolver;
+		private final String resolvedURI;
+
+		ResolvedURI(int resolverIndex, URIResolverExtension resolver, String resolvedURI) {
+			this.resolverIndex = resolverIndex;
+			this.resolver = resolver;
+			this.resolvedURI = resolvedURI;
+		}
 	}
 
 	class DefaultURIResolverExtension implements URIResolverExtension {
@@ -46,6 +120,11 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 			return URIResolverExtension.DEFAULT;
 		}
 
+		@Override
+		public boolean isResolveCacheable() {
+			return true;
+		}
+
 		@Override
 		public String resolve(String baseLocation, String publicId, String systemId) {
 			try {
@@ -81,6 +160,7 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 	 */
 	public void registerResolver(URIResolverExtension resolver) {
 		resolvers.add(resolver);
+		clearResolvedURIsCache();
 	}
 
 	/**
@@ -89,44 +169,119 @@ public class URIResolverExtensionManager implements URIResolverExtension, IExter
 	 * @param resolver the URI resolver to unregister.
 	 */
 	public void unregisterResolver(URIResolverExtension resolver) {
-		resolvers.add(resolver);
+		resolvers.remove(resolver);
+		clearResolvedURIsCache();
+	}
+
+	/**
+	 * Clear the cache of the resolved URIs. This method must be called when the
+	 * settings of a cacheable resolver change (ex : catalogs, file associations).
+	 */
+	public void clearResolvedURIsCache() {
+		this.resolvedURIs = createResolvedURIsCache();
+	}
+
+	private static Cache<ResolvedURIKey, ResolvedURI> createResolvedURIsCache() {
+		return CacheBuilder.newBuilder().maximumSize(RESOLVED_URIS_CACHE_MAXIMUM_SIZE).build();
 	}
 
 	@Override
 	public String resolve(String baseLocation, String publicId, String systemId) {
-		for (URIResolverExtension resolver : resolvers) {
-			String resolved = resolver.resolve(baseLocation, publicId, systemId);
-			if (resolved != null && !resolved.isEmpty()) {
-				return resolved;
-			}
-		}
-		return defaultURIResolverExtension.resolve(baseLocation, publicId, systemId);
+		return resolveURI(baseLocation, publicId, systemId).resolvedURI;
 	}
 
 	public ResolvedURIInfo resolveInfo(String baseLocation, String publicId, String systemId) {
-		for (URIResolverExtension resolver : resolvers) {
-			String resolvedURI = resolver.resolve(baseLocation, publicId, systemId);
+		ResolvedURI resolved = resolveURI(baseLocation, publicId, systemId);
+		String resolvedURI = resolved.resolvedURI;
+		if (resolvedURI != null && !resolvedURI.isEmpty()) {
+			return new ResolvedURIInfo(resolvedURI, resolved.resolver);
+		}
+		return null;
+	}
+
+	private ResolvedURI resolveURI(String baseLocation, String publicId, String systemId) {
+		Cache<ResolvedURIKey, ResolvedURI> resolvedURIs = this.resolvedURIs;
+		ResolvedURIKey key = new ResolvedURIKey(baseLocation, publicId, systemId);
+		ResolvedURI cached = resolvedURIs.getIfPresent(key);
+		if (cached != null && cached.resolverIndex > resolvers.size()) {
+			// the resolvers have changed
+			cached = null;
+		}
+		for (int i = 0; i < resolvers.size(); i++) {
+			if (cached != null && cached.resolverIndex == i) {
+				return hit(cached);
+			}
+			URIResolverExtension resolver = resolvers.get(i);
+			if (cached != null && resolver.isResolveCacheable()) {
+				// the cacheable resolvers before the cached resolver have resolved nothing
+				continue;
+			}
+			String resolvedURI = resolve(resolver, baseLocation, publicId, systemId);
 			if (resolvedURI != null && !resolvedURI.isEmpty()) {
-				return new ResolvedURIInfo(resolvedURI, resolver);
+				ResolvedURI resolved = new ResolvedURI(i, resolver, resolvedURI);
+				if (cached == null && resolver.isResolveCacheable()) {
+					resolvedURIs.put(key, resolved);
+				}
+				return miss(resolved);
 			}
 		}
-		String resolvedURI = defaultURIResolverExtension.resolve(baseLocation, publicId, systemId);
-		if (resolvedURI != null && !resolvedURI.isEmpty()) {
-			return new ResolvedURIInfo(resolvedURI, defaultURIResolverExtension);
+		if (cached != null) {
+			return hit(cached);
+		}
+		String resolvedURI = resolve(defaultURIResolverExtension, baseLocation, publicId, systemId);
+		ResolvedURI resolved = new ResolvedURI(resolvers.size(), defaultURIResolverExtension, resolvedURI);
+		resolvedURIs.put(key, resolved);
+		return miss(resolved);
+	}
+
+	private static ResolvedURI hit(ResolvedURI resolved) {
+		getCacheMetrics(resolved.resolver).hit();
+		return resolved;
+	}
+
+	private static ResolvedURI miss(ResolvedURI resolved) {
+		getCacheMetrics(resolved.resolver).miss();
+		return resolved;
+	}
+
+	private static CacheMetrics getCacheMetrics(URIResolverExtension resolver) {
+		// the metrics of the resolved URIs cache are reported per resolver
+		return PerformanceMetrics.getInstance()
+				.getCache(PerformanceMetrics.RESOLVED_URIS_CACHE + "." + resolver.getName());
+	}
+
+	private static String resolve(URIResolverExtension resolver, String baseLocation, String publicId,
+			String systemId) {
+		long start = System.nanoTime();
+		try {
+			return resolver.resolve(baseLocation, publicId, systemId);
+		} finally {
+			PerformanceMetrics.getInstance().getHistogram(PerformanceMetrics.RESOLVER, resolver.getName())
+					.record(System.nanoTime() - start);
 		}
-		return null;
 	}
 
 	@Override
 	public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
 		XMLInputSource is = null;
 		for (URIResolverExtension resolver : resolvers) {
-			is = resolver.resolveEntity(resourceIdentifier);
+			is = resolveEntity(resolver, resourceIdentifier);
 			if (is != null) {
 				return is;
 			}
 		}
-		return defaultURIResolverExtension.resolveEntity(resourceIdentifier);
+		return resolveEntity(defaultURIResolverExtension, resourceIdentifier);
+	}
+
+	private static XMLInputSource resolveEntity(URIResolverExtension resolver,
+			XMLResourceIdentifier resourceIdentifier) throws XNIException, IOException {
+		long start = System.nanoTime();
+		try {
+			return resolver.resolveEntity(resourceIdentifier);
+		} finally {
+			PerformanceMetrics.getInstance().getHistogram(PerformanceMetrics.RESOLVER, resolver.getName())
+					.record(System.nanoTime() - start);
+		}
 	}
 
 	@Override
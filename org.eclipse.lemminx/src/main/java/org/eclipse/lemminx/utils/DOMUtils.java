@@ -12,15 +12,14 @@
 package org.eclipse.lemminx.utils;
 
 import java.io.StringReader;
-import java.net.URL;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMDocumentCache;
 import org.eclipse.lemminx.dom.DOMElement;
 import org.eclipse.lemminx.dom.DOMNode;
-import org.eclipse.lemminx.dom.DOMParser;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXNotRecognizedException;
@@ -235,17 +234,17 @@ public class DOMUtils {
 	/**
 	 * Returns the DOM document from the given XML Schema uri.
 	 * 
+	 * <p>
+	 * The DOM document is shared (see {@link DOMDocumentCache}), it must not be
+	 * modified.
+	 * </p>
+	 * 
 	 * @param documentURI              the schema URI
 	 * @param resolverExtensionManager
 	 * @return the DOM document from the given XML Schema uri.
 	 */
 	public static DOMDocument loadDocument(String documentURI, URIResolverExtensionManager resolverExtensionManager) {
-		try {
-			return DOMParser.getInstance().parse(IOUtils.convertStreamToString(new URL(documentURI).openStream()),
-					documentURI, resolverExtensionManager);
-		} catch (Exception e) {
-			return null;
-		}
+		return DOMDocumentCache.getInstance().getDocument(documentURI, resolverExtensionManager);
 	}
 
 	/**
@@ -0,0 +1,309 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.lemminx.commons.VirtualThreads;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Search in a DOM document and in the external documents which are declared
+ * in this DOM document (ex : xi:include, xs:include, xs:import), recursively.
+ *
+ * <p>
+ * The DOM document is searched in the calling thread. The external documents
+ * are loaded and searched in parallel (one task per external document) with a
+ * bounded executor dedicated to this search (loading a document is a blocking
+ * I/O), each external document is searched once. The results of the external
+ * documents are collected in the calling thread, in the order of a sequential
+ * search (depth-first, in the order of the declarations), so the collector
+ * doesn't need to be thread-safe.
+ * </p>
+ *
+ */
+public class IncludedDocumentsSearch {
+
+	private static final int MAX_CONCURRENT_SEARCHES = Math.max(2,
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final long CANCEL_CHECK_INTERVAL_MS = 50;
+
+	private static final ExecutorService SEARCH_EXECUTOR = createSearchExecutor();
+
+	/**
+	 * Search in one DOM document.
+	 *
+	 * @param <R> the result type.
+	 */
+	@FunctionalInterface
+	public interface IDocumentSearcher<R> {
+
+		/**
+		 * Search in the given DOM document.
+		 *
+		 * @param document          the DOM document.
+		 * @param results           the consumer of the results.
+		 * @param externalLocations the locations of the external documents declared
+		 *                          in the DOM document to fill (ex :
+		 *                          xi:include/@href) and null if the search must not
+		 *                          be done in the external documents.
+		 * @param cancelChecker     the cancel checker.
+		 */
+		void search(DOMDocument document, Consumer<R> results, Collection<String> externalLocations,
+				CancelChecker cancelChecker);
+	}
+
+	private static class DocumentResult<R> {
+
+		private final List<R> results;
+
+		private final List<String> externalURIs;
+
+		DocumentResult(List<R> results, List<String> externalURIs) {
+			this.results = results;
+			this.externalURIs = externalURIs;
+		}
+	}
+
+	/**
+	 * Search in the external documents of a DOM document.
+	 */
+	private static class ExternalSearch<R> {
+
+		private final IDocumentSearcher<R> searcher;
+		private final Set<String> visitedURIs;
+		private final Map<String, DocumentResult<R>> documentResults;
+		private final CancelChecker cancelChecker;
+		private final AtomicInteger pendingTasks;
+		private final CompletableFuture<Void> done;
+
+		ExternalSearch(IDocumentSearcher<R> searcher, Set<String> visitedURIs, CancelChecker cancelChecker) {
+			this.searcher = searcher;
+			this.visitedURIs = visitedURIs;
+			this.documentResults = new ConcurrentHashMap<>();
+			this.cancelChecker = cancelChecker;
+			this.pendingTasks = new AtomicInteger();
+			this.done = new CompletableFuture<>();
+		}
+
+		/**
+		 * Submit a search task for each given external document URI which has not
+		 * been visited.
+		 */
+		void submit(List<String> externalURIs, URIResolverExtensionManager resolverExtensionManager) {
+			List<String> documentURIs = new ArrayList<>();
+			for (String externalURI : externalURIs) {
+				if (visitedURIs.add(externalURI)) {
+					documentURIs.add(externalURI);
+				}
+			}
+			// count all tasks before starting them, so that the search ends only when the
+			// last task ends
+			pendingTasks.addAndGet(documentURIs.size());
+			for (String documentURI : documentURIs) {
+				SEARCH_EXECUTOR.execute(() -> search(documentURI, resolverExtensionManager));
+			}
+		}
+
+		private void search(String documentURI, URIResolverExtensionManager resolverExtensionManager) {
+			try {
+				if (done.isDone()) {
+					// cancelled or failed
+					return;
+				}
+				checkCanceled(cancelChecker);
+				DOMDocument document = DOMUtils.loadDocument(documentURI, resolverExtensionManager);
+				if (document == null) {
+					return;
+				}
+				List<R> results = new ArrayList<>();
+				List<String> externalLocations = new ArrayList<>();
+				searcher.search(document, results::add, externalLocations, cancelChecker);
+				List<String> externalURIs = resolve(document, externalLocations);
+				documentResults.put(documentURI, new DocumentResult<>(results, externalURIs));
+				submit(externalURIs, document.getResolverExtensionManager());
+			} catch (Throwable e) {
+				done.completeExceptionally(e);
+			} finally {
+				if (pendingTasks.decrementAndGet() == 0) {
+					done.complete(null);
+				}
+			}
+		}
+
+		/**
+		 * Wait for the end of the search tasks and check the cancellation in the
+		 * calling thread while waiting.
+		 */
+		void await() {
+			if (pendingTasks.get() == 0 && !done.isDone()) {
+				// no search task
+				return;
+			}
+			try {
+				while (true) {
+					try {
+						done.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+						return;
+					} catch (TimeoutException e) {
+						if (cancelChecker != null) {
+							try {
+								cancelChecker.checkCanceled();
+							} catch (RuntimeException cancelled) {
+								// stop the pending tasks
+								done.completeExceptionally(cancelled);
+								throw cancelled;
+							}
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				done.cancel(false);
+				throw new CancellationException();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Search in the given DOM document and in its external documents if
+	 * <code>searchInExternalDocuments</code> is true.
+	 *
+	 * @param <R>                       the result type.
+	 * @param document                  the DOM document.
+	 * @param searchInExternalDocuments true if the search must be done in the
+	 *                                  external documents and false otherwise.
+	 * @param searcher                  the searcher used for each DOM document.
+	 * @param collector                 the collector of the results.
+	 * @param cancelChecker             the cancel checker.
+	 */
+	public static <R> void search(DOMDocument document, boolean searchInExternalDocuments,
+			IDocumentSearcher<R> searcher, Consumer<R> collector, CancelChecker cancelChecker) {
+		List<String> externalLocations = searchInExternalDocuments ? new ArrayList<>() : null;
+		// Search in the DOM document
+		searcher.search(document, collector, externalLocations, cancelChecker);
+		if (externalLocations == null || externalLocations.isEmpty()) {
+			return;
+		}
+
+		// Search in the external documents in parallel
+		List<String> externalURIs = resolve(document, externalLocations);
+		String documentURI = document.getDocumentURI();
+		Set<String> visitedURIs = ConcurrentHashMap.newKeySet();
+		if (documentURI != null) {
+			visitedURIs.add(documentURI);
+		}
+		ExternalSearch<R> externalSearch = new ExternalSearch<>(searcher, visitedURIs, cancelChecker);
+		externalSearch.submit(externalURIs, document.getResolverExtensionManager());
+		externalSearch.await();
+
+		// Collect the results of the external documents in a deterministic order
+		Set<String> collectedURIs = new HashSet<>();
+		if (documentURI != null) {
+			collectedURIs.add(documentURI);
+		}
+		collect(externalURIs, externalSearch.documentResults, collectedURIs, collector, cancelChecker);
+	}
+
+	private static <R> void collect(List<String> externalURIs, Map<String, DocumentResult<R>> documentResults,
+			Set<String> collectedURIs, Consumer<R> collector, CancelChecker cancelChecker) {
+		for (String externalURI : externalURIs) {
+			if (!collectedURIs.add(externalURI)) {
+				continue;
+			}
+			DocumentResult<R> documentResult = documentResults.get(externalURI);
+			if (documentResult == null) {
+				// the external document cannot be loaded
+				continue;
+			}
+			checkCanceled(cancelChecker);
+			for (R result : documentResult.results) {
+				collector.accept(result);
+			}
+			collect(documentResult.externalURIs, documentResults, collectedURIs, collector, cancelChecker);
+		}
+	}
+
+	/**
+	 * Returns the URIs of the external file documents from the given locations
+	 * declared in the given DOM document.
+	 */
+	private static List<String> resolve(DOMDocument document, List<String> externalLocations) {
+		URIResolverExtensionManager resolverExtensionManager = document.getResolverExtensionManager();
+		if (resolverExtensionManager == null) {
+			return Collections.emptyList();
+		}
+		String baseURI = document.getDocumentURI();
+		Set<String> externalURIs = new LinkedHashSet<>();
+		for (String externalLocation : externalLocations) {
+			String resourceURI = resolverExtensionManager.resolve(baseURI, null, externalLocation);
+			if (URIUtils.isFileResource(resourceURI)) {
+				externalURIs.add(resourceURI);
+			}
+		}
+		return new ArrayList<>(externalURIs);
+	}
+
+	private static ExecutorService createSearchExecutor() {
+		String prefix = "lemminx-included-search-";
+		ThreadFactory threadFactory = VirtualThreads.newThreadFactory(prefix);
+		if (threadFactory == null) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			threadFactory = runnable -> {
+				Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CONCURRENT_SEARCHES, MAX_CONCURRENT_SEARCHES, 60L,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static void checkCanceled(CancelChecker cancelChecker) {
+		if (cancelChecker != null) {
+			cancelChecker.checkCanceled();
+		}
+	}
+}
@@ -45,6 +45,10 @@ public class XPathAttributeNameMatcher extends AbstractXPathNodeMatcher {
 		return prefix;
 	}
 
+	public String getLocalName() {
+		return localName;
+	}
+
 	@Override
 	public boolean match(Node testNode, Collection<String> wildcardValues) {
 		if (!(testNode.getNodeType() == Node.ATTRIBUTE_NODE)) {
@@ -0,0 +1,392 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.xpath.matcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Node;
+
+/**
+ * XPath multi matcher compiles a list of {@link XPathMatcher} into one
+ * automaton to get all the XPath matchers which match a DOM node with one
+ * evaluation.
+ *
+ * <p>
+ * The automaton is driven from the root to the DOM node: the {@link State} of
+ * a DOM node is computed with {@link #next(State, Node)} from the state of its
+ * parent node (the owner element for an attribute), so a DOM traversal can
+ * collect the matching values of all DOM nodes without walking up the
+ * ancestors for each XPath matcher. When there is no DOM traversal,
+ * {@link #match(Node)} computes the states of the ancestors of the DOM node.
+ * </p>
+ *
+ * <p>
+ * Each XPath matcher is compiled into a sequence of states (one state per
+ * XPath node matcher and a final state); the XPath any matcher (//) stays in
+ * its state for any DOM node. As the XPath expressions of {@link XPathMatcher}
+ * are relative, the first state of each XPath matcher is active for every DOM
+ * node, the transitions from those states are indexed by the expected name.
+ * </p>
+ *
+ * @param <T> the type of the value associated to each XPath matcher.
+ */
+public class XPathMultiMatcher<T> {
+
+	/**
+	 * State of the automaton for a DOM node.
+	 */
+	public static class State {
+
+		private final int[] ids;
+
+		private final boolean matches;
+
+		private State(int[] ids, boolean matches) {
+			this.ids = ids;
+			this.matches = matches;
+		}
+
+		/**
+		 * Returns true if the DOM node of the state matches some XPath matchers and
+		 * false otherwise.
+		 *
+		 * @return true if the DOM node of the state matches some XPath matchers and
+		 *         false otherwise.
+		 */
+		public boolean hasMatches() {
+			return matches;
+		}
+	}
+
+	private static final int[] NO_IDS = new int[0];
+
+	private final List<T> values;
+
+	// Per state id: the XPath node matcher to match (null for the final state of a
+	// XPath matcher) and the index of the XPath matcher.
+	private final List<IXPathNodeMatcher> steps;
+	private final List<Integer> matcherIndexes;
+
+	// The XPath matchers which match any DOM node (ex : empty XPath expression)
+	private final List<Integer> alwaysMatchers;
+
+	// The first states of the XPath matchers indexed by the name of the element,
+	// attribute to match.
+	private Map<String, int[]> startsByName;
+	private int[] otherStarts;
+
+	private volatile State initialState;
+
+	public XPathMultiMatcher() {
+		this.values = new ArrayList<>();
+		this.steps = new ArrayList<>();
+		this.matcherIndexes = new ArrayList<>();
+		this.alwaysMatchers = new ArrayList<>();
+	}
+
+	/**
+	 * Add the given XPath matcher associated to the given value.
+	 *
+	 * @param matcher the XPath matcher.
+	 * @param value   the value returned when the XPath matcher matches a DOM node.
+	 */
+	public void add(XPathMatcher matcher, T value) {
+		int matcherIndex = values.size();
+		values.add(value);
+		int start = steps.size();
+		for (IXPathNodeMatcher step : matcher) {
+			steps.add(step);
+			matcherIndexes.add(matcherIndex);
+		}
+		// final state
+		steps.add(null);
+		matcherIndexes.add(matcherIndex);
+		if (getFinalState(start) != -1) {
+			alwaysMatchers.add(matcherIndex);
+		}
+		// the automaton must be compiled
+		initialState = null;
+	}
+
+	/**
+	 * Returns true if there is no XPath matcher and false otherwise.
+	 *
+	 * @return true if there is no XPath matcher and false otherwise.
+	 */
+	public boolean isEmpty() {
+		return values.isEmpty();
+	}
+
+	/**
+	 * Returns the state to use as parent state of the DOM document node.
+	 *
+	 * @return the state to use as parent state of the DOM document node.
+	 */
+	public State getInitialState() {
+		compileIfNeeded();
+		return initialState;
+	}
+
+	/**
+	 * Returns the state of the given DOM node.
+	 *
+	 * @param parent the state of the parent node of the DOM node (the state of the
+	 *               owner element for an attribute node).
+	 * @param node   the DOM node.
+	 *
+	 * @return the state of the given DOM node.
+	 */
+	public State next(State parent, Node node) {
+		compileIfNeeded();
+		BitSet next = null;
+		// Transitions from the states of the parent node
+		for (int id : parent.ids) {
+			next = transition(id, node, next);
+		}
+		// Transitions from the first states of the XPath matchers
+		int[] starts = startsByName.get(getName(node));
+		if (starts != null) {
+			for (int id : starts) {
+				next = transition(id, node, next);
+			}
+		}
+		if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+			starts = startsByName.get(getAttributeName(node));
+			if (starts != null) {
+				for (int id : starts) {
+					next = transition(id, node, next);
+				}
+			}
+		}
+		for (int id : otherStarts) {
+			next = transition(id, node, next);
+		}
+		return createState(next);
+	}
+
+	/**
+	 * Returns the values of the XPath matchers which match the DOM node of the
+	 * given state, in the order where the XPath matchers have been added.
+	 *
+	 * @param state the state of the DOM node.
+	 *
+	 * @return the values of the XPath matchers which match the DOM node of the
+	 *         given state.
+	 */
+	public List<T> getMatches(State state) {
+		if (!state.matches) {
+			return Collections.emptyList();
+		}
+		BitSet matchers = new BitSet(values.size());
+		for (int matcherIndex : alwaysMatchers) {
+			matchers.set(matcherIndex);
+		}
+		for (int id : state.ids) {
+			if (steps.get(id) == null) {
+				matchers.set(matcherIndexes.get(id));
+			}
+		}
+		List<T> matches = new ArrayList<>(matchers.cardinality());
+		for (int i = matchers.nextSetBit(0); i >= 0; i = matchers.nextSetBit(i + 1)) {
+			matches.add(values.get(i));
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the values of the XPath matchers which match the given DOM node, in
+	 * the order where the XPath matchers have been added.
+	 *
+	 * @param node the DOM node.
+	 *
+	 * @return the values of the XPath matchers which match the given DOM node.
+	 */
+	public List<T> match(Node node) {
+		if (node == null || isEmpty()) {
+			return Collections.emptyList();
+		}
+		LinkedList<Node> path = new LinkedList<>();
+		Node current = node;
+		while (current != null) {
+			path.addFirst(current);
+			current = current.getNodeType() == Node.ATTRIBUTE_NODE ? ((Attr) current).getOwnerElement()
+					: current.getParentNode();
+		}
+		State state = getInitialState();
+		for (Node pathNode : path) {
+			state = next(state, pathNode);
+		}
+		return getMatches(state);
+	}
+
+	private BitSet transition(int id, Node node, BitSet next) {
+		IXPathNodeMatcher step = steps.get(id);
+		if (step == null) {
+			// final state
+			return next;
+		}
+		if (step.isAny()) {
+			// the any matcher (//) matches any DOM node and stays in the same state
+			// (except for an attribute which has no parent node, like
+			// XPathMatcher#match).
+			if (node.getNodeType() != Node.ATTRIBUTE_NODE) {
+				next = add(id, next);
+			}
+		} else if (step.match(node, null)) {
+			next = add(id + 1, next);
+		}
+		return next;
+	}
+
+	private BitSet add(int id, BitSet next) {
+		if (next == null) {
+			next = new BitSet(steps.size());
+		}
+		// the any matcher (//) can match no DOM node, add the next states too.
+		int current = id;
+		while (true) {
+			next.set(current);
+			IXPathNodeMatcher step = steps.get(current);
+			if (step == null || !step.isAny()) {
+				break;
+			}
+			current++;
+		}
+		return next;
+	}
+
+	private State createState(BitSet next) {
+		if (next == null) {
+			return initialState;
+		}
+		int[] ids = new int[next.cardinality()];
+		int i = 0;
+		boolean matches = !alwaysMatchers.isEmpty();
+		for (int id = next.nextSetBit(0); id >= 0; id = next.nextSetBit(id + 1)) {
+			ids[i++] = id;
+			if (steps.get(id) == null) {
+				matches = true;
+			}
+		}
+		return new State(ids, matches);
+	}
+
+	/**
+	 * Returns the final state of the XPath matcher which starts with the given
+	 * state id if it is reached without matching a DOM node and -1 otherwise.
+	 *
+	 * @param start the first state id of the XPath matcher.
+	 *
+	 * @return the final state of the XPath matcher if it is reached without
+	 *         matching a DOM node and -1 otherwise.
+	 */
+	private int getFinalState(int start) {
+		int current = start;
+		while (true) {
+			IXPathNodeMatcher step = steps.get(current);
+			if (step == null) {
+				return current;
+			}
+			if (!step.isAny()) {
+				return -1;
+			}
+			current++;
+		}
+	}
+
+	private void compileIfNeeded() {
+		if (initialState == null) {
+			compile();
+		}
+	}
+
+	private synchronized void compile() {
+		if (initialState != null) {
+			return;
+		}
+		Map<String, List<Integer>> byName = new HashMap<>();
+		List<Integer> others = new ArrayList<>();
+		int start = 0;
+		while (start < steps.size()) {
+			// Loop for the first states of the XPath matcher (the first XPath node
+			// matcher and the next one when it is an any matcher).
+			int current = start;
+			IXPathNodeMatcher step = steps.get(current);
+			while (step != null) {
+				if (!step.isAny()) {
+					String name = getIndexName(step);
+					if (name != null) {
+						byName.computeIfAbsent(name, k -> new ArrayList<>()).add(current);
+					} else {
+						others.add(current);
+					}
+					break;
+				}
+				current++;
+				step = steps.get(current);
+			}
+			// go to the first state of the next XPath matcher
+			int matcherIndex = matcherIndexes.get(start);
+			while (start < steps.size() && matcherIndexes.get(start) == matcherIndex) {
+				start++;
+			}
+		}
+		Map<String, int[]> startsByName = new HashMap<>();
+		for (Map.Entry<String, List<Integer>> entry : byName.entrySet()) {
+			startsByName.put(entry.getKey(), toArray(entry.getValue()));
+		}
+		this.startsByName = startsByName;
+		this.otherStarts = toArray(others);
+		this.initialState = new State(NO_IDS, !alwaysMatchers.isEmpty());
+	}
+
+	/**
+	 * Returns the name used to index the given XPath node matcher and null if the
+	 * XPath node matcher must be tested for any DOM node.
+	 */
+	private static String getIndexName(IXPathNodeMatcher step) {
+		if (step instanceof XPathElementMatcher) {
+			// the element matcher compares the local name (or the node name) of any DOM
+			// node
+			return ((XPathElementMatcher) step).getLocalName();
+		}
+		if (step instanceof XPathAttributeNameMatcher) {
+			String localName = ((XPathAttributeNameMatcher) step).getLocalName();
+			return XPathAttributeNameMatcher.ANY_ELEMENT_NAME.equals(localName) ? null : "@" + localName;
+		}
+		return null;
+	}
+
+	private static String getName(Node node) {
+		String localName = node.getLocalName();
+		return localName != null ? localName : node.getNodeName();
+	}
+
+	private static String getAttributeName(Node node) {
+		return "@" + node.getLocalName();
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+}
@@ -915,8 +915,10 @@ public class XMLAssert {
 		CompletableFuture<Path> error = languageService.publishDiagnostics(xmlDocument, params -> {
 			actual.add(params);
 		}, (doc) -> {
-			// Retrigger validation
-			publishDiagnostics(xmlDocument, actual, languageService);
+			// The validation re-triggered once the external resources are downloaded
+			// is published in background and must not be collected with the diagnostics
+			// of this validation: the next call of publishDiagnostics gives the
+			// diagnostics of the downloaded resources.
 		}, validationSettings, Collections.emptyMap(), () -> {
 		});
 
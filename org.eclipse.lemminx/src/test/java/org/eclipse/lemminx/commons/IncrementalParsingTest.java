@@ -283,4 +283,47 @@ public class IncrementalParsingTest {
 		assertEquals(expectedText, document.getText());
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testMultipleChangesWithPieceTable() throws BadLocationException {
+		String text = "<aa>\r\n" + // /// <-- deleting 'a' in tag name
+				"  <b>\r\n" + //
+				"  </bb>\r\n" + //
+				"</a>\r\n";
+
+		String expectedText = "<a>\r\n" + // /// <-- deleted 'a' in tag name
+				"  <b>\r\n" + //
+				"  </b>\r\n" + //
+				"</a>\r\n";
+
+		TextDocument document = new TextDocument(text, "uri");
+		document.setIncremental(true);
+		document.setTextStore(new PieceTableTextStore());
+
+		Range range1 = new Range(new Position(0, 2), new Position(0, 3));
+		TextDocumentContentChangeEvent change1 = new TextDocumentContentChangeEvent(range1, 1, "");
+
+		Range range2 = new Range(new Position(2, 5), new Position(2, 6));
+		TextDocumentContentChangeEvent change2 = new TextDocumentContentChangeEvent(range2, 1, "");
+
+		ArrayList<TextDocumentContentChangeEvent> changes = new ArrayList<>();
+		changes.add(change2);
+		changes.add(change1);
+
+		document.update(changes);
+
+		// line text is retrieved from the text store
+		assertEquals("  </b>", document.lineText(2));
+		assertEquals(expectedText, document.getText());
+
+		// Insert a new line
+		Range range3 = new Range(new Position(1, 5), new Position(1, 5));
+		TextDocumentContentChangeEvent change3 = new TextDocumentContentChangeEvent(range3, 0, "\r\n  <c/>");
+		changes.clear();
+		changes.add(change3);
+		document.update(changes);
+
+		assertEquals("  <c/>", document.lineText(2));
+		assertEquals(new Position(3, 2), document.positionAt(document.getText().indexOf("</b>")));
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.lemminx.commons.ModelValidatorDelayer.Statistics;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ModelValidatorDelayer}.
+ *
+ */
+public class ModelValidatorDelayerTest {
+
+	private static final long DELAY = 20;
+
+	private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	@AfterEach
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void delayAdaptedToValidationTime() throws Exception {
+		ModelTextDocument<String> small = createDocument("<a />", "small.xml");
+		ModelTextDocument<String> large = createDocument("<a>" + "x".repeat(10000) + "</a>", "large.xml");
+		ModelValidatorDelayer<String> delayer = createDelayer((document, cancelChecker) -> {
+			if (document == large) {
+				sleep(200);
+			}
+		});
+		// The validation time is unknown
+		assertEquals(DELAY, delayer.getValidationDelay(small));
+		assertEquals(DELAY, delayer.getValidationDelay(large));
+
+		delayer.validateWithDelay(small);
+		waitForCompleted(delayer, 1);
+		delayer.validateWithDelay(large);
+		waitForCompleted(delayer, 2);
+
+		// small document validated sooner, large document validated later
+		assertEquals(DELAY / 2, delayer.getValidationDelay(small));
+		assertEquals(DELAY * 10, delayer.getValidationDelay(large));
+	}
+
+	@Test
+	public void cutOffRunningValidation() throws Exception {
+		ModelTextDocument<String> document = createDocument("<a />", "test.xml");
+		CountDownLatch started = new CountDownLatch(1);
+		ModelValidatorDelayer<String> delayer = createDelayer((doc, cancelChecker) -> {
+			if (doc.getVersion() == 1) {
+				started.countDown();
+				// wait for the cancellation
+				while (true) {
+					cancelChecker.checkCanceled();
+					sleep(5);
+				}
+			}
+		});
+		document.setVersion(1);
+		delayer.validateWithDelay(document);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// The validation time is unknown, the running validation is cut off
+		document.setVersion(2);
+		delayer.validateWithDelay(document);
+		Statistics statistics = waitForCompleted(delayer, 1);
+		assertEquals(1, statistics.getCutOffCount());
+		assertEquals(1, statistics.getCancelledCount());
+		assertEquals(2, statistics.getStartedCount());
+		assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	public void finishRunningValidation() throws Exception {
+		finishRunningValidation(null);
+	}
+
+	@Test
+	public void finishRunningValidationWithScheduler() throws Exception {
+		// The change of the document does not cancel the running validation
+		RequestScheduler scheduler = new RequestScheduler();
+		try {
+			finishRunningValidation(scheduler);
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+
+	private void finishRunningValidation(RequestScheduler scheduler) throws Exception {
+		ModelTextDocument<String> document = createDocument("<a />", "test.xml");
+		CountDownLatch finish = new CountDownLatch(1);
+		ModelValidatorDelayer<String> delayer = createDelayer(scheduler, (doc, cancelChecker) -> {
+			if (doc.getVersion() == 1) {
+				sleep(100);
+			} else if (doc.getVersion() == 2) {
+				try {
+					finish.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				cancelChecker.checkCanceled();
+			}
+		});
+		// Measure the validation time
+		document.setVersion(1);
+		delayer.validateWithDelay(document);
+		waitForCompleted(delayer, 1);
+
+		document.setVersion(2);
+		delayer.validateWithDelay(document);
+		waitFor(() -> running.get() == 1);
+
+		// The running validation is near to finish, it is not cut off
+		document.setVersion(3);
+		delayer.validateWithDelay(document);
+		waitFor(() -> delayer.getStatistics().getFinishedCount() == 1);
+		finish.countDown();
+
+		Statistics statistics = waitForCompleted(delayer, 3);
+		assertEquals(0, statistics.getCutOffCount());
+		assertEquals(3, statistics.getStartedCount());
+		assertEquals(1, maxRunning.get());
+	}
+
+	private ModelValidatorDelayer<String> createDelayer(BiConsumer<ModelTextDocument<String>, CancelChecker> validator) {
+		return createDelayer(null, validator);
+	}
+
+	private ModelValidatorDelayer<String> createDelayer(RequestScheduler scheduler,
+			BiConsumer<ModelTextDocument<String>, CancelChecker> validator) {
+		return new ModelValidatorDelayer<>(executorService, scheduler, (document, cancelChecker) -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				validator.accept(document, cancelChecker);
+			} finally {
+				running.decrementAndGet();
+			}
+		}, DELAY);
+	}
+
+	private static ModelTextDocument<String> createDocument(String text, String uri) {
+		return new ModelTextDocument<>(text, uri, (document, cancelChecker) -> document.getText());
+	}
+
+	private static Statistics waitForCompleted(ModelValidatorDelayer<String> delayer, int count)
+			throws InterruptedException {
+		waitFor(() -> delayer.getStatistics().getCompletedCount() == count);
+		return delayer.getStatistics();
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < end, "Timeout");
+			Thread.sleep(5);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PieceTableTextStore}.
+ */
+public class PieceTableTextStoreTest {
+
+	@Test
+	public void emptyStore() {
+		PieceTableTextStore store = new PieceTableTextStore();
+		assertEquals(0, store.getLength());
+		assertEquals("", store.get(0, 0));
+		store.replace(0, 0, "abc");
+		assertEquals("abc", store.get(0, 3));
+	}
+
+	@Test
+	public void insertDeleteReplace() {
+		PieceTableTextStore store = new PieceTableTextStore();
+		store.set("<a></a>");
+		// insert
+		store.replace(2, 0, " b=''");
+		assertEquals("<a b=''></a>", store.toString());
+		// delete
+		store.replace(2, 5, "");
+		assertEquals("<a></a>", store.toString());
+		// replace
+		store.replace(1, 1, "foo");
+		assertEquals("<foo></a>", store.toString());
+		assertEquals('f', store.get(1));
+		assertEquals("oo>", store.get(2, 3));
+	}
+
+	@Test
+	public void typingExtendsPiece() {
+		PieceTableTextStore store = new PieceTableTextStore();
+		store.set("<root></root>");
+		store.replace(6, 0, "a");
+		store.replace(7, 0, "b");
+		store.replace(8, 0, "c");
+		assertEquals("<root>abc</root>", store.toString());
+		// original left + added 'abc' + original right
+		assertEquals(3, store.getPieceCount());
+	}
+
+	@Test
+	public void compact() {
+		PieceTableTextStore store = new PieceTableTextStore(10);
+		store.set("0123456789");
+		for (int i = 0; i < 10; i++) {
+			store.replace(i * 2, 0, "-");
+		}
+		assertEquals("-0-1-2-3-4-5-6-7-8-9", store.toString());
+		assertTrue(store.getPieceCount() <= 10);
+	}
+
+	@Test
+	public void outOfBounds() {
+		PieceTableTextStore store = new PieceTableTextStore();
+		store.set("abc");
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(3));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(2, 2));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.replace(4, 0, "d"));
+	}
+
+	@Test
+	public void randomEdits() {
+		Random random = new Random(42);
+		StringBuilder expected = new StringBuilder("<root>\n  <item>text</item>\n</root>");
+		PieceTableTextStore store = new PieceTableTextStore(64);
+		store.set(expected.toString());
+		for (int i = 0; i < 2000; i++) {
+			int offset = random.nextInt(expected.length() + 1);
+			int length = random.nextInt(Math.min(5, expected.length() - offset) + 1);
+			String text = random.nextBoolean() ? "" : Integer.toString(random.nextInt(1000));
+			expected.replace(offset, offset + length, text);
+			store.replace(offset, length, text);
+			assertEquals(expected.length(), store.getLength());
+			if (expected.length() > 0) {
+				int start = random.nextInt(expected.length());
+				int sliceLength = random.nextInt(expected.length() - start + 1);
+				assertEquals(expected.substring(start, start + sliceLength), store.get(start, sliceLength));
+			}
+		}
+		assertEquals(expected.toString(), store.toString());
+	}
+}
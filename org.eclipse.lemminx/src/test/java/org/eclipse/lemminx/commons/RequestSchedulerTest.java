@@ -0,0 +1,167 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RequestScheduler}.
+ *
+ */
+public class RequestSchedulerTest {
+
+	private RequestScheduler scheduler;
+
+	private CountDownLatch blockLatch;
+
+	@BeforeEach
+	public void setup() {
+		scheduler = new RequestScheduler();
+		scheduler.configure(Priority.BACKGROUND, 1, 2);
+		blockLatch = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		blockLatch.countDown();
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void interactiveNotBlockedByBackground() throws Exception {
+		CompletableFuture<Void> validation = blockBackground();
+		CompletableFuture<String> completion = scheduler.computeAsync(Priority.INTERACTIVE,
+				cancelChecker -> "completion");
+		assertEquals("completion", completion.get(5, TimeUnit.SECONDS));
+		assertFalse(validation.isDone());
+	}
+
+	@Test
+	public void cancelStaleRequest() throws Exception {
+		TextDocument document = new TextDocument("<a />", "test.xml");
+		document.setVersion(1);
+
+		blockBackground();
+		CompletableFuture<String> validation = scheduler.computeAsync(Priority.BACKGROUND, document,
+				cancelChecker -> "validation");
+		// Update the document while the validation is queued
+		document.setVersion(2);
+		blockLatch.countDown();
+
+		assertTrue(waitForCancellation(validation));
+		assertEquals(1, scheduler.getStatistics(Priority.BACKGROUND).getStaleCount());
+	}
+
+	@Test
+	public void interactiveRequestIsNotStale() throws Exception {
+		TextDocument document = new TextDocument("<a />", "test.xml");
+		document.setVersion(1);
+
+		CompletableFuture<String> completion = scheduler.computeAsync(Priority.INTERACTIVE, document,
+				cancelChecker -> {
+					document.setVersion(2);
+					cancelChecker.checkCanceled();
+					return "completion";
+				});
+		assertEquals("completion", completion.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void evictOldestRequest() throws Exception {
+		blockBackground();
+		CompletableFuture<String> first = scheduler.computeAsync(Priority.BACKGROUND, cancelChecker -> "first");
+		CompletableFuture<String> second = scheduler.computeAsync(Priority.BACKGROUND, cancelChecker -> "second");
+		CompletableFuture<String> third = scheduler.computeAsync(Priority.BACKGROUND, cancelChecker -> "third");
+		assertTrue(first.isCancelled());
+		assertEquals(1, scheduler.getStatistics(Priority.BACKGROUND).getEvictedCount());
+		assertEquals(2, scheduler.getStatistics(Priority.BACKGROUND).getQueuedCount());
+
+		blockLatch.countDown();
+		assertEquals("second", second.get(5, TimeUnit.SECONDS));
+		assertEquals("third", third.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void executorCommandsAreNotEvicted() throws Exception {
+		scheduler.configure(Priority.INTERACTIVE, 1, 0);
+		block(Priority.INTERACTIVE);
+		int queueCapacity = scheduler.getStatistics(Priority.INTERACTIVE).getQueueCapacity();
+
+		// Fill the queue with the commands of the executor
+		Executor executor = scheduler.getExecutor(Priority.INTERACTIVE);
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < queueCapacity + 1; i++) {
+			int value = i;
+			futures.add(CompletableFuture.completedFuture(null)
+					.thenComposeAsync(v -> CompletableFuture.completedFuture(value), executor));
+		}
+		CompletableFuture<String> completion = scheduler.computeAsync(Priority.INTERACTIVE,
+				cancelChecker -> "completion");
+		assertEquals(0, scheduler.getStatistics(Priority.INTERACTIVE).getEvictedCount());
+
+		blockLatch.countDown();
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+		}
+		assertEquals("completion", completion.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void executorCommandsAfterShutdown() throws Exception {
+		scheduler.shutdown();
+		CompletableFuture<String> future = CompletableFuture.completedFuture(null)
+				.thenComposeAsync(v -> CompletableFuture.completedFuture("completion"),
+						scheduler.getExecutor(Priority.INTERACTIVE));
+		assertEquals("completion", future.get(5, TimeUnit.SECONDS));
+	}
+
+	private CompletableFuture<Void> blockBackground() throws InterruptedException {
+		return block(Priority.BACKGROUND);
+	}
+
+	private CompletableFuture<Void> block(Priority priority) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> future = scheduler.computeAsync(priority, cancelChecker -> {
+			started.countDown();
+			try {
+				blockLatch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		started.await(5, TimeUnit.SECONDS);
+		return future;
+	}
+
+	private static boolean waitForCancellation(CompletableFuture<?> future) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (!future.isDone() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		return future.isCancelled();
+	}
+}
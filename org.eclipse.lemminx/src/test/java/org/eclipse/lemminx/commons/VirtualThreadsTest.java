@@ -0,0 +1,72 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.commons.RequestScheduler.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VirtualThreads}.
+ *
+ */
+public class VirtualThreadsTest {
+
+	@AfterEach
+	public void clearProperty() {
+		System.clearProperty(VirtualThreads.VIRTUAL_THREADS_PROPERTY);
+	}
+
+	@Test
+	public void disabledByDefault() throws Exception {
+		assertFalse(VirtualThreads.isEnabled());
+		assertNull(VirtualThreads.newThreadFactory("test-"));
+		String threadName = runInCachedThreadPool();
+		assertFalse(threadName.startsWith("lemminx-message-"), threadName);
+	}
+
+	@Test
+	public void enabled() throws Exception {
+		System.setProperty(VirtualThreads.VIRTUAL_THREADS_PROPERTY, "true");
+		// Virtual threads are used only with JDK 21+
+		assertEquals(VirtualThreads.isSupported(), VirtualThreads.isEnabled());
+		String threadName = runInCachedThreadPool();
+		assertEquals(VirtualThreads.isSupported(), threadName.startsWith("lemminx-message-"), threadName);
+
+		RequestScheduler scheduler = new RequestScheduler();
+		try {
+			threadName = scheduler
+					.computeAsync(Priority.BACKGROUND, cancelChecker -> Thread.currentThread().getName())
+					.get(5, TimeUnit.SECONDS);
+			assertTrue(threadName.startsWith("lemminx-background-"), threadName);
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+
+	private static String runInCachedThreadPool() throws Exception {
+		ExecutorService executor = VirtualThreads.newCachedThreadPool();
+		try {
+			return executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
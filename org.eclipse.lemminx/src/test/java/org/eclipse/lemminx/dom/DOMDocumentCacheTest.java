@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DOMDocumentCache}.
+ *
+ */
+public class DOMDocumentCacheTest extends AbstractCacheBasedTest {
+
+	private DOMDocumentCache cache;
+
+	private URIResolverExtensionManager resolverExtensionManager;
+
+	@BeforeEach
+	public void setup() {
+		cache = new DOMDocumentCache();
+		resolverExtensionManager = new URIResolverExtensionManager();
+	}
+
+	@Test
+	public void cachedDocument() throws Exception {
+		String uri = createFile("included.xsd", "<schema />");
+		DOMDocument document = cache.getDocument(uri, resolverExtensionManager);
+		assertNotNull(document);
+		assertEquals("schema", document.getDocumentElement().getLocalName());
+		assertSame(document, cache.getDocument(uri, resolverExtensionManager));
+		// Another resolver extension manager (ex : another language service)
+		assertNotSame(document, cache.getDocument(uri, new URIResolverExtensionManager()));
+	}
+
+	@Test
+	public void changedFile() throws Exception {
+		String uri = createFile("included.xsd", "<schema />");
+		DOMDocument document = cache.getDocument(uri, resolverExtensionManager);
+		assertEquals("schema", document.getDocumentElement().getLocalName());
+
+		Files.writeString(testWorkDirectory.resolve("included.xsd"), "<grammar />");
+		FilesWatcher.getInstance().invalidate(uri);
+		DOMDocument newDocument = cache.getDocument(uri, resolverExtensionManager);
+		assertEquals("grammar", newDocument.getDocumentElement().getLocalName());
+		// The watch service can notify the change after the invalidate, wait for it
+		// before checking that the new document is cached
+		TimeUnit.MILLISECONDS.sleep(200);
+		newDocument = cache.getDocument(uri, resolverExtensionManager);
+		assertSame(newDocument, cache.getDocument(uri, resolverExtensionManager));
+	}
+
+	@Test
+	public void openedDocument() throws Exception {
+		String uri = createFile("included.xsd", "<schema />");
+		DOMDocument openedDocument = DOMParser.getInstance().parse("<opened />", uri, resolverExtensionManager);
+		cache.setOpenedDocumentsProvider(documentURI -> uri.equals(documentURI) ? openedDocument : null);
+		// The content of the editor is parsed in a new DOM document which is not cached
+		DOMDocument document = cache.getDocument(uri, resolverExtensionManager);
+		assertNotSame(openedDocument, document);
+		assertEquals("opened", document.getDocumentElement().getLocalName());
+		assertNotSame(document, cache.getDocument(uri, resolverExtensionManager));
+
+		// The file is loaded when the editor is closed
+		cache.setOpenedDocumentsProvider(documentURI -> null);
+		assertEquals("schema", cache.getDocument(uri, resolverExtensionManager).getDocumentElement().getLocalName());
+	}
+
+	@Test
+	public void disabledCache() throws Exception {
+		String uri = createFile("included.xsd", "<schema />");
+		cache.setMaximumSize(0);
+		DOMDocument document = cache.getDocument(uri, resolverExtensionManager);
+		assertNotNull(document);
+		assertNotSame(document, cache.getDocument(uri, resolverExtensionManager));
+	}
+
+	@Test
+	public void unknownFile() throws Exception {
+		String uri = testWorkDirectory.resolve("unknown.xsd").toUri().toString();
+		assertNull(cache.getDocument(uri, resolverExtensionManager));
+		createFile("unknown.xsd", "<schema />");
+		assertNotNull(cache.getDocument(uri, resolverExtensionManager));
+	}
+
+	private String createFile(String fileName, String content) throws Exception {
+		Path file = testWorkDirectory.resolve(fileName);
+		Files.writeString(file, content);
+		return file.toUri().toString();
+	}
+}
@@ -17,16 +17,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
+import java.util.concurrent.CancellationException;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.commons.TextDocumentVersionChecker;
 import org.eclipse.lemminx.dom.parser.Scanner;
 import org.eclipse.lemminx.dom.parser.TokenType;
 import org.eclipse.lemminx.dom.parser.XMLScanner;
@@ -258,4 +262,26 @@ public class DOMDocumentTest {
 		DOMDocument document = DOMParser.getInstance().parse("<ele attr='\"'/>", "test", null);
 		assertEquals("\"", document.getChild(0).getAttribute("attr"));
 	}
+
+	@Test
+	public void runWithCancelChecker() throws Exception {
+		TextDocument textDocument = new TextDocument("<a />", "test.xml");
+		textDocument.setVersion(1);
+		DOMDocument document = DOMParser.getInstance().parse(textDocument, null, true,
+				new TextDocumentVersionChecker(textDocument, 1));
+		textDocument.setVersion(2);
+		assertThrows(CancellationException.class, () -> document.positionAt(0));
+
+		// The cancel checker of the current thread replaces the cancel checker of the
+		// DOM document
+		DOMDocument.runWithCancelChecker(() -> {
+		}, () -> {
+			try {
+				assertEquals(0, document.positionAt(0).getCharacter());
+			} catch (BadLocationException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		assertThrows(CancellationException.class, () -> document.positionAt(0));
+	}
 }
@@ -0,0 +1,321 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.lemminx.commons.DirtyRegion;
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DOMParser#parseIncremental(DOMDocument, TextDocument, DirtyRegion, org.eclipse.lsp4j.jsonrpc.CancelChecker)}.
+ *
+ */
+public class DOMParserIncrementalTest {
+
+	@Test
+	public void insertTextInElement() {
+		assertIncremental("<root>\n  <a>abc</a>\n  <b attr=\"value\">def</b>\n</root>", //
+				"<root>\n  <a>a|bc</a>".length() - 1, 0, "XYZ", true);
+	}
+
+	@Test
+	public void insertElementInElement() {
+		assertIncremental("<root>\n  <a>abc</a>\n  <b attr=\"value\"><!-- c --></b>\n</root>", //
+				"<root>\n  <a>".length(), 0, "<c x='1'/><d>text</d>", true);
+	}
+
+	@Test
+	public void deleteElementInElement() {
+		String text = "<root>\n  <a><c/><d>text</d></a>\n  <b attr=\"value\"><![CDATA[ x ]]></b>\n  <?pi content ?>\n</root>";
+		int offset = text.indexOf("<c/>");
+		assertIncremental(text, offset, "<c/><d>text</d>".length(), "", true);
+	}
+
+	@Test
+	public void insertWhitespaceInEmptyElement() {
+		assertIncremental("<root>\n  <a></a>\n  <b>def</b>\n</root>", "<root>\n  <a>".length(), 0, "   ", true);
+	}
+
+	@Test
+	public void insertUnclosedElement() {
+		// <c> is not closed, the whole document must be parsed
+		assertIncremental("<root>\n  <a>abc</a>\n  <b>def</b>\n</root>", "<root>\n  <a>".length(), 0, "<c>", false);
+	}
+
+	@Test
+	public void insertEndTag() {
+		// </a> would close the element, the whole document must be parsed
+		assertIncremental("<root>\n  <a>abc</a>\n  <b>def</b>\n</root>", "<root>\n  <a>".length(), 0, "</a>", false);
+	}
+
+	@Test
+	public void insertUnclosedComment() {
+		// the comment would include the end tag, the whole document must be parsed
+		assertIncremental("<root>\n  <a>abc</a>\n  <b>def</b>\n</root>", "<root>\n  <a>".length(), 0, "<!--", false);
+	}
+
+	@Test
+	public void changeStartTag() {
+		// The change is in the start tag of 'a', the content of root is parsed again
+		String text = "<root>\n  <a>abc</a>\n  <b>def</b>\n</root>";
+		assertIncremental(text, text.indexOf("<a>") + 2, 0, " x='1'", true);
+	}
+
+	@Test
+	public void changeRootStartTag() {
+		// The change is in the start tag of 'root', the whole document must be parsed
+		assertIncremental("<root>\n  <a>abc</a>\n</root>", 1, 0, "x", false);
+	}
+
+	@Test
+	public void mergeChanges() {
+		String text = "<root>\n  <a>abc</a>\n  <b>def</b>\n</root>";
+		TextDocument document = new TextDocument(text, "test.xml");
+		document.setIncremental(true);
+		DOMDocument previous = DOMParser.getInstance().parse(document, null);
+
+		// Insert 'X' in the 'a' text and 'Y' in the 'b' text
+		int offsetA = text.indexOf("abc") + 1;
+		int offsetB = text.indexOf("def") + 2;
+		DirtyRegion region = new DirtyRegion(offsetA, 0, 1);
+		region = region.merge(offsetB + 1, 0, "Y");
+		document.update(Arrays.asList(change(document, offsetA, 0, "X")));
+		document.update(Arrays.asList(change(document, offsetB + 1, 0, "Y")));
+
+		DOMDocument updated = DOMParser.getInstance().parseIncremental(previous, document, region, null);
+		assertNotSame(previous, updated);
+		assertSameDOM(DOMParser.getInstance().parse(document, null), updated);
+	}
+
+	@Test
+	public void previousNotModified() {
+		String text = "<root>\n  <a>abc</a>\n  <b attr=\"value\">def</b>\n</root>";
+		TextDocument document = new TextDocument(text, "test.xml");
+		document.setIncremental(true);
+		DOMDocument previous = DOMParser.getInstance().parse(document, null);
+		DOMDocument expected = DOMParser.getInstance().parse(document, null);
+
+		// Replace 'abc' with '<c>xyz</c>'
+		int offset = text.indexOf("abc");
+		String insertedText = "<c>xyz</c>";
+		document.update(Arrays.asList(change(document, offset, 3, insertedText)));
+		DirtyRegion region = new DirtyRegion(offset, 3, insertedText.length());
+		DOMDocument updated = DOMParser.getInstance().parseIncremental(previous, document, region, null);
+		assertNotNull(updated);
+		assertSameDOM(DOMParser.getInstance().parse(document, null), updated);
+
+		// The previous DOM document has not been modified
+		assertSameDOM(expected, previous);
+	}
+
+	@Test
+	public void copyOnlyPathToElement() {
+		StringBuilder text = new StringBuilder("<root>");
+		for (int i = 0; i < 1000; i++) {
+			text.append("\n  <item><name>n").append(i).append("</name><value>v</value></item>");
+		}
+		text.append("\n</root>");
+		TextDocument document = new TextDocument(text.toString(), "test.xml");
+		document.setIncremental(true);
+		DOMDocument previous = DOMParser.getInstance().parse(document, null);
+
+		// Insert text in the name of the item 500
+		int offset = text.indexOf("n500<");
+		document.update(Arrays.asList(change(document, offset, 0, "XY")));
+		DOMDocument updated = DOMParser.getInstance().parseIncremental(previous, document,
+				new DirtyRegion(offset, 0, 2), null);
+		assertNotNull(updated);
+
+		// Only the path from the root to the name of the item 500 has been copied,
+		// the children of the other items are not copied
+		List<DOMElement> items = childElements(updated);
+		assertEquals(1000, items.size());
+		for (int i = 0; i < items.size(); i++) {
+			DOMElement item = items.get(i);
+			if (i == 500) {
+				assertNull(item.copySource);
+			} else {
+				assertSame(childElements(previous).get(i), item.copySource,
+						"children of item " + i + " should not be copied");
+			}
+		}
+
+		// Insert text in the name of the item 10 without accessing the children of
+		// the other items
+		offset = text.indexOf("n10<");
+		document.update(Arrays.asList(change(document, offset, 0, "Z")));
+		DOMDocument updated2 = DOMParser.getInstance().parseIncremental(updated, document,
+				new DirtyRegion(offset, 0, 1), null);
+		assertNotNull(updated2);
+
+		// The children which are not copied yet are copied from the first DOM document
+		DOMElement item700 = childElements(updated2).get(700);
+		assertSame(childElements(previous).get(700), item700.copySource);
+		assertEquals(3, item700.copyDelta);
+
+		assertSameDOM(DOMParser.getInstance().parse(document, null), updated2);
+	}
+
+	@Test
+	public void modelTextDocumentUpdatesModel() {
+		String text = "<root>\n  <a>abc</a>\n  <b>def</b>\n</root>";
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<>(text, "test.xml", (doc, cancelChecker) -> {
+			return DOMParser.getInstance().parse(doc, null, true, cancelChecker);
+		});
+		document.setIncremental(true);
+		document.setModelUpdater((previous, doc, region, cancelChecker) -> {
+			return DOMParser.getInstance().parseIncremental(previous, doc, region, cancelChecker);
+		});
+		DOMDocument model = document.getModel();
+
+		document.setVersion(1);
+		document.update(Arrays.asList(change(document, text.indexOf("abc"), 3, "<c/>")));
+		DOMDocument updated = document.getModel();
+		assertNotSame(model, updated);
+		assertEquals("c", ((DOMElement) updated.getDocumentElement().getFirstChild().getFirstChild()).getTagName());
+		assertSameDOM(DOMParser.getInstance().parse(document, null), updated);
+
+		// Full text change, the model is parsed
+		document.setVersion(2);
+		document.setText("<foo/>");
+		DOMDocument parsed = document.getModel();
+		assertEquals("foo", parsed.getDocumentElement().getTagName());
+	}
+
+	@Test
+	public void randomChanges() {
+		String[] snippets = { "<x>", "</x>", "<x></x>", "<y/>", "<!-- c -->", "<!--", "-->", "text", "  ", "\n", "<",
+				">", "/>", "</", "<![CDATA[ d ]]>", "<?pi ?>", "a='b'", "\"", "" };
+		Random random = new Random(7);
+		String text = "<?xml version=\"1.0\"?>\n<root xmlns=\"ns\">\n  <a>abc</a>\n  <b attr=\"value\">\n    <c/>\n    <d>def</d>\n  </b>\n  <!-- comment -->\n</root>\n";
+		TextDocument document = new TextDocument(text, "test.xml");
+		document.setIncremental(true);
+		DOMDocument current = DOMParser.getInstance().parse(document, null);
+		int nbIncremental = 0;
+		for (int i = 0; i < 2000; i++) {
+			if (i % 4 == 0) {
+				// Restart from a well-formed document to exercise the incremental parse
+				document.setText(text);
+				current = DOMParser.getInstance().parse(document, null);
+			}
+			String content = document.getText();
+			int offset = random.nextInt(content.length() + 1);
+			int length = random.nextInt(Math.min(4, content.length() - offset) + 1);
+			String insertedText = snippets[random.nextInt(snippets.length)];
+			document.update(Arrays.asList(change(document, offset, length, insertedText)));
+			DirtyRegion region = new DirtyRegion(offset, length, insertedText.length());
+			DOMDocument expected = DOMParser.getInstance().parse(document, null);
+			DOMDocument updated = DOMParser.getInstance().parseIncremental(current, document, region, null);
+			if (updated != null) {
+				nbIncremental++;
+				assertSameDOM(expected, updated);
+				current = updated;
+			} else {
+				current = expected;
+			}
+		}
+		assertTrue(nbIncremental > 0);
+	}
+
+	private static void assertIncremental(String text, int offset, int length, String insertedText,
+			boolean expectedIncremental) {
+		TextDocument document = new TextDocument(text, "test.xml");
+		document.setIncremental(true);
+		DOMDocument previous = DOMParser.getInstance().parse(document, null);
+
+		document.update(Arrays.asList(change(document, offset, length, insertedText)));
+		DirtyRegion region = new DirtyRegion(offset, length, insertedText.length());
+		DOMDocument updated = DOMParser.getInstance().parseIncremental(previous, document, region, null);
+		if (!expectedIncremental) {
+			assertNull(updated, "Incremental parse should not be possible");
+			return;
+		}
+		assertNotNull(updated, "Incremental parse should be possible");
+		assertSameDOM(DOMParser.getInstance().parse(document, null), updated);
+	}
+
+	private static List<DOMElement> childElements(DOMDocument document) {
+		List<DOMElement> elements = new ArrayList<>();
+		for (DOMNode child : document.getDocumentElement().getChildren()) {
+			if (child.isElement()) {
+				elements.add((DOMElement) child);
+			}
+		}
+		return elements;
+	}
+
+	private static TextDocumentContentChangeEvent change(TextDocument document, int offset, int length,
+			String text) {
+		try {
+			Range range = new Range(document.positionAt(offset), document.positionAt(offset + length));
+			return new TextDocumentContentChangeEvent(range, length, text);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void assertSameDOM(DOMNode expected, DOMNode actual) {
+		assertEquals(expected.getNodeType(), actual.getNodeType());
+		assertEquals(expected.getNodeName(), actual.getNodeName());
+		assertEquals(expected.getStart(), actual.getStart(), "start of " + expected.getNodeName());
+		assertEquals(expected.getEnd(), actual.getEnd(), "end of " + expected.getNodeName());
+		assertEquals(expected.isClosed(), actual.isClosed(), "closed of " + expected.getNodeName());
+		if (expected.isElement()) {
+			DOMElement expectedElement = (DOMElement) expected;
+			DOMElement actualElement = (DOMElement) actual;
+			assertEquals(expectedElement.getStartTagOpenOffset(), actualElement.getStartTagOpenOffset());
+			assertEquals(expectedElement.getStartTagCloseOffset(), actualElement.getStartTagCloseOffset());
+			assertEquals(expectedElement.getEndTagOpenOffset(), actualElement.getEndTagOpenOffset());
+			assertEquals(expectedElement.getEndTagCloseOffset(), actualElement.getEndTagCloseOffset());
+			assertEquals(expectedElement.isSelfClosed(), actualElement.isSelfClosed());
+		} else if (expected.isComment()) {
+			assertEquals(((DOMComment) expected).getStartContent(), ((DOMComment) actual).getStartContent());
+			assertEquals(((DOMComment) expected).getEndContent(), ((DOMComment) actual).getEndContent());
+		}
+		List<DOMAttr> expectedAttributes = expected.getAttributeNodes();
+		List<DOMAttr> actualAttributes = actual.getAttributeNodes();
+		assertEquals(expectedAttributes != null ? expectedAttributes.size() : 0,
+				actualAttributes != null ? actualAttributes.size() : 0);
+		if (expectedAttributes != null) {
+			for (int i = 0; i < expectedAttributes.size(); i++) {
+				DOMAttr expectedAttr = expectedAttributes.get(i);
+				DOMAttr actualAttr = actualAttributes.get(i);
+				assertEquals(expectedAttr.getStart(), actualAttr.getStart());
+				assertEquals(expectedAttr.getEnd(), actualAttr.getEnd());
+				assertEquals(expectedAttr.getValue(), actualAttr.getValue());
+			}
+		}
+		List<DOMNode> expectedChildren = expected.getChildren();
+		List<DOMNode> actualChildren = actual.getChildren();
+		assertEquals(expectedChildren.size(), actualChildren.size(), "children of " + expected.getNodeName());
+		for (int i = 0; i < expectedChildren.size(); i++) {
+			DOMNode actualChild = actualChildren.get(i);
+			assertSame(actual, actualChild.getParentNode());
+			assertSameDOM(expectedChildren.get(i), actualChild);
+		}
+	}
+}
@@ -0,0 +1,364 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.lemminx.commons.PieceTableTextStore;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.commons.TextDocuments;
+import org.eclipse.lemminx.services.DocumentSymbolsResult;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lemminx.settings.XMLSymbolExpressionFilter;
+import org.eclipse.lemminx.settings.XMLSymbolFilter;
+import org.eclipse.lemminx.settings.XMLSymbolSettings;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextEdit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link DOMParser#parseLargeFile(TextDocument, org.eclipse.lemminx.uriresolver.URIResolverExtensionManager, boolean, org.eclipse.lsp4j.jsonrpc.CancelChecker)}
+ * and {@link DOMElementIndex}.
+ *
+ */
+public class DOMParserLargeFileTest {
+
+	@Test
+	public void elementIndex() {
+		String text = "<?xml version=\"1.0\"?>\n<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		DOMElementIndex index = DOMElementIndex.build(text, null);
+		assertEquals(4, index.getSize());
+		// root
+		assertEquals(text.indexOf("<root>"), index.getStart(0));
+		assertEquals(text.indexOf("</root>"), index.getEndTagOpen(0));
+		assertEquals(text.length(), index.getEnd(0));
+		assertEquals(-1, index.getParent(0));
+		// a, b, c
+		assertEquals("a", index.getName(1, text));
+		assertEquals(0, index.getParent(1));
+		assertEquals(2, index.getNextSibling(1));
+		assertEquals("b", index.getName(2, text));
+		assertEquals(3, index.getFirstChild(2));
+		assertTrue(index.isSelfClosed(3));
+		assertEquals(2, index.getDepth(3));
+
+		// attributes
+		assertEquals(0, index.getAttributeCount(1));
+		assertEquals(1, index.getAttributeCount(2));
+		int x = index.getFirstAttribute(2);
+		assertEquals(text.indexOf("x='1'"), index.getAttributeNameStart(x));
+		assertEquals(text.indexOf("='1'"), index.getAttributeDelimiter(x));
+		assertEquals(text.indexOf("'1'"), index.getAttributeValueStart(x));
+		assertEquals(text.indexOf("'1'") + 3, index.getAttributeValueEnd(x));
+
+		assertEquals(1, index.findChildAt(0, text.indexOf("abc")));
+		assertEquals(2, index.findChildAt(0, text.indexOf("</a>") + 4));
+		assertEquals(-1, index.findChildAt(0, text.indexOf("</root>")));
+		assertEquals(3, index.findChildAt(2, text.indexOf("<c/>") + 1));
+	}
+
+	@Test
+	public void malformedElementIndex() {
+		assertNull(DOMElementIndex.build("<root><a></root>", null));
+		assertNull(DOMElementIndex.build("<root></a></root>", null));
+		assertNull(DOMElementIndex.build("<root><a </root>", null));
+		assertNull(DOMElementIndex.build("<root>", null));
+
+		// the whole document is parsed
+		DOMDocument document = DOMParser.getInstance().parseLargeFile(new TextDocument("<root><a></root>", "test.xml"),
+				null, true, null);
+		assertFalse(document.isLargeFile());
+		assertEquals("a", ((DOMElement) document.getDocumentElement().getFirstChild()).getTagName());
+	}
+
+	@Test
+	public void expandSmallElement() {
+		String text = "<?xml version=\"1.0\"?>\n<!-- start -->\n<root xmlns=\"ns\">\n  <a>abc</a>\n  <b x='1'><c/><!-- c --></b>\n</root>\n<!-- end -->";
+		TextDocument textDocument = new TextDocument(text, "test.xml");
+		DOMDocument expected = DOMParser.getInstance().parse(textDocument, null);
+		DOMDocument actual = DOMParser.getInstance().parseLargeFile(textDocument, null, true, null);
+		assertTrue(actual.isLargeFile());
+
+		// the content of the root element is not parsed
+		DOMElement root = actual.getDocumentElement();
+		assertTrue(root.isCollapsed());
+		assertTrue(root.getParsedChildren().isEmpty());
+		assertEquals(expected.getChildren().size(), actual.getChildren().size());
+		assertEquals("ns", root.getAttribute("xmlns"));
+
+		// the content is parsed when a node is searched
+		int offset = text.indexOf("<c/>") + 1;
+		DOMNode node = actual.findNodeAt(offset);
+		assertFalse(root.isCollapsed());
+		assertEquals("c", node.getNodeName());
+		assertSameDOM(expected, actual);
+	}
+
+	@Test
+	public void expandLargeElement() {
+		StringBuilder text = new StringBuilder("<?xml version=\"1.0\"?>\n<root>\n");
+		for (int i = 0; i < 20000; i++) {
+			text.append("  <item id=\"").append(i).append("\"><name>name").append(i)
+					.append("</name><value/></item>\n");
+		}
+		text.append("</root>");
+		TextDocument textDocument = new TextDocument(text.toString(), "test.xml");
+		DOMDocument expected = DOMParser.getInstance().parse(textDocument, null);
+		DOMDocument actual = DOMParser.getInstance().parseLargeFile(textDocument, null, true, null);
+		assertTrue(actual.isLargeFile());
+
+		int offset = text.indexOf("name15000<") + 2;
+		DOMNode expectedNode = expected.findNodeAt(offset);
+		DOMNode actualNode = actual.findNodeAt(offset);
+		assertEquals("#text", actualNode.getNodeName());
+		assertEquals("name15000", actualNode.getTextContent());
+		while (expectedNode != null) {
+			assertEquals(expectedNode.getNodeName(), actualNode.getNodeName());
+			assertEquals(expectedNode.getStart(), actualNode.getStart());
+			assertEquals(expectedNode.getEnd(), actualNode.getEnd());
+			expectedNode = expectedNode.getParentNode();
+			actualNode = actualNode.getParentNode();
+		}
+		assertNull(actualNode);
+
+		// only the items around the offset have been created
+		DOMElement root = actual.getDocumentElement();
+		assertTrue(root.isCollapsed());
+		int nbItems = root.getParsedChildren().size();
+		assertTrue(nbItems > 0 && nbItems < 20000, "Items: " + nbItems);
+		DOMElement item = (DOMElement) root.getParsedChildren().get(0);
+		assertSame(root, item.getParentNode());
+		assertTrue(item.isCollapsed());
+
+		// the items of another window are merged
+		actual.findNodeAt(text.indexOf("name10<"));
+		assertTrue(root.getParsedChildren().size() > nbItems);
+		assertEquals("10", ((DOMElement) root.getParsedChildren().get(10)).getAttribute("id"));
+
+		// all the items are created when the children are read
+		int modificationStamp = actual.getModificationStamp();
+		assertEquals(20000, root.getChildren().size());
+		assertFalse(root.isCollapsed());
+		assertTrue(actual.getModificationStamp() != modificationStamp);
+
+		// the items created from the element index are the same than the parsed items
+		List<DOMNode> expectedItems = expected.getDocumentElement().getChildren();
+		for (DOMNode actualItem : root.getChildren()) {
+			DOMElement expectedItem = (DOMElement) expectedItems.stream()
+					.filter(n -> n.getStart() == actualItem.getStart()).findFirst().get();
+			assertSameStartTag(expectedItem, (DOMElement) actualItem);
+		}
+	}
+
+	@Test
+	public void expandWithChildren() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		TextDocument textDocument = new TextDocument(text, "test.xml");
+		DOMDocument expected = DOMParser.getInstance().parse(textDocument, null);
+		DOMDocument actual = DOMParser.getInstance().parseLargeFile(textDocument, null, true, null);
+		DOMElement root = actual.getDocumentElement();
+		assertTrue(root.isCollapsed());
+
+		// the content is parsed when the children are read
+		int modificationStamp = actual.getModificationStamp();
+		assertTrue(root.hasChildNodes());
+		assertFalse(root.isCollapsed());
+		assertTrue(actual.getModificationStamp() != modificationStamp);
+		assertSameDOM(expected, actual);
+	}
+
+	@Test
+	public void format() {
+		String text = "<root><a>abc</a><b x='1'><c/></b></root>";
+		DOMDocument expected = DOMParser.getInstance().parse(new TextDocument(text, "test.xml"), null);
+		DOMDocument actual = DOMParser.getInstance().parseLargeFile(new TextDocument(text, "test.xml"), null, true,
+				null);
+		XMLLanguageService languageService = new XMLLanguageService();
+		List<? extends TextEdit> expectedEdits = languageService.format(expected, null, new SharedSettings());
+		List<? extends TextEdit> actualEdits = languageService.format(actual, null, new SharedSettings());
+		assertFalse(expectedEdits.isEmpty());
+		assertEquals(expectedEdits, actualEdits);
+	}
+
+	@Test
+	public void expandWithIndexedText() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		TextDocument textDocument = new TextDocument(text, "test.xml");
+		DOMDocument expected = DOMParser.getInstance().parse(new TextDocument(text, "test.xml"), null);
+		DOMDocument actual = DOMParser.getInstance().parseLargeFile(textDocument, null, true, null);
+
+		// the content is parsed with the text which has been indexed
+		textDocument.setText("<root>\n  <a>abc</a>\n</root>");
+		DOMNode node = actual.findNodeAt(text.indexOf("<c/>") + 1);
+		assertEquals("c", node.getNodeName());
+		assertSameDOM(expected, actual);
+	}
+
+	@Test
+	public void documentSymbols() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		DOMDocument document = DOMParser.getInstance().parseLargeFile(new TextDocument(text, "test.xml"), null, true,
+				null);
+		List<DocumentSymbol> symbols = new XMLLanguageService().findDocumentSymbols(document,
+				new XMLSymbolSettings());
+		assertEquals(1, symbols.size());
+		DocumentSymbol root = symbols.get(0);
+		assertEquals("root", root.getName());
+		assertEquals(2, root.getChildren().size());
+		assertEquals("a", root.getChildren().get(0).getName());
+		DocumentSymbol b = root.getChildren().get(1);
+		assertEquals("b", b.getName());
+		assertEquals("c", b.getChildren().get(0).getName());
+		// the symbols are computed without parsing the content
+		assertTrue(document.getDocumentElement().isCollapsed());
+	}
+
+	@Test
+	public void documentSymbolsWithIndexedText() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		TextDocument textDocument = new TextDocument(text, "test.xml");
+		DOMDocument document = DOMParser.getInstance().parseLargeFile(textDocument, null, true, null);
+
+		// the symbols are computed with the text which has been indexed
+		textDocument.setText("<root>\n  <x>abc</x>\n  <y x='1'><z/></y>\n</root>");
+		List<DocumentSymbol> symbols = new XMLLanguageService().findDocumentSymbols(document,
+				new XMLSymbolSettings());
+		DocumentSymbol b = symbols.get(0).getChildren().get(1);
+		assertEquals("b", b.getName());
+		DocumentSymbol c = b.getChildren().get(0);
+		assertEquals("c", c.getName());
+		assertEquals(new Position(2, 11), c.getRange().getStart());
+		assertEquals(new Position(2, 15), c.getRange().getEnd());
+	}
+
+	@Test
+	public void symbolInformationsOfDeepElements() {
+		int depth = 10000;
+		StringBuilder text = new StringBuilder("<root>");
+		for (int i = 0; i < depth; i++) {
+			text.append("<a>");
+		}
+		for (int i = 0; i < depth; i++) {
+			text.append("</a>");
+		}
+		text.append("</root>");
+		DOMDocument document = DOMParser.getInstance().parseLargeFile(new TextDocument(text.toString(), "test.xml"),
+				null, true, null);
+		XMLSymbolSettings symbolSettings = new XMLSymbolSettings();
+		symbolSettings.setMaxItemsComputed(-1);
+		List<SymbolInformation> symbols = new XMLLanguageService().findSymbolInformations(document, symbolSettings);
+		assertEquals(depth + 1, symbols.size());
+		assertEquals("root", symbols.get(1).getContainerName());
+		assertEquals("a", symbols.get(depth).getContainerName());
+	}
+
+	@Test
+	public void documentSymbolsLimit() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		DOMDocument document = DOMParser.getInstance().parseLargeFile(new TextDocument(text, "test.xml"), null, true,
+				null);
+		XMLSymbolSettings symbolSettings = new XMLSymbolSettings();
+		symbolSettings.setMaxItemsComputed(3);
+		DocumentSymbolsResult symbols = new XMLLanguageService().findDocumentSymbols(document, symbolSettings,
+				() -> {
+				});
+		assertTrue(symbols.isResultLimitExceeded());
+		DocumentSymbol root = symbols.get(0);
+		assertEquals(2, root.getChildren().size());
+		assertTrue(root.getChildren().get(1).getChildren().isEmpty());
+	}
+
+	@Test
+	public void documentSymbolsWithFilter() {
+		String text = "<root>\n  <a>abc</a>\n  <b x='1'><c/></b>\n</root>";
+		DOMDocument document = DOMParser.getInstance()
+				.parseLargeFile(new TextDocument(text, "file:///test/test.xml"), null, true, null);
+		XMLSymbolSettings symbolSettings = new XMLSymbolSettings();
+		XMLSymbolFilter filter = new XMLSymbolFilter();
+		filter.setPattern("test.xml");
+		XMLSymbolExpressionFilter excludeC = new XMLSymbolExpressionFilter();
+		excludeC.setXpath("//c");
+		excludeC.setExcluded(true);
+		XMLSymbolExpressionFilter includeText = new XMLSymbolExpressionFilter();
+		includeText.setXpath("//text()");
+		filter.setExpressions(new XMLSymbolExpressionFilter[] { excludeC, includeText });
+		symbolSettings.setFilters(new XMLSymbolFilter[] { filter });
+
+		// the filter is applied to the parsed content
+		List<DocumentSymbol> symbols = new XMLLanguageService().findDocumentSymbols(document, symbolSettings);
+		DocumentSymbol root = symbols.get(0);
+		assertEquals(2, root.getChildren().size());
+		assertEquals("a: abc", root.getChildren().get(0).getName());
+		DocumentSymbol b = root.getChildren().get(1);
+		assertEquals("b", b.getName());
+		assertTrue(b.getChildren().isEmpty());
+	}
+
+	@Test
+	public void largeFileThreshold() {
+		TextDocuments<TextDocument> documents = new TextDocuments<>();
+		documents.setLargeFileThreshold(10);
+		TextDocument small = documents.createDocument(new TextDocumentItem("small.xml", "xml", 1, "<a/>"));
+		TextDocument large = documents.createDocument(new TextDocumentItem("large.xml", "xml", 1, "<root></root>"));
+		assertFalse(documents.isLargeFile(small));
+		assertTrue(documents.isLargeFile(large));
+		assertTrue(large.getTextStore() instanceof PieceTableTextStore);
+	}
+
+	private static void assertSameStartTag(DOMElement expected, DOMElement actual) {
+		assertEquals(expected.getTagName(), actual.getTagName());
+		assertEquals(expected.getStartTagOpenOffset(), actual.getStartTagOpenOffset());
+		assertEquals(expected.getStartTagCloseOffset(), actual.getStartTagCloseOffset());
+		assertEquals(expected.getEndTagOpenOffset(), actual.getEndTagOpenOffset());
+		assertEquals(expected.getEndTagCloseOffset(), actual.getEndTagCloseOffset());
+		assertEquals(expected.getEnd(), actual.getEnd());
+		assertEquals(expected.isSelfClosed(), actual.isSelfClosed());
+		List<DOMAttr> expectedAttributes = expected.getAttributeNodes();
+		List<DOMAttr> actualAttributes = actual.getAttributeNodes();
+		assertEquals(expectedAttributes.size(), actualAttributes.size());
+		for (int i = 0; i < expectedAttributes.size(); i++) {
+			assertEquals(expectedAttributes.get(i).getName(), actualAttributes.get(i).getName());
+			assertEquals(expectedAttributes.get(i).getValue(), actualAttributes.get(i).getValue());
+			assertEquals(expectedAttributes.get(i).getNodeAttrValue().getStart(),
+					actualAttributes.get(i).getNodeAttrValue().getStart());
+		}
+	}
+
+	private static void assertSameDOM(DOMNode expected, DOMNode actual) {
+		assertEquals(expected.getNodeName(), actual.getNodeName());
+		assertEquals(expected.getStart(), actual.getStart(), "start of " + expected.getNodeName());
+		assertEquals(expected.getEnd(), actual.getEnd(), "end of " + expected.getNodeName());
+		assertEquals(expected.isClosed(), actual.isClosed(), "closed of " + expected.getNodeName());
+		if (expected.isElement()) {
+			assertEquals(((DOMElement) expected).getEndTagOpenOffset(), ((DOMElement) actual).getEndTagOpenOffset());
+			assertEquals(((DOMElement) expected).getEndTagCloseOffset(),
+					((DOMElement) actual).getEndTagCloseOffset());
+		}
+		List<DOMNode> expectedChildren = expected.getChildren();
+		List<DOMNode> actualChildren = actual.getChildren();
+		assertEquals(expectedChildren.size(), actualChildren.size(), "children of " + expected.getNodeName());
+		for (int i = 0; i < expectedChildren.size(); i++) {
+			assertSame(actual, actualChildren.get(i).getParentNode());
+			assertSameDOM(expectedChildren.get(i), actualChildren.get(i));
+		}
+	}
+}
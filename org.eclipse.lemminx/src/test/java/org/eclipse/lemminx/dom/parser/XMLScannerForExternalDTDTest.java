@@ -456,6 +456,32 @@ public class XMLScannerForExternalDTDTest {
 		assertOffsetAndToken(84, TokenType.EOS);
 	}
 
+	@Test
+	public void attlistEnumerationAndDefaultDecls() {
+		String dtd = 
+		"<!ATTLIST elName \n" + 
+		"    attName1 (a|b) #REQUIRED\n" +
+		"    attName2 NMTOKEN #FIXED \"v\">";
+		scanner = XMLScanner.createScanner(dtd, true);
+		assertOffsetAndToken(0, TokenType.DTDStartAttlist);
+		assertOffsetAndToken(9, TokenType.Whitespace);
+		assertOffsetAndToken(10, TokenType.DTDAttlistElementName, "elName");
+		assertOffsetAndToken(16, TokenType.Whitespace);
+		assertOffsetAndToken(22, TokenType.DTDAttlistAttributeName, "attName1");
+		assertOffsetAndToken(30, TokenType.Whitespace);
+		assertOffsetAndToken(31, TokenType.DTDAttlistAttributeType, "(a|b)");
+		assertOffsetAndToken(36, TokenType.Whitespace);
+		assertOffsetAndToken(37, TokenType.DTDAttlistAttributeValue, "#REQUIRED");
+		assertOffsetAndToken(46, TokenType.Whitespace);
+		assertOffsetAndToken(51, TokenType.DTDAttlistAttributeName, "attName2");
+		assertOffsetAndToken(59, TokenType.Whitespace);
+		assertOffsetAndToken(60, TokenType.DTDAttlistAttributeType, "NMTOKEN");
+		assertOffsetAndToken(67, TokenType.Whitespace);
+		assertOffsetAndToken(68, TokenType.DTDAttlistAttributeValue, "#FIXED \"v\"");
+		assertOffsetAndToken(78, TokenType.DTDEndTag);
+		assertOffsetAndToken(79, TokenType.EOS);
+	}
+
 	@Test
 	public void attlistIncompleteDecl() {
 		String dtd = 
@@ -0,0 +1,96 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.dtd.contentmodel.CMDTDContentModelProvider;
+import org.eclipse.lemminx.extensions.xsd.contentmodel.CMXSDContentModelProvider;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test with {@link ContentModelManager} used by concurrent requests.
+ *
+ */
+public class ContentModelManagerConcurrencyTest extends AbstractCacheBasedTest {
+
+	private ContentModelManager modelManager;
+
+	@BeforeEach
+	public void setup() {
+		URIResolverExtensionManager resolverExtensionManager = new URIResolverExtensionManager();
+		modelManager = new ContentModelManager(resolverExtensionManager);
+		modelManager.registerModelProvider(new CMDTDContentModelProvider(resolverExtensionManager));
+		modelManager.registerModelProvider(new CMXSDContentModelProvider(resolverExtensionManager));
+	}
+
+	@Test
+	public void loadXSDOnlyOnce() throws Exception {
+		String xsdURI = Paths.get("src/test/resources/xsd/minLength.xsd").toUri().toString();
+		String xml = "<Root xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				"      xsi:noNamespaceSchemaLocation=\"" + xsdURI + "\" />";
+		DOMDocument document = DOMParser.getInstance().parse(xml, "test.xml", null);
+
+		int nbRequests = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		List<CompletableFuture<Collection<CMDocument>>> requests = new ArrayList<>();
+		for (int i = 0; i < nbRequests; i++) {
+			requests.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				Collection<CMDocument> cmDocuments = modelManager.findCMDocument(document, null);
+				// read the element declarations concurrently
+				for (CMDocument cmDocument : cmDocuments) {
+					for (CMElementDeclaration element : cmDocument.getElements()) {
+						element.getAttributes();
+						element.getElements();
+					}
+				}
+				return cmDocuments;
+			}));
+		}
+		start.countDown();
+
+		CMDocument expected = null;
+		for (CompletableFuture<Collection<CMDocument>> request : requests) {
+			Collection<CMDocument> cmDocuments = request.get(10, TimeUnit.SECONDS);
+			assertEquals(1, cmDocuments.size());
+			CMDocument cmDocument = cmDocuments.iterator().next();
+			if (expected == null) {
+				expected = cmDocument;
+			}
+			// All requests must use the same content model document
+			assertSame(expected, cmDocument);
+		}
+		assertEquals(1, expected.getElements().size());
+	}
+}
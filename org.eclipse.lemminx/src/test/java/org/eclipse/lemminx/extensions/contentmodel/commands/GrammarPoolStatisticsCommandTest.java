@@ -0,0 +1,38 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.MockXMLLanguageServer;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.GrammarPoolStatistics;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the grammar pool statistics command.
+ */
+public class GrammarPoolStatisticsCommandTest extends AbstractCacheBasedTest {
+
+	@Test
+	public void statistics() throws Exception {
+		MockXMLLanguageServer languageServer = new MockXMLLanguageServer();
+
+		Object actual = languageServer.executeCommand(GrammarPoolStatisticsCommand.COMMAND_ID).get();
+		assertTrue(actual instanceof GrammarPoolStatistics);
+		GrammarPoolStatistics statistics = (GrammarPoolStatistics) actual;
+		assertEquals(0, statistics.getSize());
+		assertEquals(LSPXMLGrammarPool.DEFAULT_MAXIMUM_SIZE, statistics.getMaximumSize());
+	}
+}
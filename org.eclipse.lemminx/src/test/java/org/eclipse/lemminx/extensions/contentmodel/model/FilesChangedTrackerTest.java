@@ -16,6 +16,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
 import org.junit.jupiter.api.Test;
@@ -42,4 +45,54 @@ public class FilesChangedTrackerTest extends BaseFileTempTest {
 		assertFalse(tracker.isDirty(), "NO Dirty after file modification on isDirty second call");
 
 	}
+
+	@Test
+	public void deleteFile() throws IOException {
+		FilesChangedTracker tracker = new FilesChangedTracker();
+		URI fileURI = getTempDirPath().toUri().resolve("delete.xml");
+		createFile(fileURI, "<root />");
+		tracker.addFileURI(fileURI);
+
+		assertFalse(tracker.isDirty(), "No dirty after file creation");
+
+		Files.delete(Paths.get(fileURI));
+		assertTrue(tracker.isDirty(), "Dirty after file deletion");
+		assertFalse(tracker.isDirty(), "No dirty after file deletion on isDirty second call");
+	}
+
+	@Test
+	public void invalidateFile() throws IOException {
+		FilesChangedTracker tracker = new FilesChangedTracker();
+		URI fileURI = getTempDirPath().toUri().resolve("invalidate.xml");
+		createFile(fileURI, "<root />");
+		tracker.addFileURI(fileURI);
+
+		assertFalse(tracker.isDirty(), "No dirty after file creation");
+
+		// didChangeWatchedFiles notification
+		FilesWatcher.getInstance().invalidate(fileURI.toString());
+		assertTrue(tracker.isDirty(), "Dirty after file invalidation");
+		assertFalse(tracker.isDirty(), "No dirty after file invalidation on isDirty second call");
+	}
+
+	@Test
+	public void pollFileWithoutDirectory() throws IOException {
+		// The directory doesn't exist, it cannot be watched, the file is polled
+		FilesWatcher watcher = new FilesWatcher();
+		Path file = getTempDirPath().resolve("poll/poll.xml");
+		FilesWatcher.WatchedFile watchedFile = watcher.getWatchedFile(file);
+		long stamp = watcher.getStamp(watchedFile);
+
+		Files.createDirectories(file.getParent());
+		Files.write(file, "<root />".getBytes());
+		assertTrue(watcher.getStamp(watchedFile) != stamp, "Stamp updated after file creation");
+
+		// polling interval
+		watcher.setPollingInterval(60000);
+		stamp = watcher.getStamp(watchedFile);
+		Files.delete(file);
+		assertTrue(watcher.getStamp(watchedFile) == stamp, "Stamp not updated before polling interval");
+		watcher.setPollingInterval(0);
+		assertTrue(watcher.getStamp(watchedFile) != stamp, "Stamp updated after file deletion");
+	}
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.XMLAssert.SettingsSaveContext;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationRootSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the grammar dependencies index of the {@link ContentModelManager}.
+ *
+ */
+public class GrammarDependenciesTest extends AbstractCacheBasedTest {
+
+	private static final String SCHEMA_A_URI = fileURI("src/test/resources/xsd/SchemaA.xsd");
+
+	private static final String SCHEMA_C_URI = fileURI("src/test/resources/xsd/SchemaC.xsd");
+
+	private static final String DOCUMENT_URI = fileURI("src/test/resources/xsd/root.xml");
+
+	private static final String XML = "<Root xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" "
+			+ "xsi:noNamespaceSchemaLocation=\"SchemaA.xsd\" />";
+
+	private XMLLanguageService languageService;
+
+	private ContentModelSettings settings;
+
+	private ContentModelManager contentModelManager;
+
+	@BeforeEach
+	public void setup() {
+		languageService = new XMLLanguageService();
+		languageService.setDocumentProvider(uri -> null);
+		languageService.initializeIfNeeded();
+		settings = new ContentModelSettings();
+		settings.setValidation(new XMLValidationRootSettings());
+		languageService.doSave(new SettingsSaveContext(settings));
+		contentModelManager = languageService.getComponent(ContentModelManager.class);
+	}
+
+	@Test
+	public void dependenciesUpdatedByValidation() {
+		DOMDocument document = parse(XML);
+		languageService.doDiagnostics(document, settings.getValidation(), Collections.emptyMap(), () -> {
+		});
+
+		// SchemaA.xsd includes SchemaB.xsd which includes SchemaC.xsd
+		assertTrue(contentModelManager.dependsOnGrammar(document, SCHEMA_A_URI));
+		assertTrue(contentModelManager.dependsOnGrammar(document, SCHEMA_C_URI));
+		assertFalse(contentModelManager.dependsOnGrammar(document, fileURI("src/test/resources/xsd/money.xsd")));
+		assertEquals(Collections.singleton(DOCUMENT_URI), contentModelManager.getDependentDocuments(SCHEMA_C_URI));
+
+		// closed document
+		contentModelManager.removeGrammarDependencies(DOCUMENT_URI);
+		assertTrue(contentModelManager.getDependentDocuments(SCHEMA_C_URI).isEmpty());
+	}
+
+	@Test
+	public void dependenciesComputedWhenNotValidated() {
+		DOMDocument document = parse(XML);
+		assertTrue(contentModelManager.dependsOnGrammar(document, SCHEMA_A_URI));
+		assertEquals(Collections.singleton(DOCUMENT_URI), contentModelManager.getDependentDocuments(SCHEMA_A_URI));
+	}
+
+	@Test
+	public void dependenciesUpdatedWhenDocumentIsParsedAgain() {
+		DOMDocument document = parse(XML);
+		assertTrue(contentModelManager.dependsOnGrammar(document, SCHEMA_A_URI));
+
+		// The grammar binding is removed
+		DOMDocument newDocument = parse("<Root />");
+		assertFalse(contentModelManager.dependsOnGrammar(newDocument, SCHEMA_A_URI));
+		Set<String> dependents = contentModelManager.getDependentDocuments(SCHEMA_A_URI);
+		assertTrue(dependents.isEmpty());
+	}
+
+	@Test
+	public void normalizeFileURI() {
+		assertEquals(GrammarDependencies.normalize("file:///tmp/a.xsd"),
+				GrammarDependencies.normalize("file:/tmp/a.xsd"));
+		assertEquals("http://www.w3.org/2001/xml.xsd",
+				GrammarDependencies.normalize("http://www.w3.org/2001/xml.xsd"));
+	}
+
+	private DOMDocument parse(String xml) {
+		return DOMParser.getInstance().parse(xml, DOCUMENT_URI, languageService.getResolverExtensionManager());
+	}
+
+	private static String fileURI(String path) {
+		return Paths.get(path).toAbsolutePath().toUri().toString();
+	}
+}
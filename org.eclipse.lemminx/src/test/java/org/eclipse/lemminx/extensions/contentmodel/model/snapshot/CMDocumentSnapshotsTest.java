@@ -0,0 +1,237 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMAttributeDeclaration;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMElementDeclaration;
+import org.eclipse.lemminx.extensions.dtd.contentmodel.CMDTDContentModelProvider;
+import org.eclipse.lemminx.extensions.xsd.contentmodel.CMXSDContentModelProvider;
+import org.eclipse.lemminx.services.extensions.ISharedSettingsRequest;
+import org.eclipse.lemminx.settings.SchemaDocumentationType;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4j.MarkupKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CMDocumentSnapshots}.
+ *
+ */
+public class CMDocumentSnapshotsTest extends AbstractCacheBasedTest {
+
+	private CMXSDContentModelProvider xsdProvider;
+
+	private CMDTDContentModelProvider dtdProvider;
+
+	private CMDocumentSnapshots snapshots;
+
+	@BeforeEach
+	public void setup() {
+		URIResolverExtensionManager resolverExtensionManager = new URIResolverExtensionManager();
+		xsdProvider = new CMXSDContentModelProvider(resolverExtensionManager);
+		dtdProvider = new CMDTDContentModelProvider(resolverExtensionManager);
+		snapshots = new CMDocumentSnapshots();
+	}
+
+	@Test
+	public void xsdSnapshot() throws Exception {
+		String xsdURI = copy("src/test/resources/xsd/maven-4.0.0.xsd");
+		CMDocument grammarDocument = xsdProvider.createCMDocument(xsdURI, false);
+		snapshots.saveSnapshot(xsdURI, grammarDocument);
+
+		AtomicInteger loadCount = new AtomicInteger();
+		CMDocument snapshotDocument = snapshots.loadSnapshot(xsdURI, createLoader(xsdURI, loadCount));
+		assertInstanceOf(CMSnapshotDocument.class, snapshotDocument);
+		assertTrue(snapshotDocument.hasNamespace("http://maven.apache.org/POM/4.0.0"));
+
+		// Compare the snapshot with the grammar without loading the grammar
+		CMDocument expectedDocument = xsdProvider.createCMDocument(xsdURI, false);
+		assertElementsEquals(expectedDocument.getElements(), snapshotDocument.getElements(), 4);
+		assertEquals(0, loadCount.get());
+
+		// Find element declaration from the DOM
+		DOMDocument xml = DOMParser.getInstance().parse(
+				"<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><build><plugins><plugin /></plugins></build></project>",
+				"pom.xml", null);
+		DOMElement plugin = (DOMElement) xml.getDocumentElement().getFirstChild().getFirstChild().getFirstChild();
+		CMElementDeclaration pluginDeclaration = snapshotDocument.findCMElement(plugin);
+		assertNotNull(pluginDeclaration);
+		assertEquals("plugin", pluginDeclaration.getLocalName());
+		assertEquals(0, loadCount.get());
+
+		// The possible elements require the grammar
+		DOMElement project = xml.getDocumentElement();
+		CMElementDeclaration projectDeclaration = snapshotDocument.findCMElement(project);
+		Collection<CMElementDeclaration> possibleElements = projectDeclaration.getPossibleElements(project, 0);
+		assertFalse(possibleElements.isEmpty());
+		assertEquals(1, loadCount.get());
+		projectDeclaration.getPossibleElements(project, 0);
+		assertEquals(1, loadCount.get());
+	}
+
+	@Test
+	public void dtdSnapshot() throws Exception {
+		String dtdURI = copy("src/test/resources/dtd/web-app_2_3.dtd");
+		CMDocument grammarDocument = dtdProvider.createCMDocument(dtdURI, false);
+		snapshots.saveSnapshot(dtdURI, grammarDocument);
+
+		AtomicInteger loadCount = new AtomicInteger();
+		CMDocument snapshotDocument = snapshots.loadSnapshot(dtdURI, createLoader(dtdURI, loadCount));
+		assertInstanceOf(CMSnapshotDocument.class, snapshotDocument);
+
+		CMDocument expectedDocument = dtdProvider.createCMDocument(dtdURI, false);
+		assertElementsEquals(expectedDocument.getElements(), snapshotDocument.getElements(), 2);
+		assertEquals(0, loadCount.get());
+	}
+
+	@Test
+	public void grammarChanged() throws Exception {
+		String xsdURI = copy("src/test/resources/xsd/maven-4.0.0.xsd");
+		snapshots.saveSnapshot(xsdURI, xsdProvider.createCMDocument(xsdURI, false));
+		assertNotNull(snapshots.loadSnapshot(xsdURI, createLoader(xsdURI, new AtomicInteger())));
+
+		Path xsdFile = Paths.get(new java.net.URI(xsdURI));
+		Files.write(xsdFile, Files.readString(xsdFile).replace("<xs:element name=\"project\"",
+				"<xs:element name=\"project2\"").getBytes());
+		assertNull(snapshots.loadSnapshot(xsdURI, createLoader(xsdURI, new AtomicInteger())));
+		assertFalse(Files.exists(CMDocumentSnapshots.getSnapshotPath(xsdURI)));
+	}
+
+	@Test
+	public void corruptedSnapshot() throws Exception {
+		String xsdURI = copy("src/test/resources/xsd/maven-4.0.0.xsd");
+		snapshots.saveSnapshot(xsdURI, xsdProvider.createCMDocument(xsdURI, false));
+		Path snapshotFile = CMDocumentSnapshots.getSnapshotPath(xsdURI);
+		byte[] content = Files.readAllBytes(snapshotFile);
+		content[content.length / 2] ^= 0xFF;
+		Files.write(snapshotFile, content);
+
+		assertNull(snapshots.loadSnapshot(xsdURI, createLoader(xsdURI, new AtomicInteger())));
+	}
+
+	@Test
+	public void unsupportedVersion() throws Exception {
+		String xsdURI = copy("src/test/resources/xsd/maven-4.0.0.xsd");
+		snapshots.saveSnapshot(xsdURI, xsdProvider.createCMDocument(xsdURI, false));
+		Path snapshotFile = CMDocumentSnapshots.getSnapshotPath(xsdURI);
+		byte[] content = Files.readAllBytes(snapshotFile);
+		content[7] = (byte) (CMSnapshotDocument.VERSION + 1);
+		Files.write(snapshotFile, content);
+
+		assertNull(snapshots.loadSnapshot(xsdURI, createLoader(xsdURI, new AtomicInteger())));
+	}
+
+	private String copy(String file) throws Exception {
+		Path source = Paths.get(file);
+		Path target = testWorkDirectory.resolve(source.getFileName());
+		Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		return target.toUri().toString();
+	}
+
+	private Supplier<CMDocument> createLoader(String uri, AtomicInteger loadCount) {
+		return () -> {
+			loadCount.incrementAndGet();
+			return uri.endsWith(".dtd") ? dtdProvider.createCMDocument(uri, false)
+					: xsdProvider.createCMDocument(uri, false);
+		};
+	}
+
+	private static void assertElementsEquals(Collection<CMElementDeclaration> expected,
+			Collection<CMElementDeclaration> actual, int depth) {
+		assertEquals(names(expected), names(actual));
+		if (depth == 0) {
+			return;
+		}
+		Iterator<CMElementDeclaration> actualElements = actual.iterator();
+		for (CMElementDeclaration expectedElement : expected) {
+			CMElementDeclaration actualElement = actualElements.next();
+			assertEquals(expectedElement.getNamespace(), actualElement.getNamespace());
+			assertEquals(expectedElement.isEmpty(), actualElement.isEmpty());
+			assertEquals(expectedElement.isStringType(), actualElement.isStringType());
+			assertEquals(expectedElement.isMixedContent(), actualElement.isMixedContent());
+			assertEquals(expectedElement.getDocumentURI(), actualElement.getDocumentURI());
+			assertEquals(new ArrayList<>(expectedElement.getEnumerationValues()),
+					new ArrayList<>(actualElement.getEnumerationValues()));
+			for (SchemaDocumentationType type : SchemaDocumentationType.values()) {
+				ISharedSettingsRequest request = createRequest(type, type.ordinal() % 2 == 0);
+				assertEquals(expectedElement.getDocumentation(request), actualElement.getDocumentation(request));
+			}
+			List<CMAttributeDeclaration> expectedAttributes = new ArrayList<>(expectedElement.getAttributes());
+			List<CMAttributeDeclaration> actualAttributes = new ArrayList<>(actualElement.getAttributes());
+			assertEquals(expectedAttributes.size(), actualAttributes.size());
+			for (int i = 0; i < expectedAttributes.size(); i++) {
+				CMAttributeDeclaration expectedAttribute = expectedAttributes.get(i);
+				CMAttributeDeclaration actualAttribute = actualAttributes.get(i);
+				assertEquals(expectedAttribute.getLocalName(), actualAttribute.getLocalName());
+				assertEquals(expectedAttribute.getDefaultValue(), actualAttribute.getDefaultValue());
+				assertEquals(expectedAttribute.isRequired(), actualAttribute.isRequired());
+				assertEquals(new ArrayList<>(expectedAttribute.getEnumerationValues()),
+						new ArrayList<>(actualAttribute.getEnumerationValues()));
+			}
+			for (CMElementDeclaration child : expectedElement.getElements()) {
+				assertEquals(expectedElement.isOptional(child.getLocalName()),
+						actualElement.isOptional(child.getLocalName()));
+			}
+			assertEquals(names(expectedElement.getRequiredElements()), names(actualElement.getRequiredElements()));
+			assertElementsEquals(expectedElement.getElements(), actualElement.getElements(), depth - 1);
+		}
+	}
+
+	private static List<String> names(Collection<CMElementDeclaration> elements) {
+		List<String> names = new ArrayList<>();
+		for (CMElementDeclaration element : elements) {
+			names.add(element.getLocalName());
+		}
+		return names;
+	}
+
+	private static ISharedSettingsRequest createRequest(SchemaDocumentationType type, boolean markdownSupported) {
+		SharedSettings sharedSettings = new SharedSettings();
+		sharedSettings.getPreferences().setShowSchemaDocumentationType(type);
+		return new ISharedSettingsRequest() {
+
+			@Override
+			public boolean canSupportMarkupKind(String kind) {
+				return MarkupKind.PLAINTEXT.equals(kind) || (markdownSupported && MarkupKind.MARKDOWN.equals(kind));
+			}
+
+			@Override
+			public SharedSettings getSharedSettings() {
+				return sharedSettings;
+			}
+		};
+	}
+}
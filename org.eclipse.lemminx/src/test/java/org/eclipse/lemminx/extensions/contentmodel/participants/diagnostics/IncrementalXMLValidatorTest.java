@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.XMLAssert.SettingsSaveContext;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationRootSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IncrementalXMLValidator}.
+ *
+ */
+public class IncrementalXMLValidatorTest extends AbstractCacheBasedTest {
+
+	private static final String DOCUMENT_URI = Paths.get("src/test/resources/xsd/invoice.xml").toAbsolutePath()
+			.toUri().toString();
+
+	private static final String XML = "<invoice xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"invoice.xsd\">\r\n"
+			+ //
+			"  <date>2017-11-30</date>\r\n" + //
+			"  <number>abc</number>\r\n" + // error before the checkpoint
+			"  <products>\r\n" + //
+			"    <product price=\"1\" description=\"A\" />\r\n" + //
+			"    <product price=\"x\" description=\"B\" />\r\n" + //
+			"  </products>\r\n" + //
+			"  <payments>\r\n" + //
+			"    <payment amount=\"1\" method=\"bad\" />\r\n" + // error after the checkpoint
+			"  </payments>\r\n" + //
+			"</invoice>";
+
+	private XMLLanguageService languageService;
+
+	private ContentModelSettings settings;
+
+	@BeforeEach
+	public void setup() {
+		languageService = new XMLLanguageService();
+		languageService.setDocumentProvider(uri -> null);
+		languageService.initializeIfNeeded();
+		settings = new ContentModelSettings();
+		settings.setValidation(new XMLValidationRootSettings());
+		settings.getValidation().setIncremental(true);
+		languageService.doSave(new SettingsSaveContext(settings));
+	}
+
+	@Test
+	public void changeInElement() throws BadLocationException {
+		TextDocument document = new TextDocument(XML, DOCUMENT_URI);
+		document.setIncremental(true);
+		List<Diagnostic> diagnostics = validate(document);
+		// cvc-datatype-valid.1.2.1 and cvc-type.3.1.3 for number, etc
+		assertEquals(6, diagnostics.size());
+		Diagnostic numberError = diagnostics.get(0);
+
+		// Fix the price error and add an error in the products
+		change(document, "price=\"x\"", "price=\"2.5\"");
+		diagnostics = assertSameAsFullValidation(document);
+		assertEquals(4, diagnostics.size());
+		// the diagnostic before the checkpoint is not computed again
+		assertSame(numberError, diagnostics.get(0));
+
+		change(document, "description=\"A\"", "");
+		diagnostics = assertSameAsFullValidation(document);
+		assertEquals(5, diagnostics.size());
+		assertSame(numberError, diagnostics.get(0));
+
+		// Change the content model of the 'products' element
+		change(document, "<product price=\"2.5\" description=\"B\" />", "<payment amount=\"1\" method=\"cash\" />");
+		assertSameAsFullValidation(document);
+	}
+
+	@Test
+	public void changeInRootElement() throws BadLocationException {
+		TextDocument document = new TextDocument(XML, DOCUMENT_URI);
+		document.setIncremental(true);
+		validate(document);
+
+		// the changes are not in an element other than the root element
+		change(document, "  <products>", "  <date>2017-11-30</date>\r\n  <products>");
+		assertSameAsFullValidation(document);
+
+		change(document, "<number>abc</number>", "<number>1</number>");
+		assertSameAsFullValidation(document);
+	}
+
+	@Test
+	public void notWellFormed() throws BadLocationException {
+		TextDocument document = new TextDocument(XML, DOCUMENT_URI);
+		document.setIncremental(true);
+		validate(document);
+
+		change(document, "<product price=\"x\" description=\"B\" />", "<product price=\"x\" description=\"B\" >");
+		assertSameAsFullValidation(document);
+
+		change(document, "<product price=\"x\" description=\"B\" >", "<product price=\"x\" description=\"B\" />");
+		assertSameAsFullValidation(document);
+	}
+
+	private List<Diagnostic> assertSameAsFullValidation(TextDocument document) {
+		List<Diagnostic> diagnostics = validate(document);
+
+		// validate the document without the incremental validation
+		settings.getValidation().setIncremental(false);
+		try {
+			List<Diagnostic> expected = validate(new TextDocument(document.getText(), DOCUMENT_URI));
+			assertEquals(toString(expected), toString(diagnostics));
+		} finally {
+			settings.getValidation().setIncremental(true);
+		}
+		return diagnostics;
+	}
+
+	private List<Diagnostic> validate(TextDocument document) {
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document,
+				languageService.getResolverExtensionManager());
+		return languageService.doDiagnostics(xmlDocument, settings.getValidation(), Collections.emptyMap(), () -> {
+		});
+	}
+
+	private static void change(TextDocument document, String search, String replace) throws BadLocationException {
+		int start = document.getText().indexOf(search);
+		Range range = new Range(document.positionAt(start), document.positionAt(start + search.length()));
+		document.setVersion(document.getVersion() + 1);
+		document.update(Collections.singletonList(new TextDocumentContentChangeEvent(range, replace)));
+	}
+
+	private static String toString(List<Diagnostic> diagnostics) {
+		return diagnostics.stream() //
+				.map(d -> d.getRange() + " " + d.getCode() + " " + d.getMessage()) //
+				.sorted() //
+				.collect(Collectors.joining("\n"));
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.eclipse.lemminx.XMLAssert.d;
+import static org.eclipse.lemminx.XMLAssert.testDiagnosticsFor;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.participants.XMLSchemaErrorCode;
+import org.eclipse.lemminx.extensions.contentmodel.participants.XMLSyntaxErrorCode;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LSPDOMDocumentSource}.
+ *
+ */
+public class LSPDOMDocumentSourceTest {
+
+	@Test
+	public void wellFormed() {
+		assertDOMSource("<root />");
+		assertDOMSource("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone='yes' ?><root />");
+		assertDOMSource("<!-- comment --><root />");
+		assertDOMSource("<?pi data ?><root />");
+		assertDOMSource("<root xmlns=\"ns\" xmlns:a='a' a:b=\"&lt;&#x20;&#65;\"/>");
+		assertDOMSource("<root><a:child>text &amp; &quot;<![CDATA[ <cdata> ]]></a:child></root>");
+		assertDOMSource("<root></root >");
+		assertDOMSource("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone='yes' ?>\r\n" + //
+				"<!-- comment -->\r\n" + //
+				"<?pi data ?>\r\n" + //
+				"<root xmlns=\"ns\" xmlns:a='a' a:b=\"&lt;&#x20;&#65;\">\r\n" + //
+				"  <a:child>text &amp; &quot;<![CDATA[ <cdata> ]]></a:child>\r\n" + //
+				"  <child />\r\n" + //
+				"</root >\r\n");
+	}
+
+	@Test
+	public void notWellFormed() {
+		// not closed
+		assertNoDOMSource("<root>");
+		assertNoDOMSource("<root><a></root>");
+		assertNoDOMSource("<root></a>");
+		// bad attributes
+		assertNoDOMSource("<root a=b />");
+		assertNoDOMSource("<root a='b\" />");
+		assertNoDOMSource("<root a='<' />");
+		assertNoDOMSource("<root a='b'c='d' />");
+		// bad content
+		assertNoDOMSource("<root>]]></root>");
+		assertNoDOMSource("<root><!-- a -- b --></root>");
+		assertNoDOMSource("<root><!-- a ---></root>");
+		assertNoDOMSource("<root><?xml a?></root>");
+		// bad prolog
+		assertNoDOMSource(" <?xml version=\"1.0\"?><root/>");
+		assertNoDOMSource("<?xml version=\"1.1\"?><root/>");
+		assertNoDOMSource("<?xml encoding=\"UTF-8\"?><root/>");
+		// several roots
+		assertNoDOMSource("<root/><root/>");
+		assertNoDOMSource("text<root/>");
+		// namespace binding errors are reported by the Xerces scanner
+		assertNoDOMSource("<root xmlns:a='' />");
+		assertNoDOMSource("<root xmlns:xml='ns' />");
+	}
+
+	@Test
+	public void entities() {
+		// entity expansion is done with the Xerces scanner
+		assertNoDOMSource("<!DOCTYPE root [<!ENTITY foo 'bar'>]><root>&foo;</root>");
+		assertNoDOMSource("<root>&foo;</root>");
+		assertNoDOMSource("<root a='&foo;' />");
+		assertNoDOMSource("<root>&#0;</root>");
+	}
+
+	@Test
+	public void namespaceErrors() {
+		String xml = "<root>\r\n" + //
+				"  <a:child />\r\n" + //
+				"</root>";
+		testDiagnosticsFor(xml, d(1, 3, 1, 10, XMLSyntaxErrorCode.ElementPrefixUnbound));
+
+		xml = "<root xmlns:a=\"ns\" xmlns:a=\"ns\" />";
+		testDiagnosticsFor(xml, d(0, 6, 0, 13, XMLSyntaxErrorCode.AttributeNSNotUnique));
+
+		xml = "<root>\r\n" + //
+				"  <child b:attr=\"\" />\r\n" + //
+				"</root>";
+		testDiagnosticsFor(xml, d(1, 9, 1, 10, XMLSyntaxErrorCode.AttributePrefixUnbound));
+	}
+
+	@Test
+	public void schemaValidationWithReferences() {
+		// Locations of the Xerces validator are computed with the DOM offsets
+		String xml = "<?xml version=\"1.0\"?>\r\n" + //
+				"<?xml-model href=\"src/test/resources/xsd/minLength.xsd\"?>\r\n" + //
+				"<Root>\r\n" + //
+				"    <Test Some_String=\"&#x20;&amp;\" Some_Restricted_Value=\"\"/>\r\n" + //
+				"</Root>";
+		testDiagnosticsFor(xml, //
+				d(3, 58, 3, 60, XMLSchemaErrorCode.cvc_minlength_valid),
+				d(3, 58, 3, 60, XMLSchemaErrorCode.cvc_attribute_3));
+	}
+
+	private static void assertDOMSource(String xml) {
+		assertNotNull(LSPDOMDocumentSource.create(parse(xml)), "DOM document source expected for " + xml);
+	}
+
+	private static void assertNoDOMSource(String xml) {
+		assertNull(LSPDOMDocumentSource.create(parse(xml)), "DOM document source not expected for " + xml);
+	}
+
+	private static DOMDocument parse(String xml) {
+		return DOMParser.getInstance().parse(xml, "test.xml", null);
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xerces.impl.dtd.DTDGrammar;
+import org.apache.xerces.impl.dtd.XMLDTDDescription;
+import org.apache.xerces.util.SymbolTable;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LSPXMLGrammarPool}.
+ *
+ */
+public class LSPXMLGrammarPoolTest {
+
+	@Test
+	public void hitAndMiss() {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		DTDGrammar grammar = createGrammar("http://foo/a.dtd");
+		assertNull(pool.retrieveGrammar(grammar.getGrammarDescription()));
+		pool.cacheGrammars(XMLGrammarDescription.XML_DTD, new Grammar[] { grammar });
+		assertSame(grammar, pool.retrieveGrammar(createDescription("http://foo/a.dtd")));
+
+		pool.removeGrammar("http://foo/a.dtd");
+		assertNull(pool.retrieveGrammar(grammar.getGrammarDescription()));
+
+		GrammarPoolStatistics statistics = pool.getStatistics();
+		assertEquals(0, statistics.getSize());
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(2, statistics.getMissCount());
+		assertEquals(0, statistics.getEvictionCount());
+	}
+
+	@Test
+	public void removeGrammarsOfFile() {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		DTDGrammar a = createGrammar("file:///foo/a.dtd");
+		DTDGrammar b = createGrammar("file:///foo/b.dtd");
+		pool.cacheGrammars(XMLGrammarDescription.XML_DTD, new Grammar[] { a, b });
+
+		// The file URI syntax of the client can be different
+		assertEquals(Collections.singleton("file:///foo/a.dtd"), pool.removeGrammars("file:/foo/a.dtd"));
+		assertNull(pool.retrieveGrammar(a.getGrammarDescription()));
+		assertSame(b, pool.retrieveGrammar(b.getGrammarDescription()));
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool(2);
+		DTDGrammar a = createGrammar("http://foo/a.dtd");
+		DTDGrammar b = createGrammar("http://foo/b.dtd");
+		DTDGrammar c = createGrammar("http://foo/c.dtd");
+		pool.cacheGrammars(XMLGrammarDescription.XML_DTD, new Grammar[] { a, b });
+		// 'a' is used, 'b' is the least recently used grammar
+		assertSame(a, pool.retrieveGrammar(a.getGrammarDescription()));
+		pool.cacheGrammars(XMLGrammarDescription.XML_DTD, new Grammar[] { c });
+
+		assertSame(a, pool.retrieveGrammar(a.getGrammarDescription()));
+		assertNull(pool.retrieveGrammar(b.getGrammarDescription()));
+		assertSame(c, pool.retrieveGrammar(c.getGrammarDescription()));
+
+		GrammarPoolStatistics statistics = pool.getStatistics();
+		assertEquals(2, statistics.getSize());
+		assertEquals(2, statistics.getMaximumSize());
+		assertEquals(1, statistics.getEvictionCount());
+
+		// reduce the size
+		pool.setMaximumSize(1);
+		assertEquals(1, pool.getStatistics().getSize());
+	}
+
+	@Test
+	public void loadGrammarOnlyOnce() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		DTDGrammar grammar = createGrammar("http://foo/a.dtd");
+		Object validation1 = new Object();
+		Object validation2 = new Object();
+
+		// The first validation must load the grammar
+		assertNull(pool.retrieveGrammar(grammar.getGrammarDescription(), validation1));
+		// The second validation waits for the grammar loaded by the first validation
+		CompletableFuture<Grammar> retrieved = CompletableFuture
+				.supplyAsync(() -> pool.retrieveGrammar(createDescription("http://foo/a.dtd"), validation2));
+		Thread.sleep(50);
+		pool.cacheGrammars(XMLGrammarDescription.XML_DTD, new Grammar[] { grammar });
+		assertSame(grammar, retrieved.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void releaseLoadingGrammar() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		Object validation1 = new Object();
+		Object validation2 = new Object();
+
+		assertNull(pool.retrieveGrammar(createDescription("http://foo/a.dtd"), validation1));
+		CompletableFuture<Grammar> retrieved = CompletableFuture
+				.supplyAsync(() -> pool.retrieveGrammar(createDescription("http://foo/a.dtd"), validation2));
+		Thread.sleep(50);
+		// The first validation cannot load the grammar, the second validation must
+		// load it.
+		pool.releaseLoadingGrammars(validation1);
+		assertNull(retrieved.get(5, TimeUnit.SECONDS));
+	}
+
+	private static DTDGrammar createGrammar(String systemId) {
+		return new DTDGrammar(new SymbolTable(), createDescription(systemId));
+	}
+
+	private static XMLDTDDescription createDescription(String systemId) {
+		return new XMLDTDDescription(null, systemId, null, systemId, "root");
+	}
+}
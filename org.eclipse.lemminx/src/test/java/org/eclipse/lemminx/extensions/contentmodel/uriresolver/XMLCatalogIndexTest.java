@@ -0,0 +1,156 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.uriresolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.xerces.util.XMLCatalogResolver;
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link XMLCatalogIndex}.
+ *
+ */
+public class XMLCatalogIndexTest extends AbstractCacheBasedTest {
+
+	private static final String CATALOG = "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\r\n" + //
+			"	<system systemId=\"http://example.com/a.dtd\" uri=\"a.dtd\" />\r\n" + //
+			"	<rewriteSystem systemIdStartString=\"http://example.com/\" rewritePrefix=\"rewritten/\" />\r\n" + //
+			"	<rewriteSystem systemIdStartString=\"http://example.com/deep/\" rewritePrefix=\"deep/\" />\r\n" + //
+			"	<systemSuffix systemIdSuffix=\"/b.dtd\" uri=\"b.dtd\" />\r\n" + //
+			"	<systemSuffix systemIdSuffix=\"sub/b.dtd\" uri=\"sub-b.dtd\" />\r\n" + //
+			"	<public publicId=\"-//A//DTD A//EN\" uri=\"public-a.dtd\" />\r\n" + //
+			"	<group prefer=\"system\">\r\n" + //
+			"		<public publicId=\"-//B//DTD  B//EN\" uri=\"public-b.dtd\" />\r\n" + //
+			"	</group>\r\n" + //
+			"	<group xml:base=\"base/\">\r\n" + //
+			"		<uri name=\"urn:base\" uri=\"base.xsd\" />\r\n" + //
+			"	</group>\r\n" + //
+			"	<uri name=\"http://example.com/ns\" uri=\"ns.xsd\" />\r\n" + //
+			"	<rewriteURI uriStartString=\"http://rewrite.org/\" rewritePrefix=\"r/\" />\r\n" + //
+			"	<uriSuffix uriSuffix=\"/c.xsd\" uri=\"c.xsd\" />\r\n" + //
+			"	<delegateSystem systemIdStartString=\"http://delegated.org/\" catalog=\"delegate.xml\" />\r\n" + //
+			"	<delegateURI uriStartString=\"http://delegated.org/ns\" catalog=\"delegate.xml\" />\r\n" + //
+			"	<delegatePublic publicIdStartString=\"-//D//\" catalog=\"delegate.xml\" />\r\n" + //
+			"	<nextCatalog catalog=\"next.xml\" />\r\n" + //
+			"</catalog>";
+
+	private static final String DELEGATE_CATALOG = "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\r\n"
+			+ //
+			"	<system systemId=\"http://delegated.org/x.dtd\" uri=\"x.dtd\" />\r\n" + //
+			"	<uri name=\"http://delegated.org/ns\" uri=\"d-ns.xsd\" />\r\n" + //
+			"	<public publicId=\"-//D//DTD X//EN\" uri=\"d.dtd\" />\r\n" + //
+			"</catalog>";
+
+	private static final String NEXT_CATALOG = "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\r\n" + //
+			"	<system systemId=\"http://next.org/n.dtd\" uri=\"n.dtd\" />\r\n" + //
+			"	<uri name=\"urn:next\" uri=\"next.xsd\" />\r\n" + //
+			"</catalog>";
+
+	private static final List<String> SYSTEM_IDS = Arrays.asList("http://example.com/a.dtd",
+			"http://example.com/other.dtd", "http://example.com/deep/c.dtd", "http://other.com/b.dtd",
+			"http://other.com/sub/b.dtd", "http://delegated.org/x.dtd", "http://delegated.org/unknown.dtd",
+			"http://next.org/n.dtd", "http://unknown.org/u.dtd", "http://example.com/with space.dtd",
+			"urn:publicid:-:A:DTD+A:EN");
+
+	private static final List<String> PUBLIC_IDS = Arrays.asList("-//A//DTD A//EN", "-//B//DTD B//EN",
+			"  -//B//DTD\tB//EN ", "-//D//DTD X//EN", "-//D//DTD Y//EN", "-//U//DTD U//EN");
+
+	private static final List<String> URIS = Arrays.asList("http://example.com/ns", "urn:base",
+			"http://rewrite.org/a.xsd", "http://other.org/c.xsd", "http://delegated.org/ns",
+			"http://delegated.org/ns2", "urn:next", "urn:unknown", "urn:publicid:-:A:DTD+A:EN");
+
+	@Test
+	public void sameResolutionThanXMLResolver() throws Exception {
+		String catalogURI = createCatalogs();
+		XMLCatalogResolver expected = new XMLCatalogResolver(new String[] { catalogURI });
+		XMLCatalogIndex index = new XMLCatalogIndex();
+		List<String> catalogs = Collections.singletonList(XMLCatalogIndex.getCatalogURL(catalogURI));
+
+		for (String systemId : SYSTEM_IDS) {
+			assertEquals(expected.resolveSystem(systemId), index.resolveSystem(catalogs, systemId), systemId);
+		}
+		for (String publicId : PUBLIC_IDS) {
+			assertEquals(expected.resolvePublic(publicId, null), index.resolvePublic(catalogs, publicId, null),
+					publicId);
+			for (String systemId : SYSTEM_IDS) {
+				assertEquals(expected.resolvePublic(publicId, systemId),
+						index.resolvePublic(catalogs, publicId, systemId), publicId + " " + systemId);
+			}
+		}
+		for (String uri : URIS) {
+			assertEquals(expected.resolveURI(uri), index.resolveURI(catalogs, uri), uri);
+		}
+
+		String base = XMLCatalogIndex.getCatalogURL(testWorkDirectory.toUri().toString());
+		assertEquals(base + "a.dtd", index.resolveSystem(catalogs, "http://example.com/a.dtd"));
+		assertEquals(base + "deep/c.dtd", index.resolveSystem(catalogs, "http://example.com/deep/c.dtd"));
+		assertEquals(base + "sub-b.dtd", index.resolveSystem(catalogs, "http://other.com/sub/b.dtd"));
+		assertEquals(base + "x.dtd", index.resolveSystem(catalogs, "http://delegated.org/x.dtd"));
+		assertEquals(base + "n.dtd", index.resolveSystem(catalogs, "http://next.org/n.dtd"));
+		// public entry with prefer="system" is not used when there is a system id
+		assertEquals(base + "public-b.dtd", index.resolvePublic(catalogs, "-//B//DTD B//EN", null));
+		assertNull(index.resolvePublic(catalogs, "-//B//DTD B//EN", "http://unknown.org/u.dtd"));
+		assertEquals(base + "base/base.xsd", index.resolveURI(catalogs, "urn:base"));
+		assertEquals(base + "r/a.xsd", index.resolveURI(catalogs, "http://rewrite.org/a.xsd"));
+		assertEquals(base + "d-ns.xsd", index.resolveURI(catalogs, "http://delegated.org/ns"));
+	}
+
+	@Test
+	public void reloadChangedCatalog() throws Exception {
+		String catalogURI = createCatalogs();
+		XMLCatalogIndex index = new XMLCatalogIndex();
+		String catalogURL = XMLCatalogIndex.getCatalogURL(catalogURI);
+		List<String> catalogs = Collections.singletonList(catalogURL);
+		String base = XMLCatalogIndex.getCatalogURL(testWorkDirectory.toUri().toString());
+
+		assertEquals(base + "next.xsd", index.resolveURI(catalogs, "urn:next"));
+		CompiledCatalog catalog = index.getCatalog(catalogURL);
+		CompiledCatalog nextCatalog = index.getCatalog(base + "next.xml");
+		assertNotNull(nextCatalog);
+
+		// Update the next catalog
+		Path nextCatalogFile = testWorkDirectory.resolve("next.xml");
+		Files.writeString(nextCatalogFile, NEXT_CATALOG.replace("next.xsd", "next-changed.xsd"));
+		FilesWatcher.getInstance().invalidate(nextCatalogFile.toUri().toString());
+		index.refresh(catalogs);
+
+		assertEquals(base + "next-changed.xsd", index.resolveURI(catalogs, "urn:next"));
+		// only the changed catalog is reloaded
+		assertSame(catalog, index.getCatalog(catalogURL));
+		assertNotSame(nextCatalog, index.getCatalog(base + "next.xml"));
+
+		// The catalogs which are not used are removed
+		index.refresh(Collections.emptyList());
+		assertNotSame(catalog, index.getCatalog(catalogURL));
+	}
+
+	private String createCatalogs() throws Exception {
+		Files.writeString(testWorkDirectory.resolve("delegate.xml"), DELEGATE_CATALOG);
+		Files.writeString(testWorkDirectory.resolve("next.xml"), NEXT_CATALOG);
+		Path catalog = testWorkDirectory.resolve("catalog.xml");
+		Files.writeString(catalog, CATALOG);
+		return catalog.toUri().toString();
+	}
+}
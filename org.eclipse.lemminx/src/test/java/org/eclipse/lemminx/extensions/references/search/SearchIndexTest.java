@@ -0,0 +1,133 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.references.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lemminx.commons.DirtyRegion;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.references.search.SearchNode.Direction;
+import org.eclipse.lemminx.extensions.references.search.SearchQuery.QueryDirection;
+import org.eclipse.lemminx.extensions.references.settings.XMLReferenceExpression;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SearchIndex} and its cache in {@link SearchEngine}.
+ *
+ */
+public class SearchIndexTest {
+
+	private static final String TEXT = "<TEI>\n" + //
+			"  <a xml:id=\"A\" />\n" + //
+			"  <a xml:id=\"B\" />\n" + //
+			"  <ref corresp=\"#A\" />\n" + //
+			"  <ref corresp=\"#B\" />\n" + //
+			"  <ref corresp=\"#A\" />\n" + //
+			"  <ref corresp=\"A\" />\n" + //
+			"</TEI>";
+
+	@Test
+	public void findNodesByValue() {
+		XMLReferenceExpression corresp = createExpression();
+		List<XMLReferenceExpression> expressions = Arrays.asList(corresp);
+		DOMDocument document = DOMParser.getInstance().parse(new TextDocument(TEXT, "test.xml"), null);
+		SearchIndex index = SearchIndex.build(document, expressions, null);
+		// 2 'to' nodes (xml:id) and 4 'from' nodes (corresp)
+		assertEquals(6, index.getNodes().size());
+
+		// #A -> A
+		SearchNode from = findSearchNodes(document, TEXT.indexOf("#A"), Direction.FROM, corresp).get(0);
+		SearchQuery query = new SearchQuery(from, expressions, QueryDirection.FROM_2_TO);
+		List<SearchIndex.IndexedNode> nodes = index.findNodes(query, from);
+		assertEquals(1, nodes.size());
+		assertEquals("A", nodes.get(0).getSearchNodes(0, QueryDirection.FROM_2_TO).get(0).getValue(null));
+
+		// A -> #A, #A (the 'A' reference has an invalid prefix)
+		SearchNode to = findSearchNodes(document, TEXT.indexOf("\"A\"") + 1, Direction.TO, corresp).get(0);
+		query = new SearchQuery(to, expressions, QueryDirection.TO_2_FROM);
+		nodes = index.findNodes(query, to);
+		assertEquals(2, nodes.size());
+		assertTrue(nodes.get(0).getSearchNodes(0, QueryDirection.TO_2_FROM).get(0).getStart() < nodes.get(1)
+				.getSearchNodes(0, QueryDirection.TO_2_FROM).get(0).getStart());
+	}
+
+	@Test
+	public void cachedIndex() {
+		XMLReferenceExpression corresp = createExpression();
+		TextDocument textDocument = new TextDocument(TEXT, "test.xml");
+		textDocument.setIncremental(true);
+		DOMDocument document = DOMParser.getInstance().parse(textDocument, null);
+		SearchEngine engine = new SearchEngine();
+
+		SearchIndex index = engine.getIndex(document, Collections.singletonList(corresp), null);
+		assertSame(index, engine.getIndex(document, Collections.singletonList(corresp), null));
+
+		// The index is rebuilt with the expressions of both queries
+		XMLReferenceExpression other = createExpression();
+		SearchIndex otherIndex = engine.getIndex(document, Collections.singletonList(other), null);
+		assertNotSame(index, otherIndex);
+		assertEquals(Arrays.asList(corresp, other), otherIndex.getExpressions());
+		assertSame(otherIndex, engine.getIndex(document, Collections.singletonList(corresp), null));
+
+		// The index is rebuilt when the DOM document is updated
+		int offset = TEXT.indexOf("\"B\"") + 1;
+		DirtyRegion region = new DirtyRegion(offset, 1, 1);
+		textDocument.update(Arrays.asList(change(textDocument, offset, 1, "C")));
+		DOMDocument updated = DOMParser.getInstance().parseIncremental(document, textDocument, region, null);
+		assertNotSame(document, updated);
+		SearchIndex updatedIndex = engine.getIndex(updated, Collections.singletonList(corresp), null);
+		assertNotSame(otherIndex, updatedIndex);
+		List<SearchNode> tos = new ArrayList<>();
+		for (SearchIndex.IndexedNode node : updatedIndex.getNodes()) {
+			tos.addAll(node.getSearchNodes(0, QueryDirection.FROM_2_TO));
+		}
+		assertEquals("C", tos.get(1).getValue(null));
+	}
+
+	private static List<SearchNode> findSearchNodes(DOMDocument document, int offset, Direction direction,
+			XMLReferenceExpression expression) {
+		DOMAttr attr = document.findAttrAt(offset);
+		String prefix = direction == Direction.FROM ? expression.getPrefix() : null;
+		return SearchNodeFactory.findSearchNodes(attr, prefix, false, direction);
+	}
+
+	private static XMLReferenceExpression createExpression() {
+		XMLReferenceExpression expression = new XMLReferenceExpression();
+		expression.setPrefix("#");
+		expression.setFrom("@corresp");
+		expression.setTo("@xml:id");
+		return expression;
+	}
+
+	private static TextDocumentContentChangeEvent change(TextDocument document, int offset, int length,
+			String text) {
+		try {
+			Range range = new Range(document.positionAt(offset), document.positionAt(offset + length));
+			return new TextDocumentContentChangeEvent(range, length, text);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
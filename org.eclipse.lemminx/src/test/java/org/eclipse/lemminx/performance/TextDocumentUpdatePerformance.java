@@ -17,6 +17,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.lemminx.commons.ITextStore;
+import org.eclipse.lemminx.commons.PieceTableTextStore;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
@@ -24,30 +26,53 @@ import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 
 /**
  * This utility class is used to check the performance of
- * {@link TextDocument#update(List)}, updating the large content.xml file
+ * {@link TextDocument#update(List)}, updating the large content.xml file.
+ * 
+ * <p>
+ * The update is done first by copying the whole text content (default mode)
+ * and then by using a {@link PieceTableTextStore}. Pass 'pieceTable' as
+ * argument to loop only with the piece table.
+ * </p>
  * 
  * @author Angelo ZERR
  *
  */
 public class TextDocumentUpdatePerformance {
 
+	private static final int NB_UPDATES = 1000;
+
 	public static void main(String[] args) {
 		InputStream in = TextDocumentUpdatePerformance.class.getResourceAsStream("/xml/content.xml");
 		String text = convertStreamToString(in);
+		boolean pieceTableOnly = args.length > 0 && "pieceTable".equals(args[0]);
+		if (!pieceTableOnly) {
+			update(text, null);
+		}
+		// Continuously updates the large content.xml file with the piece table.
+		while (true) {
+			update(text, new PieceTableTextStore());
+		}
+	}
+
+	private static void update(String text, ITextStore textStore) {
 		TextDocument document = new TextDocument(text, "content.xml");
 		document.setIncremental(true);
-		// Continuously parses the large content.xml file with the DOM parser.
-		while (true) {
-			long start = System.currentTimeMillis();
+		document.setTextStore(textStore);
+		String mode = textStore != null ? "piece table" : "string copy";
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < NB_UPDATES; i++) {
 			// Insert a space
 			List<TextDocumentContentChangeEvent> changes = new ArrayList<>();
 			TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(
 					new Range(new Position(14, 13), new Position(14, 13)), 0, " ");
 			changes.add(change);
 			document.update(changes);
-			System.err.println("Update 'content.xml' text document in " + (System.currentTimeMillis() - start) + " ms.");
 		}
-
+		long updateTime = System.currentTimeMillis() - start;
+		// Get the text content like the DOM parser does after a didChange
+		document.getText();
+		System.err.println("[" + mode + "] " + NB_UPDATES + " updates of 'content.xml' text document in " + updateTime
+				+ " ms (+" + (System.currentTimeMillis() - start - updateTime) + " ms to get the text).");
 	}
 
 }
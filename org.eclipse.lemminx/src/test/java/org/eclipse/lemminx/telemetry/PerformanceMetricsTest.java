@@ -0,0 +1,111 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.telemetry.PerformanceMetrics.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests for {@link PerformanceMetrics}.
+ *
+ */
+public class PerformanceMetricsTest {
+
+	@Test
+	public void histogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 98; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+		}
+		histogram.recordCancelled(TimeUnit.MILLISECONDS.toNanos(150));
+		histogram.recordError(TimeUnit.MILLISECONDS.toNanos(20000));
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(1, histogram.getCancelledCount());
+		assertEquals(1, histogram.getErrorCount());
+		assertEquals(20000, histogram.getMaxTime());
+		assertEquals(5, histogram.getPercentile(50));
+		assertEquals(200, histogram.getPercentile(99));
+		assertEquals(20000, histogram.getPercentile(100));
+		long[] counts = histogram.getCumulativeCounts();
+		assertEquals(100, counts[counts.length - 1]);
+	}
+
+	@Test
+	public void trackRequests() {
+		PerformanceMetrics metrics = new PerformanceMetrics();
+		metrics.track("textDocument/hover", CompletableFuture.completedFuture(null));
+		metrics.track("textDocument/hover", new CompletableFuture<>()).cancel(true);
+		CompletableFuture<Object> failed = metrics.track("textDocument/hover", new CompletableFuture<>());
+		failed.completeExceptionally(new IllegalStateException());
+
+		LatencyHistogram histogram = metrics.getHistogram(PerformanceMetrics.REQUEST, "textDocument/hover");
+		assertEquals(3, histogram.getCount());
+		assertEquals(1, histogram.getCancelledCount());
+		assertEquals(1, histogram.getErrorCount());
+	}
+
+	@Test
+	public void export(@TempDir Path dir) throws Exception {
+		PerformanceMetrics metrics = new PerformanceMetrics();
+		metrics.track("textDocument/completion", CompletableFuture.completedFuture(null));
+		metrics.recordParse("file:///test.xml", 10, TimeUnit.MILLISECONDS.toNanos(4));
+		metrics.recordValidation("xsd", TimeUnit.MILLISECONDS.toNanos(30), false);
+		metrics.getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).hit();
+		metrics.getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).hit();
+		metrics.getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).hit();
+		metrics.getCache(PerformanceMetrics.GRAMMAR_POOL_CACHE).miss();
+
+		// JSON
+		JsonObject json = metrics.toJSON();
+		assertEquals(1, json.getAsJsonObject("request").getAsJsonObject("textDocument/completion").get("count")
+				.getAsLong());
+		assertEquals(10, json.getAsJsonObject("documents").getAsJsonObject("file:///test.xml").get("length")
+				.getAsInt());
+		assertEquals(4, json.getAsJsonObject("documents").getAsJsonObject("file:///test.xml").get("parseTime")
+				.getAsLong());
+		assertEquals(0.75, json.getAsJsonObject("caches").getAsJsonObject("grammarPool").get("hitRate")
+				.getAsDouble());
+
+		// Prometheus
+		String text = metrics.toPrometheus();
+		assertTrue(text.contains("# TYPE lemminx_validation_duration_milliseconds histogram\n"), text);
+		assertTrue(text.contains("lemminx_validation_duration_milliseconds_bucket{name=\"xsd\",le=\"20\"} 0\n"),
+				text);
+		assertTrue(text.contains("lemminx_validation_duration_milliseconds_bucket{name=\"xsd\",le=\"50\"} 1\n"),
+				text);
+		assertTrue(text.contains("lemminx_validation_duration_milliseconds_count{name=\"xsd\"} 1\n"), text);
+		assertTrue(text.contains("lemminx_cache_hits_total{name=\"grammarPool\"} 3\n"), text);
+
+		// File
+		Path file = dir.resolve("metrics/lemminx.prom");
+		metrics.export(file, Format.PROMETHEUS);
+		assertEquals(text, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+		// closed document
+		metrics.removeDocument("file:///test.xml");
+		assertFalse(metrics.toJSON().has("documents"));
+	}
+}
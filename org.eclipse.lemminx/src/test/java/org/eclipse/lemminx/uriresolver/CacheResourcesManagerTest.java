@@ -14,13 +14,27 @@ package org.eclipse.lemminx.uriresolver;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,7 +43,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.ResourceHandler;
+import org.eclipse.jetty.util.resource.PathResource;
 import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.extensions.contentmodel.model.FilesWatcher;
 import org.eclipse.lemminx.utils.ExceptionUtils;
 import org.eclipse.lemminx.utils.FilesUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -193,6 +210,228 @@ public class CacheResourcesManagerTest extends AbstractCacheBasedTest {
 		}
 	}
 
+	@Test
+	public void testFileAvailability() throws Exception {
+		Path file = testWorkDirectory.resolve("resource.xsd");
+		String uri = file.toUri().toString();
+		assertFalse(cacheResourcesManager.isResourceAvailable(uri));
+
+		Files.createDirectories(testWorkDirectory);
+		Files.writeString(file, "<schema />");
+		FilesWatcher.getInstance().invalidate(uri);
+		assertTrue(cacheResourcesManager.isResourceAvailable(uri));
+
+		Files.delete(file);
+		FilesWatcher.getInstance().invalidate(uri);
+		assertFalse(cacheResourcesManager.isResourceAvailable(uri));
+	}
+
+	@Test
+	public void testRemoteAvailability() throws Exception {
+		server = new FileServer();
+		server.start();
+
+		// The remote resource is checked in background, it is unavailable until the
+		// check is done
+		String uri = server.getUri("/dtd/web-app_2_3.dtd");
+		assertFalse(cacheResourcesManager.isResourceAvailable(uri));
+		CompletableFuture<Boolean> check = cacheResourcesManager.getResourceAvailabilityCheck(uri);
+		assertNotNull(check);
+		assertTrue(check.get(2, TimeUnit.SECONDS));
+		assertTrue(cacheResourcesManager.isResourceAvailable(uri));
+		assertNull(cacheResourcesManager.getResourceAvailabilityCheck(uri));
+
+		String badUri = server.getUri("bad/url");
+		assertFalse(cacheResourcesManager.isResourceAvailable(badUri));
+		check = cacheResourcesManager.getResourceAvailabilityCheck(badUri);
+		assertNotNull(check);
+		assertFalse(check.get(2, TimeUnit.SECONDS));
+		assertFalse(cacheResourcesManager.isResourceAvailable(badUri));
+	}
+
+	@Test
+	public void testPrefetchReferences() throws Exception {
+		Path dir = testWorkDirectory.resolve("server");
+		Files.createDirectories(dir.resolve("sub"));
+		Files.writeString(dir.resolve("a.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n" + //
+				"	<xs:import namespace=\"urn:b\" schemaLocation=\"b.xsd\" />\n" + //
+				"	<xs:include schemaLocation=\"sub/c.xsd\" />\n" + //
+				"	<xs:element name=\"a\" />\n" + //
+				"	<xs:include schemaLocation=\"not-declared-first.xsd\" />\n" + //
+				"</xs:schema>");
+		Files.writeString(dir.resolve("b.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" />");
+		Files.writeString(dir.resolve("sub/c.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n" + //
+				"	<xs:include schemaLocation=\"../d.dtd\" />\n" + //
+				"</xs:schema>");
+		Files.writeString(dir.resolve("d.dtd"), "<!-- <!ENTITY % commented SYSTEM \"commented.ent\"> -->\n" + //
+				"<!ENTITY % e PUBLIC \"-//E//ENTITIES E//EN\" 'e.ent'>\n" + //
+				"%e;");
+		Files.writeString(dir.resolve("e.ent"), "<!ELEMENT e EMPTY>");
+		Files.writeString(dir.resolve("a.rng"), "<grammar xmlns=\"http://relaxng.org/ns/structure/1.0\">\n" + //
+				"	<start><externalRef href=\"b.rng\" /></start>\n" + //
+				"</grammar>");
+		Files.writeString(dir.resolve("b.rng"), "<element name=\"b\" xmlns=\"http://relaxng.org/ns/structure/1.0\" />");
+
+		Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+		ResourceHandler resourceHandler = new ResourceHandler();
+		resourceHandler.setBaseResource(new PathResource(dir.toRealPath()));
+		server = new FileServer(new AbstractHandler() {
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException, ServletException {
+				// count the requests, the resource handler serves the file
+				requests.computeIfAbsent(target, k -> new AtomicInteger()).incrementAndGet();
+			}
+		}, resourceHandler);
+		server.start();
+
+		// The imported, included grammars and the DTD entities are downloaded with the
+		// XML Schema
+		waitForResource(server.getUri("/a.xsd"));
+		waitForFile(server.getUri("/b.xsd"));
+		waitForFile(server.getUri("/sub/c.xsd"));
+		waitForFile(server.getUri("/d.dtd"));
+		waitForFile(server.getUri("/e.ent"));
+		// The included grammar is already downloaded
+		assertNotNull(cacheResourcesManager.getResource(server.getUri("/sub/c.xsd")));
+		assertEquals(1, requests.get("/sub/c.xsd").get());
+		assertFalse(requests.containsKey("/not-declared-first.xsd"));
+		assertFalse(requests.containsKey("/commented.ent"));
+
+		waitForResource(server.getUri("/a.rng"));
+		waitForFile(server.getUri("/b.rng"));
+		assertEquals(1, requests.get("/b.rng").get());
+
+		// The prefetch is disabled when the download of external resources is disabled
+		Files.writeString(dir.resolve("a2.xsd"), Files.readString(dir.resolve("a.xsd")).replace("b.xsd", "b2.xsd"));
+		Files.writeString(dir.resolve("b2.xsd"), Files.readString(dir.resolve("b.xsd")));
+		cacheResourcesManager.forceDownloadExternalResource(server.getUri("/a2.xsd"));
+		cacheResourcesManager.setDownloadExternalResources(false);
+		waitForResource(server.getUri("/a2.xsd"));
+		TimeUnit.MILLISECONDS.sleep(200);
+		assertFalse(requests.containsKey("/b2.xsd"));
+	}
+
+	@Test
+	public void testRevalidation() throws Exception {
+		AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+		AtomicReference<String> content = new AtomicReference<>("<root />");
+		AtomicInteger downloads = new AtomicInteger();
+		AtomicInteger notModified = new AtomicInteger();
+		server = new FileServer(new AbstractHandler() {
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException, ServletException {
+				baseRequest.setHandled(true);
+				if (etag.get().equals(request.getHeader("If-None-Match"))) {
+					notModified.incrementAndGet();
+					response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+					return;
+				}
+				downloads.incrementAndGet();
+				response.setHeader("ETag", etag.get());
+				response.getWriter().write(content.get());
+			}
+		});
+		server.start();
+		String uri = server.getUri("/resource.xml");
+
+		Path path = waitForResource(uri);
+		assertEquals("<root />", Files.readString(path));
+		assertEquals(1, downloads.get());
+
+		// The resource has been validated recently
+		cacheResourcesManager.revalidateResource(uri).get(5, TimeUnit.SECONDS);
+		assertEquals(1, downloads.get());
+		assertEquals(0, notModified.get());
+
+		// The resource has not changed
+		cacheResourcesManager.setRevalidationInterval(0);
+		cacheResourcesManager.revalidateResource(uri).get(5, TimeUnit.SECONDS);
+		assertEquals(1, downloads.get());
+		assertEquals(1, notModified.get());
+		assertEquals("<root />", Files.readString(path));
+
+		// The resource has changed
+		etag.set("\"v2\"");
+		content.set("<root changed=\"true\" />");
+		cacheResourcesManager.revalidateResource(uri).get(5, TimeUnit.SECONDS);
+		assertEquals(2, downloads.get());
+		assertEquals(1, notModified.get());
+		assertEquals("<root changed=\"true\" />", Files.readString(path));
+
+		// The cached resource is kept when the server is not available
+		server.stop();
+		assertEquals(path, cacheResourcesManager.revalidateResource(uri).get(5, TimeUnit.SECONDS));
+		assertEquals("<root changed=\"true\" />", Files.readString(path));
+		assertEquals(path, cacheResourcesManager.getResource(uri));
+	}
+
+	@Test
+	public void testConcurrentDownloads() throws Exception {
+		CountDownLatch serverLatch = new CountDownLatch(1);
+		AtomicInteger downloads = new AtomicInteger();
+		server = new FileServer(new AbstractHandler() {
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException, ServletException {
+				baseRequest.setHandled(true);
+				downloads.incrementAndGet();
+				try {
+					serverLatch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				response.getWriter().write("<root />");
+			}
+		});
+		server.start();
+		String uri = server.getUri("/resource.xml");
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<CompletableFuture<Path>>> downloading = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				downloading.add(executor.submit(() -> {
+					try {
+						cacheResourcesManager.getResource(uri);
+						return null;
+					} catch (CacheResourceDownloadingException e) {
+						return e.getFuture();
+					}
+				}));
+			}
+			CompletableFuture<Path> future = downloading.get(0).get(5, TimeUnit.SECONDS);
+			assertNotNull(future);
+			for (Future<CompletableFuture<Path>> other : downloading) {
+				assertSame(future, other.get(5, TimeUnit.SECONDS));
+			}
+			serverLatch.countDown();
+			assertNotNull(future.get(5, TimeUnit.SECONDS));
+			assertEquals(1, downloads.get());
+		} finally {
+			serverLatch.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private Path waitForResource(String uri) throws Exception {
+		try {
+			return cacheResourcesManager.getResource(uri);
+		} catch (CacheResourceDownloadingException e) {
+			return e.getFuture().get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	private static void waitForFile(String uri) throws Exception {
+		Path path = CacheResourcesManager.getResourceCachePath(uri);
+		long end = System.currentTimeMillis() + 5000;
+		while (!Files.exists(path) && System.currentTimeMillis() < end) {
+			TimeUnit.MILLISECONDS.sleep(20);
+		}
+		assertTrue(Files.exists(path), uri + " should be downloaded");
+	}
+
 	private Cache<String, CacheResourceDownloadedException> testingCache() {
 		return CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.SECONDS).maximumSize(1).build();
 	}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.uriresolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the resolved URIs cache of {@link URIResolverExtensionManager}.
+ *
+ */
+public class URIResolverExtensionManagerTest {
+
+	private static class CountingResolver implements URIResolverExtension {
+
+		private final String name;
+
+		private final boolean cacheable;
+
+		private String resolvedURI;
+
+		private int count;
+
+		CountingResolver(String name, boolean cacheable, String resolvedURI) {
+			this.name = name;
+			this.cacheable = cacheable;
+			this.resolvedURI = resolvedURI;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public boolean isResolveCacheable() {
+			return cacheable;
+		}
+
+		@Override
+		public String resolve(String baseLocation, String publicId, String systemId) {
+			count++;
+			return "ns".equals(publicId) ? resolvedURI : null;
+		}
+	}
+
+	@Test
+	public void cacheableResolver() {
+		URIResolverExtensionManager manager = new URIResolverExtensionManager();
+		CountingResolver first = new CountingResolver("first", true, null);
+		CountingResolver second = new CountingResolver("second", true, "file:///second.xsd");
+		manager.registerResolver(first);
+		manager.registerResolver(second);
+
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals("second", manager.resolveInfo("file:///a.xml", "ns", null).getResolverName());
+		assertEquals(1, first.count);
+		assertEquals(1, second.count);
+
+		// resolved by the default resolver
+		assertEquals("file:///b.xsd", manager.resolve("file:///a.xml", null, "b.xsd"));
+		assertEquals("file:///b.xsd", manager.resolve("file:///a.xml", null, "b.xsd"));
+		assertEquals(URIResolverExtension.DEFAULT,
+				manager.resolveInfo("file:///a.xml", null, "b.xsd").getResolverName());
+		assertEquals(2, first.count);
+		assertEquals(2, second.count);
+
+		// settings of the resolver change
+		second.resolvedURI = "file:///second-changed.xsd";
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		manager.clearResolvedURIsCache();
+		assertEquals("file:///second-changed.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals(3, second.count);
+
+		manager.unregisterResolver(second);
+		assertNull(manager.resolve("file:///a.xml", "ns", null));
+	}
+
+	@Test
+	public void notCacheableResolver() {
+		URIResolverExtensionManager manager = new URIResolverExtensionManager();
+		CountingResolver first = new CountingResolver("first", false, null);
+		CountingResolver second = new CountingResolver("second", true, "file:///second.xsd");
+		manager.registerResolver(first);
+		manager.registerResolver(second);
+
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals(2, first.count);
+		assertEquals(1, second.count);
+
+		// the not cacheable resolver is always called first
+		first.resolvedURI = "file:///first.xsd";
+		assertEquals("file:///first.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals("first", manager.resolveInfo("file:///a.xml", "ns", null).getResolverName());
+		first.resolvedURI = null;
+		assertEquals("file:///second.xsd", manager.resolve("file:///a.xml", "ns", null));
+		assertEquals(1, second.count);
+	}
+}
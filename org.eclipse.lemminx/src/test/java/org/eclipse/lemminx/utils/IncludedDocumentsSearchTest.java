@@ -0,0 +1,113 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.lemminx.AbstractCacheBasedTest;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lemminx.utils.IncludedDocumentsSearch.IDocumentSearcher;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IncludedDocumentsSearch}.
+ *
+ */
+public class IncludedDocumentsSearchTest extends AbstractCacheBasedTest {
+
+	@Test
+	public void searchInIncludedDocuments() throws Exception {
+		// a includes b and c, b and c include d, d includes a
+		String uri = createFile("a.xml", "<root name=\"a\"><include href=\"b.xml\"/><include href=\"c.xml\"/></root>");
+		createFile("b.xml", "<root name=\"b\"><include href=\"d.xml\"/><include href=\"unknown.xml\"/></root>");
+		createFile("c.xml", "<root name=\"c\"><include href=\"d.xml\"/></root>");
+		createFile("d.xml", "<root name=\"d\"><include href=\"a.xml\"/></root>");
+		DOMDocument document = DOMUtils.loadDocument(uri, new URIResolverExtensionManager());
+
+		Map<String, Integer> searchCounts = new ConcurrentHashMap<>();
+		IDocumentSearcher<String> searcher = (doc, results, externalLocations, cancelChecker) -> {
+			DOMElement root = doc.getDocumentElement();
+			searchCounts.merge(root.getAttribute("name"), 1, Integer::sum);
+			results.accept(root.getAttribute("name"));
+			if (externalLocations != null) {
+				for (DOMNode include : root.getChildren()) {
+					externalLocations.add(((DOMElement) include).getAttribute("href"));
+				}
+			}
+		};
+
+		for (int i = 0; i < 10; i++) {
+			searchCounts.clear();
+			List<String> results = new ArrayList<>();
+			IncludedDocumentsSearch.search(document, true, searcher, results::add, null);
+			// order of a sequential search
+			assertEquals(Arrays.asList("a", "b", "d", "c"), results);
+			// each document is searched once
+			assertEquals(Arrays.asList(1, 1, 1, 1), new ArrayList<>(searchCounts.values()));
+		}
+
+		// search only in the document
+		List<String> results = new ArrayList<>();
+		IncludedDocumentsSearch.search(document, false, searcher, results::add, null);
+		assertEquals(Collections.singletonList("a"), results);
+	}
+
+	@Test
+	public void cancelSearch() throws Exception {
+		String uri = createFile("a.xml", "<root name=\"a\"><include href=\"b.xml\"/></root>");
+		createFile("b.xml", "<root name=\"b\"/>");
+		DOMDocument document = DOMUtils.loadDocument(uri, new URIResolverExtensionManager());
+
+		AtomicBoolean canceled = new AtomicBoolean();
+		IDocumentSearcher<String> searcher = (doc, results, externalLocations, cancelChecker) -> {
+			DOMElement root = doc.getDocumentElement();
+			results.accept(root.getAttribute("name"));
+			if (externalLocations != null) {
+				for (DOMNode include : root.getChildren()) {
+					externalLocations.add(((DOMElement) include).getAttribute("href"));
+				}
+			}
+			// the search of the included document is canceled
+			canceled.set(true);
+		};
+		List<String> results = new ArrayList<>();
+		assertThrows(CancellationException.class, () -> {
+			IncludedDocumentsSearch.search(document, true, searcher, results::add, () -> {
+				if (canceled.get()) {
+					throw new CancellationException();
+				}
+			});
+		});
+		assertEquals(Collections.singletonList("a"), results);
+	}
+
+	private String createFile(String fileName, String content) throws Exception {
+		Path file = testWorkDirectory.resolve(fileName);
+		Files.writeString(file, content);
+		return file.toUri().toString();
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+* Copyright (c) 2024 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.xpath.matcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.xpath.matcher.XPathMultiMatcher.State;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link XPathMultiMatcher}.
+ *
+ */
+public class XPathMultiMatcherTest {
+
+	private static final String XML = "<foo>\r\n" + //
+			"	<bar attr1=\"value1\" attr2=\"value2\">ABCD</bar>\r\n" + //
+			"	<baz attr1=\"baz-value1\" attr2=\"baz-value2\">EFGH<bar id=\"B\" /></baz>\r\n" + //
+			"	<item type=\"a\"><ref target=\"X\" /></item>\r\n" + //
+			"	<item type=\"b\"><ref target=\"Y\" /></item>\r\n" + //
+			"</foo>";
+
+	private static final List<String> XPATHS = Arrays.asList( //
+			"", //
+			"//@*", //
+			"@attr1", //
+			"//bar/@*", //
+			"/foo/bar/@attr2", //
+			"//baz/@*", //
+			"baz//bar/@id", //
+			"//bar", //
+			"bar/text()", //
+			"//text()", //
+			"foo//", //
+			"item[@type='a']/ref/@target", //
+			"item[@type='$0']/ref/@target", //
+			"foo/*/ref/@target");
+
+	@Test
+	public void sameMatchesThanXPathMatcher() {
+		DOMDocument document = DOMParser.getInstance().parse(XML, "test.xml", null);
+		List<XPathMatcher> matchers = new ArrayList<>();
+		XPathMultiMatcher<String> multiMatcher = new XPathMultiMatcher<>();
+		for (String xpath : XPATHS) {
+			XPathMatcher matcher = new XPathMatcher(xpath);
+			matchers.add(matcher);
+			multiMatcher.add(matcher, xpath);
+		}
+		assertSameMatches(document, multiMatcher.getInitialState(), matchers, multiMatcher);
+	}
+
+	@Test
+	public void firstMatchOrder() {
+		DOMDocument document = DOMParser.getInstance().parse(XML, "test.xml", null);
+		XPathMultiMatcher<String> multiMatcher = new XPathMultiMatcher<>();
+		multiMatcher.add(new XPathMatcher("//baz/@*"), "baz");
+		multiMatcher.add(new XPathMatcher("@attr1"), "attr1");
+		multiMatcher.add(new XPathMatcher("//@*"), "any");
+
+		DOMAttr attr1OfBaz = document.getDocumentElement().getChildren().stream()
+				.filter(n -> "baz".equals(n.getNodeName())).findFirst().get().getAttributeNode("attr1");
+		assertEquals(Arrays.asList("baz", "attr1", "any"), multiMatcher.match(attr1OfBaz));
+		DOMAttr attr2OfBaz = attr1OfBaz.getOwnerElement().getAttributeNode("attr2");
+		assertEquals(Arrays.asList("baz", "any"), multiMatcher.match(attr2OfBaz));
+	}
+
+	private static void assertSameMatches(DOMNode node, State parentState, List<XPathMatcher> matchers,
+			XPathMultiMatcher<String> multiMatcher) {
+		State state = multiMatcher.next(parentState, node);
+		assertEquals(getExpectedMatches(node, matchers), multiMatcher.getMatches(state), node.getNodeName());
+		assertEquals(getExpectedMatches(node, matchers), multiMatcher.match(node), node.getNodeName());
+		if (node.hasAttributes()) {
+			for (DOMAttr attr : node.getAttributeNodes()) {
+				State attrState = multiMatcher.next(state, attr);
+				assertEquals(getExpectedMatches(attr, matchers), multiMatcher.getMatches(attrState),
+						attr.getName());
+			}
+		}
+		for (DOMNode child : node.getChildren()) {
+			assertSameMatches(child, state, matchers, multiMatcher);
+		}
+	}
+
+	private static List<String> getExpectedMatches(DOMNode node, List<XPathMatcher> matchers) {
+		List<String> matches = new ArrayList<>();
+		for (int i = 0; i < matchers.size(); i++) {
+			if (matchers.get(i).match(node)) {
+				matches.add(XPATHS.get(i));
+			}
+		}
+		return matches;
+	}
+}